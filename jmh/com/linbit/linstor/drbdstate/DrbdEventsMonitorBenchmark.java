@@ -0,0 +1,201 @@
+package com.linbit.linstor.drbdstate;
+
+import com.linbit.linstor.testutils.EmptyErrorReporter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of the 'drbdsetup events2' processing during resyncs and connection flaps
+ *
+ * By default, the stream is generated for the configured number of resources, each with two peers:
+ * the initial state of all resources followed by a burst of resync progress, disk state and connection
+ * state changes. A recorded stream can be replayed instead by setting the system property
+ * <code>linstor.events2.file</code> to a capture written by the satellite's --drbd-events-capture option
+ * or to a file that contains the plain lines, where all lines up to and including "exists -" are the
+ * initial state.
+ *
+ * Run with: gradle jmh -PjmhArgs="DrbdEventsMonitorBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DrbdEventsMonitorBenchmark
+{
+    private static final String EVENTS_FILE_PROP = "linstor.events2.file";
+    static final String END_OF_INIT = "exists -";
+
+    @Param({"1000"})
+    public int resourceCount;
+
+    private List<byte[]> initLines;
+    private List<byte[]> changeLines;
+
+    private DrbdEventsMonitor monitor;
+    private DrbdEventLineParser parser;
+
+    @Setup(Level.Trial)
+    public void loadStream() throws IOException
+    {
+        List<byte[]> lines = new ArrayList<>();
+        String eventsFile = System.getProperty(EVENTS_FILE_PROP);
+        if (eventsFile != null)
+        {
+            for (DrbdEventsCapture.CapturedLine capturedLine : DrbdEventsCapture.read(Paths.get(eventsFile)))
+            {
+                lines.add(capturedLine.getData());
+            }
+        }
+        else
+        {
+            for (String line : generateStream(resourceCount))
+            {
+                lines.add(line.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        initLines = new ArrayList<>();
+        changeLines = new ArrayList<>();
+        List<byte[]> target = initLines;
+        for (byte[] line : lines)
+        {
+            target.add(line);
+            if (new String(line, StandardCharsets.UTF_8).trim().equals(END_OF_INIT))
+            {
+                target = changeLines;
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void initState() throws EventsSourceException
+    {
+        monitor = new DrbdEventsMonitor(new DrbdStateTracker(), new NoTraceErrorReporter());
+        for (byte[] line : initLines)
+        {
+            monitor.receiveEvent(line);
+        }
+        parser = new DrbdEventLineParser();
+    }
+
+    /**
+     * Parses the lines and applies them to the DRBD state tracker
+     */
+    @Benchmark
+    public void processEvents() throws EventsSourceException
+    {
+        for (byte[] line : changeLines)
+        {
+            monitor.receiveEvent(line);
+        }
+    }
+
+    /**
+     * Only parses the lines with the byte-level parser
+     */
+    @Benchmark
+    public void parseBytes(Blackhole blackhole) throws EventsSourceException
+    {
+        for (byte[] line : changeLines)
+        {
+            parser.parse(line, 0, line.length);
+            blackhole.consume(parser.getFields().get(DrbdResource.PROP_KEY_RES_NAME));
+        }
+    }
+
+    /**
+     * Parses the lines the way the events monitor did before the byte-level parser, for comparison
+     */
+    @Benchmark
+    public void parseStringTokenizer(Blackhole blackhole)
+    {
+        for (byte[] line : changeLines)
+        {
+            StringTokenizer tokens = new StringTokenizer(new String(line), " ");
+            Map<String, String> props = new TreeMap<>();
+            blackhole.consume(tokens.nextToken());
+            blackhole.consume(tokens.nextToken());
+            while (tokens.hasMoreTokens())
+            {
+                String kvPair = tokens.nextToken();
+                int splitIdx = kvPair.indexOf(':');
+                if (splitIdx != -1)
+                {
+                    props.put(kvPair.substring(0, splitIdx), kvPair.substring(splitIdx + 1));
+                }
+            }
+            blackhole.consume(props.get(DrbdResource.PROP_KEY_RES_NAME));
+        }
+    }
+
+    static List<String> generateStream(int resourceCount)
+    {
+        List<String> lines = new ArrayList<>();
+        for (int rscIdx = 0; rscIdx < resourceCount; ++rscIdx)
+        {
+            String rscName = String.format("rsc_%05d", rscIdx);
+            lines.add("exists resource name:" + rscName + " role:Secondary suspended:no write-ordering:flush");
+            lines.add("exists device name:" + rscName + " volume:0 minor:" + (1000 + rscIdx) +
+                " disk:UpToDate client:no quorum:yes");
+            for (int peerId = 1; peerId <= 2; ++peerId)
+            {
+                String peer = " peer-node-id:" + peerId + " conn-name:node" + peerId;
+                lines.add("exists connection name:" + rscName + peer + " connection:Connected role:Secondary");
+                lines.add("exists peer-device name:" + rscName + peer + " volume:0 replication:Established " +
+                    "peer-disk:UpToDate peer-client:no resync-suspended:no");
+            }
+        }
+        lines.add(END_OF_INIT);
+
+        for (int rscIdx = 0; rscIdx < resourceCount; ++rscIdx)
+        {
+            String rscName = String.format("rsc_%05d", rscIdx);
+            String peer = " peer-node-id:1 conn-name:node1";
+
+            // connection flap
+            lines.add("change connection name:" + rscName + peer + " connection:Connecting role:Unknown");
+            lines.add("change peer-device name:" + rscName + peer + " volume:0 replication:Off peer-disk:DUnknown");
+            lines.add("change connection name:" + rscName + peer + " connection:Connected role:Secondary");
+
+            // resync
+            lines.add("change device name:" + rscName + " volume:0 disk:UpToDate");
+            lines.add("change peer-device name:" + rscName + peer + " volume:0 replication:SyncSource " +
+                "peer-disk:Inconsistent");
+            for (int done = 10; done < 100; done += 10)
+            {
+                lines.add("change peer-device name:" + rscName + peer + " volume:0 replication:SyncSource " +
+                    "peer-disk:Inconsistent done:" + done + ".00");
+            }
+            lines.add("change peer-device name:" + rscName + peer + " volume:0 replication:Established " +
+                "peer-disk:UpToDate");
+        }
+        return lines;
+    }
+
+    static class NoTraceErrorReporter extends EmptyErrorReporter
+    {
+        @Override
+        public boolean isTraceEnabled()
+        {
+            return false;
+        }
+    }
+}
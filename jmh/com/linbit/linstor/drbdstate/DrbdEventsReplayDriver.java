@@ -0,0 +1,343 @@
+package com.linbit.linstor.drbdstate;
+
+import com.linbit.extproc.OutputProxy.Event;
+import com.linbit.linstor.event.EventBroker;
+import com.linbit.linstor.event.EventIdentifier;
+import com.linbit.linstor.event.ObjectIdentifier;
+import com.linbit.linstor.logging.ErrorReporter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a recorded 'drbdsetup events2' stream and reports how fast it is processed
+ *
+ * Two measurements are made:
+ * <ul>
+ *     <li>Parse throughput: the lines are parsed and applied to a DRBD state tracker in a loop,
+ *         without any observers, as fast as possible</li>
+ *     <li>Event latency: the lines are replayed through the {@link DrbdEventService} and the
+ *         {@link DrbdEventPublisher} at the original speed multiplied by the speed factor. For each
+ *         event that the publisher hands to the event broker, the time since the first line of the
+ *         same resource that was not yet published is recorded. This is the time until the event
+ *         is queued for sending to the controller.</li>
+ * </ul>
+ *
+ * Arguments: [capture file | -] [speed factor] [resource count]
+ *
+ * The capture file is a file written by the satellite's --drbd-events-capture option or a file with
+ * the plain events2 lines. With "-" or without arguments, a stream for the given number of resources
+ * is generated as in {@link DrbdEventsMonitorBenchmark}. A speed factor of 0 (the default) replays as
+ * fast as possible.
+ *
+ * Run with: gradle replayDrbdEvents -PreplayArgs="events2.capture 10"
+ */
+public class DrbdEventsReplayDriver
+{
+    private static final int PARSE_ITERATIONS = 10;
+    private static final long REPLAY_TIMEOUT_MS = TimeUnit.HOURS.toMillis(1);
+    private static final long QUIET_PERIOD_MS = 500;
+    private static final long POLL_INTERVAL_MS = 50;
+    private static final int DEFAULT_RESOURCE_COUNT = 1000;
+
+    private static final byte[] NAME_KEY = "name:".getBytes(StandardCharsets.UTF_8);
+
+    private final ErrorReporter errorReporter = new DrbdEventsMonitorBenchmark.NoTraceErrorReporter();
+
+    private final Path captureFile;
+    private final double speed;
+
+    private final Map<String, Long> firstUnpublishedNanos = new HashMap<>();
+    private final List<Long> latencies = new ArrayList<>();
+    private long lastPublishedNanos;
+    private long eventCount;
+
+    public DrbdEventsReplayDriver(Path captureFileRef, double speedRef)
+    {
+        captureFile = captureFileRef;
+        speed = speedRef;
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        String fileArg = args.length > 0 ? args[0] : "-";
+        double speed = args.length > 1 ? Double.parseDouble(args[1]) : 0;
+        int resourceCount = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_RESOURCE_COUNT;
+
+        Path captureFile;
+        if (fileArg.equals("-"))
+        {
+            captureFile = Files.createTempFile("events2-", ".capture");
+            captureFile.toFile().deleteOnExit();
+            Files.write(captureFile, DrbdEventsMonitorBenchmark.generateStream(resourceCount), StandardCharsets.UTF_8);
+        }
+        else
+        {
+            captureFile = Paths.get(fileArg);
+        }
+
+        DrbdEventsReplayDriver driver = new DrbdEventsReplayDriver(captureFile, speed);
+        driver.measureParseThroughput();
+        driver.measureLatency();
+        System.exit(0);
+    }
+
+    private void measureParseThroughput() throws IOException, EventsSourceException
+    {
+        List<DrbdEventsCapture.CapturedLine> lines = DrbdEventsCapture.read(captureFile);
+        long byteCount = 0;
+        for (DrbdEventsCapture.CapturedLine line : lines)
+        {
+            byteCount += line.getData().length + 1;
+        }
+
+        long bestNanos = Long.MAX_VALUE;
+        for (int iteration = 0; iteration < PARSE_ITERATIONS; ++iteration)
+        {
+            DrbdEventsMonitor monitor = new DrbdEventsMonitor(new DrbdStateTracker(), errorReporter);
+            long startNanos = System.nanoTime();
+            for (DrbdEventsCapture.CapturedLine line : lines)
+            {
+                monitor.receiveEvent(line.getData());
+            }
+            bestNanos = Math.min(bestNanos, System.nanoTime() - startNanos);
+        }
+
+        double seconds = bestNanos / 1e9;
+        System.out.printf("Parse throughput (best of %d runs over %d lines):%n", PARSE_ITERATIONS, lines.size());
+        System.out.printf("    %.0f lines/s, %.1f MiB/s%n", lines.size() / seconds, byteCount / seconds / (1 << 20));
+    }
+
+    private void measureLatency() throws Exception
+    {
+        DrbdStateTracker tracker = new DrbdStateTracker();
+        RecordingEventBroker eventBroker = new RecordingEventBroker();
+        List<TimingReplayHandler> handlers = new ArrayList<>();
+        DrbdEventService eventService = new DrbdEventService(
+            errorReporter,
+            tracker,
+            deque ->
+            {
+                TimingReplayHandler handler = new TimingReplayHandler(deque);
+                handlers.add(handler);
+                return handler;
+            },
+            null
+        );
+        DrbdEventPublisher publisher = new DrbdEventPublisher(errorReporter, eventService, eventBroker);
+        TimingReplayHandler replayHandler = handlers.get(0);
+
+        publisher.start();
+        long startNanos = System.nanoTime();
+        eventService.start();
+        if (!replayHandler.awaitCompletion(REPLAY_TIMEOUT_MS))
+        {
+            System.out.println("Replay did not finish within the timeout");
+        }
+        long replayNanos = System.nanoTime() - startNanos;
+        synchronized (this)
+        {
+            // the quiet period starts at the end of the replay at the earliest
+            lastPublishedNanos = Math.max(lastPublishedNanos, startNanos + replayNanos);
+        }
+        awaitQuiet(eventService, publisher);
+
+        eventService.shutdown();
+        publisher.shutdown();
+        eventService.awaitShutdown(REPLAY_TIMEOUT_MS);
+        publisher.awaitShutdown(REPLAY_TIMEOUT_MS);
+
+        CoalescingResourceObserver notifications = publisher.getNotificationQueue();
+        synchronized (this)
+        {
+            Collections.sort(latencies);
+            System.out.printf(
+                "Replay (speed %s) of %d lines: %.3f s%n",
+                speed > 0 ? Double.toString(speed) : "unlimited",
+                replayHandler.getReplayedCount(),
+                replayNanos / 1e9
+            );
+            System.out.printf(
+                "    DRBD event queue peak: %d of %d%n",
+                eventService.getPeakEventQueueSize(),
+                eventService.getEventQueueCapacity()
+            );
+            System.out.printf(
+                "    Notifications: %d queued, %d coalesced, %d dropped, %d delivered, queue peak %d of %d%n",
+                notifications.getQueuedCount(),
+                notifications.getCoalescedCount(),
+                notifications.getDroppedCount(),
+                notifications.getDeliveredCount(),
+                notifications.getPeakQueueSize(),
+                notifications.getCapacity()
+            );
+            System.out.printf(
+                "    Events: %d, resources with unpublished lines: %d%n",
+                eventCount,
+                firstUnpublishedNanos.size()
+            );
+            if (!latencies.isEmpty())
+            {
+                System.out.printf(
+                    "    Latency from line to event broker: p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                    percentileMillis(0.50),
+                    percentileMillis(0.90),
+                    percentileMillis(0.99),
+                    latencies.get(latencies.size() - 1) / 1e6
+                );
+            }
+        }
+    }
+
+    /**
+     * Waits until all lines are processed and no events were published for a while
+     */
+    private void awaitQuiet(DrbdEventService eventService, DrbdEventPublisher publisher)
+        throws InterruptedException
+    {
+        boolean quiet = false;
+        while (!quiet)
+        {
+            Thread.sleep(POLL_INTERVAL_MS);
+            long lastNanos;
+            synchronized (this)
+            {
+                lastNanos = lastPublishedNanos;
+            }
+            quiet = eventService.getEventQueueSize() == 0 &&
+                publisher.getNotificationQueue().getQueueSize() == 0 &&
+                System.nanoTime() - lastNanos > TimeUnit.MILLISECONDS.toNanos(QUIET_PERIOD_MS);
+        }
+    }
+
+    private double percentileMillis(double percentile)
+    {
+        int idx = (int) Math.min(latencies.size() - 1, Math.floor(latencies.size() * percentile));
+        return latencies.get(idx) / 1e6;
+    }
+
+    private synchronized void lineFed(String resourceName, long nowNanos)
+    {
+        firstUnpublishedNanos.putIfAbsent(resourceName, nowNanos);
+    }
+
+    private synchronized void eventPublished(EventIdentifier eventIdentifier)
+    {
+        long nowNanos = System.nanoTime();
+        ++eventCount;
+        lastPublishedNanos = nowNanos;
+        if (eventIdentifier.getResourceName() != null)
+        {
+            Long fedNanos = firstUnpublishedNanos.remove(eventIdentifier.getResourceName().displayValue);
+            if (fedNanos != null)
+            {
+                latencies.add(nowNanos - fedNanos);
+            }
+        }
+    }
+
+    private static String resourceName(byte[] line)
+    {
+        String name = null;
+        int idx = 0;
+        while (name == null && idx + NAME_KEY.length <= line.length)
+        {
+            boolean match = idx == 0 || line[idx - 1] == ' ';
+            for (int keyIdx = 0; match && keyIdx < NAME_KEY.length; ++keyIdx)
+            {
+                match = line[idx + keyIdx] == NAME_KEY[keyIdx];
+            }
+            if (match)
+            {
+                int valueStart = idx + NAME_KEY.length;
+                int valueEnd = valueStart;
+                while (valueEnd < line.length && line[valueEnd] != ' ')
+                {
+                    ++valueEnd;
+                }
+                name = new String(line, valueStart, valueEnd - valueStart, StandardCharsets.UTF_8);
+            }
+            ++idx;
+        }
+        return name;
+    }
+
+    /**
+     * Replays the capture and records when the lines of each resource are fed
+     */
+    private class TimingReplayHandler extends DrbdEventsReplayHandler
+    {
+        TimingReplayHandler(BlockingDeque<Event> dequeRef)
+        {
+            super(dequeRef, captureFile, speed);
+        }
+
+        @Override
+        protected void feed(byte[] data) throws InterruptedException
+        {
+            String name = resourceName(data);
+            if (name != null)
+            {
+                lineFed(name, System.nanoTime());
+            }
+            super.feed(data);
+        }
+    }
+
+    /**
+     * Records the events instead of sending them
+     */
+    private class RecordingEventBroker extends EventBroker
+    {
+        RecordingEventBroker()
+        {
+            super(null, null, errorReporter);
+        }
+
+        @Override
+        public void openEventStream(EventIdentifier eventIdentifier)
+        {
+            eventPublished(eventIdentifier);
+        }
+
+        @Override
+        public void openOrTriggerEvent(EventIdentifier eventIdentifier)
+        {
+            eventPublished(eventIdentifier);
+        }
+
+        @Override
+        public void triggerEvent(EventIdentifier eventIdentifier)
+        {
+            eventPublished(eventIdentifier);
+        }
+
+        @Override
+        public void closeEventStream(EventIdentifier eventIdentifier)
+        {
+            eventPublished(eventIdentifier);
+        }
+
+        @Override
+        public void closeEventStreamEvenIfNotOpen(EventIdentifier eventIdentifier)
+        {
+            eventPublished(eventIdentifier);
+        }
+
+        @Override
+        public void closeAllEventStreams(String eventName, ObjectIdentifier objectIdentifier)
+        {
+            eventPublished(new EventIdentifier(eventName, objectIdentifier));
+        }
+    }
+}
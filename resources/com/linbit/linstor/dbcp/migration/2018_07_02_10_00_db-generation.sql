@@ -0,0 +1,5 @@
+CREATE TABLE DB_GENERATION
+(
+    GENERATION BIGINT NOT NULL
+);
+INSERT INTO DB_GENERATION (GENERATION) VALUES (0);
@@ -0,0 +1,4 @@
+-- The access control list of an object is looked up by the object path. The object protection is looked up
+-- by its primary key. This index contains all columns that are read, so the lookup does not need to read the
+-- table rows.
+CREATE INDEX IDX_SAM_OBJECT_PATH ON SEC_ACL_MAP (OBJECT_PATH, ROLE_NAME, ACCESS_TYPE);
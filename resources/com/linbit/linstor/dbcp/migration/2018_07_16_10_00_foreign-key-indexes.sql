@@ -0,0 +1,14 @@
+-- Indexes for foreign keys whose columns are not a prefix of the primary key.
+-- Deleting or updating a referenced row has to find the referencing rows.
+CREATE INDEX IDX_R_RSC_DFNS ON RESOURCES (RESOURCE_NAME);
+CREATE INDEX IDX_SP_STOR_POOL_DFNS ON NODE_STOR_POOL (POOL_NAME);
+CREATE INDEX IDX_V_VLM_DFNS ON VOLUMES (RESOURCE_NAME, VLM_NR);
+CREATE INDEX IDX_V_STOR_POOL_DFNS ON VOLUMES (STOR_POOL_NAME);
+CREATE INDEX IDX_NC_NODES_DST ON NODE_CONNECTIONS (NODE_NAME_DST);
+CREATE INDEX IDX_RC_RSCS_DST ON RESOURCE_CONNECTIONS (NODE_NAME_DST, RESOURCE_NAME);
+CREATE INDEX IDX_VC_VLMS_DST ON VOLUME_CONNECTIONS (NODE_NAME_DST, RESOURCE_NAME, VLM_NR);
+CREATE INDEX IDX_S_SNAPSHOT_DFN ON SNAPSHOTS (RESOURCE_NAME, SNAPSHOT_NAME);
+CREATE INDEX IDX_SV_SNAPSHOT_VLM_DFNS ON SNAPSHOT_VOLUMES (RESOURCE_NAME, SNAPSHOT_NAME, VLM_NR);
+CREATE INDEX IDX_SV_STOR_POOL_DFNS ON SNAPSHOT_VOLUMES (STOR_POOL_NAME);
+CREATE INDEX IDX_SIRM_SEC_ROLE ON SEC_ID_ROLE_MAP (ROLE_NAME);
+CREATE INDEX IDX_SAM_SEC_ROLES ON SEC_ACL_MAP (ROLE_NAME);
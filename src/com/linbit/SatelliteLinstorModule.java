@@ -13,6 +13,9 @@ public class SatelliteLinstorModule extends AbstractModule
     // Name for worker pool for satellite services operations - DeviceManager, etc.
     public static final String STLT_WORKER_POOL_NAME = "StltWorkerPool";
 
+    // Name for worker pool for the concurrent operations on the volumes of a resource
+    public static final String STLT_VOLUME_WORKER_POOL_NAME = "StltVolumeWorkerPool";
+
     @Override
     protected void configure()
     {
@@ -53,4 +56,16 @@ public class SatelliteLinstorModule extends AbstractModule
             "StltWorkerPool"
         );
     }
+
+    @Provides
+    @Singleton
+    @Named(STLT_VOLUME_WORKER_POOL_NAME)
+    public WorkQueue initializeStltVolumeWorkerThreadPool(ErrorReporter errorLog)
+    {
+        return WorkerPoolInitializer.createDevMgrWorkerThreadPool(
+            errorLog,
+            null,
+            "StltVolumeWorkerPool"
+        );
+    }
 }
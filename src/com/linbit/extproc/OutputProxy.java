@@ -165,6 +165,9 @@ public class OutputProxy implements Runnable
     {
         public byte[] data;
 
+        // System.nanoTime() when the line was received
+        public long receivedNanos;
+
         public StdOutEvent()
         {
         }
@@ -172,6 +175,7 @@ public class OutputProxy implements Runnable
         public StdOutEvent(byte[] dataRef)
         {
             data = dataRef;
+            receivedNanos = System.nanoTime();
         }
     }
 
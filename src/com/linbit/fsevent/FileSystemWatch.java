@@ -23,6 +23,7 @@ import java.nio.file.WatchEvent;
 import java.nio.file.WatchEvent.Kind;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -35,6 +36,7 @@ import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Watches file system paths for changes
@@ -106,6 +108,12 @@ public class FileSystemWatch implements Runnable, SystemService
 
     private final ErrorReporter errorReporter;
 
+    // Statistics for waitFile()
+    private final AtomicLong waitCount;
+    private final AtomicLong waitTimeoutCount;
+    private final AtomicLong waitTimeTotal;
+    private final AtomicLong waitTimeMax;
+
     @Inject
     public FileSystemWatch(ErrorReporter errorReporterRef) throws IOException
     {
@@ -122,6 +130,11 @@ public class FileSystemWatch implements Runnable, SystemService
         watchMap = new TreeMap<>();
         dirMap = new TreeMap<>();
         fileMap = new TreeMap<>();
+
+        waitCount = new AtomicLong();
+        waitTimeoutCount = new AtomicLong();
+        waitTimeTotal = new AtomicLong();
+        waitTimeMax = new AtomicLong();
     }
 
     /**
@@ -151,8 +164,29 @@ public class FileSystemWatch implements Runnable, SystemService
                     Kind<?> eventKind = event.kind();
                     if (eventKind == StandardWatchEventKinds.OVERFLOW)
                     {
-                        // TODO: Read all directories and compare content against
-                        //       the files that are being watched
+                        // Events were lost, e.g. because many devices were created at the same time.
+                        // Re-check all files that are being watched in this directory, so that
+                        // waiting threads do not run into a timeout for an event that did happen.
+                        Path watchedPath = (Path) polledKey.watchable();
+                        synchronized (mapLock)
+                        {
+                            WatchMapEntry wMapEntry = watchMap.get(watchedPath);
+                            if (wMapEntry != null)
+                            {
+                                for (Entry entry : new ArrayList<>(wMapEntry.entries))
+                                {
+                                    if (entry instanceof FileEntry && probeFileEntry((FileEntry) entry))
+                                    {
+                                        fileObs.add((FileEntry) entry);
+                                    }
+                                }
+                            }
+                        }
+                        for (FileEntry watchEntry : fileObs)
+                        {
+                            watchEntry.fObserver.fileEvent(watchEntry);
+                        }
+                        fileObs.clear();
                         // TODO: Notify all directory observers with a placeholder
                         //       DirectoryEntry object to inform those about the
                         //       overflow
@@ -192,6 +226,10 @@ public class FileSystemWatch implements Runnable, SystemService
                                         }
                                     }
                                 }
+                                if (fileEntryList.isEmpty())
+                                {
+                                    fileMap.remove(filePath);
+                                }
                             }
 
                             // Collect all directory observers
@@ -401,9 +439,11 @@ public class FileSystemWatch implements Runnable, SystemService
                 // Add all file entries
                 for (FileEntry entry : entryList)
                 {
-                    addFileEntry(entry);
+                    addFileEntryImpl(entry);
                 }
                 // Check whether files have already been created or deleted
+                // Probing after all entries have been registered closes the window
+                // between the creation of a file and the registration of its watch
                 for (FileEntry entry : entryList)
                 {
                     if (probeFileEntry(entry))
@@ -428,6 +468,129 @@ public class FileSystemWatch implements Runnable, SystemService
         }
     }
 
+    /**
+     * Waits until the event has happened for the file
+     * <p>
+     * After registration, the existence of the file is re-checked, so that an event that happened
+     * before the watch became active is not missed.
+     * <p>
+     * If waiting fails, the entry is removed again.
+     *
+     * @param filePath Path of the file to wait for
+     * @param event The event to wait for
+     * @param timeout Wait timeout in milliseconds
+     * @return The time waited in milliseconds
+     *
+     * @throws IOException If a file system related errors occur
+     * @throws FsWatchTimeoutException If the timeout is exceeded
+     * @throws NegativeTimeException If the timeout is a negative value
+     * @throws ValueOutOfRangeException If the target time, calculated as current time + timeout,
+     *     would overflow Long.MAX_VALUE
+     * @throws InterruptedException If the waiting thread is interrupted
+     */
+    public long waitFile(String filePath, Event event, long timeout)
+        throws IOException, NegativeTimeException, ValueOutOfRangeException,
+        FsWatchTimeoutException, InterruptedException
+    {
+        long startTime = System.currentTimeMillis();
+        FileEntryGroupBuilder groupBuilder = new FileEntryGroupBuilder();
+        groupBuilder.newEntry(filePath, event);
+        FileEntryGroup group = groupBuilder.create(null);
+        List<FileEntry> entryList = group.getEntryList();
+        boolean success = false;
+        try
+        {
+            addFileEntryList(entryList);
+            group.waitGroup(timeout);
+            success = true;
+        }
+        catch (FsWatchTimeoutException timeoutExc)
+        {
+            waitTimeoutCount.incrementAndGet();
+            throw timeoutExc;
+        }
+        finally
+        {
+            if (!success)
+            {
+                for (FileEntry entry : entryList)
+                {
+                    removeFileEntry(entry);
+                }
+            }
+        }
+
+        long waitTime = System.currentTimeMillis() - startTime;
+        waitCount.incrementAndGet();
+        waitTimeTotal.addAndGet(waitTime);
+        long prevMax = waitTimeMax.get();
+        while (waitTime > prevMax && !waitTimeMax.compareAndSet(prevMax, waitTime))
+        {
+            prevMax = waitTimeMax.get();
+        }
+        errorReporter.logTrace(
+            "File system watch: %s event of '%s' after %d ms",
+            event,
+            filePath,
+            waitTime
+        );
+        return waitTime;
+    }
+
+    /**
+     * @return Number of completed waitFile() calls
+     */
+    public long getWaitCount()
+    {
+        return waitCount.get();
+    }
+
+    /**
+     * @return Number of waitFile() calls that timed out
+     */
+    public long getWaitTimeoutCount()
+    {
+        return waitTimeoutCount.get();
+    }
+
+    /**
+     * @return Sum of the wait times of all completed waitFile() calls in milliseconds
+     */
+    public long getWaitTimeTotal()
+    {
+        return waitTimeTotal.get();
+    }
+
+    /**
+     * @return Longest wait time of any completed waitFile() call in milliseconds
+     */
+    public long getWaitTimeMax()
+    {
+        return waitTimeMax.get();
+    }
+
+    /**
+     * @return Number of directories that currently have an active watch
+     */
+    public int getWatchedDirectoryCount()
+    {
+        synchronized (mapLock)
+        {
+            return watchMap.size();
+        }
+    }
+
+    /**
+     * @return Number of files that currently have at least one registered FileEntry
+     */
+    public int getWatchedFileCount()
+    {
+        synchronized (mapLock)
+        {
+            return fileMap.size();
+        }
+    }
+
     private void addFileEntryImpl(FileEntry watchEntry) throws IOException
     {
         Path filePath = watchEntry.watchFile;
@@ -51,9 +51,16 @@ public class InternalApiConsts
 
     public static final String API_CRYPT_KEY = "cryptKey";
 
+    // Multiple events in one message, each prefixed with its length
+    public static final String API_EVENT_BATCH = "EventBatch";
+    // Sent by a client that wants to receive its events in EventBatch messages
+    public static final String API_ENABLE_EVENT_BATCH = "EnableEventBatch";
+
     public static final long API_AUTH_ERROR_HOST_MISMATCH = 1;
 
     public static final String EVENT_IN_PROGRESS_SNAPSHOT = "InProgressSnapshot";
+    public static final String EVENT_VOLUME_IO_STATS      = "VolumeIoStats";
+    public static final String EVENT_DRBD_VOLUME_STATS    = "DrbdVolumeStats";
 
     public static final String PROP_PRIMARY_SET     = "DrbdPrimarySetOn";
 
@@ -183,7 +183,8 @@ public class StorPoolData extends BaseTransactionObject implements StorPool
         throws StorageException
     {
         checkDeleted();
-        if (storageDriverRef.getKind().hasBackingStorage())
+        // Drivers without backing storage may still be configurable, e.g. the InMemoryDriver
+        if (!storageDriverRef.getKind().getConfigurationKeys().isEmpty())
         {
             Optional<Props> namespace = props.getNamespace(NAMESPC_STORAGE_DRIVER);
             Map<String, String> map = namespace.map(Props::map).orElse(Collections.emptyMap());
@@ -1,6 +1,8 @@
 package com.linbit.linstor.api;
 
 import com.linbit.linstor.api.interfaces.serializer.CommonSerializer.CommonSerializerBuilder;
+import com.linbit.linstor.core.DrbdVolumeStats;
+import com.linbit.linstor.core.VolumeIoStats;
 import com.linbit.linstor.event.EventIdentifier;
 import com.linbit.linstor.event.generator.ResourceStateGenerator;
 import com.linbit.linstor.logging.ErrorReport;
@@ -9,6 +11,7 @@ import com.linbit.linstor.logging.ErrorReporter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -94,6 +97,21 @@ public class CommonSerializerBuilderImpl implements CommonSerializerBuilder
         return this;
     }
 
+    @Override
+    public CommonSerializerBuilder eventBatch(List<byte[]> events)
+    {
+        try
+        {
+            commonSerializationWriter.writeEventBatch(events, baos);
+        }
+        catch (IOException ioExc)
+        {
+            errorReporter.reportError(ioExc);
+            exceptionOccured = true;
+        }
+        return this;
+    }
+
     @Override
     public CommonSerializerBuilder volumeDiskState(String diskState)
     {
@@ -109,6 +127,36 @@ public class CommonSerializerBuilderImpl implements CommonSerializerBuilder
         return this;
     }
 
+    @Override
+    public CommonSerializerBuilder volumeIoStats(VolumeIoStats ioStats)
+    {
+        try
+        {
+            commonSerializationWriter.writeVolumeIoStats(ioStats, baos);
+        }
+        catch (IOException ioExc)
+        {
+            errorReporter.reportError(ioExc);
+            exceptionOccured = true;
+        }
+        return this;
+    }
+
+    @Override
+    public CommonSerializerBuilder drbdVolumeStats(DrbdVolumeStats drbdStats)
+    {
+        try
+        {
+            commonSerializationWriter.writeDrbdVolumeStats(drbdStats, baos);
+        }
+        catch (IOException ioExc)
+        {
+            errorReporter.reportError(ioExc);
+            exceptionOccured = true;
+        }
+        return this;
+    }
+
     @Override
     public CommonSerializerBuilder resourceStateEvent(ResourceStateGenerator.UsageState usageState)
     {
@@ -206,9 +254,18 @@ public class CommonSerializerBuilderImpl implements CommonSerializerBuilder
         )
         throws IOException;
 
+        void writeEventBatch(List<byte[]> events, ByteArrayOutputStream baos)
+            throws IOException;
+
         void writeVolumeDiskState(String diskState, ByteArrayOutputStream baos)
             throws IOException;
 
+        void writeVolumeIoStats(VolumeIoStats ioStats, ByteArrayOutputStream baos)
+            throws IOException;
+
+        void writeDrbdVolumeStats(DrbdVolumeStats drbdStats, ByteArrayOutputStream baos)
+            throws IOException;
+
         void writeResourceStateEvent(ResourceStateGenerator.UsageState usageState, ByteArrayOutputStream baos)
             throws IOException;
 
@@ -1,10 +1,13 @@
 package com.linbit.linstor.api.interfaces.serializer;
 
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import com.linbit.linstor.api.ApiCallRc;
+import com.linbit.linstor.core.DrbdVolumeStats;
+import com.linbit.linstor.core.VolumeIoStats;
 import com.linbit.linstor.event.EventIdentifier;
 import com.linbit.linstor.event.generator.ResourceStateGenerator;
 import com.linbit.linstor.logging.ErrorReport;
@@ -30,8 +33,17 @@ public interface CommonSerializer
             String eventStreamAction
         );
 
+        /**
+         * Appends events that were each serialized with {@link #event} followed by the event data
+         */
+        CommonSerializerBuilder eventBatch(List<byte[]> events);
+
         CommonSerializerBuilder volumeDiskState(String diskState);
 
+        CommonSerializerBuilder volumeIoStats(VolumeIoStats ioStats);
+
+        CommonSerializerBuilder drbdVolumeStats(DrbdVolumeStats drbdStats);
+
         CommonSerializerBuilder resourceStateEvent(ResourceStateGenerator.UsageState usageState);
 
         CommonSerializerBuilder resourceDeploymentStateEvent(ApiCallRc apiCallRc);
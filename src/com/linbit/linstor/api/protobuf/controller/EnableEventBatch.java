@@ -0,0 +1,41 @@
+package com.linbit.linstor.api.protobuf.controller;
+
+import com.linbit.linstor.InternalApiConsts;
+import com.linbit.linstor.api.ApiCall;
+import com.linbit.linstor.api.ApiCallRc;
+import com.linbit.linstor.api.protobuf.ApiCallAnswerer;
+import com.linbit.linstor.api.protobuf.ProtobufApiCall;
+import com.linbit.linstor.core.CtrlApiCallHandler;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+
+@ProtobufApiCall(
+    name = InternalApiConsts.API_ENABLE_EVENT_BATCH,
+    description = "Sends the following events for the peer in batches"
+)
+public class EnableEventBatch implements ApiCall
+{
+    private final ApiCallAnswerer apiCallAnswerer;
+    private final CtrlApiCallHandler ctrlApiCallHandler;
+
+    @Inject
+    public EnableEventBatch(
+        ApiCallAnswerer apiCallAnswererRef,
+        CtrlApiCallHandler ctrlApiCallHandlerRef
+    )
+    {
+        apiCallAnswerer = apiCallAnswererRef;
+        ctrlApiCallHandler = ctrlApiCallHandlerRef;
+    }
+
+    @Override
+    public void execute(InputStream msgDataIn)
+        throws IOException
+    {
+        ApiCallRc apiCallRc = ctrlApiCallHandler.enableEventBatch();
+
+        apiCallAnswerer.answerApiCallRc(apiCallRc);
+    }
+}
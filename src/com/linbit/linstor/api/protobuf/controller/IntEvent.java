@@ -33,6 +33,15 @@ public class IntEvent implements ApiCall
     @Override
     public void execute(InputStream msgDataIn)
         throws IOException
+    {
+        handleEvent(eventProcessor, peer, msgDataIn);
+    }
+
+    /**
+     * Parses the event header and passes the event to the event processor, which reads the event data
+     */
+    static void handleEvent(EventProcessor eventProcessor, Peer peer, InputStream msgDataIn)
+        throws IOException
     {
         MsgEventOuterClass.MsgEvent msgEvent = MsgEventOuterClass.MsgEvent.parseDelimitedFrom(msgDataIn);
 
@@ -0,0 +1,52 @@
+package com.linbit.linstor.api.protobuf.controller;
+
+import com.google.protobuf.CodedInputStream;
+import com.linbit.linstor.InternalApiConsts;
+import com.linbit.linstor.api.ApiCall;
+import com.linbit.linstor.api.protobuf.ProtobufApiCall;
+import com.linbit.linstor.event.EventProcessor;
+import com.linbit.linstor.netcom.Peer;
+
+import javax.inject.Inject;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+@ProtobufApiCall(
+    name = InternalApiConsts.API_EVENT_BATCH,
+    description = "Handles multiple events"
+)
+public class IntEventBatch implements ApiCall
+{
+    private final EventProcessor eventProcessor;
+    private final Peer peer;
+
+    @Inject
+    public IntEventBatch(
+        EventProcessor eventProcessorRef,
+        Peer peerRef
+    )
+    {
+        eventProcessor = eventProcessorRef;
+        peer = peerRef;
+    }
+
+    @Override
+    public void execute(InputStream msgDataIn)
+        throws IOException
+    {
+        DataInputStream dataIn = new DataInputStream(msgDataIn);
+        int firstByte = dataIn.read();
+        while (firstByte != -1)
+        {
+            // Each event is prefixed with its length, so that the event handlers cannot read past its end
+            byte[] event = new byte[CodedInputStream.readRawVarint32(firstByte, dataIn)];
+            dataIn.readFully(event);
+
+            IntEvent.handleEvent(eventProcessor, peer, new ByteArrayInputStream(event));
+
+            firstByte = dataIn.read();
+        }
+    }
+}
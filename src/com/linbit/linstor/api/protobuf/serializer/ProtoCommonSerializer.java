@@ -1,14 +1,18 @@
 package com.linbit.linstor.api.protobuf.serializer;
 
+import com.google.protobuf.CodedOutputStream;
 import com.linbit.linstor.annotation.ApiContext;
 import com.linbit.linstor.api.ApiCallRc;
 import com.linbit.linstor.api.CommonSerializerBuilderImpl;
 import com.linbit.linstor.api.interfaces.serializer.CommonSerializer;
 import com.linbit.linstor.api.protobuf.ProtoMapUtils;
+import com.linbit.linstor.core.DrbdVolumeStats;
+import com.linbit.linstor.core.VolumeIoStats;
 import com.linbit.linstor.event.EventIdentifier;
 import com.linbit.linstor.event.generator.ResourceStateGenerator;
 import com.linbit.linstor.logging.ErrorReport;
 import com.linbit.linstor.logging.ErrorReporter;
+import com.linbit.linstor.proto.LinStorMapEntryOuterClass;
 import com.linbit.linstor.proto.MsgApiCallResponseOuterClass;
 import com.linbit.linstor.proto.MsgErrorReportOuterClass;
 import com.linbit.linstor.proto.MsgEventOuterClass;
@@ -130,6 +134,20 @@ public class ProtoCommonSerializer implements CommonSerializer, CommonSerializer
         eventBuilder.build().writeDelimitedTo(baos);
     }
 
+    @Override
+    public void writeEventBatch(List<byte[]> events, ByteArrayOutputStream baos)
+        throws IOException
+    {
+        // Each event is prefixed with its length, like a delimited message
+        CodedOutputStream codedOut = CodedOutputStream.newInstance(baos);
+        for (byte[] event : events)
+        {
+            codedOut.writeUInt32NoTag(event.length);
+            codedOut.writeRawBytes(event);
+        }
+        codedOut.flush();
+    }
+
     @Override
     public void writeVolumeDiskState(String diskState, ByteArrayOutputStream baos)
         throws IOException
@@ -140,6 +158,27 @@ public class ProtoCommonSerializer implements CommonSerializer, CommonSerializer
             .writeDelimitedTo(baos);
     }
 
+    @Override
+    public void writeVolumeIoStats(VolumeIoStats ioStats, ByteArrayOutputStream baos)
+        throws IOException
+    {
+        // There is no dedicated message for the statistics, they are sent as delimited key/value entries
+        for (LinStorMapEntryOuterClass.LinStorMapEntry entry : ProtoMapUtils.fromMap(ioStats.toMap()))
+        {
+            entry.writeDelimitedTo(baos);
+        }
+    }
+
+    @Override
+    public void writeDrbdVolumeStats(DrbdVolumeStats drbdStats, ByteArrayOutputStream baos)
+        throws IOException
+    {
+        for (LinStorMapEntryOuterClass.LinStorMapEntry entry : ProtoMapUtils.fromMap(drbdStats.toMap()))
+        {
+            entry.writeDelimitedTo(baos);
+        }
+    }
+
     @Override
     public void writeResourceStateEvent(ResourceStateGenerator.UsageState usageState, ByteArrayOutputStream baos)
         throws IOException
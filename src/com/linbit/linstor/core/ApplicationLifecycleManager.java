@@ -13,7 +13,9 @@ import com.linbit.linstor.security.ObjectProtection;
 import com.linbit.linstor.security.Privilege;
 import com.linbit.linstor.security.SecurityModule;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import javax.inject.Inject;
@@ -38,6 +40,8 @@ public class ApplicationLifecycleManager
     private final ReadWriteLock reconfigurationLock;
     private final Map<ServiceName, SystemService> systemServicesMap;
 
+    private final List<Runnable> shutdownActions;
+
     private boolean shutdownFinished;
     private WorkerPool workerThrPool;
 
@@ -55,10 +59,20 @@ public class ApplicationLifecycleManager
         shutdownProt = shutdownProtRef;
         reconfigurationLock = reconfigurationLockRef;
         systemServicesMap = systemServicesMapRef;
+        shutdownActions = new CopyOnWriteArrayList<>();
 
         shutdownFinished = false;
     }
 
+    /**
+     * Registers an action that runs at shutdown while the reconfiguration lock is held in write mode,
+     * before the system services are stopped
+     */
+    public void addShutdownAction(Runnable action)
+    {
+        shutdownActions.add(action);
+    }
+
     public void installShutdownHook()
     {
         AccessContext shutdownCtx = sysCtx.clone();
@@ -174,6 +188,18 @@ public class ApplicationLifecycleManager
         {
             reconfigurationLock.writeLock().lock();
 
+            for (Runnable action : shutdownActions)
+            {
+                try
+                {
+                    action.run();
+                }
+                catch (Throwable error)
+                {
+                    errorReporter.reportError(Level.ERROR, error);
+                }
+            }
+
             // Shutdown service threads
             stopSystemServices(systemServicesMap.values());
 
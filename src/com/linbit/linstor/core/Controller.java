@@ -24,6 +24,7 @@ import com.linbit.linstor.api.protobuf.ProtobufApiType;
 import com.linbit.linstor.dbcp.DbConnectionPool;
 import com.linbit.linstor.dbcp.DbConnectionPoolModule;
 import com.linbit.linstor.dbdrivers.ControllerDbModule;
+import com.linbit.linstor.dbdrivers.StartupSnapshotManager;
 import com.linbit.linstor.debug.ControllerDebugModule;
 import com.linbit.linstor.debug.DebugConsole;
 import com.linbit.linstor.debug.DebugConsoleCreator;
@@ -114,6 +115,7 @@ public final class Controller
     private final PingTask pingTask;
     private final ReconnectorTask reconnectorTask;
     private final ErrorReportTimeOutTask errorReportTimeOutTask;
+    private final StartupSnapshotManager startupSnapshotMgr;
 
     private final DebugConsoleCreator debugConsoleCreator;
     private final SatelliteConnector satelliteConnector;
@@ -133,6 +135,7 @@ public final class Controller
         TaskScheduleService taskScheduleServiceRef, PingTask pingTaskRef,
         ReconnectorTask reconnectorTaskRef,
         ErrorReportTimeOutTask errorReportTimeOutTaskRef,
+        StartupSnapshotManager startupSnapshotMgrRef,
         DebugConsoleCreator debugConsoleCreatorRef,
         SatelliteConnector satelliteConnectorRef,
         ControllerNetComInitializer controllerNetComInitializerRef
@@ -151,6 +154,7 @@ public final class Controller
         pingTask = pingTaskRef;
         reconnectorTask = reconnectorTaskRef;
         errorReportTimeOutTask = errorReportTimeOutTaskRef;
+        startupSnapshotMgr = startupSnapshotMgrRef;
         debugConsoleCreator = debugConsoleCreatorRef;
         satelliteConnector = satelliteConnectorRef;
         controllerNetComInitializer = controllerNetComInitializerRef;
@@ -177,6 +181,15 @@ public final class Controller
             taskScheduleService.addTask(errorReportTimeOutTask);
             taskScheduleService.addTask(new GarbageCollectorTask());
 
+            if (startupSnapshotMgr.isEnabled())
+            {
+                if (dbConnPool.getSnapshotGeneration().getSnapshotIntervalMillis() > 0)
+                {
+                    taskScheduleService.addTask(startupSnapshotMgr);
+                }
+                applicationLifecycleManager.addShutdownAction(startupSnapshotMgr::writeSnapshot);
+            }
+
             controllerNetComInitializer.initNetComServices(
                 ctrlConf.getNamespace(PROPSCON_KEY_NETCOM).orElse(null),
                 errorReporter,
@@ -1542,6 +1542,11 @@ public class CtrlApiCallHandler
         );
     }
 
+    public ApiCallRc enableEventBatch()
+    {
+        return watchApiCallHandler.enableEventBatch();
+    }
+
     public void updateVolumeData(Peer satellitePeer, String resourceName, List<VlmUpdatePojo> vlmUpdates)
     {
         try (LockSupport ls = LockSupport.lock(nodesMapLock.readLock(), rscDfnMapLock.writeLock()))
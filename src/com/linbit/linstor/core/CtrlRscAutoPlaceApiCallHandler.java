@@ -14,6 +14,7 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -572,6 +573,12 @@ public class CtrlRscAutoPlaceApiCallHandler extends AbsApiCallHandler
                 nodeA.getStorPool(peerAccCtx, storPoolName).getFreeSpace(peerAccCtx).orElse(0L),
                 nodeB.getStorPool(peerAccCtx, storPoolName).getFreeSpace(peerAccCtx).orElse(0L)
             );
+            if (cmp == 0)
+            {
+                // prefer the node with less I/O load, as reported by the satellites' volume I/O statistics
+                // compare(nodeB, nodeA) so that the node with fewer IOPS is the greater one and gets selected
+                cmp = Double.compare(getTotalIops(nodeB), getTotalIops(nodeA));
+            }
         }
         catch (AccessDeniedException exc)
         {
@@ -580,6 +587,27 @@ public class CtrlRscAutoPlaceApiCallHandler extends AbsApiCallHandler
         return cmp;
     }
 
+    private double getTotalIops(Node node)
+        throws AccessDeniedException
+    {
+        double iops = 0;
+        Peer nodePeer = node.getPeer(apiCtx);
+        if (nodePeer != null)
+        {
+            Lock readLock = nodePeer.getSatelliteStateLock().readLock();
+            readLock.lock();
+            try
+            {
+                iops = nodePeer.getSatelliteState().getTotalIoStats().getTotalIops();
+            }
+            finally
+            {
+                readLock.unlock();
+            }
+        }
+        return iops;
+    }
+
     private Map<StorPoolName, List<Node>> filterByRscNameStr(
         Map<StorPoolName, List<StorPool>> storPools,
         List<String> notPlaceWithRscList
@@ -11,6 +11,7 @@ import com.linbit.linstor.api.ApiCallRc;
 import com.linbit.linstor.api.ApiCallRcImpl;
 import com.linbit.linstor.api.ApiConsts;
 import com.linbit.linstor.event.EventIdentifier;
+import com.linbit.linstor.event.EventBatcher;
 import com.linbit.linstor.event.EventBroker;
 import com.linbit.linstor.event.ObjectIdentifier;
 import com.linbit.linstor.event.Watch;
@@ -32,6 +33,7 @@ public class CtrlWatchApiCallHandler
     private final AccessContext accCtx;
     private final Peer peer;
     private final EventBroker eventBroker;
+    private final EventBatcher eventBatcher;
     private final ObjectProtection nodesMapProt;
     private final ObjectProtection rscDfnMapProt;
 
@@ -41,6 +43,7 @@ public class CtrlWatchApiCallHandler
         @PeerContext AccessContext accCtxRef,
         Peer peerRef,
         EventBroker eventBrokerRef,
+        EventBatcher eventBatcherRef,
         @Named(ControllerSecurityModule.NODES_MAP_PROT) ObjectProtection nodesMapProtRef,
         @Named(ControllerSecurityModule.RSC_DFN_MAP_PROT) ObjectProtection rscDfnMapProtRef
     )
@@ -49,6 +52,7 @@ public class CtrlWatchApiCallHandler
         accCtx = accCtxRef;
         peer = peerRef;
         eventBroker = eventBrokerRef;
+        eventBatcher = eventBatcherRef;
         nodesMapProt = nodesMapProtRef;
         rscDfnMapProt = rscDfnMapProtRef;
     }
@@ -189,4 +193,24 @@ public class CtrlWatchApiCallHandler
 
         return apiCallRc;
     }
+
+    public ApiCallRc enableEventBatch()
+    {
+        ApiCallRcImpl apiCallRc = new ApiCallRcImpl();
+
+        if (eventBatcher.enableForPeer(peer))
+        {
+            errorReporter.logDebug("Enabled event batching for peer %s", peer.getId());
+            apiCallRc.addEntry("Event batching enabled", ApiConsts.MASK_MOD | ApiConsts.MODIFIED);
+        }
+        else
+        {
+            apiCallRc.addEntry(
+                "Event batching is disabled on the controller, events are sent singly",
+                ApiConsts.MASK_MOD | ApiConsts.MASK_WARN
+            );
+        }
+
+        return apiCallRc;
+    }
 }
@@ -0,0 +1,174 @@
+package com.linbit.linstor.core;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parses the output of a single, batched <code>dmstats report</code> over all regions and
+ * computes per-interval statistics from two consecutive reports.
+ *
+ * The counters reported by dmstats are cumulative since the creation of the region, so the
+ * statistics of an interval are the difference between two reports divided by the elapsed time.
+ */
+public class DmStatsReport
+{
+    // DO NOT USE "," or "." AS DELIMITER due to localization issues
+    public static final String DELIMITER = ";";
+
+    public static final String FIELDS =
+        "name,region_id,reads,read_sectors,read_nsecs,writes,write_sectors,write_nsecs";
+
+    private static final int FIELD_COUNT = 8;
+
+    private static final int SECTOR_SIZE = 512;
+    private static final double NANOS_PER_SEC = 1_000_000_000.0;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    public static String[] getReportCommand()
+    {
+        return new String[]
+        {
+            "dmstats", "report",
+            "--noheadings",
+            "--separator", DELIMITER,
+            "-o", FIELDS
+        };
+    }
+
+    /**
+     * Parses the report into the counters of each device, keyed by the device mapper name.
+     *
+     * If a device has several regions, only the region with the lowest region id is considered,
+     * which is the region that covers the whole device when it was created by LinStor.
+     * Malformed lines are skipped.
+     */
+    public static Map<String, Counters> parse(String stdOut)
+    {
+        Map<String, Counters> countersByDevice = new HashMap<>();
+        Map<String, Long> regionByDevice = new HashMap<>();
+        for (String line : stdOut.split("\n"))
+        {
+            String[] fields = line.trim().split(DELIMITER);
+            if (fields.length == FIELD_COUNT)
+            {
+                try
+                {
+                    String dmName = fields[0].trim();
+                    long regionId = Long.parseLong(fields[1].trim());
+                    Long knownRegion = regionByDevice.get(dmName);
+                    if (knownRegion == null || regionId < knownRegion)
+                    {
+                        countersByDevice.put(
+                            dmName,
+                            new Counters(
+                                Long.parseLong(fields[2].trim()),
+                                Long.parseLong(fields[3].trim()),
+                                Long.parseLong(fields[4].trim()),
+                                Long.parseLong(fields[5].trim()),
+                                Long.parseLong(fields[6].trim()),
+                                Long.parseLong(fields[7].trim())
+                            )
+                        );
+                        regionByDevice.put(dmName, regionId);
+                    }
+                }
+                catch (NumberFormatException ignored)
+                {
+                    // not a report line, e.g. a warning
+                }
+            }
+        }
+        return countersByDevice;
+    }
+
+    /**
+     * Cumulative counters of a dmstats region
+     */
+    public static class Counters
+    {
+        private final long reads;
+        private final long readSectors;
+        private final long readNanos;
+        private final long writes;
+        private final long writeSectors;
+        private final long writeNanos;
+
+        public Counters(
+            long readsRef,
+            long readSectorsRef,
+            long readNanosRef,
+            long writesRef,
+            long writeSectorsRef,
+            long writeNanosRef
+        )
+        {
+            reads = readsRef;
+            readSectors = readSectorsRef;
+            readNanos = readNanosRef;
+            writes = writesRef;
+            writeSectors = writeSectorsRef;
+            writeNanos = writeNanosRef;
+        }
+
+        /**
+         * Computes the statistics of the interval between the previous and these counters.
+         *
+         * @return the statistics or null if the counters went backwards (the region was recreated)
+         *     or no time has elapsed
+         */
+        public VolumeIoStats statsSince(Counters prev, long elapsedNanos)
+        {
+            VolumeIoStats stats = null;
+            long deltaReads = reads - prev.reads;
+            long deltaReadSectors = readSectors - prev.readSectors;
+            long deltaReadNanos = readNanos - prev.readNanos;
+            long deltaWrites = writes - prev.writes;
+            long deltaWriteSectors = writeSectors - prev.writeSectors;
+            long deltaWriteNanos = writeNanos - prev.writeNanos;
+            if (elapsedNanos > 0 &&
+                deltaReads >= 0 && deltaReadSectors >= 0 && deltaReadNanos >= 0 &&
+                deltaWrites >= 0 && deltaWriteSectors >= 0 && deltaWriteNanos >= 0)
+            {
+                double secs = elapsedNanos / NANOS_PER_SEC;
+                stats = new VolumeIoStats(
+                    deltaReads / secs,
+                    deltaWrites / secs,
+                    deltaReadSectors * SECTOR_SIZE / 1024.0 / secs,
+                    deltaWriteSectors * SECTOR_SIZE / 1024.0 / secs,
+                    deltaReads > 0 ? deltaReadNanos / NANOS_PER_MILLI / deltaReads : 0,
+                    deltaWrites > 0 ? deltaWriteNanos / NANOS_PER_MILLI / deltaWrites : 0
+                );
+            }
+            return stats;
+        }
+    }
+
+    /**
+     * Determines the device mapper name of a block device path from the naming conventions of
+     * LVM (<code>/dev/&lt;vg&gt;/&lt;lv&gt;</code>, dashes in names are doubled) and of devices
+     * in <code>/dev/mapper</code>.
+     *
+     * @return the device mapper name or null if the path does not follow one of these conventions
+     */
+    public static String guessDmName(String devPath)
+    {
+        String dmName = null;
+        String[] parts = devPath.split("/");
+        if (parts.length == 4 && parts[0].isEmpty() && parts[1].equals("dev"))
+        {
+            if (parts[2].equals("mapper"))
+            {
+                dmName = parts[3];
+            }
+            else
+            {
+                dmName = parts[2].replace("-", "--") + "-" + parts[3].replace("-", "--");
+            }
+        }
+        return dmName;
+    }
+
+    private DmStatsReport()
+    {
+    }
+}
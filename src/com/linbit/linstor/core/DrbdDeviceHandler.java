@@ -3,7 +3,9 @@ package com.linbit.linstor.core;
 import com.linbit.AsyncOps;
 import com.linbit.ImplementationError;
 import com.linbit.InvalidNameException;
+import com.linbit.SatelliteLinstorModule;
 import com.linbit.TimeoutException;
+import com.linbit.WorkQueue;
 import com.linbit.drbd.DrbdAdm;
 import com.linbit.drbd.md.MdException;
 import com.linbit.drbd.md.MetaData;
@@ -50,6 +52,7 @@ import com.linbit.linstor.propscon.InvalidKeyException;
 import com.linbit.linstor.propscon.Props;
 import com.linbit.linstor.security.AccessContext;
 import com.linbit.linstor.security.AccessDeniedException;
+import com.linbit.linstor.storage.StorageConstants;
 import com.linbit.linstor.storage.StorageDriver;
 import com.linbit.linstor.storage.StorageException;
 import java.io.File;
@@ -62,12 +65,14 @@ import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -78,6 +83,7 @@ import com.linbit.utils.StringUtils;
 import org.slf4j.event.Level;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
@@ -107,6 +113,9 @@ class DrbdDeviceHandler implements DeviceHandler
     private final WhitelistProps whitelistProps;
     private final DeploymentStateTracker deploymentStateTracker;
     private final EventBroker eventBroker;
+    private final WorkQueue volumeWorkQueue;
+    private final DrbdMetaDataCache drbdMdCache;
+    private final VolumeIoStatsService vlmIoStatsSvc;
 
     // Number of activity log stripes for DRBD meta data; this should be replaced with a property of the
     // resource definition, a property of the volume definition, or otherwise a system-wide default
@@ -118,6 +127,10 @@ class DrbdDeviceHandler implements DeviceHandler
 
     // DRBD configuration file suffix; this should be replaced by a meaningful constant
     private static final String DRBD_CONFIG_SUFFIX = ".res";
+
+    // Default number of concurrent volume operations per storage pool within a resource
+    private static final int DFLT_PARALLEL_VOLUME_OPS = 4;
+
     private StltConfigAccessor stltCfgAccessor;
 
     @Inject
@@ -136,7 +149,10 @@ class DrbdDeviceHandler implements DeviceHandler
         WhitelistProps whitelistPropsRef,
         DeploymentStateTracker deploymentStateTrackerRef,
         EventBroker eventBrokerRef,
-        StltConfigAccessor stltCfgAccessorRef
+        StltConfigAccessor stltCfgAccessorRef,
+        @Named(SatelliteLinstorModule.STLT_VOLUME_WORKER_POOL_NAME) WorkQueue volumeWorkQueueRef,
+        DrbdMetaDataCache drbdMdCacheRef,
+        VolumeIoStatsService vlmIoStatsSvcRef
     )
     {
         errLog = errLogRef;
@@ -154,6 +170,9 @@ class DrbdDeviceHandler implements DeviceHandler
         deploymentStateTracker = deploymentStateTrackerRef;
         eventBroker = eventBrokerRef;
         stltCfgAccessor = stltCfgAccessorRef;
+        volumeWorkQueue = volumeWorkQueueRef;
+        drbdMdCache = drbdMdCacheRef;
+        vlmIoStatsSvc = vlmIoStatsSvcRef;
         drbdMd = new MetaData();
     }
 
@@ -657,6 +676,7 @@ class DrbdDeviceHandler implements DeviceHandler
                     storagePool.reconfigureStorageDriver(driver);
                     vlmState.setDriver(driver);
                     vlmState.setStorPoolName(spName);
+                    vlmState.setDriverKnown(true);
                 }
                 else
                 {
@@ -814,6 +834,7 @@ class DrbdDeviceHandler implements DeviceHandler
     {
         if (vlmState.getDriver() != null)
         {
+            drbdMdCache.invalidate(vlmState.getStorVlmName());
             try
             {
                 vlmState.getDriver().restoreSnapshot(
@@ -861,6 +882,7 @@ class DrbdDeviceHandler implements DeviceHandler
     {
         if (vlmState.getDriver() != null)
         {
+            drbdMdCache.invalidate(vlmState.getStorVlmName());
             try
             {
                 vlmState.setGrossSize(drbdMd.getGrossSize(
@@ -911,6 +933,8 @@ class DrbdDeviceHandler implements DeviceHandler
     {
         if (vlmState.getDriver() != null)
         {
+            drbdMdCache.invalidate(vlmState.getStorVlmName());
+            vlmIoStatsSvc.unregister(rscDfn.getName(), vlmState.getVlmNr());
             try
             {
                 boolean isEncrypted = rscDfn.getVolumeDfn(wrkCtx, vlmState.getVlmNr()).getFlags()
@@ -1008,160 +1032,368 @@ class DrbdDeviceHandler implements DeviceHandler
         Props rscProps = rsc.getProps(wrkCtx);
         Props rscDfnProps = rscDfn.getProps(wrkCtx);
 
+        // Select and configure the storage drivers before starting any volume operations,
+        // because reconfiguring a driver is not safe while it is in use by another volume
+        Map<StorPoolName, List<VolumeStateDevManager>> vlmStatesByStorPool = new HashMap<>();
         for (VolumeState vlmStateBase : rscState.getVolumes())
         {
             VolumeStateDevManager vlmState = (VolumeStateDevManager) vlmStateBase;
-            try
+            Volume vlm = rsc.getVolume(vlmState.getVlmNr());
+            if (vlm != null && !vlmState.isDriverKnown())
+            {
+                try
+                {
+                    ensureVolumeStorageDriver(
+                        rscName, localNode, vlm, vlm.getVolumeDefinition(),
+                        vlmState, nodeProps, rscProps, rscDfnProps
+                    );
+                }
+                catch (VolumeException vlmExc)
+                {
+                    throw new ResourceException(
+                        "Initialization of storage for resource '" + rscName.displayValue + "' volume " +
+                            vlmState.getVlmNr().value + " failed",
+                        null, vlmExc.getMessage(),
+                        null, null, vlmExc
+                    );
+                }
+            }
+            vlmStatesByStorPool.computeIfAbsent(vlmState.getStorPoolName(), ignored -> new ArrayList<>())
+                .add(vlmState);
+        }
+
+        SortedMap<VolumeNumber, Throwable> failures;
+        int vlmCount = rscState.getVolumes().size();
+        if (vlmCount <= 1)
+        {
+            for (VolumeState vlmStateBase : rscState.getVolumes())
             {
-                // Check backend storage
-                evaluateStorageVolume(
-                    rscName, rsc, rscDfn, localNode, localNodeName, vlmState,
-                    nodeProps, rscProps, rscDfnProps
+                createVolumeStorage(
+                    localNode, localNodeName, rscName, rsc, rscDfn,
+                    (VolumeStateDevManager) vlmStateBase, nodeProps, rscProps, rscDfnProps
                 );
+            }
+            failures = Collections.emptySortedMap();
+        }
+        else
+        {
+            // The independent operations of the volumes run concurrently, with at most as many
+            // concurrent operations per storage pool as configured for the storage pool
+            Map<StorPoolName, Integer> parallelOpsByStorPool = new HashMap<>();
+            for (StorPoolName spName : vlmStatesByStorPool.keySet())
+            {
+                parallelOpsByStorPool.put(spName, getParallelVolumeOps(localNode, spName));
+            }
+            failures = ParallelVolumeOperations.run(
+                volumeWorkQueue,
+                vlmStatesByStorPool,
+                parallelOpsByStorPool,
+                vlmState -> createVolumeStorage(
+                    localNode, localNodeName, rscName, rsc, rscDfn,
+                    vlmState, nodeProps, rscProps, rscDfnProps
+                )
+            );
+        }
+
+        // Report the failure of the volume with the lowest volume number,
+        // just like the sequential processing of the volumes did
+        VolumeNumber failedVlmNr = failures.isEmpty() ? null : failures.firstKey();
+        for (VolumeState vlmStateBase : rscState.getVolumes())
+        {
+            VolumeStateDevManager vlmState = (VolumeStateDevManager) vlmStateBase;
+            if (failedVlmNr == null || vlmState.getVlmNr().compareTo(failedVlmNr) < 0)
+            {
+                setVolumeDevicePaths(rscName, rsc, rscDfn, vlmState);
+            }
+        }
+        if (failedVlmNr != null)
+        {
+            rethrowVolumeStorageFailure(failures.get(failedVlmNr));
+        }
+    }
+
+    private void createVolumeStorage(
+        Node localNode,
+        NodeName localNodeName,
+        ResourceName rscName,
+        Resource rsc,
+        ResourceDefinition rscDfn,
+        VolumeStateDevManager vlmState,
+        Props nodeProps,
+        Props rscProps,
+        Props rscDfnProps
+    )
+        throws AccessDeniedException, ResourceException
+    {
+        try
+        {
+            // Check backend storage
+            evaluateStorageVolume(
+                rscName, rsc, rscDfn, localNode, localNodeName, vlmState,
+                nodeProps, rscProps, rscDfnProps
+            );
+
+            if (!vlmState.isMarkedForDelete())
+            {
+                Volume vlm = rsc.getVolume(vlmState.getVlmNr());
 
-                if (!vlmState.isMarkedForDelete())
+                if (vlm != null)
                 {
-                    Volume vlm = rsc.getVolume(vlmState.getVlmNr());
+                    VolumeDefinition vlmDfn = vlm.getVolumeDefinition();
+                    if (!vlmState.isDriverKnown())
+                    {
+                        ensureVolumeStorageDriver(
+                            rscName, localNode, vlm, vlmDfn,
+                            vlmState, nodeProps, rscProps, rscDfnProps
+                        );
+                    }
 
-                    if (vlm != null)
+                    // Check DRBD meta data
+                    if (!vlmState.hasDisk())
                     {
-                        VolumeDefinition vlmDfn = vlm.getVolumeDefinition();
-                        if (!vlmState.isDriverKnown())
+                        errLog.logTrace(
+                            "%s",
+                            "Resource " + rscName.displayValue + " Volume " + vlmState.getVlmNr().value +
+                                " has no backend storage => hasMetaData = false, checkMetaData = false"
+                        );
+                        // If there is no disk, then there cannot be any meta data
+                        vlmState.setCheckMetaData(false);
+                        vlmState.setHasMetaData(false);
+                    }
+                    else if (vlmState.isCheckMetaData())
+                    {
+                        // Check for the existence of meta data
+                        try
                         {
-                            ensureVolumeStorageDriver(
-                                rscName, localNode, vlm, vlmDfn,
-                                vlmState, nodeProps, rscProps, rscDfnProps
-                            );
-                        }
+                            boolean isEncrypted = vlmDfn.getFlags().isSet(wrkCtx, VlmDfnFlags.ENCRYPTED);
+                            long vlmSize = vlmDfn.getVolumeSize(wrkCtx);
 
-                        // Check DRBD meta data
-                        if (!vlmState.hasDisk())
-                        {
-                            errLog.logTrace(
-                                "%s",
-                                "Resource " + rscName.displayValue + " Volume " + vlmState.getVlmNr().value +
-                                    " has no backend storage => hasMetaData = false, checkMetaData = false"
+                            String blockDevPath = vlmState.getDriver().getVolumePath(
+                                vlmState.getStorVlmName(), isEncrypted
                             );
-                            // If there is no disk, then there cannot be any meta data
-                            vlmState.setCheckMetaData(false);
-                            vlmState.setHasMetaData(false);
-                        }
-                        else if (vlmState.isCheckMetaData())
-                        {
-                            // Check for the existence of meta data
-                            try
+                            if (drbdMdCache.isKnownPresent(blockDevPath, vlmState.getStorVlmName(), vlmSize))
+                            {
+                                vlmState.setHasMetaData(true);
+                                errLog.logTrace(
+                                    "%s",
+                                    "Resource " + rscName.displayValue + " Volume " + vlmState.getVlmNr().value +
+                                        " meta data is known to be present, skipping check"
+                                );
+                            }
+                            else
                             {
-                                boolean isEncrypted = rscDfn.getVolumeDfn(wrkCtx, vlmState.getVlmNr()).getFlags()
-                                    .isSet(wrkCtx, VlmDfnFlags.ENCRYPTED);
-
                                 vlmState.setHasMetaData(drbdUtils.hasMetaData(
-                                    vlmState.getDriver().getVolumePath(vlmState.getStorVlmName(), isEncrypted),
-                                    vlmState.getMinorNr().value, "internal"
+                                    blockDevPath, vlmState.getMinorNr().value, "internal"
                                 ));
+                                if (vlmState.hasMetaData())
+                                {
+                                    drbdMdCache.setPresent(blockDevPath, vlmState.getStorVlmName(), vlmSize);
+                                }
                                 errLog.logTrace(
                                     "%s",
                                     "Resource " + rscName.displayValue + " Volume " + vlmState.getVlmNr().value +
                                         " meta data check result: hasMetaData = " + vlmState.hasMetaData()
                                 );
                             }
-                            catch (ExtCmdFailedException cmdExc)
-                            {
-                                errLog.reportError(Level.ERROR, cmdExc);
-                            }
                         }
-
-                        // Create backend storage if required
-                        if (!vlmState.hasDisk())
+                        catch (ExtCmdFailedException cmdExc)
                         {
-                            if (vlmState.getRestoreVlmName() != null && vlmState.getRestoreSnapshotName() != null)
-                            {
-                                restoreStorageVolume(rscDfn, vlmState);
-                                vlmState.setHasMetaData(true);
-                            }
-                            else
-                            {
-                                createStorageVolume(rscDfn, vlmState);
-                                vlmState.setHasMetaData(false);
-                            }
-
-                            vlmState.setHasDisk(true);
+                            errLog.reportError(Level.ERROR, cmdExc);
                         }
+                    }
 
-                        // TODO: Wait for the backend storage block device files to appear in the /dev directory
-                        //       if the volume is supposed to have backend storage
-
-                        // Set block device paths
-                        if (vlmState.hasDisk())
+                    // Create backend storage if required
+                    if (!vlmState.hasDisk())
+                    {
+                        if (vlmState.getRestoreVlmName() != null && vlmState.getRestoreSnapshotName() != null)
                         {
-
-                            boolean isEncrypted = rscDfn.getVolumeDfn(wrkCtx, vlmState.getVlmNr()).getFlags()
-                                .isSet(wrkCtx, VlmDfnFlags.ENCRYPTED);
-
-                            String bdPath = vlmState.getDriver().getVolumePath(vlmState.getStorVlmName(), isEncrypted);
-                            vlm.setBackingDiskPath(wrkCtx, bdPath);
-                            vlm.setMetaDiskPath(wrkCtx, "internal");
+                            restoreStorageVolume(rscDfn, vlmState);
+                            vlmState.setHasMetaData(true);
                         }
                         else
                         {
-                            vlm.setBackingDiskPath(wrkCtx, "none");
-                            vlm.setMetaDiskPath(wrkCtx, null);
+                            createStorageVolume(rscDfn, vlmState);
+                            vlmState.setHasMetaData(false);
                         }
-                        errLog.logTrace(
-                            "Resource '" + rscName + "' volume " + vlmState.getVlmNr().toString() +
-                                " block device = %s, meta disk = %s",
-                            vlm.getBackingDiskPath(wrkCtx),
-                            vlm.getMetaDiskPath(wrkCtx)
-                        );
-                    }
-                    else
-                    {
-                        // If there is no volume for the volumeState, then LINSTOR does not know about
-                        // this volume, and the volume will later be removed from the resource
-                        // when the resource is adjusted.
-                        // Therefore, the volume is ignored, and no backend storage is created for the volume
-                        vlmState.setSkip(true);
+
+                        vlmState.setHasDisk(true);
                     }
+
+                    // TODO: Wait for the backend storage block device files to appear in the /dev directory
+                    //       if the volume is supposed to have backend storage
+                }
+                else
+                {
+                    // If there is no volume for the volumeState, then LINSTOR does not know about
+                    // this volume, and the volume will later be removed from the resource
+                    // when the resource is adjusted.
+                    // Therefore, the volume is ignored, and no backend storage is created for the volume
+                    vlmState.setSkip(true);
                 }
             }
-            catch (MdException mdExc)
+        }
+        catch (MdException mdExc)
+        {
+            throw new ResourceException(
+                "Meta data calculation for resource '" + rscName.displayValue + "' volume " +
+                    vlmState.getVlmNr().value + " failed",
+                "Operations on resource " + rscName.displayValue + " volume " + vlmState.getVlmNr().value +
+                    " were aborted",
+                "The calculation of the volume's DRBD meta data size failed",
+                "Check whether the volume's properties, such as size, DRBD peer count and activity log " +
+                    "settings, are within the range supported by DRBD",
+                mdExc.getMessage(),
+                mdExc
+            );
+        }
+        catch (VolumeException vlmExc)
+        {
+            throw new ResourceException(
+                "Initialization of storage for resource '" + rscName.displayValue + "' volume " +
+                    vlmState.getVlmNr().value + " failed",
+                null, vlmExc.getMessage(),
+                null, null, vlmExc
+            );
+        }
+        catch (StorageException storExc)
+        {
+            throw makeBlockDevicePathException(rscName, vlmState, storExc);
+        }
+    }
+
+    private void setVolumeDevicePaths(
+        ResourceName rscName,
+        Resource rsc,
+        ResourceDefinition rscDfn,
+        VolumeStateDevManager vlmState
+    )
+        throws AccessDeniedException, ResourceException
+    {
+        Volume vlm = rsc.getVolume(vlmState.getVlmNr());
+        if (!vlmState.isMarkedForDelete() && vlm != null)
+        {
+            try
             {
-                throw new ResourceException(
-                    "Meta data calculation for resource '" + rscName.displayValue + "' volume " +
-                        vlmState.getVlmNr().value + " failed",
-                    "Operations on resource " + rscName.displayValue + " volume " + vlmState.getVlmNr().value +
-                        " were aborted",
-                    "The calculation of the volume's DRBD meta data size failed",
-                    "Check whether the volume's properties, such as size, DRBD peer count and activity log " +
-                        "settings, are within the range supported by DRBD",
-                    mdExc.getMessage(),
-                    mdExc
+                // Set block device paths
+                if (vlmState.hasDisk())
+                {
+
+                    boolean isEncrypted = rscDfn.getVolumeDfn(wrkCtx, vlmState.getVlmNr()).getFlags()
+                        .isSet(wrkCtx, VlmDfnFlags.ENCRYPTED);
+
+                    String bdPath = vlmState.getDriver().getVolumePath(vlmState.getStorVlmName(), isEncrypted);
+                    vlm.setBackingDiskPath(wrkCtx, bdPath);
+                    vlm.setMetaDiskPath(wrkCtx, "internal");
+                    // The dmstats region is created on the storage volume, not on the crypt device above it
+                    vlmIoStatsSvc.register(
+                        rscName,
+                        vlmState.getVlmNr(),
+                        isEncrypted ?
+                            vlmState.getDriver().getVolumePath(vlmState.getStorVlmName(), false) :
+                            bdPath
+                    );
+                }
+                else
+                {
+                    vlm.setBackingDiskPath(wrkCtx, "none");
+                    vlm.setMetaDiskPath(wrkCtx, null);
+                    vlmIoStatsSvc.unregister(rscName, vlmState.getVlmNr());
+                }
+                errLog.logTrace(
+                    "Resource '" + rscName + "' volume " + vlmState.getVlmNr().toString() +
+                        " block device = %s, meta disk = %s",
+                    vlm.getBackingDiskPath(wrkCtx),
+                    vlm.getMetaDiskPath(wrkCtx)
                 );
             }
-            catch (VolumeException vlmExc)
+            catch (StorageException storExc)
             {
-                throw new ResourceException(
-                    "Initialization of storage for resource '" + rscName.displayValue + "' volume " +
-                        vlmState.getVlmNr().value + " failed",
-                    null, vlmExc.getMessage(),
-                    null, null, vlmExc
+                throw makeBlockDevicePathException(rscName, vlmState, storExc);
+            }
+        }
+    }
+
+    private ResourceException makeBlockDevicePathException(
+        ResourceName rscName,
+        VolumeStateDevManager vlmState,
+        StorageException storExc
+    )
+    {
+        return new ResourceException(
+            "The storage driver could not determine the block device path for " +
+                "volume " + vlmState.getVlmNr() + " of resource " + rscName.displayValue,
+            this.getAbortMsg(rscName, vlmState.getVlmNr()),
+            "The storage driver could not determine the block device path for the volume's " +
+                "backend storage",
+            "- Check whether the storage driver is configured correctly\n" +
+                "- Check whether any external programs required by the storage driver are\n" +
+                "  functional\n",
+            null,
+            storExc
+        );
+    }
+
+    private void rethrowVolumeStorageFailure(Throwable failure)
+        throws AccessDeniedException, ResourceException
+    {
+        if (failure instanceof ResourceException)
+        {
+            throw (ResourceException) failure;
+        }
+        if (failure instanceof AccessDeniedException)
+        {
+            throw (AccessDeniedException) failure;
+        }
+        if (failure instanceof Error)
+        {
+            throw (Error) failure;
+        }
+        throw new ImplementationError(
+            "Unexpected exception during the concurrent initialization of volume storage",
+            failure
+        );
+    }
+
+    /**
+     * Returns the number of concurrent volume operations allowed for the specified storage pool
+     */
+    private int getParallelVolumeOps(Node localNode, StorPoolName spName)
+        throws AccessDeniedException
+    {
+        int parallelOps = 1;
+        StorPool storPool = spName == null ? null : localNode.getStorPool(wrkCtx, spName);
+        if (storPool != null)
+        {
+            String parallelOpsStr = null;
+            try
+            {
+                parallelOps = DFLT_PARALLEL_VOLUME_OPS;
+                parallelOpsStr = storPool.getProps(wrkCtx).getProp(
+                    StorageConstants.CONFIG_PARALLEL_VOLUME_OPS_KEY,
+                    ApiConsts.NAMESPC_STORAGE_DRIVER
                 );
+                if (parallelOpsStr != null)
+                {
+                    parallelOps = Math.max(1, Integer.parseInt(parallelOpsStr.trim()));
+                }
             }
-            catch (StorageException storExc)
+            catch (InvalidKeyException keyExc)
             {
-                throw new ResourceException(
-                    "The storage driver could not determine the block device path for " +
-                        "volume " + vlmState.getVlmNr() + " of resource " + rscName.displayValue,
-                    this.getAbortMsg(rscName, vlmState.getVlmNr()),
-                    "The storage driver could not determine the block device path for the volume's " +
-                        "backend storage",
-                    "- Check whether the storage driver is configured correctly\n" +
-                        "- Check whether any external programs required by the storage driver are\n" +
-                        "  functional\n",
-                    null,
-                    storExc
+                throw new ImplementationError(
+                    "The builtin name constant for parallel volume operations contains an invalid string",
+                    keyExc
+                );
+            }
+            catch (NumberFormatException numberFormatExc)
+            {
+                errLog.logWarning(
+                    "Ignoring invalid number of parallel volume operations '%s' of storage pool '%s'",
+                    parallelOpsStr,
+                    spName.displayValue
                 );
             }
         }
+        return parallelOps;
     }
 
     private void createResourceConfiguration(
@@ -1281,6 +1513,11 @@ class DrbdDeviceHandler implements DeviceHandler
             }
             catch (ExtCmdFailedException cmdExc)
             {
+                // The cached meta data state may be the reason why the adjust failed
+                for (VolumeState vlmState : rscState.getVolumes())
+                {
+                    drbdMdCache.invalidate(((VolumeStateDevManager) vlmState).getStorVlmName());
+                }
                 throw new ResourceException(
                     "Adjusting the DRBD state of resource '" + rscName.displayValue + "' failed",
                     getAbortMsg(rscName),
@@ -0,0 +1,86 @@
+package com.linbit.linstor.core;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the backing devices that are known to contain DRBD meta data, so that the
+ * device handler does not have to probe them with drbdmeta on every run.
+ *
+ * Only the presence of meta data is cached. A device that did not contain meta data is
+ * probed again, so that meta data that was created in the meantime is never overwritten.
+ * An entry only matches if the storage volume and the size are unchanged as well,
+ * and it is dropped when the storage volume is recreated, restored or deleted.
+ */
+@Singleton
+public class DrbdMetaDataCache
+{
+    private final Map<String, MetaDataKey> presentByDevice;
+
+    @Inject
+    public DrbdMetaDataCache()
+    {
+        presentByDevice = new ConcurrentHashMap<>();
+    }
+
+    public boolean isKnownPresent(String blockDevPath, String storVlmName, long size)
+    {
+        return new MetaDataKey(storVlmName, size).equals(presentByDevice.get(blockDevPath));
+    }
+
+    public void setPresent(String blockDevPath, String storVlmName, long size)
+    {
+        presentByDevice.put(blockDevPath, new MetaDataKey(storVlmName, size));
+    }
+
+    /**
+     * Drops all entries of the specified storage volume, regardless of its block device path
+     */
+    public void invalidate(String storVlmName)
+    {
+        presentByDevice.values().removeIf(key -> key.storVlmName.equals(storVlmName));
+    }
+
+    public void clear()
+    {
+        presentByDevice.clear();
+    }
+
+    public int size()
+    {
+        return presentByDevice.size();
+    }
+
+    private static final class MetaDataKey
+    {
+        private final String storVlmName;
+        private final long size;
+
+        MetaDataKey(String storVlmNameRef, long sizeRef)
+        {
+            storVlmName = storVlmNameRef;
+            size = sizeRef;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            boolean eq = obj == this;
+            if (!eq && obj instanceof MetaDataKey)
+            {
+                MetaDataKey other = (MetaDataKey) obj;
+                eq = size == other.size && Objects.equals(storVlmName, other.storVlmName);
+            }
+            return eq;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(storVlmName, size);
+        }
+    }
+}
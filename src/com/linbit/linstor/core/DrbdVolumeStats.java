@@ -0,0 +1,346 @@
+package com.linbit.linstor.core;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * DRBD statistics of a volume, as reported by 'drbdsetup events2 --statistics'.
+ *
+ * The local part holds the requests pending on the volume itself, the peer part holds the resync
+ * progress, the replication rates and the pending requests towards each peer. Amounts of data are
+ * in KiB, rates in KiB per second.
+ */
+public class DrbdVolumeStats
+{
+    public static final String KEY_UPPER_PENDING = "UpperPending";
+    public static final String KEY_LOWER_PENDING = "LowerPending";
+    public static final String KEY_RESYNC_DONE = "ResyncDone";
+    public static final String KEY_OUT_OF_SYNC_KIB = "OutOfSyncKiB";
+    public static final String KEY_SEND_KIB_PER_SEC = "SendKiBps";
+    public static final String KEY_RECEIVE_KIB_PER_SEC = "ReceiveKiBps";
+    public static final String KEY_PENDING = "Pending";
+    public static final String KEY_UNACKED = "Unacked";
+    public static final String KEY_AP_IN_FLIGHT_KIB = "ApInFlightKiB";
+    public static final String KEY_RS_IN_FLIGHT_KIB = "RsInFlightKiB";
+
+    /**
+     * Prefix of the per-peer entries in the map representation, followed by the peer name, '/' and the key
+     */
+    public static final String PEER_KEY_PREFIX = "Peer/";
+
+    private final int upperPending;
+    private final int lowerPending;
+    private final Map<String, PeerStats> peerStats;
+
+    public DrbdVolumeStats(int upperPendingRef, int lowerPendingRef, Map<String, PeerStats> peerStatsRef)
+    {
+        upperPending = upperPendingRef;
+        lowerPending = lowerPendingRef;
+        peerStats = Collections.unmodifiableMap(new TreeMap<>(peerStatsRef));
+    }
+
+    /**
+     * @return number of requests from the upper layers that are not yet completed
+     */
+    public int getUpperPending()
+    {
+        return upperPending;
+    }
+
+    /**
+     * @return number of requests to the backing device that are not yet completed
+     */
+    public int getLowerPending()
+    {
+        return lowerPending;
+    }
+
+    /**
+     * @return statistics per peer, by the name of the peer's connection
+     */
+    public Map<String, PeerStats> getPeerStats()
+    {
+        return peerStats;
+    }
+
+    /**
+     * @return the progress of the least advanced resync in percent, or null if no resync is running
+     */
+    public Double getResyncDone()
+    {
+        Double resyncDone = null;
+        for (PeerStats peer : peerStats.values())
+        {
+            if (peer.resyncDone != null && (resyncDone == null || peer.resyncDone < resyncDone))
+            {
+                resyncDone = peer.resyncDone;
+            }
+        }
+        return resyncDone;
+    }
+
+    /**
+     * @return the largest amount of data that is out of sync with any of the peers
+     */
+    public long getOutOfSyncKib()
+    {
+        long outOfSyncKib = 0;
+        for (PeerStats peer : peerStats.values())
+        {
+            outOfSyncKib = Math.max(outOfSyncKib, peer.outOfSyncKib);
+        }
+        return outOfSyncKib;
+    }
+
+    public double getSendKibPerSec()
+    {
+        double sendKibPerSec = 0;
+        for (PeerStats peer : peerStats.values())
+        {
+            sendKibPerSec += peer.sendKibPerSec;
+        }
+        return sendKibPerSec;
+    }
+
+    public double getReceiveKibPerSec()
+    {
+        double receiveKibPerSec = 0;
+        for (PeerStats peer : peerStats.values())
+        {
+            receiveKibPerSec += peer.receiveKibPerSec;
+        }
+        return receiveKibPerSec;
+    }
+
+    public int getPending()
+    {
+        int pending = 0;
+        for (PeerStats peer : peerStats.values())
+        {
+            pending += peer.pending;
+        }
+        return pending;
+    }
+
+    public int getUnacked()
+    {
+        int unacked = 0;
+        for (PeerStats peer : peerStats.values())
+        {
+            unacked += peer.unacked;
+        }
+        return unacked;
+    }
+
+    /**
+     * Returns the statistics as a map that contains the totals over all peers as well
+     * as the per-peer entries, the latter with keys starting with {@link #PEER_KEY_PREFIX}
+     */
+    public Map<String, String> toMap()
+    {
+        Map<String, String> map = new TreeMap<>();
+        map.put(KEY_UPPER_PENDING, Integer.toString(upperPending));
+        map.put(KEY_LOWER_PENDING, Integer.toString(lowerPending));
+        Double resyncDone = getResyncDone();
+        if (resyncDone != null)
+        {
+            map.put(KEY_RESYNC_DONE, Double.toString(resyncDone));
+        }
+        map.put(KEY_OUT_OF_SYNC_KIB, Long.toString(getOutOfSyncKib()));
+        map.put(KEY_SEND_KIB_PER_SEC, Double.toString(getSendKibPerSec()));
+        map.put(KEY_RECEIVE_KIB_PER_SEC, Double.toString(getReceiveKibPerSec()));
+        map.put(KEY_PENDING, Integer.toString(getPending()));
+        map.put(KEY_UNACKED, Integer.toString(getUnacked()));
+
+        for (Map.Entry<String, PeerStats> peerEntry : peerStats.entrySet())
+        {
+            peerEntry.getValue().putInto(map, PEER_KEY_PREFIX + peerEntry.getKey() + "/");
+        }
+        return map;
+    }
+
+    /**
+     * Restores statistics from {@link #toMap()}. The totals are not read, they are derived from
+     * the per-peer entries. Missing or malformed entries are treated as 0.
+     */
+    public static DrbdVolumeStats fromMap(Map<String, String> map)
+    {
+        Map<String, Map<String, String>> peerMaps = new TreeMap<>();
+        for (Map.Entry<String, String> entry : map.entrySet())
+        {
+            String key = entry.getKey();
+            int keyIdx = key.lastIndexOf('/');
+            if (key.startsWith(PEER_KEY_PREFIX) && keyIdx > PEER_KEY_PREFIX.length())
+            {
+                peerMaps.computeIfAbsent(key.substring(PEER_KEY_PREFIX.length(), keyIdx), ignored -> new TreeMap<>())
+                    .put(key.substring(keyIdx + 1), entry.getValue());
+            }
+        }
+
+        Map<String, PeerStats> peerStatsMap = new TreeMap<>();
+        for (Map.Entry<String, Map<String, String>> peerEntry : peerMaps.entrySet())
+        {
+            Map<String, String> peerMap = peerEntry.getValue();
+            String resyncDoneStr = peerMap.get(KEY_RESYNC_DONE);
+            peerStatsMap.put(
+                peerEntry.getKey(),
+                new PeerStats(
+                    resyncDoneStr == null ? null : getDouble(peerMap, KEY_RESYNC_DONE),
+                    (long) getDouble(peerMap, KEY_OUT_OF_SYNC_KIB),
+                    getDouble(peerMap, KEY_SEND_KIB_PER_SEC),
+                    getDouble(peerMap, KEY_RECEIVE_KIB_PER_SEC),
+                    (int) getDouble(peerMap, KEY_PENDING),
+                    (int) getDouble(peerMap, KEY_UNACKED),
+                    (long) getDouble(peerMap, KEY_AP_IN_FLIGHT_KIB),
+                    (long) getDouble(peerMap, KEY_RS_IN_FLIGHT_KIB)
+                )
+            );
+        }
+
+        return new DrbdVolumeStats(
+            (int) getDouble(map, KEY_UPPER_PENDING),
+            (int) getDouble(map, KEY_LOWER_PENDING),
+            peerStatsMap
+        );
+    }
+
+    private static double getDouble(Map<String, String> map, String key)
+    {
+        double value = 0;
+        String str = map.get(key);
+        if (str != null)
+        {
+            try
+            {
+                value = Double.parseDouble(str);
+            }
+            catch (NumberFormatException ignored)
+            {
+                // treated as 0
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public String toString()
+    {
+        Double resyncDone = getResyncDone();
+        return String.format(
+            "resync: %s, out of sync: %d KiB, send: %.1f KiB/s, receive: %.1f KiB/s, pending: %d, unacked: %d",
+            resyncDone == null ? "-" : String.format("%.2f%%", resyncDone),
+            getOutOfSyncKib(),
+            getSendKibPerSec(),
+            getReceiveKibPerSec(),
+            getPending(),
+            getUnacked()
+        );
+    }
+
+    /**
+     * DRBD statistics of a volume towards one peer
+     */
+    public static class PeerStats
+    {
+        private final Double resyncDone;
+        private final long outOfSyncKib;
+        private final double sendKibPerSec;
+        private final double receiveKibPerSec;
+        private final int pending;
+        private final int unacked;
+        private final long apInFlightKib;
+        private final long rsInFlightKib;
+
+        public PeerStats(
+            Double resyncDoneRef,
+            long outOfSyncKibRef,
+            double sendKibPerSecRef,
+            double receiveKibPerSecRef,
+            int pendingRef,
+            int unackedRef,
+            long apInFlightKibRef,
+            long rsInFlightKibRef
+        )
+        {
+            resyncDone = resyncDoneRef;
+            outOfSyncKib = outOfSyncKibRef;
+            sendKibPerSec = sendKibPerSecRef;
+            receiveKibPerSec = receiveKibPerSecRef;
+            pending = pendingRef;
+            unacked = unackedRef;
+            apInFlightKib = apInFlightKibRef;
+            rsInFlightKib = rsInFlightKibRef;
+        }
+
+        /**
+         * @return the resync progress in percent, or null if the volume is not resyncing with this peer
+         */
+        public Double getResyncDone()
+        {
+            return resyncDone;
+        }
+
+        public long getOutOfSyncKib()
+        {
+            return outOfSyncKib;
+        }
+
+        public double getSendKibPerSec()
+        {
+            return sendKibPerSec;
+        }
+
+        public double getReceiveKibPerSec()
+        {
+            return receiveKibPerSec;
+        }
+
+        /**
+         * @return number of requests sent to the peer that are not yet answered
+         */
+        public int getPending()
+        {
+            return pending;
+        }
+
+        /**
+         * @return number of requests received from the peer that are not yet answered
+         */
+        public int getUnacked()
+        {
+            return unacked;
+        }
+
+        /**
+         * @return application I/O in flight on the connection to the peer
+         */
+        public long getApInFlightKib()
+        {
+            return apInFlightKib;
+        }
+
+        /**
+         * @return resync I/O in flight on the connection to the peer
+         */
+        public long getRsInFlightKib()
+        {
+            return rsInFlightKib;
+        }
+
+        private void putInto(Map<String, String> map, String keyPrefix)
+        {
+            if (resyncDone != null)
+            {
+                map.put(keyPrefix + KEY_RESYNC_DONE, Double.toString(resyncDone));
+            }
+            map.put(keyPrefix + KEY_OUT_OF_SYNC_KIB, Long.toString(outOfSyncKib));
+            map.put(keyPrefix + KEY_SEND_KIB_PER_SEC, Double.toString(sendKibPerSec));
+            map.put(keyPrefix + KEY_RECEIVE_KIB_PER_SEC, Double.toString(receiveKibPerSec));
+            map.put(keyPrefix + KEY_PENDING, Integer.toString(pending));
+            map.put(keyPrefix + KEY_UNACKED, Integer.toString(unacked));
+            map.put(keyPrefix + KEY_AP_IN_FLIGHT_KIB, Long.toString(apInFlightKib));
+            map.put(keyPrefix + KEY_RS_IN_FLIGHT_KIB, Long.toString(rsInFlightKib));
+        }
+    }
+}
@@ -22,6 +22,46 @@ public class LinStorArgumentParser
     )
     private boolean printStackTrace = false;
 
+    @CommandLine.Option(
+        names = {"--drbd-events-capture"},
+        description = "Satellite: record the DRBD events2 stream with timestamps to the given file"
+    )
+    private String drbdEventsCaptureFile = null;
+
+    @CommandLine.Option(
+        names = {"--drbd-events-replay"},
+        description = "Satellite: replay a recorded DRBD events2 stream instead of running 'drbdsetup events2'"
+    )
+    private String drbdEventsReplayFile = null;
+
+    @CommandLine.Option(
+        names = {"--drbd-events-replay-speed"},
+        description = "Satellite: speed factor for --drbd-events-replay, 0 replays without delays [default: 1]"
+    )
+    private double drbdEventsReplaySpeed = 1.0;
+
+    @CommandLine.Option(
+        names = {"--event-batch-interval"},
+        description = "Collect the events for a peer for the given number of milliseconds and send them in one " +
+            "message. Satellite: applies to the controller. Controller: applies to the clients that enable " +
+            "event batching. 0 sends each event immediately [default: 0]"
+    )
+    private long eventBatchIntervalMs = 0;
+
+    @CommandLine.Option(
+        names = {"--event-debounce-quiet-period"},
+        description = "Controller: forward volume disk state and resource state events to clients only after " +
+            "they did not change for the given number of milliseconds, 0 forwards every change [default: 0]"
+    )
+    private long eventDebounceQuietPeriodMs = 0;
+
+    @CommandLine.Option(
+        names = {"--event-debounce-max-delay"},
+        description = "Controller: maximum number of milliseconds by which --event-debounce-quiet-period " +
+            "delays an event [default: 1000]"
+    )
+    private long eventDebounceMaxDelayMs = 1000;
+
     @CommandLine.Option(names = {"-h", "--help"}, usageHelp = true, description = "display this help message")
     private boolean usageHelpRequested;
 
@@ -80,6 +120,30 @@ public class LinStorArgumentParser
         cArgs.setPrintStacktraces(linArgParser.printStackTrace);
         cArgs.setStartDebugConsole(linArgParser.debugConsole);
 
+        if (linArgParser.drbdEventsReplaySpeed < 0)
+        {
+            System.err.println("Error: The DRBD events replay speed must not be negative");
+            System.exit(2);
+        }
+        cArgs.setDrbdEventsCaptureFile(linArgParser.drbdEventsCaptureFile);
+        cArgs.setDrbdEventsReplayFile(linArgParser.drbdEventsReplayFile);
+        cArgs.setDrbdEventsReplaySpeed(linArgParser.drbdEventsReplaySpeed);
+
+        if (linArgParser.eventBatchIntervalMs < 0)
+        {
+            System.err.println("Error: The event batch interval must not be negative");
+            System.exit(2);
+        }
+        cArgs.setEventBatchIntervalMs(linArgParser.eventBatchIntervalMs);
+
+        if (linArgParser.eventDebounceQuietPeriodMs < 0 || linArgParser.eventDebounceMaxDelayMs < 0)
+        {
+            System.err.println("Error: The event debounce quiet period and maximum delay must not be negative");
+            System.exit(2);
+        }
+        cArgs.setEventDebounceQuietPeriodMs(linArgParser.eventDebounceQuietPeriodMs);
+        cArgs.setEventDebounceMaxDelayMs(linArgParser.eventDebounceMaxDelayMs);
+
         return cArgs;
     }
 
@@ -11,6 +11,14 @@ public class LinStorArguments
     private String inMemoryDbAddress;
     private boolean printStacktraces;
 
+    private String drbdEventsCaptureFile;
+    private String drbdEventsReplayFile;
+    private double drbdEventsReplaySpeed;
+
+    private long eventBatchIntervalMs;
+    private long eventDebounceQuietPeriodMs;
+    private long eventDebounceMaxDelayMs;
+
     public LinStorArguments()
     {
         workingDirectory = "";
@@ -18,6 +26,12 @@ public class LinStorArguments
         inMemoryDbAddress = null;
         inMemoryDbPort = 0;
         printStacktraces = false;
+        drbdEventsCaptureFile = null;
+        drbdEventsReplayFile = null;
+        drbdEventsReplaySpeed = 1.0;
+        eventBatchIntervalMs = 0;
+        eventDebounceQuietPeriodMs = 0;
+        eventDebounceMaxDelayMs = 1000;
     }
 
     public void setWorkingDirectory(final String workingDirectoryRef)
@@ -79,4 +93,82 @@ public class LinStorArguments
     {
         printStacktraces = printStacktracesRef;
     }
+
+    public void setDrbdEventsCaptureFile(final String drbdEventsCaptureFileRef)
+    {
+        drbdEventsCaptureFile = drbdEventsCaptureFileRef;
+    }
+
+    /**
+     * @return the file to record the 'drbdsetup events2' stream to, or null if the stream is not recorded
+     */
+    public String getDrbdEventsCaptureFile()
+    {
+        return drbdEventsCaptureFile;
+    }
+
+    public void setDrbdEventsReplayFile(final String drbdEventsReplayFileRef)
+    {
+        drbdEventsReplayFile = drbdEventsReplayFileRef;
+    }
+
+    /**
+     * @return the recorded stream to replay instead of running 'drbdsetup events2', or null
+     */
+    public String getDrbdEventsReplayFile()
+    {
+        return drbdEventsReplayFile;
+    }
+
+    public void setDrbdEventsReplaySpeed(final double drbdEventsReplaySpeedRef)
+    {
+        drbdEventsReplaySpeed = drbdEventsReplaySpeedRef;
+    }
+
+    /**
+     * @return the speed factor of the replay, 0 to replay without delays
+     */
+    public double getDrbdEventsReplaySpeed()
+    {
+        return drbdEventsReplaySpeed;
+    }
+
+    public void setEventBatchIntervalMs(final long eventBatchIntervalMsRef)
+    {
+        eventBatchIntervalMs = eventBatchIntervalMsRef;
+    }
+
+    /**
+     * @return the time for which events are collected before they are sent in one message, 0 to disable batching
+     */
+    public long getEventBatchIntervalMs()
+    {
+        return eventBatchIntervalMs;
+    }
+
+    public void setEventDebounceQuietPeriodMs(final long eventDebounceQuietPeriodMsRef)
+    {
+        eventDebounceQuietPeriodMs = eventDebounceQuietPeriodMsRef;
+    }
+
+    /**
+     * @return the time for which a state must not change before it is forwarded to clients, 0 to forward every change
+     */
+    public long getEventDebounceQuietPeriodMs()
+    {
+        return eventDebounceQuietPeriodMs;
+    }
+
+    public void setEventDebounceMaxDelayMs(final long eventDebounceMaxDelayMsRef)
+    {
+        eventDebounceMaxDelayMs = eventDebounceMaxDelayMsRef;
+    }
+
+    /**
+     * @return the maximum time by which forwarding a state to clients is delayed
+     */
+    public long getEventDebounceMaxDelayMs()
+    {
+        return eventDebounceMaxDelayMs;
+    }
 }
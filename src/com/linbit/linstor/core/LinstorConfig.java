@@ -6,14 +6,21 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Callable;
 
 import com.linbit.linstor.api.ApiConsts;
+import com.linbit.linstor.dbcp.SnapshotGeneration;
+import com.linbit.linstor.dbcp.migration.MigrationUtils;
 import com.linbit.linstor.dbdrivers.DatabaseDriverInfo;
-import com.linbit.linstor.dbdrivers.GenericDbDriver;
+import com.linbit.linstor.dbdrivers.derby.DbConstants;
+import com.linbit.linstor.propscon.CompactPropsStorage;
 import org.apache.commons.dbcp2.ConnectionFactory;
 import org.apache.commons.dbcp2.DriverManagerConnectionFactory;
 import org.apache.commons.dbcp2.PoolableConnection;
@@ -30,6 +37,11 @@ public class LinstorConfig
     private static final String DB_USER = "linstor";
     private static final String DB_PASSWORD = "linstor";
 
+    private static final String CTRL_CFG_INSTANCE = "CTRLCFG";
+    private static final String UPDATE_CTRL_CFG_PROP =
+        "UPDATE " + DbConstants.TBL_PROPS_CONTAINERS + " SET " + DbConstants.PROP_VALUE + " = ? " +
+        "WHERE " + DbConstants.PROPS_INSTANCE + " = ? AND " + DbConstants.PROP_KEY + " = ?";
+
     private static List<String> supportedDbs = Arrays.asList("h2", "derby", "postgresql");
 
     @CommandLine.Command(name = "linstor-config", subcommands = {
@@ -115,9 +127,10 @@ public class LinstorConfig
                      initConnectionProviderFromCfg(dbCfgFile);
                  Connection con = dataSource.getConnection())
             {
-                final String stmt = "UPDATE PROPS_CONTAINERS SET PROP_VALUE='%d' " +
-                    "WHERE PROPS_INSTANCE='CTRLCFG' AND PROP_KEY='netcom/PlainConnector/port'";
-                GenericDbDriver.executeStatement(con, String.format(stmt, controllerPort));
+                setControllerProperties(
+                    con,
+                    Collections.singletonMap("netcom/PlainConnector/port", Integer.toString(controllerPort))
+                );
                 con.commit();
             }
             System.out.println("Controller plain port set to " + controllerPort);
@@ -141,9 +154,10 @@ public class LinstorConfig
                      initConnectionProviderFromCfg(dbCfgFile);
                  Connection con = dataSource.getConnection())
             {
-                final String stmt = "UPDATE PROPS_CONTAINERS SET PROP_VALUE='%s' " +
-                    "WHERE PROPS_INSTANCE='CTRLCFG' AND PROP_KEY='netcom/PlainConnector/bindaddress'";
-                GenericDbDriver.executeStatement(con, String.format(stmt, listenAddress));
+                setControllerProperties(
+                    con,
+                    Collections.singletonMap("netcom/PlainConnector/bindaddress", listenAddress)
+                );
                 con.commit();
             }
             System.out.println("Controller plain listen address set to " + listenAddress);
@@ -158,6 +172,59 @@ public class LinstorConfig
         commandLine.parseWithHandler(new CommandLine.RunLast(), System.err, args);
     }
 
+    /**
+     * Changes existing properties of the controller, in whichever storage format the properties are stored.
+     * The changes are made in the current transaction of the connection, which must not contain other changes.
+     */
+    @SuppressWarnings("checkstyle:magicnumber")
+    public static void setControllerProperties(Connection con, Map<String, String> props)
+        throws SQLException
+    {
+        // Checking for a table rolls back the current transaction, so all checks are done before any change
+        boolean compactPropsExist = MigrationUtils.tableExists(con, DbConstants.TBL_PROPS_CONTAINERS_COMPACT);
+        invalidateStartupSnapshot(con);
+
+        Map<String, String> compactProps = compactPropsExist ?
+            CompactPropsStorage.readForUpdate(con, CTRL_CFG_INSTANCE) : Collections.emptyMap();
+        boolean compactChanged = false;
+        for (Map.Entry<String, String> prop : props.entrySet())
+        {
+            if (compactProps.containsKey(prop.getKey()))
+            {
+                compactProps.put(prop.getKey(), prop.getValue());
+                compactChanged = true;
+            }
+            else
+            {
+                try (PreparedStatement stmt = con.prepareStatement(UPDATE_CTRL_CFG_PROP))
+                {
+                    stmt.setString(1, prop.getValue());
+                    stmt.setString(2, CTRL_CFG_INSTANCE);
+                    stmt.setString(3, prop.getKey());
+                    stmt.executeUpdate();
+                }
+            }
+        }
+        if (compactChanged)
+        {
+            CompactPropsStorage.write(con, CTRL_CFG_INSTANCE, compactProps);
+        }
+    }
+
+    /**
+     * Increments the database generation in the current transaction, so that the controller does not load
+     * its objects from a startup snapshot that was taken before the change. Must be called before the change,
+     * because checking for the generation table rolls back the current transaction.
+     */
+    private static void invalidateStartupSnapshot(Connection con)
+        throws SQLException
+    {
+        if (MigrationUtils.tableExists(con, DbConstants.TBL_DB_GENERATION))
+        {
+            SnapshotGeneration.increment(con);
+        }
+    }
+
     private static PoolingDataSource<PoolableConnection> initConnectionProvider(
         final String connUrl,
         final String user,
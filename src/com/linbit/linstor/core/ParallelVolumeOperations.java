@@ -0,0 +1,161 @@
+package com.linbit.linstor.core;
+
+import com.linbit.ImplementationError;
+import com.linbit.WorkQueue;
+import com.linbit.linstor.StorPoolName;
+import com.linbit.linstor.VolumeNumber;
+import com.linbit.linstor.api.pojo.VolumeStateDevManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Runs an operation for each volume of a resource on a work queue.
+ *
+ * The volumes of different storage pools are processed concurrently. Within a storage pool, at most as many
+ * volumes are processed concurrently as allowed for the storage pool. Each volume is counted as done exactly
+ * once, even if its operation fails with an error or the operation could not be started at all, so that
+ * waiting for the volumes cannot block forever.
+ */
+final class ParallelVolumeOperations
+{
+    interface VolumeOperation
+    {
+        void run(VolumeStateDevManager vlmState) throws Exception;
+    }
+
+    private ParallelVolumeOperations()
+    {
+    }
+
+    /**
+     * Runs the operation for all volumes and waits until all of them are done.
+     *
+     * @param parallelOpsByStorPool The number of concurrent operations allowed for each storage pool
+     * @return The failures of the volumes, ordered by volume number
+     */
+    static SortedMap<VolumeNumber, Throwable> run(
+        WorkQueue workQueue,
+        Map<StorPoolName, List<VolumeStateDevManager>> vlmStatesByStorPool,
+        Map<StorPoolName, Integer> parallelOpsByStorPool,
+        VolumeOperation operation
+    )
+    {
+        int vlmCount = 0;
+        for (List<VolumeStateDevManager> vlmStates : vlmStatesByStorPool.values())
+        {
+            vlmCount += vlmStates.size();
+        }
+
+        Map<VolumeNumber, Throwable> failures = new ConcurrentHashMap<>();
+        CountDownLatch vlmsDone = new CountDownLatch(vlmCount);
+        for (Map.Entry<StorPoolName, List<VolumeStateDevManager>> entry : vlmStatesByStorPool.entrySet())
+        {
+            Queue<VolumeStateDevManager> pendingVlmStates = new ConcurrentLinkedQueue<>(entry.getValue());
+            int runnerCount = Math.min(parallelOpsByStorPool.get(entry.getKey()), pendingVlmStates.size());
+            int runnerIdx = 0;
+            while (runnerIdx < runnerCount)
+            {
+                try
+                {
+                    workQueue.submit(() -> runPending(pendingVlmStates, operation, failures, vlmsDone));
+                    ++runnerIdx;
+                }
+                catch (RuntimeException submitExc)
+                {
+                    // The runners that were started process the remaining volumes. If none was started,
+                    // the volumes of this storage pool fail with the reason why the runner was rejected.
+                    if (runnerIdx == 0)
+                    {
+                        failPending(pendingVlmStates, submitExc, failures, vlmsDone);
+                    }
+                    runnerCount = runnerIdx;
+                }
+            }
+        }
+        awaitUninterruptibly(vlmsDone);
+
+        return new TreeMap<>(failures);
+    }
+
+    private static void runPending(
+        Queue<VolumeStateDevManager> pendingVlmStates,
+        VolumeOperation operation,
+        Map<VolumeNumber, Throwable> failures,
+        CountDownLatch vlmsDone
+    )
+    {
+        boolean finished = false;
+        try
+        {
+            VolumeStateDevManager vlmState = pendingVlmStates.poll();
+            while (vlmState != null)
+            {
+                try
+                {
+                    operation.run(vlmState);
+                }
+                catch (Throwable exc)
+                {
+                    failures.put(vlmState.getVlmNr(), exc);
+                }
+                finally
+                {
+                    vlmsDone.countDown();
+                }
+                vlmState = pendingVlmStates.poll();
+            }
+            finished = true;
+        }
+        finally
+        {
+            if (!finished)
+            {
+                failPending(
+                    pendingVlmStates,
+                    new ImplementationError("The processing of the volumes terminated unexpectedly"),
+                    failures,
+                    vlmsDone
+                );
+            }
+        }
+    }
+
+    private static void failPending(
+        Queue<VolumeStateDevManager> pendingVlmStates,
+        Throwable failure,
+        Map<VolumeNumber, Throwable> failures,
+        CountDownLatch vlmsDone
+    )
+    {
+        VolumeStateDevManager vlmState = pendingVlmStates.poll();
+        while (vlmState != null)
+        {
+            failures.put(vlmState.getVlmNr(), failure);
+            vlmsDone.countDown();
+            vlmState = pendingVlmStates.poll();
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch)
+    {
+        boolean finished = false;
+        while (!finished)
+        {
+            try
+            {
+                latch.await();
+                finished = true;
+            }
+            catch (InterruptedException ignored)
+            {
+            }
+        }
+    }
+}
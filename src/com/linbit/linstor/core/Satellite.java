@@ -88,6 +88,8 @@ public final class Satellite
 
     private final DrbdEventService drbdEventSvc;
 
+    private final VolumeIoStatsService vlmIoStatsSvc;
+
     private final SatelliteNetComInitializer satelliteNetComInitializer;
 
     @Inject
@@ -103,6 +105,7 @@ public final class Satellite
         DebugConsoleCreator debugConsoleCreatorRef,
         FileSystemWatch fsWatchSvcRef,
         DrbdEventService drbdEventSvcRef,
+        VolumeIoStatsService vlmIoStatsSvcRef,
         SatelliteNetComInitializer satelliteNetComInitializerRef
     )
     {
@@ -117,6 +120,7 @@ public final class Satellite
         debugConsoleCreator = debugConsoleCreatorRef;
         fsWatchSvc = fsWatchSvcRef;
         drbdEventSvc = drbdEventSvcRef;
+        vlmIoStatsSvc = vlmIoStatsSvcRef;
         satelliteNetComInitializer = satelliteNetComInitializerRef;
     }
 
@@ -138,6 +142,7 @@ public final class Satellite
             systemServicesMap.put(drbdEventSvc.getInstanceName(), drbdEventSvc);
             systemServicesMap.put(devMgr.getInstanceName(), devMgr);
             systemServicesMap.put(drbdEventPublisher.getInstanceName(), drbdEventPublisher);
+            systemServicesMap.put(vlmIoStatsSvc.getInstanceName(), vlmIoStatsSvc);
 
             applicationLifecycleManager.startSystemServices(systemServicesMap.values());
 
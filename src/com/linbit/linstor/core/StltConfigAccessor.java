@@ -10,6 +10,10 @@ import javax.inject.Named;
 
 public class StltConfigAccessor
 {
+    public static final String KEY_DMSTATS_INTERVAL = "DmStatsInterval";
+    public static final long DFLT_DMSTATS_INTERVAL_MS = 10_000;
+    public static final long MIN_DMSTATS_INTERVAL_MS = 1_000;
+
     private Props stltProps;
 
     @Inject
@@ -34,6 +38,31 @@ public class StltConfigAccessor
         return dmStatsStr != null && getAsBoolean(dmStatsStr);
     }
 
+    /**
+     * @return the interval in milliseconds in which the dmstats regions are sampled
+     */
+    public long getDmStatsInterval()
+    {
+        long interval = DFLT_DMSTATS_INTERVAL_MS;
+        try
+        {
+            String intervalStr = stltProps.getProp(KEY_DMSTATS_INTERVAL, ApiConsts.NAMESPC_STORAGE_DRIVER);
+            if (intervalStr != null)
+            {
+                interval = Math.max(MIN_DMSTATS_INTERVAL_MS, Long.parseLong(intervalStr.trim()));
+            }
+        }
+        catch (InvalidKeyException exc)
+        {
+            throw new ImplementationError("Hardcoded invalid property keys", exc);
+        }
+        catch (NumberFormatException ignored)
+        {
+            // use the default interval
+        }
+        return interval;
+    }
+
     private boolean getAsBoolean(String val)
     {
         return
@@ -0,0 +1,173 @@
+package com.linbit.linstor.core;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * I/O statistics of a volume over one sampling interval, as determined from the volume's dmstats region.
+ *
+ * Rates are per second, throughput is in KiB per second and latencies are the average completion time
+ * of a request in milliseconds.
+ */
+public class VolumeIoStats
+{
+    public static final String KEY_READ_IOPS = "ReadIops";
+    public static final String KEY_WRITE_IOPS = "WriteIops";
+    public static final String KEY_READ_KIB_PER_SEC = "ReadKiBps";
+    public static final String KEY_WRITE_KIB_PER_SEC = "WriteKiBps";
+    public static final String KEY_READ_LATENCY_MS = "ReadLatencyMs";
+    public static final String KEY_WRITE_LATENCY_MS = "WriteLatencyMs";
+
+    public static final VolumeIoStats IDLE = new VolumeIoStats(0, 0, 0, 0, 0, 0);
+
+    private final double readIops;
+    private final double writeIops;
+    private final double readKibPerSec;
+    private final double writeKibPerSec;
+    private final double readLatencyMs;
+    private final double writeLatencyMs;
+
+    public VolumeIoStats(
+        double readIopsRef,
+        double writeIopsRef,
+        double readKibPerSecRef,
+        double writeKibPerSecRef,
+        double readLatencyMsRef,
+        double writeLatencyMsRef
+    )
+    {
+        readIops = readIopsRef;
+        writeIops = writeIopsRef;
+        readKibPerSec = readKibPerSecRef;
+        writeKibPerSec = writeKibPerSecRef;
+        readLatencyMs = readLatencyMsRef;
+        writeLatencyMs = writeLatencyMsRef;
+    }
+
+    public double getReadIops()
+    {
+        return readIops;
+    }
+
+    public double getWriteIops()
+    {
+        return writeIops;
+    }
+
+    public double getReadKibPerSec()
+    {
+        return readKibPerSec;
+    }
+
+    public double getWriteKibPerSec()
+    {
+        return writeKibPerSec;
+    }
+
+    public double getReadLatencyMs()
+    {
+        return readLatencyMs;
+    }
+
+    public double getWriteLatencyMs()
+    {
+        return writeLatencyMs;
+    }
+
+    public double getTotalIops()
+    {
+        return readIops + writeIops;
+    }
+
+    /**
+     * Adds up the statistics of several volumes, e.g. all volumes of a node.
+     *
+     * Rates and throughput are summed, latencies are averaged weighted by the number of requests.
+     */
+    public static VolumeIoStats sum(Collection<VolumeIoStats> statsList)
+    {
+        double readIops = 0;
+        double writeIops = 0;
+        double readKibPerSec = 0;
+        double writeKibPerSec = 0;
+        double readLatencyWeighted = 0;
+        double writeLatencyWeighted = 0;
+        for (VolumeIoStats stats : statsList)
+        {
+            readIops += stats.readIops;
+            writeIops += stats.writeIops;
+            readKibPerSec += stats.readKibPerSec;
+            writeKibPerSec += stats.writeKibPerSec;
+            readLatencyWeighted += stats.readLatencyMs * stats.readIops;
+            writeLatencyWeighted += stats.writeLatencyMs * stats.writeIops;
+        }
+        return new VolumeIoStats(
+            readIops,
+            writeIops,
+            readKibPerSec,
+            writeKibPerSec,
+            readIops > 0 ? readLatencyWeighted / readIops : 0,
+            writeIops > 0 ? writeLatencyWeighted / writeIops : 0
+        );
+    }
+
+    public Map<String, String> toMap()
+    {
+        Map<String, String> map = new TreeMap<>();
+        map.put(KEY_READ_IOPS, Double.toString(readIops));
+        map.put(KEY_WRITE_IOPS, Double.toString(writeIops));
+        map.put(KEY_READ_KIB_PER_SEC, Double.toString(readKibPerSec));
+        map.put(KEY_WRITE_KIB_PER_SEC, Double.toString(writeKibPerSec));
+        map.put(KEY_READ_LATENCY_MS, Double.toString(readLatencyMs));
+        map.put(KEY_WRITE_LATENCY_MS, Double.toString(writeLatencyMs));
+        return map;
+    }
+
+    /**
+     * Restores statistics from {@link #toMap()}. Missing or malformed entries are treated as 0.
+     */
+    public static VolumeIoStats fromMap(Map<String, String> map)
+    {
+        return new VolumeIoStats(
+            getDouble(map, KEY_READ_IOPS),
+            getDouble(map, KEY_WRITE_IOPS),
+            getDouble(map, KEY_READ_KIB_PER_SEC),
+            getDouble(map, KEY_WRITE_KIB_PER_SEC),
+            getDouble(map, KEY_READ_LATENCY_MS),
+            getDouble(map, KEY_WRITE_LATENCY_MS)
+        );
+    }
+
+    private static double getDouble(Map<String, String> map, String key)
+    {
+        double value = 0;
+        String str = map.get(key);
+        if (str != null)
+        {
+            try
+            {
+                value = Double.parseDouble(str);
+            }
+            catch (NumberFormatException ignored)
+            {
+                // treated as 0
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format(
+            "read: %.1f IOPS, %.1f KiB/s, %.2f ms; write: %.1f IOPS, %.1f KiB/s, %.2f ms",
+            readIops,
+            readKibPerSec,
+            readLatencyMs,
+            writeIops,
+            writeKibPerSec,
+            writeLatencyMs
+        );
+    }
+}
@@ -0,0 +1,350 @@
+package com.linbit.linstor.core;
+
+import com.linbit.ChildProcessTimeoutException;
+import com.linbit.ImplementationError;
+import com.linbit.InvalidNameException;
+import com.linbit.ServiceName;
+import com.linbit.SystemService;
+import com.linbit.extproc.ExtCmd;
+import com.linbit.linstor.InternalApiConsts;
+import com.linbit.linstor.ResourceName;
+import com.linbit.linstor.VolumeNumber;
+import com.linbit.linstor.event.EventBroker;
+import com.linbit.linstor.event.EventIdentifier;
+import com.linbit.linstor.event.ObjectIdentifier;
+import com.linbit.linstor.logging.ErrorReporter;
+import com.linbit.linstor.timer.CoreTimer;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Samples the dmstats regions that the LVM storage driver creates for its volumes and publishes
+ * the resulting per-volume I/O statistics as {@link InternalApiConsts#EVENT_VOLUME_IO_STATS} events.
+ *
+ * All regions are read with one <code>dmstats report</code> per interval, regardless of the
+ * number of volumes. Volumes are registered by the device handler once their storage device is known.
+ * Nothing is sampled unless dmstats are enabled on the satellite.
+ */
+@Singleton
+public class VolumeIoStatsService implements SystemService, Runnable
+{
+    private static final ServiceName SERVICE_NAME;
+    private static final String INSTANCE_PREFIX = "VolumeIoStatsService-";
+    private static final String SERVICE_INFO = "Volume I/O statistics sampling";
+    private static final AtomicInteger INSTANCE_COUNT = new AtomicInteger(0);
+
+    private static final String SYSFS_BLOCK_DIR = "/sys/block";
+
+    private final ErrorReporter errorReporter;
+    private final CoreTimer timer;
+    private final StltConfigAccessor stltCfgAccessor;
+    private final EventBroker eventBroker;
+
+    private final Map<ObjectIdentifier, VolumeEntry> volumes;
+
+    private ServiceName instanceName;
+    private Thread thread;
+    private volatile boolean running = false;
+
+    static
+    {
+        try
+        {
+            SERVICE_NAME = new ServiceName("VolumeIoStatsService");
+        }
+        catch (InvalidNameException invalidNameExc)
+        {
+            throw new ImplementationError(invalidNameExc);
+        }
+    }
+
+    @Inject
+    public VolumeIoStatsService(
+        ErrorReporter errorReporterRef,
+        CoreTimer timerRef,
+        StltConfigAccessor stltCfgAccessorRef,
+        EventBroker eventBrokerRef
+    )
+    {
+        errorReporter = errorReporterRef;
+        timer = timerRef;
+        stltCfgAccessor = stltCfgAccessorRef;
+        eventBroker = eventBrokerRef;
+        volumes = new ConcurrentHashMap<>();
+
+        try
+        {
+            instanceName = new ServiceName(INSTANCE_PREFIX + INSTANCE_COUNT.incrementAndGet());
+        }
+        catch (InvalidNameException invalidNameExc)
+        {
+            throw new ImplementationError(invalidNameExc);
+        }
+    }
+
+    /**
+     * Registers or updates the storage device of a volume
+     */
+    public synchronized void register(ResourceName rscName, VolumeNumber vlmNr, String devPath)
+    {
+        ObjectIdentifier vlmId = new ObjectIdentifier(null, rscName, vlmNr, null);
+        VolumeEntry entry = volumes.get(vlmId);
+        if (entry == null || !entry.devPath.equals(devPath))
+        {
+            // The stream of the previous entry is closed before the new entry can open it again
+            if (entry != null)
+            {
+                remove(entry, rscName, vlmNr);
+            }
+            volumes.put(vlmId, new VolumeEntry(devPath));
+        }
+    }
+
+    public synchronized void unregister(ResourceName rscName, VolumeNumber vlmNr)
+    {
+        VolumeEntry entry = volumes.remove(new ObjectIdentifier(null, rscName, vlmNr, null));
+        if (entry != null)
+        {
+            remove(entry, rscName, vlmNr);
+        }
+    }
+
+    /**
+     * Marks the entry as removed, so that the sampling thread does not open its stream afterwards
+     */
+    private void remove(VolumeEntry entry, ResourceName rscName, VolumeNumber vlmNr)
+    {
+        synchronized (entry)
+        {
+            entry.removed = true;
+            if (entry.stats != null)
+            {
+                eventBroker.closeEventStream(eventIdentifier(rscName, vlmNr));
+            }
+        }
+    }
+
+    /**
+     * @return the statistics of the last interval or null if the volume has not been sampled yet
+     */
+    public VolumeIoStats getStats(ResourceName rscName, VolumeNumber vlmNr)
+    {
+        VolumeEntry entry = volumes.get(new ObjectIdentifier(null, rscName, vlmNr, null));
+        return entry == null ? null : entry.stats;
+    }
+
+    @Override
+    public void run()
+    {
+        while (running)
+        {
+            try
+            {
+                if (!volumes.isEmpty() && stltCfgAccessor.useDmStats())
+                {
+                    sample();
+                }
+                Thread.sleep(stltCfgAccessor.getDmStatsInterval());
+            }
+            catch (InterruptedException ignored)
+            {
+                // shutdown() interrupts the sleep, the loop condition decides whether to continue
+            }
+            catch (Exception exc)
+            {
+                errorReporter.reportError(exc);
+            }
+        }
+    }
+
+    private void sample()
+        throws IOException, ChildProcessTimeoutException
+    {
+        String[] command = DmStatsReport.getReportCommand();
+        ExtCmd.OutputData output = new ExtCmd(timer, errorReporter).exec(command);
+        long now = System.nanoTime();
+        if (output.exitCode != 0)
+        {
+            errorReporter.logWarning(
+                "'%s' failed with exit code %d: %s",
+                String.join(" ", command),
+                output.exitCode,
+                new String(output.stderrData).trim()
+            );
+        }
+        else
+        {
+            Map<String, DmStatsReport.Counters> countersByDevice =
+                DmStatsReport.parse(new String(output.stdoutData));
+
+            for (Map.Entry<ObjectIdentifier, VolumeEntry> vlmEntry : volumes.entrySet())
+            {
+                VolumeEntry entry = vlmEntry.getValue();
+                if (entry.dmName == null)
+                {
+                    entry.dmName = resolveDmName(entry.devPath);
+                }
+                DmStatsReport.Counters counters = entry.dmName == null ? null : countersByDevice.get(entry.dmName);
+                if (counters != null)
+                {
+                    if (entry.prevCounters != null)
+                    {
+                        VolumeIoStats stats = counters.statsSince(entry.prevCounters, now - entry.prevTimestamp);
+                        if (stats != null)
+                        {
+                            publish(vlmEntry.getKey(), entry, stats);
+                        }
+                    }
+                    entry.prevCounters = counters;
+                    entry.prevTimestamp = now;
+                }
+            }
+        }
+    }
+
+    private void publish(ObjectIdentifier vlmId, VolumeEntry entry, VolumeIoStats stats)
+    {
+        synchronized (entry)
+        {
+            if (!entry.removed)
+            {
+                boolean opened = entry.stats != null;
+                entry.stats = stats;
+                EventIdentifier eventId = eventIdentifier(vlmId.getResourceName(), vlmId.getVolumeNumber());
+                if (opened)
+                {
+                    eventBroker.triggerEvent(eventId);
+                }
+                else
+                {
+                    eventBroker.openEventStream(eventId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Looks up the device mapper name of the device in sysfs, falling back to the LVM naming
+     * conventions if the device cannot be resolved
+     */
+    private String resolveDmName(String devPath)
+    {
+        String dmName = null;
+        try
+        {
+            Path kernelDev = Paths.get(devPath).toRealPath().getFileName();
+            if (kernelDev != null)
+            {
+                Path dmNameFile = Paths.get(SYSFS_BLOCK_DIR, kernelDev.toString(), "dm", "name");
+                if (Files.isReadable(dmNameFile))
+                {
+                    dmName = new String(Files.readAllBytes(dmNameFile), StandardCharsets.UTF_8).trim();
+                }
+            }
+        }
+        catch (IOException ignored)
+        {
+            // fall back to the naming conventions
+        }
+        if (dmName == null)
+        {
+            dmName = DmStatsReport.guessDmName(devPath);
+        }
+        return dmName;
+    }
+
+    private static EventIdentifier eventIdentifier(ResourceName rscName, VolumeNumber vlmNr)
+    {
+        return EventIdentifier.volumeDefinition(InternalApiConsts.EVENT_VOLUME_IO_STATS, rscName, vlmNr);
+    }
+
+    @Override
+    public ServiceName getServiceName()
+    {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public String getServiceInfo()
+    {
+        return SERVICE_INFO;
+    }
+
+    @Override
+    public ServiceName getInstanceName()
+    {
+        return instanceName;
+    }
+
+    @Override
+    public boolean isStarted()
+    {
+        return running;
+    }
+
+    @Override
+    public void setServiceInstanceName(ServiceName instanceNameRef)
+    {
+        instanceName = instanceNameRef;
+    }
+
+    @Override
+    public synchronized void start()
+    {
+        if (!running)
+        {
+            running = true;
+            thread = new Thread(this, "VolumeIoStatsService");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Override
+    public synchronized void shutdown()
+    {
+        running = false;
+        if (thread != null)
+        {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public void awaitShutdown(long timeout) throws InterruptedException
+    {
+        Thread svcThread = thread;
+        if (svcThread != null)
+        {
+            svcThread.join(timeout);
+        }
+    }
+
+    private static class VolumeEntry
+    {
+        private final String devPath;
+
+        // Only accessed by the sampling thread
+        private String dmName;
+        private DmStatsReport.Counters prevCounters;
+        private long prevTimestamp;
+
+        // Changed while holding the lock of the entry, the statistics are also read without it
+        private volatile VolumeIoStats stats;
+        private boolean removed = false;
+
+        VolumeEntry(String devPathRef)
+        {
+            devPath = devPathRef;
+        }
+    }
+}
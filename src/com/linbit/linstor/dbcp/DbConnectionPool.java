@@ -8,6 +8,8 @@ import com.linbit.ServiceName;
 import com.linbit.SystemServiceStartException;
 import com.linbit.ValueOutOfRangeException;
 import com.linbit.linstor.ControllerDatabase;
+import com.linbit.linstor.LinStorRuntimeException;
+import com.linbit.linstor.dbdrivers.DatabaseDriverInfo;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -26,6 +28,9 @@ import org.apache.commons.pool2.impl.GenericObjectPool;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.flywaydb.core.Flyway;
 import static com.linbit.linstor.dbcp.migration.LinstorMigration.PLACEHOLDER_KEY_DB_TYPE;
+import static com.linbit.linstor.dbcp.migration.LinstorMigration.PLACEHOLDER_KEY_PROPS_STORAGE;
+import static com.linbit.linstor.dbcp.migration.LinstorMigration.PROPS_STORAGE_COMPACT;
+import static com.linbit.linstor.dbcp.migration.LinstorMigration.PROPS_STORAGE_ROWS;
 import static com.linbit.linstor.dbdrivers.derby.DbConstants.DATABASE_SCHEMA_NAME;
 
 /**
@@ -53,6 +58,11 @@ public class DbConnectionPool implements ControllerDatabase
     private ServiceName serviceNameInstance;
     private String dbConnectionUrl;
     private Properties props;
+    private DatabaseDriverInfo databaseInfo = null;
+    private GroupCommitCoordinator groupCommitCoordinator = null;
+    private SnapshotGeneration snapshotGeneration = null;
+    private StatementStatistics statementStatistics = null;
+    private boolean compactProps = false;
     private AtomicBoolean atomicStarted = new AtomicBoolean(false);
 
     private ThreadLocal<List<Connection>> threadLocalConnections;
@@ -120,6 +130,94 @@ public class DbConnectionPool implements ControllerDatabase
         }
     }
 
+    public String getConnectionUrl()
+    {
+        return dbConnectionUrl;
+    }
+
+    /**
+     * Sets the information about the database type, which is used for generating database specific statements
+     */
+    public void setDatabaseInfo(DatabaseDriverInfo databaseInfoRef)
+    {
+        databaseInfo = databaseInfoRef;
+    }
+
+    /**
+     * Returns the information about the database type, or null if the database type is not known
+     */
+    public DatabaseDriverInfo getDatabaseInfo()
+    {
+        return databaseInfo;
+    }
+
+    /**
+     * Sets the coordinator that shares durable commits between transactions, or null to commit each
+     * transaction on its own
+     */
+    public void setGroupCommitCoordinator(GroupCommitCoordinator groupCommitCoordinatorRef)
+    {
+        groupCommitCoordinator = groupCommitCoordinatorRef;
+    }
+
+    /**
+     * Returns the coordinator that shares durable commits between transactions, or null if group commit is
+     * disabled
+     */
+    public GroupCommitCoordinator getGroupCommitCoordinator()
+    {
+        return groupCommitCoordinator;
+    }
+
+    /**
+     * Sets the generation tracking of the startup snapshot, or null if startup snapshots are disabled
+     */
+    public void setSnapshotGeneration(SnapshotGeneration snapshotGenerationRef)
+    {
+        snapshotGeneration = snapshotGenerationRef;
+    }
+
+    /**
+     * Returns the generation tracking of the startup snapshot, or null if startup snapshots are disabled
+     */
+    public SnapshotGeneration getSnapshotGeneration()
+    {
+        return snapshotGeneration;
+    }
+
+    /**
+     * Sets the statistics that the statements executed on connections of this pool are recorded in, or null to
+     * disable recording
+     */
+    public void setStatementStatistics(StatementStatistics statementStatisticsRef)
+    {
+        statementStatistics = statementStatisticsRef;
+    }
+
+    /**
+     * Returns the statistics of the statements executed on connections of this pool, or null if they are
+     * not recorded
+     */
+    public StatementStatistics getStatementStatistics()
+    {
+        return statementStatistics;
+    }
+
+    /**
+     * Selects whether the properties are stored in the compact format, with one row per properties container
+     * instance, or with one row per property. Must be set before {@link #migrate(String)}, which converts the
+     * properties to the selected format.
+     */
+    public void setCompactProps(boolean compactPropsRef)
+    {
+        compactProps = compactPropsRef;
+    }
+
+    public boolean isCompactProps()
+    {
+        return compactProps;
+    }
+
     @Override
     public Connection getConnection()
         throws SQLException
@@ -128,6 +226,11 @@ public class DbConnectionPool implements ControllerDatabase
         if (dataSource != null)
         {
             dbConn = dataSource.getConnection();
+            StatementStatistics statistics = statementStatistics;
+            if (statistics != null)
+            {
+                dbConn = InstrumentedConnection.wrap(dbConn, statistics);
+            }
             List<Connection> connections = threadLocalConnections.get();
             if (connections == null)
             {
@@ -172,11 +275,39 @@ public class DbConnectionPool implements ControllerDatabase
         // When migrations are added in branches they can be applied in different orders
         flyway.setOutOfOrder(true);
 
-        // Pass the DB type to the migrations
-        flyway.setPlaceholders(ImmutableMap.of(PLACEHOLDER_KEY_DB_TYPE, dbType));
+        // Pass the DB type and the storage format of the properties to the migrations
+        flyway.setPlaceholders(ImmutableMap.of(
+            PLACEHOLDER_KEY_DB_TYPE, dbType,
+            PLACEHOLDER_KEY_PROPS_STORAGE, compactProps ? PROPS_STORAGE_COMPACT : PROPS_STORAGE_ROWS
+        ));
 
         flyway.setLocations(LinstorMigration.class.getPackage().getName());
-        flyway.migrate();
+        int appliedMigrations = flyway.migrate();
+
+        if (appliedMigrations > 0)
+        {
+            // Migrations change the database without a controller transaction
+            invalidateSnapshot();
+        }
+    }
+
+    private void invalidateSnapshot()
+    {
+        Connection dbConn = null;
+        try
+        {
+            dbConn = getConnection();
+            SnapshotGeneration.increment(dbConn);
+            dbConn.commit();
+        }
+        catch (SQLException sqlExc)
+        {
+            throw new LinStorRuntimeException("Failed to invalidate the startup snapshot", sqlExc);
+        }
+        finally
+        {
+            returnConnection(dbConn);
+        }
     }
 
     /**
@@ -5,18 +5,26 @@ import com.google.inject.Provides;
 import com.linbit.linstor.ControllerDatabase;
 import com.linbit.linstor.InitializationException;
 import com.linbit.linstor.core.LinStorArguments;
+import com.linbit.linstor.core.LinstorConfig;
+import com.linbit.linstor.dbcp.migration.LinstorMigration;
 import com.linbit.linstor.dbdrivers.DatabaseDriverInfo;
-import com.linbit.linstor.dbdrivers.GenericDbDriver;
 import com.linbit.linstor.dbdrivers.H2DatabaseInfo;
 import com.linbit.linstor.logging.ErrorReporter;
 
 import javax.inject.Singleton;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import static com.linbit.linstor.dbdrivers.derby.DbConstants.TBL_SEC_CONFIGURATION;
 
@@ -28,8 +36,26 @@ public class DbConnectionPoolModule extends AbstractModule
     // Database connection URL configuration key
     private static final String DB_CONN_URL = "connection-url";
 
+    // Group commit configuration key, "true" enables sharing durable commits between transactions
+    private static final String DB_GROUP_COMMIT = "group-commit";
+
+    // Startup snapshot interval configuration key, in seconds, 0 for snapshots at shutdown only
+    private static final String DB_STARTUP_SNAPSHOT_INTERVAL = "startup-snapshot-interval";
+
+    // Statement statistics configuration key, "true" enables recording the statistics (default: disabled)
+    private static final String DB_STATEMENT_STATISTICS = "statement-statistics";
+
+    // Storage format of the properties configuration key, "rows" (default) or "compact"
+    private static final String DB_PROPS_STORAGE = "props-storage";
+
     private static final String DEFAULT_DB_PATH = "/tmp/linstor";
 
+    // Number of statements with the highest total execution time that are included in error reports
+    private static final int REPORT_STATEMENT_COUNT = 20;
+
+    // Startup snapshot file path, relative to the working directory
+    private static final String STARTUP_SNAPSHOT_FILE = "startup-snapshot.bin";
+
     private static final String DERBY_CONNECTION_TEST_SQL =
         "SELECT 1 FROM " + TBL_SEC_CONFIGURATION;
 
@@ -54,13 +80,51 @@ public class DbConnectionPoolModule extends AbstractModule
         Properties dbProps = loadDatabaseConfiguration(args);
         String connectionUrl = getConnectionUrl(errorLogRef, args, dbProps);
         String dbType = getDbType(connectionUrl);
+        // These are not connection properties and must not be passed to the JDBC driver
+        String groupCommit = (String) dbProps.remove(DB_GROUP_COMMIT);
+        String startupSnapshotInterval = (String) dbProps.remove(DB_STARTUP_SNAPSHOT_INTERVAL);
+        String statementStatistics = (String) dbProps.remove(DB_STATEMENT_STATISTICS);
+        String propsStorage = (String) dbProps.remove(DB_PROPS_STORAGE);
+
+        if (statementStatistics != null && Boolean.parseBoolean(statementStatistics.trim()))
+        {
+            dbConnPool.setStatementStatistics(createStatementStatistics(errorLogRef));
+        }
 
         dbConnPool.initializeDataSource(
             connectionUrl,
             dbProps
         );
 
+        dbConnPool.setCompactProps(isCompactPropsStorage(errorLogRef, propsStorage));
         dbConnPool.migrate(dbType);
+        DatabaseDriverInfo dbInfo = DatabaseDriverInfo.createDriverInfo(dbType);
+        dbConnPool.setDatabaseInfo(dbInfo);
+        if (groupCommit != null && Boolean.parseBoolean(groupCommit.trim()))
+        {
+            dbConnPool.setGroupCommitCoordinator(createGroupCommitCoordinator(errorLogRef, dbInfo));
+        }
+        if (startupSnapshotInterval != null && isInMemoryDatabase(connectionUrl))
+        {
+            // The snapshot would outlive the database. It would also never be invalidated, because the
+            // pending changes query of H2 does not report changes of databases that are not persisted.
+            errorLogRef.logWarning("Startup snapshots are not used with an in memory database");
+        }
+        else
+        if (startupSnapshotInterval != null)
+        {
+            long intervalSeconds = parseConfigNumber(DB_STARTUP_SNAPSHOT_INTERVAL, startupSnapshotInterval);
+            errorLogRef.logInfo(
+                String.format("Using startup snapshots with an interval of %d seconds", intervalSeconds)
+            );
+            dbConnPool.setSnapshotGeneration(
+                new SnapshotGeneration(
+                    Paths.get(args.getWorkingDirectory(), STARTUP_SNAPSHOT_FILE),
+                    TimeUnit.SECONDS.toMillis(intervalSeconds),
+                    dbInfo == null ? null : dbInfo.pendingChangesQuery()
+                )
+            );
+        }
 
         testDbConnection(dbConnPool);
 
@@ -113,6 +177,11 @@ public class DbConnectionPoolModule extends AbstractModule
         return connectionUrl;
     }
 
+    private static boolean isInMemoryDatabase(String connectionUrl)
+    {
+        return connectionUrl.startsWith("jdbc:h2:mem:") || connectionUrl.startsWith("jdbc:derby:memory:");
+    }
+
     private String getDbType(String connectionUrl)
         throws InitializationException
     {
@@ -129,6 +198,91 @@ public class DbConnectionPoolModule extends AbstractModule
         return dbType;
     }
 
+    private GroupCommitCoordinator createGroupCommitCoordinator(
+        ErrorReporter errorLogRef,
+        DatabaseDriverInfo dbInfo
+    )
+    {
+        GroupCommitCoordinator groupCommitCoordinator = null;
+        if (dbInfo == null || dbInfo.deferredCommitStatement() == null)
+        {
+            errorLogRef.logWarning("Group commit is not supported by the database, committing each transaction");
+        }
+        else
+        {
+            errorLogRef.logInfo("Using group commit");
+            groupCommitCoordinator = new GroupCommitCoordinator(
+                dbInfo.deferredCommitStatement(),
+                dbInfo.durableCommitStatement()
+            );
+        }
+        return groupCommitCoordinator;
+    }
+
+    private StatementStatistics createStatementStatistics(ErrorReporter errorLogRef)
+    {
+        StatementStatistics statementStatistics = new StatementStatistics();
+        errorLogRef.addReportSection(
+            "Database statements with the highest total execution time",
+            () ->
+            {
+                List<StatementStatistics.Entry> entries =
+                    statementStatistics.getEntries(StatementStatistics.Entry.BY_TOTAL);
+                ByteArrayOutputStream tableData = new ByteArrayOutputStream();
+                PrintStream tableOut = new PrintStream(tableData);
+                StatementStatistics.printTable(
+                    tableOut,
+                    entries.subList(0, Math.min(entries.size(), REPORT_STATEMENT_COUNT))
+                );
+                tableOut.flush();
+                return tableData.toString();
+            }
+        );
+        return statementStatistics;
+    }
+
+    private boolean isCompactPropsStorage(ErrorReporter errorLogRef, String propsStorage)
+        throws InitializationException
+    {
+        boolean compact = false;
+        if (propsStorage != null)
+        {
+            switch (propsStorage.trim())
+            {
+                case LinstorMigration.PROPS_STORAGE_ROWS:
+                    break;
+                case LinstorMigration.PROPS_STORAGE_COMPACT:
+                    errorLogRef.logInfo("Storing properties in the compact format");
+                    compact = true;
+                    break;
+                default:
+                    throw new InitializationException(
+                        "Invalid value for " + DB_PROPS_STORAGE + ": '" + propsStorage + "'"
+                    );
+            }
+        }
+        return compact;
+    }
+
+    private long parseConfigNumber(String key, String value)
+        throws InitializationException
+    {
+        long number;
+        try
+        {
+            number = Long.parseLong(value.trim());
+        }
+        catch (NumberFormatException nfExc)
+        {
+            throw new InitializationException("Invalid value for " + key + ": '" + value + "'", nfExc);
+        }
+        if (number < 0)
+        {
+            throw new InitializationException("Invalid value for " + key + ": '" + value + "'");
+        }
+        return number;
+    }
+
     private void testDbConnection(DbConnectionPool dbConnPool)
         throws InitializationException
     {
@@ -161,19 +315,18 @@ public class DbConnectionPoolModule extends AbstractModule
             {
                 con = dbConnPool.getConnection();
 
+                Map<String, String> ctrlProps = new HashMap<>();
                 if (args.getInMemoryDbPort() > 0)
                 {
-                    GenericDbDriver.executeStatement(con,
-                        String.format("UPDATE PROPS_CONTAINERS SET PROP_VALUE='%d' " +
-                                "WHERE PROPS_INSTANCE='CTRLCFG' AND PROP_KEY='netcom/PlainConnector/port'",
-                            args.getInMemoryDbPort()));
+                    ctrlProps.put("netcom/PlainConnector/port", Integer.toString(args.getInMemoryDbPort()));
                 }
                 if (args.getInMemoryDbAddress() != null)
                 {
-                    GenericDbDriver.executeStatement(con,
-                        String.format("UPDATE PROPS_CONTAINERS SET PROP_VALUE='%s' " +
-                                "WHERE PROPS_INSTANCE='CTRLCFG' AND PROP_KEY='netcom/PlainConnector/bindaddress'",
-                            args.getInMemoryDbAddress()));
+                    ctrlProps.put("netcom/PlainConnector/bindaddress", args.getInMemoryDbAddress());
+                }
+                if (!ctrlProps.isEmpty())
+                {
+                    LinstorConfig.setControllerProperties(con, ctrlProps);
                 }
                 con.commit();
             }
@@ -0,0 +1,279 @@
+package com.linbit.linstor.dbcp;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares the durable commit of the database between transactions that commit at about the same time
+ *
+ * Each transaction is committed on its own connection without waiting for the transaction log to be
+ * written to disk. If no durable commit is running, the transaction runs one on its own connection at once.
+ * Otherwise, it joins the group of transactions that wait for the running durable commit to end. The first
+ * transaction of that group then runs a single durable commit, which writes the log of the whole group.
+ * A transaction never waits for other transactions that have not committed yet.
+ */
+public class GroupCommitCoordinator
+{
+    private final String deferredCommitStmt;
+    private final String durableCommitStmt;
+
+    private final Object groupLock = new Object();
+    // Guarded by groupLock
+    private CommitGroup nextGroup = null;
+    private boolean flushing = false;
+
+    private final Object statsLock = new Object();
+    private long groupCount = 0;
+    private long commitCount = 0;
+    private int maxGroupSize = 0;
+    private long totalLatencyNanos = 0;
+    private long maxLatencyNanos = 0;
+
+    public GroupCommitCoordinator(String deferredCommitStmtRef, String durableCommitStmtRef)
+    {
+        deferredCommitStmt = deferredCommitStmtRef;
+        durableCommitStmt = durableCommitStmtRef;
+    }
+
+    /**
+     * Commits the current transaction of the given connection and waits until it is durable.
+     *
+     * The committedAction runs as soon as the transaction is committed, before waiting for durability.
+     * If the durable commit fails, the transaction is still committed, but this method throws an
+     * SQLException, because it is unknown whether the transaction survives a crash of the database.
+     */
+    public void commit(Connection dbCon, Runnable committedAction)
+        throws SQLException
+    {
+        long startNanos = System.nanoTime();
+
+        execute(dbCon, deferredCommitStmt);
+        dbCon.commit();
+        committedAction.run();
+
+        CommitGroup group;
+        boolean leader;
+        synchronized (groupLock)
+        {
+            leader = nextGroup == null;
+            if (leader)
+            {
+                nextGroup = new CommitGroup();
+            }
+            group = nextGroup;
+            ++group.size;
+        }
+
+        if (leader)
+        {
+            int groupSize = startFlush(group);
+            SQLException flushExc = null;
+            try
+            {
+                execute(dbCon, durableCommitStmt);
+                dbCon.commit();
+            }
+            catch (SQLException sqlExc)
+            {
+                flushExc = sqlExc;
+            }
+            finally
+            {
+                endFlush();
+            }
+            group.complete(flushExc);
+            recordGroup(groupSize);
+        }
+        else
+        {
+            group.await();
+        }
+
+        recordLatency(System.nanoTime() - startNanos);
+
+        if (group.failure != null)
+        {
+            throw new SQLException("The durable commit of a group of transactions failed", group.failure);
+        }
+    }
+
+    public GroupCommitStats getStats()
+    {
+        synchronized (statsLock)
+        {
+            return new GroupCommitStats(
+                groupCount,
+                commitCount,
+                maxGroupSize,
+                commitCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalLatencyNanos / commitCount),
+                TimeUnit.NANOSECONDS.toMicros(maxLatencyNanos)
+            );
+        }
+    }
+
+    /**
+     * Waits until no durable commit is running, and then closes the group, so that transactions that
+     * commit later start a new group
+     *
+     * @return The number of transactions in the group
+     */
+    private int startFlush(CommitGroup group)
+    {
+        boolean interrupted = false;
+        int groupSize;
+        synchronized (groupLock)
+        {
+            while (flushing)
+            {
+                try
+                {
+                    groupLock.wait();
+                }
+                catch (InterruptedException ignored)
+                {
+                    // The durable commit is still required, keep waiting for the running one to end
+                    interrupted = true;
+                }
+            }
+            flushing = true;
+            nextGroup = null;
+            groupSize = group.size;
+        }
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+        return groupSize;
+    }
+
+    private void endFlush()
+    {
+        synchronized (groupLock)
+        {
+            flushing = false;
+            groupLock.notifyAll();
+        }
+    }
+
+    private void recordGroup(int groupSize)
+    {
+        synchronized (statsLock)
+        {
+            ++groupCount;
+            commitCount += groupSize;
+            maxGroupSize = Math.max(maxGroupSize, groupSize);
+        }
+    }
+
+    private void recordLatency(long latencyNanos)
+    {
+        synchronized (statsLock)
+        {
+            totalLatencyNanos += latencyNanos;
+            maxLatencyNanos = Math.max(maxLatencyNanos, latencyNanos);
+        }
+    }
+
+    private static void execute(Connection dbCon, String sql)
+        throws SQLException
+    {
+        try (Statement stmt = dbCon.createStatement())
+        {
+            stmt.execute(sql);
+        }
+    }
+
+    private static class CommitGroup
+    {
+        // Guarded by groupLock
+        private int size = 0;
+
+        // Guarded by this object until completed is set
+        private boolean completed = false;
+        private SQLException failure = null;
+
+        synchronized void complete(SQLException failureRef)
+        {
+            failure = failureRef;
+            completed = true;
+            notifyAll();
+        }
+
+        synchronized void await()
+        {
+            boolean interrupted = false;
+            while (!completed)
+            {
+                try
+                {
+                    wait();
+                }
+                catch (InterruptedException ignored)
+                {
+                    // The transaction is already committed, keep waiting until it is durable
+                    interrupted = true;
+                }
+            }
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public static class GroupCommitStats
+    {
+        private final long groups;
+        private final long commits;
+        private final int maxGroupSize;
+        private final long avgLatencyMicros;
+        private final long maxLatencyMicros;
+
+        GroupCommitStats(
+            long groupsRef,
+            long commitsRef,
+            int maxGroupSizeRef,
+            long avgLatencyMicrosRef,
+            long maxLatencyMicrosRef
+        )
+        {
+            groups = groupsRef;
+            commits = commitsRef;
+            maxGroupSize = maxGroupSizeRef;
+            avgLatencyMicros = avgLatencyMicrosRef;
+            maxLatencyMicros = maxLatencyMicrosRef;
+        }
+
+        public long getGroups()
+        {
+            return groups;
+        }
+
+        public long getCommits()
+        {
+            return commits;
+        }
+
+        public int getMaxGroupSize()
+        {
+            return maxGroupSize;
+        }
+
+        public double getAvgGroupSize()
+        {
+            return groups == 0 ? 0 : (double) commits / groups;
+        }
+
+        public long getAvgLatencyMicros()
+        {
+            return avgLatencyMicros;
+        }
+
+        public long getMaxLatencyMicros()
+        {
+            return maxLatencyMicros;
+        }
+    }
+}
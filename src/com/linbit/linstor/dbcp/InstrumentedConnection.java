@@ -0,0 +1,240 @@
+package com.linbit.linstor.dbcp;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Wraps the connections of the {@link DbConnectionPool} for recording {@link StatementStatistics}
+ *
+ * The executions of statements, commits and rollbacks are timed. The rows that queries return are counted
+ * while they are read and added to the statistics when the result set is closed.
+ */
+class InstrumentedConnection implements InvocationHandler
+{
+    static final String COMMIT = "COMMIT";
+    static final String ROLLBACK = "ROLLBACK";
+
+    private final Connection dbCon;
+    private final StatementStatistics statistics;
+
+    private InstrumentedConnection(Connection dbConRef, StatementStatistics statisticsRef)
+    {
+        dbCon = dbConRef;
+        statistics = statisticsRef;
+    }
+
+    static Connection wrap(Connection dbCon, StatementStatistics statistics)
+    {
+        return (Connection) Proxy.newProxyInstance(
+            InstrumentedConnection.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            new InstrumentedConnection(dbCon, statistics)
+        );
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args)
+        throws Throwable
+    {
+        Object result;
+        String name = method.getName();
+        if (method.getDeclaringClass() == Object.class)
+        {
+            result = invokeObjectMethod(proxy, dbCon, method, args);
+        }
+        else
+        if (name.equals("commit") || (name.equals("rollback") && method.getParameterCount() == 0))
+        {
+            long startNanos = System.nanoTime();
+            result = invokeTarget(dbCon, method, args);
+            statistics.record(name.equals("commit") ? COMMIT : ROLLBACK, System.nanoTime() - startNanos, 0);
+        }
+        else
+        {
+            result = invokeTarget(dbCon, method, args);
+            if (name.equals("prepareStatement") || name.equals("prepareCall"))
+            {
+                result = wrapStatement(
+                    (Statement) result,
+                    name.equals("prepareStatement") ? PreparedStatement.class : CallableStatement.class,
+                    (String) args[0]
+                );
+            }
+            else
+            if (name.equals("createStatement"))
+            {
+                result = wrapStatement((Statement) result, Statement.class, null);
+            }
+        }
+        return result;
+    }
+
+    private Statement wrapStatement(Statement stmt, Class<? extends Statement> stmtClass, String preparedSql)
+    {
+        return (Statement) Proxy.newProxyInstance(
+            InstrumentedConnection.class.getClassLoader(),
+            new Class<?>[] {stmtClass},
+            new StatementHandler(stmt, preparedSql)
+        );
+    }
+
+    private static Object invokeObjectMethod(Object proxy, Object target, Method method, Object[] args)
+        throws Throwable
+    {
+        Object result;
+        switch (method.getName())
+        {
+            case "equals":
+                // Connections are compared by identity, e.g. when they are returned to the pool
+                result = proxy == args[0];
+                break;
+            case "hashCode":
+                result = System.identityHashCode(proxy);
+                break;
+            default:
+                result = invokeTarget(target, method, args);
+                break;
+        }
+        return result;
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args)
+        throws Throwable
+    {
+        try
+        {
+            return method.invoke(target, args);
+        }
+        catch (InvocationTargetException invocationExc)
+        {
+            throw invocationExc.getCause();
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler
+    {
+        private final Statement stmt;
+        private final String preparedSql;
+
+        StatementHandler(Statement stmtRef, String preparedSqlRef)
+        {
+            stmt = stmtRef;
+            preparedSql = preparedSqlRef;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args)
+            throws Throwable
+        {
+            Object result;
+            String name = method.getName();
+            if (method.getDeclaringClass() == Object.class)
+            {
+                result = invokeObjectMethod(proxy, stmt, method, args);
+            }
+            else
+            if (name.startsWith("execute"))
+            {
+                // Statements that were not prepared pass the SQL to the execute method
+                String sql = args != null && args.length > 0 && args[0] instanceof String ?
+                    (String) args[0] : preparedSql;
+
+                long startNanos = System.nanoTime();
+                result = invokeTarget(stmt, method, args);
+                long latencyNanos = System.nanoTime() - startNanos;
+
+                if (sql != null)
+                {
+                    statistics.record(sql, latencyNanos, changedRows(result));
+                    if (result instanceof ResultSet)
+                    {
+                        result = Proxy.newProxyInstance(
+                            InstrumentedConnection.class.getClassLoader(),
+                            new Class<?>[] {ResultSet.class},
+                            new ResultSetHandler((ResultSet) result, sql)
+                        );
+                    }
+                }
+            }
+            else
+            {
+                result = invokeTarget(stmt, method, args);
+            }
+            return result;
+        }
+
+        private long changedRows(Object executeResult)
+        {
+            long rows = 0;
+            if (executeResult instanceof Integer || executeResult instanceof Long)
+            {
+                rows = Math.max(((Number) executeResult).longValue(), 0);
+            }
+            else
+            if (executeResult instanceof int[])
+            {
+                // Batch updates report negative values if the number of rows is unknown
+                for (int batchRows : (int[]) executeResult)
+                {
+                    rows += Math.max(batchRows, 0);
+                }
+            }
+            return rows;
+        }
+    }
+
+    private class ResultSetHandler implements InvocationHandler
+    {
+        private final ResultSet resultSet;
+        private final String sql;
+        private long rows = 0;
+        private boolean recorded = false;
+
+        ResultSetHandler(ResultSet resultSetRef, String sqlRef)
+        {
+            resultSet = resultSetRef;
+            sql = sqlRef;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args)
+            throws Throwable
+        {
+            Object result;
+            if (method.getDeclaringClass() == Object.class)
+            {
+                result = invokeObjectMethod(proxy, resultSet, method, args);
+            }
+            else
+            {
+                result = invokeTarget(resultSet, method, args);
+                switch (method.getName())
+                {
+                    case "next":
+                        if ((Boolean) result)
+                        {
+                            ++rows;
+                        }
+                        break;
+                    case "close":
+                        if (!recorded)
+                        {
+                            recorded = true;
+                            statistics.addRows(sql, rows);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.linbit.linstor.dbcp;
+
+import com.linbit.linstor.dbdrivers.DatabaseDriverInfo;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.linbit.linstor.dbdrivers.derby.DbConstants.GENERATION;
+import static com.linbit.linstor.dbdrivers.derby.DbConstants.TBL_DB_GENERATION;
+
+/**
+ * Tracks whether the startup snapshot of the controller still matches the database
+ *
+ * The database contains a generation counter. A snapshot is stamped with the generation that was read
+ * when the snapshot was taken. The first transaction that changes the database after a snapshot was taken
+ * increments the generation, which invalidates the snapshot. Later transactions commit without touching the
+ * counter until the next snapshot is taken, and they do not wait for the commit of the first transaction.
+ * If that commit fails, the generation is incremented in a transaction of its own, because the later
+ * transactions may have committed their changes meanwhile.
+ */
+public class SnapshotGeneration
+{
+    private static final String SELECT_GENERATION =
+        " SELECT " + GENERATION + " FROM " + TBL_DB_GENERATION;
+    private static final String INCREMENT_GENERATION =
+        " UPDATE " + TBL_DB_GENERATION + " SET " + GENERATION + " = " + GENERATION + " + 1";
+
+    private final Path snapshotFile;
+    private final long snapshotIntervalMillis;
+    private final String pendingChangesQuery;
+
+    // Commits hold the read lock, taking a snapshot holds the write lock while reading the generation
+    private final ReadWriteLock commitLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean snapshotCurrent = new AtomicBoolean(false);
+
+    /**
+     * @param pendingChangesQueryRef See {@link DatabaseDriverInfo#pendingChangesQuery()}. If null, every
+     *     commit is treated as a change of the database.
+     */
+    public SnapshotGeneration(Path snapshotFileRef, long snapshotIntervalMillisRef, String pendingChangesQueryRef)
+    {
+        snapshotFile = snapshotFileRef;
+        snapshotIntervalMillis = snapshotIntervalMillisRef;
+        pendingChangesQuery = pendingChangesQueryRef;
+    }
+
+    public Path getSnapshotFile()
+    {
+        return snapshotFile;
+    }
+
+    /**
+     * Returns the interval for taking snapshots periodically, or 0 if snapshots are only taken at shutdown
+     */
+    public long getSnapshotIntervalMillis()
+    {
+        return snapshotIntervalMillis;
+    }
+
+    /**
+     * Returns true if no transaction changed the database since the last snapshot was taken
+     */
+    public boolean isSnapshotCurrent()
+    {
+        return snapshotCurrent.get();
+    }
+
+    /**
+     * Marks the snapshot that matches the current generation as current, e.g. after it was loaded
+     */
+    public void setSnapshotCurrent()
+    {
+        snapshotCurrent.set(true);
+    }
+
+    /**
+     * Runs the commit of the transaction on the given connection. If a snapshot is current and the transaction
+     * changed the database, the generation is incremented in the same transaction.
+     */
+    public void commit(Connection dbCon, CommitAction commitAction)
+        throws SQLException
+    {
+        commitLock.readLock().lock();
+        try
+        {
+            // Only the first transaction that changes the database increments the generation
+            if (snapshotCurrent.get() && hasPendingChanges(dbCon) && snapshotCurrent.compareAndSet(true, false))
+            {
+                try
+                {
+                    increment(dbCon);
+                    commitAction.commit();
+                }
+                catch (SQLException exc)
+                {
+                    incrementSeparately(dbCon, exc);
+                    throw exc;
+                }
+            }
+            else
+            {
+                commitAction.commit();
+            }
+        }
+        finally
+        {
+            commitLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the generation for a new snapshot and marks the snapshot as current. No transaction commits
+     * while the generation is read, and every transaction that commits afterwards increments the generation.
+     */
+    public long beginSnapshot(Connection dbCon)
+        throws SQLException
+    {
+        commitLock.writeLock().lock();
+        try
+        {
+            long generation = read(dbCon);
+            snapshotCurrent.set(true);
+            return generation;
+        }
+        finally
+        {
+            commitLock.writeLock().unlock();
+        }
+    }
+
+    private boolean hasPendingChanges(Connection dbCon)
+        throws SQLException
+    {
+        boolean pendingChanges = true;
+        if (pendingChangesQuery != null)
+        {
+            try (
+                PreparedStatement stmt = dbCon.prepareStatement(pendingChangesQuery);
+                ResultSet resultSet = stmt.executeQuery()
+            )
+            {
+                pendingChanges = resultSet.next() && resultSet.getObject(1) != null;
+            }
+        }
+        return pendingChanges;
+    }
+
+    private static void incrementSeparately(Connection dbCon, SQLException commitExc)
+    {
+        try
+        {
+            dbCon.rollback();
+            increment(dbCon);
+            dbCon.commit();
+        }
+        catch (SQLException exc)
+        {
+            commitExc.addSuppressed(exc);
+        }
+    }
+
+    public static long read(Connection dbCon)
+        throws SQLException
+    {
+        try (
+            PreparedStatement stmt = dbCon.prepareStatement(SELECT_GENERATION);
+            ResultSet resultSet = stmt.executeQuery()
+        )
+        {
+            if (!resultSet.next())
+            {
+                throw new SQLException("The table " + TBL_DB_GENERATION + " is empty");
+            }
+            return resultSet.getLong(GENERATION);
+        }
+    }
+
+    /**
+     * Increments the generation in the current transaction of the given connection. Any change to the database
+     * that is not made by a controller transaction must do this to invalidate the startup snapshot.
+     */
+    public static void increment(Connection dbCon)
+        throws SQLException
+    {
+        try (PreparedStatement stmt = dbCon.prepareStatement(INCREMENT_GENERATION))
+        {
+            stmt.executeUpdate();
+        }
+    }
+
+    @FunctionalInterface
+    public interface CommitAction
+    {
+        void commit() throws SQLException;
+    }
+}
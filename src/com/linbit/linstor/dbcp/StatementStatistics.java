@@ -0,0 +1,222 @@
+package com.linbit.linstor.dbcp;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the number of executions, the latency and the number of rows of each SQL statement
+ *
+ * Statements are identified by their SQL text, so each of the SQL constants of the database drivers is
+ * counted separately. Latencies are recorded in a histogram with power of two buckets, so percentiles are
+ * approximate.
+ */
+public class StatementStatistics
+{
+    // Limits the memory used for statements that are built dynamically
+    public static final int MAX_STATEMENTS = 1000;
+    public static final String OTHER_STATEMENTS = "<other statements>";
+
+    // Bucket n counts latencies of less than 2^n microseconds
+    private static final int BUCKET_COUNT = 40;
+
+    private final ConcurrentMap<String, StatementStats> statements = new ConcurrentHashMap<>();
+
+    /**
+     * Records an execution of the given statement
+     *
+     * @param rows The number of rows that the statement changed. Rows that a query returns are added with
+     *     {@link #addRows(String, long)} while they are read.
+     */
+    public void record(String sql, long latencyNanos, long rows)
+    {
+        getStats(sql).record(latencyNanos, rows);
+    }
+
+    public void addRows(String sql, long rows)
+    {
+        getStats(sql).addRows(rows);
+    }
+
+    public void reset()
+    {
+        statements.clear();
+    }
+
+    /**
+     * Returns the statistics of all statements, sorted by the given order
+     */
+    public List<Entry> getEntries(Comparator<Entry> order)
+    {
+        List<Entry> entries = new ArrayList<>();
+        for (Map.Entry<String, StatementStats> mapEntry : statements.entrySet())
+        {
+            entries.add(mapEntry.getValue().toEntry(mapEntry.getKey()));
+        }
+        entries.sort(order);
+        return entries;
+    }
+
+    /**
+     * Prints the statistics of the given entries as a table, with the SQL of each statement on the following line
+     */
+    public static void printTable(PrintStream output, List<Entry> entries)
+    {
+        output.printf(
+            "%10s %12s %10s %10s %10s %10s %10s %12s\n",
+            "Count", "Total ms", "Avg us", "50% us", "95% us", "99% us", "Max us", "Rows"
+        );
+        for (Entry entry : entries)
+        {
+            output.printf(
+                "%10d %12d %10d %10d %10d %10d %10d %12d\n",
+                entry.getCount(),
+                TimeUnit.MICROSECONDS.toMillis(entry.getTotalMicros()),
+                entry.getAvgMicros(),
+                entry.getPercentileMicros(0.50),
+                entry.getPercentileMicros(0.95),
+                entry.getPercentileMicros(0.99),
+                entry.getMaxMicros(),
+                entry.getRows()
+            );
+            output.println("    " + entry.getSql());
+        }
+    }
+
+    private StatementStats getStats(String sql)
+    {
+        StatementStats stats = statements.get(sql);
+        if (stats == null)
+        {
+            String key = statements.size() < MAX_STATEMENTS ? sql : OTHER_STATEMENTS;
+            stats = statements.computeIfAbsent(key, ignored -> new StatementStats());
+        }
+        return stats;
+    }
+
+    private static int bucketIndex(long latencyMicros)
+    {
+        return Math.min(64 - Long.numberOfLeadingZeros(latencyMicros), BUCKET_COUNT - 1);
+    }
+
+    private static class StatementStats
+    {
+        private long count = 0;
+        private long totalNanos = 0;
+        private long maxNanos = 0;
+        private long rows = 0;
+        private final long[] buckets = new long[BUCKET_COUNT];
+
+        synchronized void record(long latencyNanos, long rowsRef)
+        {
+            ++count;
+            totalNanos += latencyNanos;
+            maxNanos = Math.max(maxNanos, latencyNanos);
+            rows += rowsRef;
+            ++buckets[bucketIndex(TimeUnit.NANOSECONDS.toMicros(latencyNanos))];
+        }
+
+        synchronized void addRows(long rowsRef)
+        {
+            rows += rowsRef;
+        }
+
+        synchronized Entry toEntry(String sql)
+        {
+            return new Entry(
+                sql.trim().replaceAll("\\s+", " "),
+                count,
+                TimeUnit.NANOSECONDS.toMicros(totalNanos),
+                TimeUnit.NANOSECONDS.toMicros(maxNanos),
+                rows,
+                buckets.clone()
+            );
+        }
+    }
+
+    public static class Entry
+    {
+        public static final Comparator<Entry> BY_COUNT = Comparator.comparingLong(Entry::getCount).reversed();
+        public static final Comparator<Entry> BY_TOTAL = Comparator.comparingLong(Entry::getTotalMicros).reversed();
+        public static final Comparator<Entry> BY_AVG = Comparator.comparingLong(Entry::getAvgMicros).reversed();
+        public static final Comparator<Entry> BY_MAX = Comparator.comparingLong(Entry::getMaxMicros).reversed();
+        public static final Comparator<Entry> BY_ROWS = Comparator.comparingLong(Entry::getRows).reversed();
+
+        private final String sql;
+        private final long count;
+        private final long totalMicros;
+        private final long maxMicros;
+        private final long rows;
+        private final long[] buckets;
+
+        Entry(String sqlRef, long countRef, long totalMicrosRef, long maxMicrosRef, long rowsRef, long[] bucketsRef)
+        {
+            sql = sqlRef;
+            count = countRef;
+            totalMicros = totalMicrosRef;
+            maxMicros = maxMicrosRef;
+            rows = rowsRef;
+            buckets = bucketsRef;
+        }
+
+        public String getSql()
+        {
+            return sql;
+        }
+
+        public long getCount()
+        {
+            return count;
+        }
+
+        public long getTotalMicros()
+        {
+            return totalMicros;
+        }
+
+        public long getAvgMicros()
+        {
+            return count == 0 ? 0 : totalMicros / count;
+        }
+
+        public long getMaxMicros()
+        {
+            return maxMicros;
+        }
+
+        /**
+         * Returns the number of rows that the statement changed or returned
+         */
+        public long getRows()
+        {
+            return rows;
+        }
+
+        /**
+         * Returns the upper bound of the latency of the given fraction of executions, e.g. 0.99 for the
+         * 99th percentile
+         */
+        public long getPercentileMicros(double fraction)
+        {
+            long percentileMicros = 0;
+            long threshold = (long) Math.ceil(count * fraction);
+            long cumulative = 0;
+            boolean found = count == 0;
+            for (int idx = 0; idx < buckets.length && !found; ++idx)
+            {
+                cumulative += buckets[idx];
+                if (cumulative >= threshold)
+                {
+                    percentileMicros = Math.min(1L << idx, maxMicros);
+                    found = true;
+                }
+            }
+            return percentileMicros;
+        }
+    }
+}
@@ -19,8 +19,14 @@ import org.flywaydb.core.api.migration.jdbc.JdbcMigration;
 public abstract class LinstorMigration implements JdbcMigration, MigrationInfoProvider, ConfigurationAware
 {
     public static final String PLACEHOLDER_KEY_DB_TYPE = "dbType";
+    public static final String PLACEHOLDER_KEY_PROPS_STORAGE = "propsStorage";
+
+    // Storage formats of the properties, see PropsConGenericDbDriver
+    public static final String PROPS_STORAGE_ROWS = "rows";
+    public static final String PROPS_STORAGE_COMPACT = "compact";
 
     private String dbType;
+    private String propsStorage;
 
     @Override
     public MigrationVersion getVersion()
@@ -44,10 +50,16 @@ public abstract class LinstorMigration implements JdbcMigration, MigrationInfoPr
     public void setFlywayConfiguration(FlywayConfiguration flywayConfiguration)
     {
         dbType = flywayConfiguration.getPlaceholders().get(PLACEHOLDER_KEY_DB_TYPE);
+        propsStorage = flywayConfiguration.getPlaceholders().get(PLACEHOLDER_KEY_PROPS_STORAGE);
     }
 
     protected String getDbType()
     {
         return dbType;
     }
+
+    protected String getPropsStorage()
+    {
+        return propsStorage;
+    }
 }
@@ -0,0 +1,23 @@
+package com.linbit.linstor.dbcp.migration;
+
+import com.linbit.linstor.dbdrivers.GenericDbDriver;
+
+import java.sql.Connection;
+
+@Migration(
+    version = "2018.07.02.10.00",
+    description = "Add the database generation counter"
+)
+public class Migration_2018_07_02_10_00_DbGeneration extends LinstorMigration
+{
+    @Override
+    public void migrate(Connection connection)
+        throws Exception
+    {
+        if (!MigrationUtils.tableExists(connection, "DB_GENERATION"))
+        {
+            String sql = MigrationUtils.loadResource("2018_07_02_10_00_db-generation.sql");
+            GenericDbDriver.runSql(connection, sql);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.linbit.linstor.dbcp.migration;
+
+import com.linbit.linstor.dbdrivers.DatabaseDriverInfo;
+import com.linbit.linstor.dbdrivers.GenericDbDriver;
+
+import java.sql.Connection;
+
+@Migration(
+    version = "2018.07.09.10.00",
+    description = "Add the table for properties in the compact storage format"
+)
+public class Migration_2018_07_09_10_00_CompactProps extends LinstorMigration
+{
+    private static final String TBL_PROPS_CONTAINERS_COMPACT = "PROPS_CONTAINERS_COMPACT";
+
+    @Override
+    public void migrate(Connection connection)
+        throws Exception
+    {
+        if (!MigrationUtils.tableExists(connection, TBL_PROPS_CONTAINERS_COMPACT))
+        {
+            DatabaseDriverInfo databaseInfo = DatabaseDriverInfo.createDriverInfo(getDbType());
+            GenericDbDriver.executeStatement(
+                connection,
+                "CREATE TABLE " + TBL_PROPS_CONTAINERS_COMPACT + "\n" +
+                "(\n" +
+                "    PROPS_INSTANCE VARCHAR(512) NOT NULL,\n" +
+                "    PROPS_DATA " + databaseInfo.blobType() + " NOT NULL,\n" +
+                "    CONSTRAINT PK_PCC PRIMARY KEY (PROPS_INSTANCE),\n" +
+                "    CONSTRAINT CHK_PCC_PRP_INST_NAME CHECK(UPPER(PROPS_INSTANCE) = PROPS_INSTANCE AND " +
+                "LENGTH(PROPS_INSTANCE) >= 2)\n" +
+                ")"
+            );
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.linbit.linstor.dbcp.migration;
+
+import com.linbit.linstor.dbdrivers.DatabaseDriverInfo;
+import com.linbit.linstor.dbdrivers.GenericDbDriver;
+
+import java.sql.Connection;
+
+@Migration(
+    version = "2018.07.16.10.00",
+    description = "Add indexes for lookups and foreign keys"
+)
+public class Migration_2018_07_16_10_00_LookupIndexes extends LinstorMigration
+{
+    @Override
+    public void migrate(Connection connection)
+        throws Exception
+    {
+        GenericDbDriver.runSql(connection, MigrationUtils.loadResource("2018_07_16_10_00_covering-indexes.sql"));
+
+        DatabaseDriverInfo databaseInfo = DatabaseDriverInfo.createDriverInfo(getDbType());
+        if (!databaseInfo.createsForeignKeyIndexes())
+        {
+            GenericDbDriver.runSql(
+                connection,
+                MigrationUtils.loadResource("2018_07_16_10_00_foreign-key-indexes.sql")
+            );
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.linbit.linstor.dbcp.migration;
+
+import com.linbit.linstor.propscon.CompactPropsStorage;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.MigrationChecksumProvider;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Converts the properties to the configured storage format
+ *
+ * This is a repeatable migration. Its checksum depends on the configured storage format, so it runs again
+ * whenever the storage format is changed. Properties that exist in both formats are taken from the rows of
+ * PROPS_CONTAINERS.
+ */
+public class Migration_ConvertPropsStorage extends LinstorMigration implements MigrationChecksumProvider
+{
+    private static final String TBL_PROPS_CONTAINERS = "PROPS_CONTAINERS";
+    private static final String TBL_PROPS_CONTAINERS_COMPACT = "PROPS_CONTAINERS_COMPACT";
+    private static final String PROPS_INSTANCE = "PROPS_INSTANCE";
+    private static final String PROP_KEY = "PROP_KEY";
+    private static final String PROP_VALUE = "PROP_VALUE";
+
+    private static final String SELECT_ALL_ROWS =
+        " SELECT " + PROPS_INSTANCE + ", " + PROP_KEY + ", " + PROP_VALUE +
+        " FROM " + TBL_PROPS_CONTAINERS;
+    private static final String INSERT_ROW =
+        " INSERT INTO " + TBL_PROPS_CONTAINERS +
+        " (" + PROPS_INSTANCE + ", " + PROP_KEY + ", " + PROP_VALUE + ")" +
+        " VALUES (?, ?, ?)";
+    private static final String DELETE_ALL_ROWS = "DELETE FROM " + TBL_PROPS_CONTAINERS;
+    private static final String DELETE_ALL_COMPACT = "DELETE FROM " + TBL_PROPS_CONTAINERS_COMPACT;
+
+    @Override
+    public MigrationVersion getVersion()
+    {
+        // No version makes this a repeatable migration
+        return null;
+    }
+
+    @Override
+    public String getDescription()
+    {
+        return "Convert the properties to the configured storage format";
+    }
+
+    @Override
+    public Integer getChecksum()
+    {
+        return getPropsStorage() == null ? 0 : getPropsStorage().hashCode();
+    }
+
+    @Override
+    public void migrate(Connection connection)
+        throws Exception
+    {
+        if (PROPS_STORAGE_COMPACT.equals(getPropsStorage()))
+        {
+            convertToCompact(connection);
+        }
+        else
+        {
+            convertToRows(connection);
+        }
+    }
+
+    @SuppressWarnings("checkstyle:magicnumber")
+    private void convertToCompact(Connection connection)
+        throws SQLException
+    {
+        Map<String, Map<String, String>> rowProps = new HashMap<>();
+        try (
+            PreparedStatement stmt = connection.prepareStatement(SELECT_ALL_ROWS);
+            ResultSet resultSet = stmt.executeQuery()
+        )
+        {
+            while (resultSet.next())
+            {
+                rowProps.computeIfAbsent(resultSet.getString(1), ignored -> new HashMap<>())
+                    .put(resultSet.getString(2), resultSet.getString(3));
+            }
+        }
+
+        for (Map.Entry<String, Map<String, String>> entry : rowProps.entrySet())
+        {
+            Map<String, String> props = CompactPropsStorage.read(connection, entry.getKey());
+            props.putAll(entry.getValue());
+            CompactPropsStorage.write(connection, entry.getKey(), props);
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement(DELETE_ALL_ROWS))
+        {
+            stmt.executeUpdate();
+        }
+    }
+
+    @SuppressWarnings("checkstyle:magicnumber")
+    private void convertToRows(Connection connection)
+        throws SQLException
+    {
+        Set<String> existingRows = new HashSet<>();
+        try (
+            PreparedStatement stmt = connection.prepareStatement(SELECT_ALL_ROWS);
+            ResultSet resultSet = stmt.executeQuery()
+        )
+        {
+            while (resultSet.next())
+            {
+                existingRows.add(resultSet.getString(1) + "\n" + resultSet.getString(2));
+            }
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement(INSERT_ROW))
+        {
+            for (Map.Entry<String, Map<String, String>> instanceEntry :
+                CompactPropsStorage.readAll(connection).entrySet())
+            {
+                String instanceName = instanceEntry.getKey();
+                for (Map.Entry<String, String> propEntry : instanceEntry.getValue().entrySet())
+                {
+                    if (!existingRows.contains(instanceName + "\n" + propEntry.getKey()))
+                    {
+                        stmt.setString(1, instanceName);
+                        stmt.setString(2, propEntry.getKey());
+                        stmt.setString(3, propEntry.getValue());
+                        stmt.addBatch();
+                    }
+                }
+            }
+            stmt.executeBatch();
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement(DELETE_ALL_COMPACT))
+        {
+            stmt.executeUpdate();
+        }
+    }
+}
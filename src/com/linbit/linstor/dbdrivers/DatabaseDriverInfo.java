@@ -1,5 +1,7 @@
 package com.linbit.linstor.dbdrivers;
 
+import java.util.List;
+
 public interface DatabaseDriverInfo
 {
     static void loadDriver(final String driverClass)
@@ -41,4 +43,40 @@ public interface DatabaseDriverInfo
     String isolationStatement();
 
     String prepareInit(String initSQL);
+
+    /**
+     * Returns a statement that inserts a row, or updates the value columns if a row with the same key already
+     * exists, or null if the database has no native statement for that. The parameters of the statement are the
+     * key columns followed by the value columns.
+     */
+    String upsertStatement(String table, List<String> keyColumns, List<String> valueColumns);
+
+    /**
+     * Returns a statement that makes the commit of the current transaction return without waiting for the
+     * transaction log to be written to disk, or null if the database does not support that
+     */
+    String deferredCommitStatement();
+
+    /**
+     * Returns a statement that makes the commit of the current transaction write the transaction log and
+     * wait for it to be written to disk, even if the transaction did not modify any data. The log also
+     * contains all transactions that were committed before with the {@link #deferredCommitStatement()}.
+     */
+    String durableCommitStatement();
+
+    /**
+     * Returns a query whose first row contains a non-NULL value if the current transaction has uncommitted
+     * changes, and that returns no rows or a NULL value otherwise, or null if the database does not support that
+     */
+    String pendingChangesQuery();
+
+    /**
+     * Returns the column type for binary data of variable length
+     */
+    String blobType();
+
+    /**
+     * Returns true if the database creates an index for the columns of each foreign key constraint
+     */
+    boolean createsForeignKeyIndexes();
 }
@@ -1,5 +1,7 @@
 package com.linbit.linstor.dbdrivers;
 
+import java.util.List;
+
 public class DerbyDatabaseInfo implements DatabaseDriverInfo
 {
     public DerbyDatabaseInfo()
@@ -30,4 +32,42 @@ public class DerbyDatabaseInfo implements DatabaseDriverInfo
     {
         return initSQL;
     }
+
+    @Override
+    public String upsertStatement(String table, List<String> keyColumns, List<String> valueColumns)
+    {
+        // Derby's MERGE requires a source table and repeats the parameters, the callers fall back to
+        // separate statements
+        return null;
+    }
+
+    @Override
+    public String deferredCommitStatement()
+    {
+        return null;
+    }
+
+    @Override
+    public String durableCommitStatement()
+    {
+        return null;
+    }
+
+    @Override
+    public String pendingChangesQuery()
+    {
+        return null;
+    }
+
+    @Override
+    public String blobType()
+    {
+        return "BLOB";
+    }
+
+    @Override
+    public boolean createsForeignKeyIndexes()
+    {
+        return true;
+    }
 }
@@ -3,18 +3,22 @@ package com.linbit.linstor.dbdrivers;
 import com.linbit.ImplementationError;
 import com.linbit.InvalidNameException;
 import com.linbit.ServiceName;
+import com.linbit.linstor.LinStorModule;
 import com.linbit.linstor.NetInterfaceData;
 import com.linbit.linstor.NetInterfaceDataGenericDbDriver;
 import com.linbit.linstor.Node;
 import com.linbit.linstor.NodeConnectionData;
 import com.linbit.linstor.NodeConnectionDataGenericDbDriver;
+import com.linbit.linstor.NodeData;
 import com.linbit.linstor.NodeDataGenericDbDriver;
 import com.linbit.linstor.NodeName;
 import com.linbit.linstor.Resource;
 import com.linbit.linstor.ResourceConnectionData;
 import com.linbit.linstor.ResourceConnectionDataGenericDbDriver;
+import com.linbit.linstor.ResourceData;
 import com.linbit.linstor.ResourceDataGenericDbDriver;
 import com.linbit.linstor.ResourceDefinition;
+import com.linbit.linstor.ResourceDefinitionData;
 import com.linbit.linstor.ResourceDefinitionDataGenericDbDriver;
 import com.linbit.linstor.ResourceName;
 import com.linbit.linstor.Snapshot;
@@ -27,28 +31,39 @@ import com.linbit.linstor.SnapshotVolumeDataGenericDbDriver;
 import com.linbit.linstor.SnapshotVolumeDefinition;
 import com.linbit.linstor.SnapshotVolumeDefinitionGenericDbDriver;
 import com.linbit.linstor.StorPool;
+import com.linbit.linstor.StorPoolData;
 import com.linbit.linstor.StorPoolDataGenericDbDriver;
 import com.linbit.linstor.StorPoolDefinition;
+import com.linbit.linstor.StorPoolDefinitionData;
 import com.linbit.linstor.StorPoolDefinitionDataGenericDbDriver;
 import com.linbit.linstor.StorPoolName;
 import com.linbit.linstor.Volume;
 import com.linbit.linstor.VolumeConnectionData;
 import com.linbit.linstor.VolumeConnectionDataGenericDbDriver;
+import com.linbit.linstor.VolumeData;
 import com.linbit.linstor.VolumeDataGenericDbDriver;
 import com.linbit.linstor.VolumeDefinition;
+import com.linbit.linstor.VolumeDefinitionData;
 import com.linbit.linstor.VolumeDefinitionDataGenericDbDriver;
 import com.linbit.linstor.VolumeNumber;
 import com.linbit.linstor.annotation.SystemContext;
 import com.linbit.linstor.annotation.Uninitialized;
 import com.linbit.linstor.api.ApiConsts;
+import com.linbit.linstor.api.LinStorScope;
 import com.linbit.linstor.core.CoreModule;
+import com.linbit.linstor.logging.ErrorReporter;
 import com.linbit.linstor.propscon.InvalidKeyException;
+import com.linbit.linstor.propscon.PropsConGenericDbDriver;
 import com.linbit.linstor.security.AccessContext;
 import com.linbit.linstor.security.AccessDeniedException;
+import com.linbit.linstor.security.ObjectProtectionGenericDbDriver;
+import com.linbit.linstor.transaction.TransactionMgr;
 import com.linbit.utils.Pair;
 import com.linbit.utils.Triple;
 
 import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -60,6 +75,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -87,7 +108,15 @@ public class GenericDbDriver implements DatabaseDriver
         }
     }
 
+    // The widest loading stage loads six tables concurrently
+    private static final int LOADER_THREAD_COUNT = 6;
+
     private final AccessContext dbCtx;
+    private final ErrorReporter errorReporter;
+    private final LinStorScope loadScope;
+    private final Provider<TransactionMgr> transMgrGenerator;
+    private final ObjectProtectionGenericDbDriver objProtDriver;
+    private final PropsConGenericDbDriver propsDriver;
     private final NodeDataGenericDbDriver nodeDriver;
     private final NetInterfaceDataGenericDbDriver netIfDriver;
     private final NodeConnectionDataGenericDbDriver nodeConnDriver;
@@ -103,6 +132,7 @@ public class GenericDbDriver implements DatabaseDriver
     private final SnapshotVolumeDefinitionGenericDbDriver snapshotVolumeDefinitionDriver;
     private final SnapshotDataGenericDbDriver snapshotDriver;
     private final SnapshotVolumeDataGenericDbDriver snapshotVolumeDriver;
+    private final StartupSnapshotManager startupSnapshotMgr;
 
     private final CoreModule.NodesMap nodesMap;
     private final CoreModule.ResourceDefinitionMap rscDfnMap;
@@ -111,6 +141,11 @@ public class GenericDbDriver implements DatabaseDriver
     @Inject
     public GenericDbDriver(
         @SystemContext AccessContext privCtx,
+        ErrorReporter errorReporterRef,
+        LinStorScope loadScopeRef,
+        @Named(LinStorModule.TRANS_MGR_GENERATOR) Provider<TransactionMgr> transMgrGeneratorRef,
+        ObjectProtectionGenericDbDriver objProtDriverRef,
+        PropsConGenericDbDriver propsDriverRef,
         NodeDataGenericDbDriver nodeDriverRef,
         NetInterfaceDataGenericDbDriver netIfDriverRef,
         NodeConnectionDataGenericDbDriver nodeConnDriverRef,
@@ -126,12 +161,18 @@ public class GenericDbDriver implements DatabaseDriver
         SnapshotVolumeDefinitionGenericDbDriver snapshotVolumeDefinitionDriverRef,
         SnapshotDataGenericDbDriver snapshotDriverRef,
         SnapshotVolumeDataGenericDbDriver snapshotVolumeDriverRef,
+        StartupSnapshotManager startupSnapshotMgrRef,
         @Uninitialized CoreModule.NodesMap nodesMapRef,
         @Uninitialized CoreModule.ResourceDefinitionMap rscDfnMapRef,
         @Uninitialized CoreModule.StorPoolDefinitionMap storPoolDfnMapRef
     )
     {
         dbCtx = privCtx;
+        errorReporter = errorReporterRef;
+        loadScope = loadScopeRef;
+        transMgrGenerator = transMgrGeneratorRef;
+        objProtDriver = objProtDriverRef;
+        propsDriver = propsDriverRef;
         nodeDriver = nodeDriverRef;
         netIfDriver = netIfDriverRef;
         nodeConnDriver = nodeConnDriverRef;
@@ -147,6 +188,7 @@ public class GenericDbDriver implements DatabaseDriver
         snapshotVolumeDefinitionDriver = snapshotVolumeDefinitionDriverRef;
         snapshotDriver = snapshotDriverRef;
         snapshotVolumeDriver = snapshotVolumeDriverRef;
+        startupSnapshotMgr = startupSnapshotMgrRef;
         nodesMap = nodesMapRef;
         rscDfnMap = rscDfnMapRef;
         storPoolDfnMap = storPoolDfnMapRef;
@@ -154,19 +196,61 @@ public class GenericDbDriver implements DatabaseDriver
 
     /**
      * This method should only be called with an locked reconfiguration write lock
+     *
+     * The tables are loaded in stages. The tables of a stage only depend on the objects of the previous stages
+     * and are loaded concurrently, each on its own connection. Linking the loaded objects happens on the calling
+     * thread in a fixed order once all tables of a stage are loaded.
+     *
+     * If the startup snapshot matches the database, the queries of the loader threads are answered from the
+     * snapshot (see {@link StartupSnapshotManager}).
      */
     @Override
     public void loadAll() throws SQLException
     {
+        ExecutorService loaderPool = Executors.newFixedThreadPool(
+            LOADER_THREAD_COUNT,
+            new LoaderThreadFactory()
+        );
+        startupSnapshotMgr.beginLoad();
         try
         {
+            // read the object protections, ACLs and properties of all objects at once instead of
+            // querying them separately for each restored object
+            Future<Void> objProtFuture = submitLoad(
+                loaderPool,
+                "object protections",
+                () ->
+                {
+                    objProtDriver.preloadAll();
+                    return null;
+                }
+            );
+            Future<Void> propsFuture = submitLoad(
+                loaderPool,
+                "properties",
+                () ->
+                {
+                    propsDriver.preloadAll();
+                    return null;
+                }
+            );
+            awaitLoad(objProtFuture);
+            awaitLoad(propsFuture);
+
             // load the main objects (nodes, rscDfns, storPoolDfns)
+            Future<Map<NodeData, Node.InitMaps>> nodesFuture =
+                submitLoad(loaderPool, "nodes", nodeDriver::loadAll);
+            Future<Map<ResourceDefinitionData, ResourceDefinition.InitMaps>> rscDfnsFuture =
+                submitLoad(loaderPool, "resource definitions", rscDfnDriver::loadAll);
+            Future<Map<StorPoolDefinitionData, StorPoolDefinition.InitMaps>> storPoolDfnsFuture =
+                submitLoad(loaderPool, "storage pool definitions", storPoolDfnDriver::loadAll);
+
             Map<Node, Node.InitMaps> loadedNodesMap =
-                Collections.unmodifiableMap(nodeDriver.loadAll());
+                Collections.unmodifiableMap(awaitLoad(nodesFuture));
             Map<ResourceDefinition, ResourceDefinition.InitMaps> loadedRscDfnsMap =
-                Collections.unmodifiableMap(rscDfnDriver.loadAll());
+                Collections.unmodifiableMap(awaitLoad(rscDfnsFuture));
             Map<StorPoolDefinition, StorPoolDefinition.InitMaps> loadedStorPoolDfnsMap =
-                Collections.unmodifiableMap(storPoolDfnDriver.loadAll());
+                Collections.unmodifiableMap(awaitLoad(storPoolDfnsFuture));
 
             // build temporary maps for easier restoring of the remaining objects
             Map<NodeName, Node> tmpNodesMap =
@@ -176,8 +260,22 @@ public class GenericDbDriver implements DatabaseDriver
             Map<StorPoolName, StorPoolDefinition> tmpStorPoolDfnMap =
                 mapByName(loadedStorPoolDfnsMap, StorPoolDefinition::getName);
 
-            // loading net interfaces
-            List<NetInterfaceData> loadedNetIfs = netIfDriver.loadAll(tmpNodesMap);
+            // load the objects that only depend on the main objects
+            Future<List<NetInterfaceData>> netIfsFuture = submitLoad(
+                loaderPool, "net interfaces", () -> netIfDriver.loadAll(tmpNodesMap));
+            Future<List<NodeConnectionData>> nodeConnsFuture = submitLoad(
+                loaderPool, "node connections", () -> nodeConnDriver.loadAll(tmpNodesMap));
+            Future<Map<StorPoolData, StorPool.InitMaps>> storPoolsFuture = submitLoad(
+                loaderPool, "storage pools", () -> storPoolDriver.loadAll(tmpNodesMap, tmpStorPoolDfnMap));
+            Future<Map<ResourceData, Resource.InitMaps>> rscsFuture = submitLoad(
+                loaderPool, "resources", () -> rscDriver.loadAll(tmpNodesMap, tmpRscDfnMap));
+            Future<Map<VolumeDefinitionData, VolumeDefinition.InitMaps>> vlmDfnsFuture = submitLoad(
+                loaderPool, "volume definitions", () -> vlmDfnDriver.loadAll(tmpRscDfnMap));
+            Future<Map<SnapshotDefinition, SnapshotDefinition.InitMaps>> snapshotDfnsFuture = submitLoad(
+                loaderPool, "snapshot definitions", () -> snapshotDefinitionDriver.loadAll(tmpRscDfnMap));
+
+            // linking net interfaces
+            List<NetInterfaceData> loadedNetIfs = awaitLoad(netIfsFuture);
             for (NetInterfaceData netIf : loadedNetIfs)
             {
                 Node node = netIf.getNode();
@@ -191,7 +289,7 @@ public class GenericDbDriver implements DatabaseDriver
                 }
             }
 
-            List<NodeConnectionData> loadedNodeConns = nodeConnDriver.loadAll(tmpNodesMap);
+            List<NodeConnectionData> loadedNodeConns = awaitLoad(nodeConnsFuture);
             for (NodeConnectionData nodeConn : loadedNodeConns)
             {
                 Node sourceNode = nodeConn.getSourceNode(dbCtx);
@@ -200,11 +298,9 @@ public class GenericDbDriver implements DatabaseDriver
                 loadedNodesMap.get(targetNode).getNodeConnMap().put(sourceNode, nodeConn);
             }
 
-            // loading storage pools
-            Map<StorPool, StorPool.InitMaps> loadedStorPools = Collections.unmodifiableMap(storPoolDriver.loadAll(
-                tmpNodesMap,
-                tmpStorPoolDfnMap
-            ));
+            // linking storage pools
+            Map<StorPool, StorPool.InitMaps> loadedStorPools =
+                Collections.unmodifiableMap(awaitLoad(storPoolsFuture));
             for (StorPool storPool : loadedStorPools.keySet())
             {
                 loadedNodesMap.get(storPool.getNode()).getStorPoolMap()
@@ -222,9 +318,9 @@ public class GenericDbDriver implements DatabaseDriver
                 )
             );
 
-            // loading resources
+            // linking resources
             Map<Resource, Resource.InitMaps> loadedResources =
-                Collections.unmodifiableMap(rscDriver.loadAll(tmpNodesMap, tmpRscDfnMap));
+                Collections.unmodifiableMap(awaitLoad(rscsFuture));
             for (Resource rsc : loadedResources.keySet())
             {
                 loadedNodesMap.get(rsc.getAssignedNode()).getRscMap()
@@ -241,19 +337,9 @@ public class GenericDbDriver implements DatabaseDriver
                 )
             );
 
-            // loading resource connections
-            List<ResourceConnectionData> loadedRscConns = rscConnDriver.loadAll(tmpRscMap);
-            for (ResourceConnectionData rscConn : loadedRscConns)
-            {
-                Resource sourceResource = rscConn.getSourceResource(dbCtx);
-                Resource targetResource = rscConn.getTargetResource(dbCtx);
-                loadedResources.get(sourceResource).getRscConnMap().put(targetResource, rscConn);
-                loadedResources.get(targetResource).getRscConnMap().put(sourceResource, rscConn);
-            }
-
-            // loading volume definitions
+            // linking volume definitions
             Map<VolumeDefinition, VolumeDefinition.InitMaps> loadedVlmDfnMap =
-                Collections.unmodifiableMap(vlmDfnDriver.loadAll(tmpRscDfnMap));
+                Collections.unmodifiableMap(awaitLoad(vlmDfnsFuture));
 
             for (VolumeDefinition vlmDfn : loadedVlmDfnMap.keySet())
             {
@@ -269,12 +355,49 @@ public class GenericDbDriver implements DatabaseDriver
                 )
             );
 
-            // loading volumes
-            Map<Volume, Volume.InitMaps> loadedVolumes = Collections.unmodifiableMap(vlmDriver.loadAll(
-                tmpRscMap,
-                tmpVlmDfnMap,
-                tmpStorPoolMap
-            ));
+            // linking snapshot definitions
+            Map<SnapshotDefinition, SnapshotDefinition.InitMaps> loadedSnapshotDfns =
+                awaitLoad(snapshotDfnsFuture);
+            for (SnapshotDefinition snapshotDfn : loadedSnapshotDfns.keySet())
+            {
+                loadedRscDfnsMap.get(snapshotDfn.getResourceDefinition()).getSnapshotDfnMap()
+                    .put(snapshotDfn.getName(), snapshotDfn);
+            }
+
+            // temporary snapshot definition map
+            Map<Pair<ResourceName, SnapshotName>, SnapshotDefinition> tmpSnapshotDfnMap =
+                mapByName(loadedSnapshotDfns, snapshotDfn -> new Pair<>(
+                        snapshotDfn.getResourceName(),
+                        snapshotDfn.getName()
+                    )
+                );
+
+            // load the objects that depend on resources, volume definitions and snapshot definitions
+            Future<List<ResourceConnectionData>> rscConnsFuture = submitLoad(
+                loaderPool, "resource connections", () -> rscConnDriver.loadAll(tmpRscMap));
+            Future<Map<VolumeData, Volume.InitMaps>> vlmsFuture = submitLoad(
+                loaderPool, "volumes", () -> vlmDriver.loadAll(tmpRscMap, tmpVlmDfnMap, tmpStorPoolMap));
+            Future<Map<SnapshotVolumeDefinition, SnapshotVolumeDefinition.InitMaps>> snapshotVlmDfnsFuture =
+                submitLoad(
+                    loaderPool,
+                    "snapshot volume definitions",
+                    () -> snapshotVolumeDefinitionDriver.loadAll(tmpSnapshotDfnMap)
+                );
+            Future<Map<Snapshot, Snapshot.InitMaps>> snapshotsFuture = submitLoad(
+                loaderPool, "snapshots", () -> snapshotDriver.loadAll(tmpNodesMap, tmpSnapshotDfnMap));
+
+            // linking resource connections
+            List<ResourceConnectionData> loadedRscConns = awaitLoad(rscConnsFuture);
+            for (ResourceConnectionData rscConn : loadedRscConns)
+            {
+                Resource sourceResource = rscConn.getSourceResource(dbCtx);
+                Resource targetResource = rscConn.getTargetResource(dbCtx);
+                loadedResources.get(sourceResource).getRscConnMap().put(targetResource, rscConn);
+                loadedResources.get(targetResource).getRscConnMap().put(sourceResource, rscConn);
+            }
+
+            // linking volumes
+            Map<Volume, Volume.InitMaps> loadedVolumes = Collections.unmodifiableMap(awaitLoad(vlmsFuture));
 
             for (Volume vlm : loadedVolumes.keySet())
             {
@@ -295,35 +418,9 @@ public class GenericDbDriver implements DatabaseDriver
                 )
             );
 
-            List<VolumeConnectionData> loadedVlmConns = vlmConnDriver.loadAll(tmpVlmMap);
-            for (VolumeConnectionData vlmConn : loadedVlmConns)
-            {
-                Volume sourceVolume = vlmConn.getSourceVolume(dbCtx);
-                Volume targetVolume = vlmConn.getTargetVolume(dbCtx);
-                loadedVolumes.get(sourceVolume).getVolumeConnections().put(targetVolume, vlmConn);
-                loadedVolumes.get(targetVolume).getVolumeConnections().put(sourceVolume, vlmConn);
-            }
-
-            // loading snapshot definitions
-            Map<SnapshotDefinition, SnapshotDefinition.InitMaps> loadedSnapshotDfns =
-                snapshotDefinitionDriver.loadAll(tmpRscDfnMap);
-            for (SnapshotDefinition snapshotDfn : loadedSnapshotDfns.keySet())
-            {
-                loadedRscDfnsMap.get(snapshotDfn.getResourceDefinition()).getSnapshotDfnMap()
-                    .put(snapshotDfn.getName(), snapshotDfn);
-            }
-
-            // temporary snapshot definition map
-            Map<Pair<ResourceName, SnapshotName>, SnapshotDefinition> tmpSnapshotDfnMap =
-                mapByName(loadedSnapshotDfns, snapshotDfn -> new Pair<>(
-                        snapshotDfn.getResourceName(),
-                        snapshotDfn.getName()
-                    )
-                );
-
-            // loading snapshot volume definitions
+            // linking snapshot volume definitions
             Map<SnapshotVolumeDefinition, SnapshotVolumeDefinition.InitMaps> loadedSnapshotVolumeDefinitions =
-                snapshotVolumeDefinitionDriver.loadAll(tmpSnapshotDfnMap);
+                awaitLoad(snapshotVlmDfnsFuture);
             for (SnapshotVolumeDefinition snapshotVolumeDefinition : loadedSnapshotVolumeDefinitions.keySet())
             {
                 loadedSnapshotDfns.get(snapshotVolumeDefinition.getSnapshotDefinition())
@@ -339,8 +436,8 @@ public class GenericDbDriver implements DatabaseDriver
                 )
             );
 
-            // loading snapshots
-            Map<Snapshot, Snapshot.InitMaps> loadedSnapshots = snapshotDriver.loadAll(tmpNodesMap, tmpSnapshotDfnMap);
+            // linking snapshots
+            Map<Snapshot, Snapshot.InitMaps> loadedSnapshots = awaitLoad(snapshotsFuture);
             for (Snapshot snapshot : loadedSnapshots.keySet())
             {
                 loadedNodesMap.get(snapshot.getNode()).getSnapshotMap()
@@ -357,13 +454,27 @@ public class GenericDbDriver implements DatabaseDriver
                 )
             );
 
-            // loading snapshot volumes
-            List<SnapshotVolume> loadedSnapshotVolumes =
-                snapshotVolumeDriver.loadAll(
-                    tmpSnapshotMap,
-                    tmpSnapshotVlmDfnMap,
-                    tmpStorPoolMap
-                );
+            // load the objects that depend on volumes and snapshots
+            Future<List<VolumeConnectionData>> vlmConnsFuture = submitLoad(
+                loaderPool, "volume connections", () -> vlmConnDriver.loadAll(tmpVlmMap));
+            Future<List<SnapshotVolume>> snapshotVlmsFuture = submitLoad(
+                loaderPool,
+                "snapshot volumes",
+                () -> snapshotVolumeDriver.loadAll(tmpSnapshotMap, tmpSnapshotVlmDfnMap, tmpStorPoolMap)
+            );
+
+            // linking volume connections
+            List<VolumeConnectionData> loadedVlmConns = awaitLoad(vlmConnsFuture);
+            for (VolumeConnectionData vlmConn : loadedVlmConns)
+            {
+                Volume sourceVolume = vlmConn.getSourceVolume(dbCtx);
+                Volume targetVolume = vlmConn.getTargetVolume(dbCtx);
+                loadedVolumes.get(sourceVolume).getVolumeConnections().put(targetVolume, vlmConn);
+                loadedVolumes.get(targetVolume).getVolumeConnections().put(sourceVolume, vlmConn);
+            }
+
+            // linking snapshot volumes
+            List<SnapshotVolume> loadedSnapshotVolumes = awaitLoad(snapshotVlmsFuture);
             for (SnapshotVolume snapshotVolume : loadedSnapshotVolumes)
             {
                 loadedSnapshots.get(snapshotVolume.getSnapshot()).getSnapshotVlmMap()
@@ -375,6 +486,8 @@ public class GenericDbDriver implements DatabaseDriver
             nodesMap.putAll(tmpNodesMap);
             rscDfnMap.putAll(tmpRscDfnMap);
             storPoolDfnMap.putAll(tmpStorPoolDfnMap);
+
+            startupSnapshotMgr.endLoad();
         }
         catch (AccessDeniedException exc)
         {
@@ -384,6 +497,87 @@ public class GenericDbDriver implements DatabaseDriver
         {
             throw new ImplementationError("Invalid hardcoded props key", exc);
         }
+        finally
+        {
+            loaderPool.shutdownNow();
+            objProtDriver.clearPreload();
+            propsDriver.clearPreload();
+        }
+    }
+
+    /**
+     * Loads a table on a thread of the loader pool, using a separate transaction and connection
+     */
+    private <T> Future<T> submitLoad(ExecutorService loaderPool, String description, TableLoader<T> loader)
+    {
+        return loaderPool.submit(
+            () ->
+            {
+                long startTime = System.currentTimeMillis();
+                TransactionMgr transMgr = startupSnapshotMgr.wrapForLoad(transMgrGenerator.get());
+                loadScope.enter();
+                try
+                {
+                    loadScope.seed(TransactionMgr.class, transMgr);
+                    T loaded = loader.load();
+
+                    // objects register themselves while being restored, which needs to be finished
+                    transMgr.commit();
+
+                    errorReporter.logInfo(
+                        "Loaded %s in %d ms",
+                        description,
+                        System.currentTimeMillis() - startTime
+                    );
+                    return loaded;
+                }
+                finally
+                {
+                    try
+                    {
+                        transMgr.rollback();
+                    }
+                    catch (SQLException exc)
+                    {
+                        errorReporter.reportError(exc);
+                    }
+                    transMgr.returnConnection();
+                    loadScope.exit();
+                }
+            }
+        );
+    }
+
+    private <T> T awaitLoad(Future<T> future) throws SQLException
+    {
+        T loaded;
+        try
+        {
+            loaded = future.get();
+        }
+        catch (InterruptedException exc)
+        {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while loading the database", exc);
+        }
+        catch (ExecutionException exc)
+        {
+            Throwable cause = exc.getCause();
+            if (cause instanceof SQLException)
+            {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error)
+            {
+                throw (Error) cause;
+            }
+            throw new ImplementationError("Unexpected exception while loading the database", cause);
+        }
+        return loaded;
     }
 
     private <NAME, DATA> TreeMap<NAME, DATA> mapByName(
@@ -481,4 +675,23 @@ public class GenericDbDriver implements DatabaseDriver
             );
         };
     }
+
+    @FunctionalInterface
+    private interface TableLoader<T>
+    {
+        T load() throws SQLException;
+    }
+
+    private static class LoaderThreadFactory implements ThreadFactory
+    {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, "DbLoader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
@@ -1,5 +1,9 @@
 package com.linbit.linstor.dbdrivers;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 public class H2DatabaseInfo implements DatabaseDriverInfo
 {
     public H2DatabaseInfo()
@@ -30,4 +34,45 @@ public class H2DatabaseInfo implements DatabaseDriverInfo
     {
         return initSQL;
     }
+
+    @Override
+    public String upsertStatement(String table, List<String> keyColumns, List<String> valueColumns)
+    {
+        List<String> columns = new ArrayList<>(keyColumns);
+        columns.addAll(valueColumns);
+        return "MERGE INTO " + table + " (" + String.join(", ", columns) + ")" +
+            " KEY (" + String.join(", ", keyColumns) + ")" +
+            " VALUES (" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+    }
+
+    @Override
+    public String deferredCommitStatement()
+    {
+        return null;
+    }
+
+    @Override
+    public String durableCommitStatement()
+    {
+        return null;
+    }
+
+    @Override
+    public String pendingChangesQuery()
+    {
+        // NULL for databases that are not persisted, even with changes
+        return "SELECT TRANSACTION_ID()";
+    }
+
+    @Override
+    public String blobType()
+    {
+        return "BLOB";
+    }
+
+    @Override
+    public boolean createsForeignKeyIndexes()
+    {
+        return true;
+    }
 }
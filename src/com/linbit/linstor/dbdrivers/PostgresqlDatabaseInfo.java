@@ -1,5 +1,10 @@
 package com.linbit.linstor.dbdrivers;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
 public class PostgresqlDatabaseInfo implements DatabaseDriverInfo
 {
     public PostgresqlDatabaseInfo()
@@ -31,4 +36,49 @@ public class PostgresqlDatabaseInfo implements DatabaseDriverInfo
         return initSQL;
     }
 
+    @Override
+    public String upsertStatement(String table, List<String> keyColumns, List<String> valueColumns)
+    {
+        List<String> columns = new ArrayList<>(keyColumns);
+        columns.addAll(valueColumns);
+        return "INSERT INTO " + table + " (" + String.join(", ", columns) + ")" +
+            " VALUES (" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")" +
+            " ON CONFLICT (" + String.join(", ", keyColumns) + ") DO UPDATE SET " +
+            valueColumns.stream()
+                .map(column -> column + " = EXCLUDED." + column)
+                .collect(Collectors.joining(", "));
+    }
+
+    @Override
+    public String deferredCommitStatement()
+    {
+        return "SET LOCAL synchronous_commit TO OFF";
+    }
+
+    @Override
+    public String durableCommitStatement()
+    {
+        // Assigning a transaction ID makes the commit write a commit record and wait for the log flush
+        return "SELECT txid_current()";
+    }
+
+    @Override
+    public String pendingChangesQuery()
+    {
+        // A transaction that modified data holds the lock of its transaction ID
+        return "SELECT 1 FROM pg_locks WHERE locktype = 'transactionid' AND mode = 'ExclusiveLock'" +
+            " AND pid = pg_backend_pid()";
+    }
+
+    @Override
+    public String blobType()
+    {
+        return "BYTEA";
+    }
+
+    @Override
+    public boolean createsForeignKeyIndexes()
+    {
+        return false;
+    }
 }
@@ -0,0 +1,350 @@
+package com.linbit.linstor.dbdrivers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The rows that the queries of {@link GenericDbDriver#loadAll()} returned, stamped with the generation of the
+ * database they were read from
+ *
+ * The snapshot is stored in a compact binary format. Only the column types that the database drivers read
+ * (character, integer and boolean types) are supported.
+ */
+public class StartupSnapshot
+{
+    private static final int MAGIC = 0x4C534E50;
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_LONG = 1;
+    private static final byte TYPE_STRING = 2;
+    private static final byte TYPE_BOOLEAN = 3;
+
+    private final String connectionUrl;
+    private final long generation;
+    private final Map<String, QueryResult> queryResults;
+
+    public StartupSnapshot(String connectionUrlRef, long generationRef)
+    {
+        connectionUrl = connectionUrlRef;
+        generation = generationRef;
+        queryResults = new LinkedHashMap<>();
+    }
+
+    public long getGeneration()
+    {
+        return generation;
+    }
+
+    public int getQueryCount()
+    {
+        return queryResults.size();
+    }
+
+    /**
+     * Returns the recorded result of the given query, or null if the query is not part of the snapshot
+     */
+    public QueryResult getQueryResult(String sql)
+    {
+        return queryResults.get(sql);
+    }
+
+    /**
+     * Records all rows of the result set
+     *
+     * @return false if the result set contains a column type that is not supported, in which case nothing
+     *     is recorded
+     */
+    public boolean record(String sql, ResultSet resultSet)
+        throws SQLException
+    {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        String[] labels = new String[columnCount];
+        byte[] types = new byte[columnCount];
+        boolean supported = true;
+        for (int idx = 0; idx < columnCount && supported; ++idx)
+        {
+            labels[idx] = metaData.getColumnLabel(idx + 1);
+            types[idx] = valueType(metaData.getColumnType(idx + 1));
+            supported = types[idx] != TYPE_NULL;
+        }
+
+        if (supported)
+        {
+            List<Object[]> rows = new ArrayList<>();
+            while (resultSet.next())
+            {
+                Object[] row = new Object[columnCount];
+                for (int idx = 0; idx < columnCount; ++idx)
+                {
+                    row[idx] = readValue(resultSet, idx + 1, types[idx]);
+                }
+                rows.add(row);
+            }
+            queryResults.put(sql, new QueryResult(labels, rows));
+        }
+        return supported;
+    }
+
+    /**
+     * Writes the snapshot to a temporary file first and then replaces the given file
+     */
+    public void write(Path file)
+        throws IOException
+    {
+        Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))
+        )
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeString(out, connectionUrl);
+            out.writeLong(generation);
+
+            out.writeInt(queryResults.size());
+            for (Map.Entry<String, QueryResult> entry : queryResults.entrySet())
+            {
+                writeString(out, entry.getKey());
+                QueryResult result = entry.getValue();
+                out.writeInt(result.labels.length);
+                for (String label : result.labels)
+                {
+                    writeString(out, label);
+                }
+                out.writeInt(result.rows.size());
+                for (Object[] row : result.rows)
+                {
+                    for (Object value : row)
+                    {
+                        writeValue(out, value);
+                    }
+                }
+            }
+        }
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the snapshot from the given file
+     *
+     * @return The snapshot, or null if it was taken from a different database or from a different generation
+     */
+    public static StartupSnapshot read(Path file, String expectedConnectionUrl, long expectedGeneration)
+        throws IOException
+    {
+        StartupSnapshot snapshot = null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file))))
+        {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION)
+            {
+                throw new IOException("Unknown startup snapshot format in " + file);
+            }
+            String connectionUrl = readString(in);
+            long generation = in.readLong();
+            if (connectionUrl.equals(expectedConnectionUrl) && generation == expectedGeneration)
+            {
+                snapshot = new StartupSnapshot(connectionUrl, generation);
+                int queryCount = in.readInt();
+                for (int queryIdx = 0; queryIdx < queryCount; ++queryIdx)
+                {
+                    String sql = readString(in);
+                    String[] labels = new String[in.readInt()];
+                    for (int idx = 0; idx < labels.length; ++idx)
+                    {
+                        labels[idx] = readString(in);
+                    }
+                    int rowCount = in.readInt();
+                    List<Object[]> rows = new ArrayList<>(rowCount);
+                    for (int rowIdx = 0; rowIdx < rowCount; ++rowIdx)
+                    {
+                        Object[] row = new Object[labels.length];
+                        for (int idx = 0; idx < labels.length; ++idx)
+                        {
+                            row[idx] = readValue(in);
+                        }
+                        rows.add(row);
+                    }
+                    snapshot.queryResults.put(sql, new QueryResult(labels, rows));
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private static byte valueType(int sqlType)
+    {
+        byte type;
+        switch (sqlType)
+        {
+            case Types.BIGINT:
+            case Types.INTEGER:
+            case Types.SMALLINT:
+            case Types.TINYINT:
+                type = TYPE_LONG;
+                break;
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+                type = TYPE_STRING;
+                break;
+            case Types.BOOLEAN:
+            case Types.BIT:
+                type = TYPE_BOOLEAN;
+                break;
+            default:
+                type = TYPE_NULL;
+                break;
+        }
+        return type;
+    }
+
+    private static Object readValue(ResultSet resultSet, int column, byte type)
+        throws SQLException
+    {
+        Object value;
+        switch (type)
+        {
+            case TYPE_LONG:
+                value = resultSet.getLong(column);
+                break;
+            case TYPE_BOOLEAN:
+                value = resultSet.getBoolean(column);
+                break;
+            default:
+                value = resultSet.getString(column);
+                break;
+        }
+        return resultSet.wasNull() ? null : value;
+    }
+
+    private static void writeValue(DataOutputStream out, Object value)
+        throws IOException
+    {
+        if (value == null)
+        {
+            out.writeByte(TYPE_NULL);
+        }
+        else
+        if (value instanceof Long)
+        {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        }
+        else
+        if (value instanceof Boolean)
+        {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        }
+        else
+        {
+            out.writeByte(TYPE_STRING);
+            writeString(out, (String) value);
+        }
+    }
+
+    private static Object readValue(DataInputStream in)
+        throws IOException
+    {
+        Object value;
+        byte type = in.readByte();
+        switch (type)
+        {
+            case TYPE_NULL:
+                value = null;
+                break;
+            case TYPE_LONG:
+                value = in.readLong();
+                break;
+            case TYPE_BOOLEAN:
+                value = in.readBoolean();
+                break;
+            case TYPE_STRING:
+                value = readString(in);
+                break;
+            default:
+                throw new IOException("Unknown value type " + type + " in startup snapshot");
+        }
+        return value;
+    }
+
+    private static void writeString(DataOutputStream out, String str)
+        throws IOException
+    {
+        byte[] data = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    private static String readString(DataInputStream in)
+        throws IOException
+    {
+        byte[] data = new byte[in.readInt()];
+        in.readFully(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The rows of one query. Values are Long, String, Boolean or null.
+     */
+    public static class QueryResult
+    {
+        private final String[] labels;
+        private final Map<String, Integer> columnIndexes;
+        private final List<Object[]> rows;
+
+        QueryResult(String[] labelsRef, List<Object[]> rowsRef)
+        {
+            labels = labelsRef;
+            rows = Collections.unmodifiableList(rowsRef);
+
+            // Column labels are case insensitive
+            columnIndexes = new HashMap<>();
+            for (int idx = 0; idx < labels.length; ++idx)
+            {
+                columnIndexes.putIfAbsent(labels[idx].toUpperCase(Locale.ROOT), idx + 1);
+            }
+        }
+
+        public int getColumnCount()
+        {
+            return labels.length;
+        }
+
+        /**
+         * Returns the 1-based index of the column with the given label, or null if there is no such column
+         */
+        public Integer findColumn(String label)
+        {
+            return columnIndexes.get(label.toUpperCase(Locale.ROOT));
+        }
+
+        public List<Object[]> getRows()
+        {
+            return rows;
+        }
+    }
+}
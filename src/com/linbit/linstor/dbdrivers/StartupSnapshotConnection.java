@@ -0,0 +1,312 @@
+package com.linbit.linstor.dbdrivers;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Wraps the connections that {@link GenericDbDriver#loadAll()} uses
+ *
+ * Prepared statements that are executed as queries without any parameters are answered from the startup
+ * snapshot, if the snapshot contains them. The SQL of all of these queries is collected, so that the next
+ * snapshot can run them again.
+ */
+class StartupSnapshotConnection
+{
+    static Connection wrap(Connection dbCon, StartupSnapshot snapshot, Set<String> loadQueries)
+    {
+        return (Connection) Proxy.newProxyInstance(
+            StartupSnapshotConnection.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            (proxy, method, args) ->
+            {
+                Object result;
+                if (method.getName().equals("prepareStatement") && method.getParameterCount() == 1)
+                {
+                    result = Proxy.newProxyInstance(
+                        StartupSnapshotConnection.class.getClassLoader(),
+                        new Class<?>[] {PreparedStatement.class},
+                        new StatementHandler(dbCon, (String) args[0], snapshot, loadQueries)
+                    );
+                }
+                else
+                {
+                    result = invoke(dbCon, method, args);
+                }
+                return result;
+            }
+        );
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args)
+        throws Throwable
+    {
+        try
+        {
+            return method.invoke(target, args);
+        }
+        catch (InvocationTargetException invocationExc)
+        {
+            throw invocationExc.getCause();
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler
+    {
+        private final Connection dbCon;
+        private final String sql;
+        private final StartupSnapshot snapshot;
+        private final Set<String> loadQueries;
+
+        // The statement is only prepared if it cannot be answered from the snapshot
+        private PreparedStatement stmt = null;
+        private boolean hasParameters = false;
+
+        StatementHandler(Connection dbConRef, String sqlRef, StartupSnapshot snapshotRef, Set<String> loadQueriesRef)
+        {
+            dbCon = dbConRef;
+            sql = sqlRef;
+            snapshot = snapshotRef;
+            loadQueries = loadQueriesRef;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args)
+            throws Throwable
+        {
+            Object result;
+            String name = method.getName();
+            if (method.getDeclaringClass() == Object.class)
+            {
+                result = StartupSnapshotConnection.invoke(this, method, args);
+            }
+            else
+            if (name.equals("executeQuery") && method.getParameterCount() == 0 && !hasParameters)
+            {
+                loadQueries.add(sql);
+                StartupSnapshot.QueryResult queryResult = snapshot == null ? null : snapshot.getQueryResult(sql);
+                if (queryResult == null)
+                {
+                    result = getStatement().executeQuery();
+                }
+                else
+                {
+                    result = Proxy.newProxyInstance(
+                        StartupSnapshotConnection.class.getClassLoader(),
+                        new Class<?>[] {ResultSet.class},
+                        new ResultSetHandler(queryResult)
+                    );
+                }
+            }
+            else
+            if (name.equals("close") && stmt == null)
+            {
+                result = null;
+            }
+            else
+            {
+                if (method.getDeclaringClass() == PreparedStatement.class &&
+                    (name.startsWith("set") || name.equals("clearParameters")))
+                {
+                    hasParameters = true;
+                }
+                result = StartupSnapshotConnection.invoke(getStatement(), method, args);
+            }
+            return result;
+        }
+
+        private PreparedStatement getStatement()
+            throws SQLException
+        {
+            if (stmt == null)
+            {
+                stmt = dbCon.prepareStatement(sql);
+            }
+            return stmt;
+        }
+    }
+
+    /**
+     * Supports the methods that the database drivers use for reading the loaded rows
+     */
+    private static class ResultSetHandler implements InvocationHandler
+    {
+        private final StartupSnapshot.QueryResult queryResult;
+        private final List<Object[]> rows;
+        private int rowIdx = -1;
+        private boolean lastWasNull = false;
+        private boolean closed = false;
+
+        ResultSetHandler(StartupSnapshot.QueryResult queryResultRef)
+        {
+            queryResult = queryResultRef;
+            rows = queryResultRef.getRows();
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args)
+            throws Throwable
+        {
+            Object result;
+            if (method.getDeclaringClass() == Object.class)
+            {
+                result = StartupSnapshotConnection.invoke(this, method, args);
+            }
+            else
+            {
+                switch (method.getName())
+                {
+                    case "next":
+                        if (rowIdx < rows.size())
+                        {
+                            ++rowIdx;
+                        }
+                        result = rowIdx < rows.size();
+                        break;
+                    case "close":
+                        closed = true;
+                        result = null;
+                        break;
+                    case "isClosed":
+                        result = closed;
+                        break;
+                    case "wasNull":
+                        result = lastWasNull;
+                        break;
+                    case "findColumn":
+                        result = columnIndex(args[0]);
+                        break;
+                    case "getObject":
+                        result = getValue(args[0]);
+                        break;
+                    case "getString":
+                        result = toStringValue(getValue(args[0]));
+                        break;
+                    case "getLong":
+                        result = toLongValue(getValue(args[0]));
+                        break;
+                    case "getInt":
+                        result = (int) toLongValue(getValue(args[0]));
+                        break;
+                    case "getShort":
+                        result = (short) toLongValue(getValue(args[0]));
+                        break;
+                    case "getBoolean":
+                        result = toBooleanValue(getValue(args[0]));
+                        break;
+                    default:
+                        throw new SQLFeatureNotSupportedException(
+                            "ResultSet." + method.getName() + " is not supported for rows from the startup snapshot"
+                        );
+                }
+            }
+            return result;
+        }
+
+        private int columnIndex(Object column)
+            throws SQLException
+        {
+            int idx;
+            if (column instanceof Integer)
+            {
+                idx = (Integer) column;
+            }
+            else
+            {
+                Integer foundIdx = queryResult.findColumn((String) column);
+                if (foundIdx == null)
+                {
+                    throw new SQLException("Unknown column '" + column + "'");
+                }
+                idx = foundIdx;
+            }
+            if (idx < 1 || idx > queryResult.getColumnCount())
+            {
+                throw new SQLException("Column index " + idx + " out of range");
+            }
+            return idx;
+        }
+
+        private Object getValue(Object column)
+            throws SQLException
+        {
+            if (closed || rowIdx < 0 || rowIdx >= rows.size())
+            {
+                throw new SQLException("No current row");
+            }
+            Object value = rows.get(rowIdx)[columnIndex(column) - 1];
+            lastWasNull = value == null;
+            return value;
+        }
+
+        private static String toStringValue(Object value)
+        {
+            return value == null ? null : value.toString();
+        }
+
+        private static long toLongValue(Object value)
+            throws SQLException
+        {
+            long longValue;
+            if (value == null)
+            {
+                longValue = 0;
+            }
+            else
+            if (value instanceof Long)
+            {
+                longValue = (Long) value;
+            }
+            else
+            if (value instanceof Boolean)
+            {
+                longValue = (Boolean) value ? 1 : 0;
+            }
+            else
+            {
+                try
+                {
+                    longValue = Long.parseLong(((String) value).trim());
+                }
+                catch (NumberFormatException nfExc)
+                {
+                    throw new SQLException("Value '" + value + "' is not a number", nfExc);
+                }
+            }
+            return longValue;
+        }
+
+        private static boolean toBooleanValue(Object value)
+        {
+            boolean boolValue;
+            if (value == null)
+            {
+                boolValue = false;
+            }
+            else
+            if (value instanceof Boolean)
+            {
+                boolValue = (Boolean) value;
+            }
+            else
+            if (value instanceof Long)
+            {
+                boolValue = (Long) value != 0;
+            }
+            else
+            {
+                String str = ((String) value).trim();
+                boolValue = str.equalsIgnoreCase("true") || str.equals("1");
+            }
+            return boolValue;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.linbit.linstor.dbdrivers;
+
+import com.linbit.linstor.dbcp.DbConnectionPool;
+import com.linbit.linstor.dbcp.SnapshotGeneration;
+import com.linbit.linstor.logging.ErrorReporter;
+import com.linbit.linstor.tasks.TaskScheduleService;
+import com.linbit.linstor.transaction.TransactionMgr;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads the controller's objects from the startup snapshot instead of querying the database, and writes
+ * new snapshots periodically and at shutdown
+ *
+ * The snapshot contains the rows of the queries that {@link GenericDbDriver#loadAll()} runs. It is only used
+ * if its generation matches the generation of the database (see {@link SnapshotGeneration}). Otherwise, or if
+ * startup snapshots are disabled, the objects are loaded from the database.
+ */
+@Singleton
+public class StartupSnapshotManager implements TaskScheduleService.Task
+{
+    private final ErrorReporter errorReporter;
+    private final DbConnectionPool dbConnPool;
+
+    // The queries without parameters that loading the objects ran
+    private final Set<String> loadQueries;
+
+    // The snapshot that answers the queries while the objects are loaded
+    private volatile StartupSnapshot loadSnapshot = null;
+
+    // Guarded by this. True while the snapshot file matches the database.
+    private boolean snapshotFileCurrent = false;
+
+    @Inject
+    public StartupSnapshotManager(
+        ErrorReporter errorReporterRef,
+        DbConnectionPool dbConnPoolRef
+    )
+    {
+        errorReporter = errorReporterRef;
+        dbConnPool = dbConnPoolRef;
+        loadQueries = ConcurrentHashMap.newKeySet();
+    }
+
+    public boolean isEnabled()
+    {
+        return dbConnPool.getSnapshotGeneration() != null;
+    }
+
+    /**
+     * Reads the snapshot file if it matches the database. Must be called before the objects are loaded.
+     */
+    void beginLoad()
+    {
+        SnapshotGeneration snapshotGeneration = dbConnPool.getSnapshotGeneration();
+        if (snapshotGeneration != null && Files.exists(snapshotGeneration.getSnapshotFile()))
+        {
+            long startTime = System.currentTimeMillis();
+            Connection dbCon = null;
+            try
+            {
+                dbCon = dbConnPool.getConnection();
+                long generation = SnapshotGeneration.read(dbCon);
+                dbCon.rollback();
+
+                loadSnapshot = StartupSnapshot.read(
+                    snapshotGeneration.getSnapshotFile(),
+                    dbConnPool.getConnectionUrl(),
+                    generation
+                );
+                if (loadSnapshot == null)
+                {
+                    errorReporter.logInfo(
+                        "The startup snapshot does not match the database generation %d",
+                        generation
+                    );
+                }
+                else
+                {
+                    errorReporter.logInfo(
+                        "Read the startup snapshot of database generation %d in %d ms",
+                        generation,
+                        System.currentTimeMillis() - startTime
+                    );
+                }
+            }
+            catch (IOException | SQLException exc)
+            {
+                errorReporter.logWarning("Failed to read the startup snapshot: %s", exc.getMessage());
+            }
+            finally
+            {
+                dbConnPool.returnConnection(dbCon);
+            }
+        }
+    }
+
+    /**
+     * Returns a transaction manager for loading objects, which answers the load queries from the snapshot
+     */
+    TransactionMgr wrapForLoad(TransactionMgr transMgr)
+    {
+        TransactionMgr loadTransMgr = transMgr;
+        if (isEnabled())
+        {
+            loadTransMgr = new StartupSnapshotTransactionMgr(
+                transMgr,
+                StartupSnapshotConnection.wrap(transMgr.getConnection(), loadSnapshot, loadQueries)
+            );
+        }
+        return loadTransMgr;
+    }
+
+    /**
+     * Must be called after the objects are loaded
+     */
+    void endLoad()
+    {
+        SnapshotGeneration snapshotGeneration = dbConnPool.getSnapshotGeneration();
+        if (snapshotGeneration != null)
+        {
+            synchronized (this)
+            {
+                snapshotFileCurrent = loadSnapshot != null;
+            }
+            loadSnapshot = null;
+
+            // The next change of the database must invalidate the snapshot file
+            snapshotGeneration.setSnapshotCurrent();
+        }
+    }
+
+    /**
+     * Writes a new snapshot, unless the snapshot file still matches the database
+     */
+    public synchronized void writeSnapshot()
+    {
+        SnapshotGeneration snapshotGeneration = dbConnPool.getSnapshotGeneration();
+        if (snapshotGeneration != null && !loadQueries.isEmpty() &&
+            !(snapshotFileCurrent && snapshotGeneration.isSnapshotCurrent()))
+        {
+            long startTime = System.currentTimeMillis();
+            snapshotFileCurrent = false;
+            Connection dbCon = null;
+            try
+            {
+                dbCon = dbConnPool.getConnection();
+                StartupSnapshot snapshot = new StartupSnapshot(
+                    dbConnPool.getConnectionUrl(),
+                    snapshotGeneration.beginSnapshot(dbCon)
+                );
+
+                List<String> unsupportedQueries = new ArrayList<>();
+                for (String sql : loadQueries)
+                {
+                    try (
+                        PreparedStatement stmt = dbCon.prepareStatement(sql);
+                        ResultSet resultSet = stmt.executeQuery()
+                    )
+                    {
+                        if (!snapshot.record(sql, resultSet))
+                        {
+                            unsupportedQueries.add(sql);
+                        }
+                    }
+                }
+                dbCon.rollback();
+
+                // Queries that are not part of the snapshot are sent to the database when loading
+                loadQueries.removeAll(unsupportedQueries);
+
+                snapshot.write(snapshotGeneration.getSnapshotFile());
+                snapshotFileCurrent = true;
+
+                errorReporter.logInfo(
+                    "Wrote the startup snapshot of database generation %d with %d queries in %d ms",
+                    snapshot.getGeneration(),
+                    snapshot.getQueryCount(),
+                    System.currentTimeMillis() - startTime
+                );
+            }
+            catch (IOException | SQLException exc)
+            {
+                errorReporter.reportError(exc);
+            }
+            finally
+            {
+                dbConnPool.returnConnection(dbCon);
+            }
+        }
+    }
+
+    @Override
+    public long run()
+    {
+        writeSnapshot();
+        return dbConnPool.getSnapshotGeneration().getSnapshotIntervalMillis();
+    }
+}
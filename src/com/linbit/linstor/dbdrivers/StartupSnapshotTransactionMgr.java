@@ -0,0 +1,79 @@
+package com.linbit.linstor.dbdrivers;
+
+import com.linbit.linstor.transaction.TransactionBatch;
+import com.linbit.linstor.transaction.TransactionMgr;
+import com.linbit.linstor.transaction.TransactionObject;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Transaction manager of the loader threads of {@link GenericDbDriver#loadAll()}, whose connection answers
+ * the load queries from the startup snapshot
+ */
+class StartupSnapshotTransactionMgr implements TransactionMgr
+{
+    private final TransactionMgr transMgr;
+    private final Connection dbCon;
+
+    StartupSnapshotTransactionMgr(TransactionMgr transMgrRef, Connection dbConRef)
+    {
+        transMgr = transMgrRef;
+        dbCon = dbConRef;
+    }
+
+    @Override
+    public void register(TransactionObject transObj)
+    {
+        transMgr.register(transObj);
+    }
+
+    @Override
+    public void commit() throws SQLException
+    {
+        transMgr.commit();
+    }
+
+    @Override
+    public void rollback() throws SQLException
+    {
+        transMgr.rollback();
+    }
+
+    @Override
+    public void clearTransactionObjects()
+    {
+        transMgr.clearTransactionObjects();
+    }
+
+    @Override
+    public boolean isDirty()
+    {
+        return transMgr.isDirty();
+    }
+
+    @Override
+    public int sizeObjects()
+    {
+        return transMgr.sizeObjects();
+    }
+
+    @Override
+    public Connection getConnection()
+    {
+        return dbCon;
+    }
+
+    @Override
+    public <T extends TransactionBatch> T getBatch(Class<T> batchClass, Supplier<T> batchFactory)
+    {
+        return transMgr.getBatch(batchClass, batchFactory);
+    }
+
+    @Override
+    public void returnConnection()
+    {
+        transMgr.returnConnection();
+    }
+}
@@ -39,6 +39,8 @@ public class DbConstants
     public static final String TBL_SNAPSHOTS             = "SNAPSHOTS";
     public static final String TBL_SNAPSHOT_VOLUME_DEFINITIONS = "SNAPSHOT_VOLUME_DEFINITIONS";
     public static final String TBL_SNAPSHOT_VOLUMES      = "SNAPSHOT_VOLUMES";
+    public static final String TBL_DB_GENERATION         = "DB_GENERATION";
+    public static final String TBL_PROPS_CONTAINERS_COMPACT = "PROPS_CONTAINERS_COMPACT";
 
     // SEC_CONFIGURATION column names
     public static final String ENTRY_KEY     = "ENTRY_KEY";
@@ -136,6 +138,12 @@ public class DbConstants
     public static final String SNAPSHOT_DSP_NAME = "SNAPSHOT_DSP_NAME";
     public static final String SNAPSHOT_FLAGS = "SNAPSHOT_FLAGS";
 
+    // DB_GENERATION column names
+    public static final String GENERATION = "GENERATION";
+
+    // PROPS_CONTAINERS_COMPACT column names
+    public static final String PROPS_DATA = "PROPS_DATA";
+
     private DbConstants()
     {
     }
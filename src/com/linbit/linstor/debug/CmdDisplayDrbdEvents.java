@@ -0,0 +1,78 @@
+package com.linbit.linstor.debug;
+
+import javax.inject.Inject;
+import java.io.PrintStream;
+import java.util.Map;
+
+import com.linbit.linstor.drbdstate.CoalescingResourceObserver;
+import com.linbit.linstor.drbdstate.DrbdEventPublisher;
+import com.linbit.linstor.drbdstate.DrbdEventService;
+import com.linbit.linstor.security.AccessContext;
+
+/**
+ * Displays the fill levels of the DRBD event queues and statistics about the delivery
+ * of DRBD state changes to the event publisher
+ */
+public class CmdDisplayDrbdEvents extends BaseDebugCmd
+{
+    private final DrbdEventService drbdEventService;
+    private final DrbdEventPublisher drbdEventPublisher;
+
+    @Inject
+    public CmdDisplayDrbdEvents(
+        DrbdEventService drbdEventServiceRef,
+        DrbdEventPublisher drbdEventPublisherRef
+    )
+    {
+        super(
+            new String[]
+            {
+                "DspDrbdEvt"
+            },
+            "Display DRBD event processing",
+            "Displays the fill level of the DRBD event queue and statistics about the\n" +
+            "queued, coalesced and dropped DRBD state change notifications",
+            null,
+            null
+        );
+
+        drbdEventService = drbdEventServiceRef;
+        drbdEventPublisher = drbdEventPublisherRef;
+    }
+
+    @Override
+    public void execute(
+        PrintStream debugOut,
+        PrintStream debugErr,
+        AccessContext accCtx,
+        Map<String, String> parameters
+    )
+        throws Exception
+    {
+        CoalescingResourceObserver notificationQueue = drbdEventPublisher.getNotificationQueue();
+        debugOut.printf(
+            "DRBD event queue\n" +
+            "    Queued events:          %8d\n" +
+            "    Peak queued events:     %8d\n" +
+            "    Capacity:               %8d\n" +
+            "DRBD state change notifications\n" +
+            "    Queued notifications:   %8d\n" +
+            "    Peak queued:            %8d\n" +
+            "    Capacity:               %8d\n" +
+            "    Received:               %8d\n" +
+            "    Coalesced:              %8d\n" +
+            "    Dropped:                %8d\n" +
+            "    Delivered:              %8d\n",
+            drbdEventService.getEventQueueSize(),
+            drbdEventService.getPeakEventQueueSize(),
+            drbdEventService.getEventQueueCapacity(),
+            notificationQueue.getQueueSize(),
+            notificationQueue.getPeakQueueSize(),
+            notificationQueue.getCapacity(),
+            notificationQueue.getQueuedCount(),
+            notificationQueue.getCoalescedCount(),
+            notificationQueue.getDroppedCount(),
+            notificationQueue.getDeliveredCount()
+        );
+    }
+}
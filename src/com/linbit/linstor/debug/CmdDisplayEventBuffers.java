@@ -0,0 +1,73 @@
+package com.linbit.linstor.debug;
+
+import javax.inject.Inject;
+import java.io.PrintStream;
+import java.util.Map;
+
+import com.linbit.linstor.event.EventProcessor;
+import com.linbit.linstor.security.AccessContext;
+
+/**
+ * Displays the buffers of events that arrived ahead of their turn for each peer
+ */
+public class CmdDisplayEventBuffers extends BaseDebugCmd
+{
+    private final EventProcessor eventProcessor;
+
+    @Inject
+    public CmdDisplayEventBuffers(
+        EventProcessor eventProcessorRef
+    )
+    {
+        super(
+            new String[]
+            {
+                "DspEvtBuf"
+            },
+            "Display event buffers",
+            "Displays for each peer the number of incoming events that are waiting for an earlier event,\n" +
+            "the number of events that arrived out of order and the number of buffer overflows",
+            null,
+            null
+        );
+
+        eventProcessor = eventProcessorRef;
+    }
+
+    @Override
+    public void execute(
+        PrintStream debugOut,
+        PrintStream debugErr,
+        AccessContext accCtx,
+        Map<String, String> parameters
+    )
+        throws Exception
+    {
+        Map<String, EventProcessor.EventBufferStats> stats = eventProcessor.getEventBufferStats();
+        if (stats.isEmpty())
+        {
+            debugOut.println("No event buffers");
+        }
+        else
+        {
+            debugOut.printf(
+                "%-40s %10s %10s %12s %12s %10s\n",
+                "Peer", "Buffered", "Peak", "Handled", "Reordered", "Overflows"
+            );
+            printSectionSeparator(debugOut);
+            for (Map.Entry<String, EventProcessor.EventBufferStats> entry : stats.entrySet())
+            {
+                EventProcessor.EventBufferStats peerStats = entry.getValue();
+                debugOut.printf(
+                    "%-40s %10d %10d %12d %12d %10d\n",
+                    entry.getKey(),
+                    peerStats.getBufferedEvents(),
+                    peerStats.getPeakBufferedEvents(),
+                    peerStats.getHandledEvents(),
+                    peerStats.getReorderedEvents(),
+                    peerStats.getOverflows()
+                );
+            }
+        }
+    }
+}
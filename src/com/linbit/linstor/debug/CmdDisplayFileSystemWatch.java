@@ -0,0 +1,61 @@
+package com.linbit.linstor.debug;
+
+import javax.inject.Inject;
+import java.io.PrintStream;
+import java.util.Map;
+
+import com.linbit.fsevent.FileSystemWatch;
+import com.linbit.linstor.security.AccessContext;
+
+/**
+ * Displays the state and wait statistics of the satellite's file system watch
+ */
+public class CmdDisplayFileSystemWatch extends BaseDebugCmd
+{
+    private final FileSystemWatch fileSystemWatch;
+
+    @Inject
+    public CmdDisplayFileSystemWatch(FileSystemWatch fileSystemWatchRef)
+    {
+        super(
+            new String[]
+            {
+                "DspFsWatch"
+            },
+            "Display file system watch",
+            "Displays the number of active file system watches and statistics about\n" +
+            "waiting for device nodes to be created or deleted",
+            null,
+            null
+        );
+
+        fileSystemWatch = fileSystemWatchRef;
+    }
+
+    @Override
+    public void execute(
+        PrintStream debugOut,
+        PrintStream debugErr,
+        AccessContext accCtx,
+        Map<String, String> parameters
+    )
+        throws Exception
+    {
+        long waitCount = fileSystemWatch.getWaitCount();
+        long waitTimeTotal = fileSystemWatch.getWaitTimeTotal();
+        debugOut.printf(
+            "Watched directories:        %8d\n" +
+            "Watched files:              %8d\n" +
+            "Completed waits:            %8d\n" +
+            "Timed out waits:            %8d\n" +
+            "Average wait time (ms):     %8d\n" +
+            "Maximum wait time (ms):     %8d\n",
+            fileSystemWatch.getWatchedDirectoryCount(),
+            fileSystemWatch.getWatchedFileCount(),
+            waitCount,
+            fileSystemWatch.getWaitTimeoutCount(),
+            waitCount > 0 ? waitTimeTotal / waitCount : 0,
+            fileSystemWatch.getWaitTimeMax()
+        );
+    }
+}
@@ -0,0 +1,71 @@
+package com.linbit.linstor.debug;
+
+import javax.inject.Inject;
+import java.io.PrintStream;
+import java.util.Map;
+
+import com.linbit.linstor.dbcp.DbConnectionPool;
+import com.linbit.linstor.dbcp.GroupCommitCoordinator;
+import com.linbit.linstor.security.AccessContext;
+
+/**
+ * Displays the statistics of transactions that share a durable commit of the database
+ */
+public class CmdDisplayGroupCommit extends BaseDebugCmd
+{
+    private final DbConnectionPool dbConnPool;
+
+    @Inject
+    public CmdDisplayGroupCommit(
+        DbConnectionPool dbConnPoolRef
+    )
+    {
+        super(
+            new String[]
+            {
+                "DspGrpCmt"
+            },
+            "Display group commit statistics",
+            "Displays the number and size of the groups of transactions that shared a durable commit\n" +
+            "and the time that transactions waited until they were durable",
+            null,
+            null
+        );
+
+        dbConnPool = dbConnPoolRef;
+    }
+
+    @Override
+    public void execute(
+        PrintStream debugOut,
+        PrintStream debugErr,
+        AccessContext accCtx,
+        Map<String, String> parameters
+    )
+        throws Exception
+    {
+        GroupCommitCoordinator groupCommitCoordinator = dbConnPool.getGroupCommitCoordinator();
+        if (groupCommitCoordinator == null)
+        {
+            debugOut.println("Group commit is disabled");
+        }
+        else
+        {
+            GroupCommitCoordinator.GroupCommitStats stats = groupCommitCoordinator.getStats();
+            debugOut.printf(
+                "%12s %12s %14s %14s %16s %16s\n",
+                "Groups", "Commits", "Avg size", "Max size", "Avg latency us", "Max latency us"
+            );
+            printSectionSeparator(debugOut);
+            debugOut.printf(
+                "%12d %12d %14.2f %14d %16d %16d\n",
+                stats.getGroups(),
+                stats.getCommits(),
+                stats.getAvgGroupSize(),
+                stats.getMaxGroupSize(),
+                stats.getAvgLatencyMicros(),
+                stats.getMaxLatencyMicros()
+            );
+        }
+    }
+}
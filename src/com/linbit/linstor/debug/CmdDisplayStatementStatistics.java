@@ -0,0 +1,180 @@
+package com.linbit.linstor.debug;
+
+import javax.inject.Inject;
+import java.io.PrintStream;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.linbit.linstor.dbcp.DbConnectionPool;
+import com.linbit.linstor.dbcp.StatementStatistics;
+import com.linbit.linstor.security.AccessContext;
+
+/**
+ * Displays the number of executions, the latency and the number of rows of the database statements
+ */
+public class CmdDisplayStatementStatistics extends BaseDebugCmd
+{
+    private static final String PRM_SORT_NAME   = "SORT";
+    private static final String PRM_LIMIT_NAME  = "LIMIT";
+    private static final String PRM_RESET_NAME  = "RESET";
+
+    private static final String PRM_COUNT   = "COUNT";
+    private static final String PRM_TOTAL   = "TOTAL";
+    private static final String PRM_AVG     = "AVG";
+    private static final String PRM_MAX     = "MAX";
+    private static final String PRM_ROWS    = "ROWS";
+    private static final String PRM_YES     = "YES";
+
+    private static final Map<String, String> PARAMETER_DESCRIPTIONS = new TreeMap<>();
+    static
+    {
+        PARAMETER_DESCRIPTIONS.put(
+            PRM_SORT_NAME,
+            "Selects the order of the statements\n" +
+            "    COUNT\n" +
+            "        Number of executions\n" +
+            "    TOTAL\n" +
+            "        Total execution time (default)\n" +
+            "    AVG\n" +
+            "        Average execution time\n" +
+            "    MAX\n" +
+            "        Maximum execution time\n" +
+            "    ROWS\n" +
+            "        Number of rows changed or returned"
+        );
+        PARAMETER_DESCRIPTIONS.put(
+            PRM_LIMIT_NAME,
+            "Maximum number of statements to display"
+        );
+        PARAMETER_DESCRIPTIONS.put(
+            PRM_RESET_NAME,
+            "If set to YES, clears the statistics after displaying them"
+        );
+    }
+
+    private final DbConnectionPool dbConnPool;
+
+    @Inject
+    public CmdDisplayStatementStatistics(
+        DbConnectionPool dbConnPoolRef
+    )
+    {
+        super(
+            new String[]
+            {
+                "DspSqlSts"
+            },
+            "Display database statement statistics",
+            "Displays the number of executions, the latency and the number of rows changed or returned\n" +
+            "for each database statement. Statements that are executed far more often than the number of\n" +
+            "objects they concern, e.g. once per object instead of once per operation, are candidates for\n" +
+            "being combined.",
+            PARAMETER_DESCRIPTIONS,
+            null
+        );
+
+        dbConnPool = dbConnPoolRef;
+    }
+
+    @Override
+    public void execute(
+        PrintStream debugOut,
+        PrintStream debugErr,
+        AccessContext accCtx,
+        Map<String, String> parameters
+    )
+        throws Exception
+    {
+        StatementStatistics statistics = dbConnPool.getStatementStatistics();
+        if (statistics == null)
+        {
+            debugOut.println(
+                "Recording database statement statistics is disabled, set 'statement-statistics' to 'true' " +
+                "in the database configuration to enable it"
+            );
+        }
+        else
+        {
+            Comparator<StatementStatistics.Entry> order = getOrder(debugErr, parameters.get(PRM_SORT_NAME));
+            Integer limit = getLimit(debugErr, parameters.get(PRM_LIMIT_NAME));
+            if (order != null && limit != null)
+            {
+                List<StatementStatistics.Entry> entries = statistics.getEntries(order);
+                StatementStatistics.printTable(debugOut, entries.subList(0, Math.min(entries.size(), limit)));
+                printSectionSeparator(debugOut);
+                debugOut.printf("%d statements\n", entries.size());
+
+                String prmReset = parameters.get(PRM_RESET_NAME);
+                if (prmReset != null && prmReset.equalsIgnoreCase(PRM_YES))
+                {
+                    statistics.reset();
+                    debugOut.println("The statistics were cleared");
+                }
+            }
+        }
+    }
+
+    private Comparator<StatementStatistics.Entry> getOrder(PrintStream debugErr, String prmSort)
+    {
+        Comparator<StatementStatistics.Entry> order = null;
+        switch (prmSort == null ? PRM_TOTAL : prmSort.toUpperCase())
+        {
+            case PRM_COUNT:
+                order = StatementStatistics.Entry.BY_COUNT;
+                break;
+            case PRM_TOTAL:
+                order = StatementStatistics.Entry.BY_TOTAL;
+                break;
+            case PRM_AVG:
+                order = StatementStatistics.Entry.BY_AVG;
+                break;
+            case PRM_MAX:
+                order = StatementStatistics.Entry.BY_MAX;
+                break;
+            case PRM_ROWS:
+                order = StatementStatistics.Entry.BY_ROWS;
+                break;
+            default:
+                printError(
+                    debugErr,
+                    "The specified sort order is invalid",
+                    "The value specified for the " + PRM_SORT_NAME + " parameter is invalid",
+                    "Specify one of " + PRM_COUNT + ", " + PRM_TOTAL + ", " + PRM_AVG + ", " + PRM_MAX +
+                    " or " + PRM_ROWS,
+                    "The specified value was '" + prmSort + "'"
+                );
+                break;
+        }
+        return order;
+    }
+
+    private Integer getLimit(PrintStream debugErr, String prmLimit)
+    {
+        Integer limit = Integer.MAX_VALUE;
+        if (prmLimit != null)
+        {
+            try
+            {
+                limit = Integer.parseInt(prmLimit);
+            }
+            catch (NumberFormatException ignored)
+            {
+                limit = -1;
+            }
+            if (limit < 0)
+            {
+                printError(
+                    debugErr,
+                    "The specified limit is invalid",
+                    "The value specified for the " + PRM_LIMIT_NAME + " parameter is not a valid number",
+                    "Specify a number greater than or equal to zero",
+                    "The specified value was '" + prmLimit + "'"
+                );
+                limit = null;
+            }
+        }
+        return limit;
+    }
+}
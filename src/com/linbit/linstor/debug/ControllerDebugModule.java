@@ -23,6 +23,9 @@ public class ControllerDebugModule extends AbstractModule
         commandsBinder.addBinding().to(CmdDeleteConfValue.class);
         commandsBinder.addBinding().to(CmdDisplayObjectStatistics.class);
         commandsBinder.addBinding().to(CmdDisplayObjProt.class);
+        commandsBinder.addBinding().to(CmdDisplayEventBuffers.class);
+        commandsBinder.addBinding().to(CmdDisplayGroupCommit.class);
+        commandsBinder.addBinding().to(CmdDisplayStatementStatistics.class);
     }
 
     // Use Provides methods because the ObjectProtection objects are not present on the satellite
@@ -18,6 +18,8 @@ public class SatelliteDebugModule extends AbstractModule
 
         commandsBinder.addBinding().to(CmdRunDeviceManager.class);
         commandsBinder.addBinding().to(CmdAbortDeviceManager.class);
+        commandsBinder.addBinding().to(CmdDisplayFileSystemWatch.class);
+        commandsBinder.addBinding().to(CmdDisplayDrbdEvents.class);
     }
 
     // Use Provides methods because the ObjectProtection objects are not present on the satellite
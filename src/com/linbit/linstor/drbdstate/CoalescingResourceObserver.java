@@ -0,0 +1,587 @@
+package com.linbit.linstor.drbdstate;
+
+import com.linbit.linstor.MinorNumber;
+import com.linbit.linstor.logging.ErrorReporter;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decouples a ResourceObserver from the thread that processes the DRBD events
+ *
+ * Notifications are queued and delivered to the target observer by a separate delivery thread,
+ * so that a slow observer does not back up the processing of the 'drbdsetup events2' stream.
+ * After the first notification arrives, the delivery thread waits for the coalescing window
+ * before delivering the queued notifications. Repeated state changes of the same object within
+ * that time are merged into a single notification that keeps its position in the queue and
+ * reports the state before the first and after the last change. A change that ends up in its
+ * previous state is not delivered at all.
+ *
+ * Creation and destruction notifications, as well as actions submitted with
+ * {@link #runInOrder(Runnable)}, are never merged or dropped. State changes queued before such
+ * a notification are never merged with state changes queued after it, so the observer always
+ * sees the changes of an object between its creation and its destruction.
+ *
+ * If the queue is full, state changes that cannot be merged into a queued notification are dropped.
+ * The overflow action is run by the delivery thread after the notifications that were queued at that
+ * time have been delivered, so that the target can publish the current state of its objects instead.
+ */
+public class CoalescingResourceObserver implements ResourceObserver
+{
+    private final ResourceObserver target;
+    private final ErrorReporter errorReporter;
+    private final long windowMillis;
+    private final int capacity;
+    private final Runnable overflowAction;
+
+    // Guarded by 'this'
+    private ArrayDeque<Notification> queue;
+    private Map<ChangeKey, Notification> pendingChanges;
+    private volatile boolean running = false;
+    private boolean dropWarned = false;
+    private boolean overflowed = false;
+
+    private Thread thread;
+
+    private final AtomicLong queuedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private volatile int peakQueueSize = 0;
+
+    public CoalescingResourceObserver(
+        ResourceObserver targetRef,
+        ErrorReporter errorReporterRef,
+        long windowMillisRef,
+        int capacityRef,
+        Runnable overflowActionRef
+    )
+    {
+        target = targetRef;
+        errorReporter = errorReporterRef;
+        windowMillis = windowMillisRef;
+        capacity = capacityRef;
+        overflowAction = overflowActionRef;
+
+        queue = new ArrayDeque<>();
+        pendingChanges = new HashMap<>();
+    }
+
+    public synchronized void start(String threadName)
+    {
+        if (!running)
+        {
+            running = true;
+            thread = new Thread(this::deliveryLoop, threadName);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops the delivery thread; notifications that have not been delivered yet are discarded
+     */
+    public synchronized void shutdown()
+    {
+        running = false;
+        queue.clear();
+        pendingChanges.clear();
+        overflowed = false;
+        notifyAll();
+        if (thread != null)
+        {
+            thread.interrupt();
+        }
+    }
+
+    public void awaitShutdown(long timeout) throws InterruptedException
+    {
+        Thread deliveryThread = thread;
+        if (deliveryThread != null)
+        {
+            deliveryThread.join(timeout);
+        }
+    }
+
+    /**
+     * Queues an action that is run by the delivery thread after all notifications queued before it
+     */
+    public void runInOrder(Runnable action)
+    {
+        // Not a notification of the target observer, so it is not counted as delivered
+        addInOrder(
+            observer ->
+            {
+                action.run();
+                return false;
+            }
+        );
+    }
+
+    /**
+     * @return number of notifications that are waiting to be delivered
+     */
+    public synchronized int getQueueSize()
+    {
+        return queue.size();
+    }
+
+    public int getPeakQueueSize()
+    {
+        return peakQueueSize;
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * @return number of notifications that were received, including those that were merged or dropped
+     */
+    public long getQueuedCount()
+    {
+        return queuedCount.get();
+    }
+
+    /**
+     * @return number of state changes that were merged into a notification that was already queued
+     */
+    public long getCoalescedCount()
+    {
+        return coalescedCount.get();
+    }
+
+    /**
+     * @return number of state changes that were discarded because the queue was full
+     */
+    public long getDroppedCount()
+    {
+        return droppedCount.get();
+    }
+
+    public long getDeliveredCount()
+    {
+        return deliveredCount.get();
+    }
+
+    @Override
+    public void resourceCreated(DrbdResource resource)
+    {
+        enqueueInOrder(observer -> observer.resourceCreated(resource));
+    }
+
+    @Override
+    public void roleChanged(DrbdResource resource, DrbdResource.Role previous, DrbdResource.Role current)
+    {
+        enqueueChange(
+            new ChangeKey(ChangeType.ROLE, resource, null, null),
+            previous,
+            current,
+            (observer, prev, cur) -> observer.roleChanged(resource, prev, cur)
+        );
+    }
+
+    @Override
+    public void peerRoleChanged(
+        DrbdResource resource, DrbdConnection connection,
+        DrbdResource.Role previous, DrbdResource.Role current
+    )
+    {
+        enqueueChange(
+            new ChangeKey(ChangeType.PEER_ROLE, resource, connection, null),
+            previous,
+            current,
+            (observer, prev, cur) -> observer.peerRoleChanged(resource, connection, prev, cur)
+        );
+    }
+
+    @Override
+    public void resourceDestroyed(DrbdResource resource)
+    {
+        enqueueInOrder(observer -> observer.resourceDestroyed(resource));
+    }
+
+    @Override
+    public void volumeCreated(DrbdResource resource, DrbdConnection connection, DrbdVolume volume)
+    {
+        enqueueInOrder(observer -> observer.volumeCreated(resource, connection, volume));
+    }
+
+    @Override
+    public void minorNrChanged(
+        DrbdResource resource, DrbdVolume volume,
+        MinorNumber previous, MinorNumber current
+    )
+    {
+        enqueueChange(
+            new ChangeKey(ChangeType.MINOR, resource, null, volume),
+            previous,
+            current,
+            (observer, prev, cur) -> observer.minorNrChanged(resource, volume, prev, cur)
+        );
+    }
+
+    @Override
+    public void diskStateChanged(
+        DrbdResource resource, DrbdConnection connection, DrbdVolume volume,
+        DrbdVolume.DiskState previous, DrbdVolume.DiskState current
+    )
+    {
+        enqueueChange(
+            new ChangeKey(ChangeType.DISK, resource, connection, volume),
+            previous,
+            current,
+            (observer, prev, cur) -> observer.diskStateChanged(resource, connection, volume, prev, cur)
+        );
+    }
+
+    @Override
+    public void replicationStateChanged(
+        DrbdResource resource, DrbdConnection connection, DrbdVolume volume,
+        DrbdVolume.ReplState previous, DrbdVolume.ReplState current
+    )
+    {
+        enqueueChange(
+            new ChangeKey(ChangeType.REPL, resource, connection, volume),
+            previous,
+            current,
+            (observer, prev, cur) -> observer.replicationStateChanged(resource, connection, volume, prev, cur)
+        );
+    }
+
+    @Override
+    public void volumeDestroyed(DrbdResource resource, DrbdConnection connection, DrbdVolume volume)
+    {
+        enqueueInOrder(observer -> observer.volumeDestroyed(resource, connection, volume));
+    }
+
+    @Override
+    public void connectionCreated(DrbdResource resource, DrbdConnection connection)
+    {
+        enqueueInOrder(observer -> observer.connectionCreated(resource, connection));
+    }
+
+    @Override
+    public void connectionStateChanged(
+        DrbdResource resource, DrbdConnection connection,
+        DrbdConnection.State previous, DrbdConnection.State current
+    )
+    {
+        enqueueChange(
+            new ChangeKey(ChangeType.CONN, resource, connection, null),
+            previous,
+            current,
+            (observer, prev, cur) -> observer.connectionStateChanged(resource, connection, prev, cur)
+        );
+    }
+
+    @Override
+    public void connectionDestroyed(DrbdResource resource, DrbdConnection connection)
+    {
+        enqueueInOrder(observer -> observer.connectionDestroyed(resource, connection));
+    }
+
+    @Override
+    public void statisticsChanged(DrbdResource resource, DrbdConnection connection, DrbdVolume volume)
+    {
+        enqueueUpdate(
+            new ChangeKey(ChangeType.STATS, resource, connection, volume),
+            observer -> observer.statisticsChanged(resource, connection, volume)
+        );
+    }
+
+    private void enqueueInOrder(InOrderNotification notification)
+    {
+        queuedCount.incrementAndGet();
+        addInOrder(notification);
+    }
+
+    private synchronized void addInOrder(Notification notification)
+    {
+        if (running)
+        {
+            // Changes queued after this notification must not be merged with changes queued before it
+            pendingChanges.clear();
+            add(notification);
+        }
+    }
+
+    private synchronized <T> void enqueueChange(
+        ChangeKey key,
+        T previous,
+        T current,
+        ChangeCallback<T> callback
+    )
+    {
+        queuedCount.incrementAndGet();
+        if (running)
+        {
+            @SuppressWarnings("unchecked")
+            StateChange<T> pending = (StateChange<T>) pendingChanges.get(key);
+            if (pending != null)
+            {
+                pending.current = current;
+                coalescedCount.incrementAndGet();
+            }
+            else
+            if (hasCapacity())
+            {
+                StateChange<T> change = new StateChange<>(previous, current, callback);
+                pendingChanges.put(key, change);
+                add(change);
+            }
+        }
+    }
+
+    /**
+     * Queues a notification that carries no values of its own, so that repeated
+     * notifications for the same object only need to be delivered once
+     */
+    private synchronized void enqueueUpdate(ChangeKey key, InOrderNotification notification)
+    {
+        queuedCount.incrementAndGet();
+        if (running)
+        {
+            if (pendingChanges.containsKey(key))
+            {
+                coalescedCount.incrementAndGet();
+            }
+            else
+            if (hasCapacity())
+            {
+                pendingChanges.put(key, notification);
+                add(notification);
+            }
+        }
+    }
+
+    private boolean hasCapacity()
+    {
+        boolean accept = queue.size() < capacity;
+        if (!accept)
+        {
+            overflowed = true;
+            droppedCount.incrementAndGet();
+            if (!dropWarned)
+            {
+                dropWarned = true;
+                errorReporter.logWarning(
+                    "DRBD state change notification queue is full (%d entries), dropping state changes " +
+                        "until the current state is published again",
+                    capacity
+                );
+            }
+        }
+        return accept;
+    }
+
+    private void add(Notification notification)
+    {
+        queue.add(notification);
+        int queueSize = queue.size();
+        if (queueSize > peakQueueSize)
+        {
+            peakQueueSize = queueSize;
+        }
+        if (queueSize == 1)
+        {
+            notifyAll();
+        }
+    }
+
+    private void deliveryLoop()
+    {
+        while (running)
+        {
+            deliverBatch();
+        }
+    }
+
+    /**
+     * Waits for notifications and for the coalescing window to pass, then delivers the queued
+     * notifications without holding the lock, so that new notifications can be queued meanwhile
+     */
+    private void deliverBatch()
+    {
+        ArrayDeque<Notification> batch = null;
+        boolean batchOverflowed = false;
+        try
+        {
+            synchronized (this)
+            {
+                while (running && queue.isEmpty())
+                {
+                    wait();
+                }
+            }
+            if (windowMillis > 0)
+            {
+                TimeUnit.MILLISECONDS.sleep(windowMillis);
+            }
+            synchronized (this)
+            {
+                if (running)
+                {
+                    batch = queue;
+                    queue = new ArrayDeque<>();
+                    pendingChanges = new HashMap<>();
+                    batchOverflowed = overflowed;
+                    overflowed = false;
+                    if (batch.size() < capacity)
+                    {
+                        dropWarned = false;
+                    }
+                }
+            }
+        }
+        catch (InterruptedException ignored)
+        {
+            // shutdown() interrupts the delivery thread, the running flag decides whether to continue
+        }
+
+        if (batch != null)
+        {
+            for (Notification notification : batch)
+            {
+                try
+                {
+                    if (notification.deliver(target))
+                    {
+                        deliveredCount.incrementAndGet();
+                    }
+                }
+                catch (Exception exc)
+                {
+                    errorReporter.reportError(exc);
+                }
+            }
+
+            if (batchOverflowed)
+            {
+                try
+                {
+                    overflowAction.run();
+                }
+                catch (Exception exc)
+                {
+                    errorReporter.reportError(exc);
+                }
+            }
+        }
+    }
+
+    private enum ChangeType
+    {
+        ROLE,
+        PEER_ROLE,
+        MINOR,
+        DISK,
+        REPL,
+        CONN,
+        STATS
+    }
+
+    /**
+     * Identifies the object and the kind of state that changed
+     */
+    private static class ChangeKey
+    {
+        private final ChangeType type;
+        private final DrbdResource resource;
+        private final DrbdConnection connection;
+        private final DrbdVolume volume;
+
+        ChangeKey(ChangeType typeRef, DrbdResource resourceRef, DrbdConnection connectionRef, DrbdVolume volumeRef)
+        {
+            type = typeRef;
+            resource = resourceRef;
+            connection = connectionRef;
+            volume = volumeRef;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(
+                type,
+                System.identityHashCode(resource),
+                System.identityHashCode(connection),
+                System.identityHashCode(volume)
+            );
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            boolean equal = obj == this;
+            if (!equal && obj instanceof ChangeKey)
+            {
+                ChangeKey other = (ChangeKey) obj;
+                equal = type == other.type &&
+                    resource == other.resource &&
+                    connection == other.connection &&
+                    volume == other.volume;
+            }
+            return equal;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Notification
+    {
+        /**
+         * @return true if the target observer was notified
+         */
+        boolean deliver(ResourceObserver observer);
+    }
+
+    @FunctionalInterface
+    private interface InOrderNotification extends Notification
+    {
+        void deliverInOrder(ResourceObserver observer);
+
+        @Override
+        default boolean deliver(ResourceObserver observer)
+        {
+            deliverInOrder(observer);
+            return true;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChangeCallback<T>
+    {
+        void changed(ResourceObserver observer, T previous, T current);
+    }
+
+    private static class StateChange<T> implements Notification
+    {
+        private final T previous;
+        private T current;
+        private final ChangeCallback<T> callback;
+
+        StateChange(T previousRef, T currentRef, ChangeCallback<T> callbackRef)
+        {
+            previous = previousRef;
+            current = currentRef;
+            callback = callbackRef;
+        }
+
+        @Override
+        public boolean deliver(ResourceObserver observer)
+        {
+            // The state may have returned to where it was before the first of the merged changes
+            boolean changed = !Objects.equals(previous, current);
+            if (changed)
+            {
+                callback.changed(observer, previous, current);
+            }
+            return changed;
+        }
+    }
+}
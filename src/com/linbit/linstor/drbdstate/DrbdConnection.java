@@ -16,6 +16,10 @@ public class DrbdConnection
     public static final String PROP_KEY_CONN_NAME    = "conn-name";
     public static final String PROP_KEY_PEER_NODE_ID = "peer-node-id";
 
+    // Statistics, only reported by 'drbdsetup events2 --statistics'
+    public static final String PROP_KEY_AP_IN_FLIGHT = "ap-in-flight";
+    public static final String PROP_KEY_RS_IN_FLIGHT = "rs-in-flight";
+
     public static final String CS_LABEL_STANDALONE      = "StandAlone";
     public static final String CS_LABEL_DISCONNECTING   = "Disconnecting";
     public static final String CS_LABEL_UNCONNECTED     = "Unconnected";
@@ -107,6 +111,10 @@ public class DrbdConnection
     protected DrbdResource resRef;
     private final Map<VolumeNumber, DrbdVolume> volList;
 
+    // Statistics are read by other threads than the one that processes the events
+    protected volatile long apInFlightKib;
+    protected volatile long rsInFlightKib;
+
     protected DrbdConnection(DrbdResource resource, String connName, int nodeId)
     {
         peerName = connName;
@@ -137,6 +145,22 @@ public class DrbdConnection
         return connState;
     }
 
+    /**
+     * @return amount of application I/O that was sent to the peer but not yet completed
+     */
+    public long getApInFlightKib()
+    {
+        return apInFlightKib;
+    }
+
+    /**
+     * @return amount of resync I/O that was sent to the peer but not yet completed
+     */
+    public long getRsInFlightKib()
+    {
+        return rsInFlightKib;
+    }
+
     protected static DrbdConnection newFromProps(DrbdResource resource, Map<String, String> props)
         throws EventsSourceException
     {
@@ -173,6 +197,7 @@ public class DrbdConnection
     }
 
     protected void update(Map<String, String> props, ResourceObserver obs)
+        throws EventsSourceException
     {
         String connLabel = props.get(PROP_KEY_CONNECTION);
         if (connLabel != null)
@@ -195,6 +220,36 @@ public class DrbdConnection
                 obs.peerRoleChanged(resRef, this, prevRole, peerResRole);
             }
         }
+
+        String apInFlightStr = props.get(PROP_KEY_AP_IN_FLIGHT);
+        String rsInFlightStr = props.get(PROP_KEY_RS_IN_FLIGHT);
+        if (apInFlightStr != null || rsInFlightStr != null)
+        {
+            long prevApInFlightKib = apInFlightKib;
+            long prevRsInFlightKib = rsInFlightKib;
+            try
+            {
+                if (apInFlightStr != null)
+                {
+                    apInFlightKib = Long.parseLong(apInFlightStr);
+                }
+                if (rsInFlightStr != null)
+                {
+                    rsInFlightKib = Long.parseLong(rsInFlightStr);
+                }
+            }
+            catch (NumberFormatException nfExc)
+            {
+                throw new EventsSourceException(
+                    "Event line with unparsable in-flight counters",
+                    nfExc
+                );
+            }
+            if (prevApInFlightKib != apInFlightKib || prevRsInFlightKib != rsInFlightKib)
+            {
+                obs.statisticsChanged(resRef, this, null);
+            }
+        }
     }
 
     public DrbdResource getResource()
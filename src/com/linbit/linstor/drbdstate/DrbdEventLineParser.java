@@ -0,0 +1,274 @@
+package com.linbit.linstor.drbdstate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Parser for 'drbdsetup events2' lines that works directly on the raw event bytes
+ *
+ * The action, the object type and the key/value fields of a line are split without creating
+ * intermediate strings. Tokens are mapped to strings through a bounded cache, so that keys and
+ * the recurring values (state labels, resource and peer names, volume numbers) resolve to the
+ * same String instances on every line. The fields are collected in a reusable map that is
+ * overwritten by the next call to {@link #parse(byte[], int, int)}.
+ *
+ * Instances are not thread-safe; each events2 stream is expected to have its own parser.
+ */
+final class DrbdEventLineParser
+{
+    private static final int TOKEN_CACHE_SIZE = 4096;
+    private static final int MAX_CACHED_TOKEN_LENGTH = 64;
+    private static final int INITIAL_FIELD_CAPACITY = 16;
+
+    private final byte[][] cachedBytes = new byte[TOKEN_CACHE_SIZE][];
+    private final String[] cachedStrings = new String[TOKEN_CACHE_SIZE];
+
+    private final EventFields fields = new EventFields();
+    private String action;
+    private String objType;
+
+    /**
+     * Parses one event line
+     *
+     * @return false if the line is empty, true otherwise
+     * @throws EventsSourceException if the line lacks the action or the object type
+     */
+    boolean parse(byte[] data, int offset, int length)
+        throws EventsSourceException
+    {
+        action = null;
+        objType = null;
+        fields.clear();
+
+        final int limit = offset + length;
+        int pos = skipSpace(data, offset, limit);
+        boolean nonEmpty = pos < limit;
+        if (nonEmpty)
+        {
+            int end = tokenEnd(data, pos, limit);
+            action = token(data, pos, end);
+            pos = skipSpace(data, end, limit);
+            if (pos >= limit)
+            {
+                throw new EventsSourceException("Received an event line without an object type parameter");
+            }
+            end = tokenEnd(data, pos, limit);
+            objType = token(data, pos, end);
+            pos = skipSpace(data, end, limit);
+
+            while (pos < limit)
+            {
+                end = tokenEnd(data, pos, limit);
+                int splitIdx = pos;
+                while (splitIdx < end && data[splitIdx] != ':')
+                {
+                    ++splitIdx;
+                }
+                if (splitIdx < end)
+                {
+                    fields.put(token(data, pos, splitIdx), token(data, splitIdx + 1, end));
+                }
+                pos = skipSpace(data, end, limit);
+            }
+        }
+        return nonEmpty;
+    }
+
+    String getAction()
+    {
+        return action;
+    }
+
+    String getObjType()
+    {
+        return objType;
+    }
+
+    /**
+     * @return the fields of the last parsed line; only valid until the next line is parsed
+     */
+    EventFields getFields()
+    {
+        return fields;
+    }
+
+    private static boolean isSpace(byte value)
+    {
+        return value == ' ' || value == '\n' || value == '\r' || value == '\t';
+    }
+
+    private static int skipSpace(byte[] data, int pos, int limit)
+    {
+        int idx = pos;
+        while (idx < limit && isSpace(data[idx]))
+        {
+            ++idx;
+        }
+        return idx;
+    }
+
+    private static int tokenEnd(byte[] data, int pos, int limit)
+    {
+        int idx = pos;
+        while (idx < limit && !isSpace(data[idx]))
+        {
+            ++idx;
+        }
+        return idx;
+    }
+
+    /**
+     * Returns the string for the specified byte range, reusing the cached instance if the same
+     * token was seen before and has not been evicted by a colliding token
+     */
+    private String token(byte[] data, int start, int end)
+    {
+        final int length = end - start;
+        String result;
+        if (length > MAX_CACHED_TOKEN_LENGTH)
+        {
+            result = new String(data, start, length, StandardCharsets.UTF_8);
+        }
+        else
+        {
+            int hash = 0x811C9DC5;
+            for (int idx = start; idx < end; ++idx)
+            {
+                hash = (hash ^ data[idx]) * 0x01000193;
+            }
+            final int slot = (hash ^ (hash >>> 16)) & (TOKEN_CACHE_SIZE - 1);
+
+            final byte[] candidate = cachedBytes[slot];
+            if (candidate != null && rangeEquals(candidate, data, start, length))
+            {
+                result = cachedStrings[slot];
+            }
+            else
+            {
+                byte[] tokenBytes = new byte[length];
+                System.arraycopy(data, start, tokenBytes, 0, length);
+                result = new String(tokenBytes, StandardCharsets.UTF_8);
+                cachedBytes[slot] = tokenBytes;
+                cachedStrings[slot] = result;
+            }
+        }
+        return result;
+    }
+
+    private static boolean rangeEquals(byte[] candidate, byte[] data, int start, int length)
+    {
+        boolean equal = candidate.length == length;
+        for (int idx = 0; equal && idx < length; ++idx)
+        {
+            equal = candidate[idx] == data[start + idx];
+        }
+        return equal;
+    }
+
+    /**
+     * Reusable, array-backed map of the key/value fields of an event line
+     *
+     * Lookups are linear, which is faster than hashing for the dozen fields of an events2 line,
+     * particularly since the keys are usually the identical String instances from the token cache.
+     */
+    static final class EventFields extends AbstractMap<String, String>
+    {
+        private String[] keys = new String[INITIAL_FIELD_CAPACITY];
+        private String[] values = new String[INITIAL_FIELD_CAPACITY];
+        private int count = 0;
+
+        @Override
+        public String get(Object key)
+        {
+            int idx = indexOf(key);
+            return idx >= 0 ? values[idx] : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key)
+        {
+            return indexOf(key) >= 0;
+        }
+
+        @Override
+        public String put(String key, String value)
+        {
+            String prevValue = null;
+            int idx = indexOf(key);
+            if (idx >= 0)
+            {
+                prevValue = values[idx];
+                values[idx] = value;
+            }
+            else
+            {
+                if (count == keys.length)
+                {
+                    String[] newKeys = new String[count * 2];
+                    String[] newValues = new String[count * 2];
+                    System.arraycopy(keys, 0, newKeys, 0, count);
+                    System.arraycopy(values, 0, newValues, 0, count);
+                    keys = newKeys;
+                    values = newValues;
+                }
+                keys[count] = key;
+                values[count] = value;
+                ++count;
+            }
+            return prevValue;
+        }
+
+        @Override
+        public int size()
+        {
+            return count;
+        }
+
+        @Override
+        public void clear()
+        {
+            for (int idx = 0; idx < count; ++idx)
+            {
+                keys[idx] = null;
+                values[idx] = null;
+            }
+            count = 0;
+        }
+
+        /**
+         * Creates a snapshot of the entries; not used on the event processing path
+         */
+        @Override
+        public Set<Entry<String, String>> entrySet()
+        {
+            Set<Entry<String, String>> entries = new LinkedHashSet<>();
+            for (int idx = 0; idx < count; ++idx)
+            {
+                entries.add(new SimpleImmutableEntry<>(keys[idx], values[idx]));
+            }
+            return entries;
+        }
+
+        private int indexOf(Object key)
+        {
+            int foundIdx = -1;
+            for (int idx = 0; idx < count && foundIdx == -1; ++idx)
+            {
+                if (keys[idx] == key)
+                {
+                    foundIdx = idx;
+                }
+            }
+            for (int idx = 0; idx < count && foundIdx == -1; ++idx)
+            {
+                if (keys[idx].equals(key))
+                {
+                    foundIdx = idx;
+                }
+            }
+            return foundIdx;
+        }
+    }
+}
@@ -2,21 +2,44 @@ package com.linbit.linstor.drbdstate;
 
 import com.linbit.ImplementationError;
 import com.linbit.InvalidNameException;
+import com.linbit.NegativeTimeException;
 import com.linbit.ServiceName;
 import com.linbit.SystemService;
+import com.linbit.ValueOutOfRangeException;
+import com.linbit.linstor.InternalApiConsts;
+import com.linbit.linstor.VolumeNumber;
 import com.linbit.linstor.api.ApiConsts;
 import com.linbit.linstor.core.DrbdStateChange;
 import com.linbit.linstor.event.EventIdentifier;
 import com.linbit.linstor.event.EventBroker;
 import com.linbit.linstor.event.ObjectIdentifier;
 import com.linbit.linstor.logging.ErrorReporter;
+import com.linbit.linstor.timer.CoreTimer;
+import com.linbit.linstor.timer.CoreTimerAction;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Publishes DRBD events as LinStor events.
+ *
+ * The DRBD state changes are delivered through a {@link CoalescingResourceObserver}, so that
+ * publishing the events does not hold up the processing of the DRBD events, and so that bursts
+ * of changes of the same object, such as during connection flaps, are published only once.
+ * If state changes were dropped because the queue was full, the current state of all objects
+ * with open event streams is published again.
+ *
+ * DRBD statistics events are additionally rate limited per volume, except when the replication
+ * state of the volume changes, so that e.g. the end of a resync is always published. Changes within
+ * the interval are published at its end. While the transfer rates of a volume are not 0, the volume
+ * is checked at the end of each interval, so that rates that expired without a new sample of the
+ * counters are published as well.
  */
 @Singleton
 public class DrbdEventPublisher implements SystemService, ResourceObserver, DrbdStateChange
@@ -26,9 +49,22 @@ public class DrbdEventPublisher implements SystemService, ResourceObserver, Drbd
     private static final String SERVICE_INFO = "DrbdEventPublisher";
     private static final AtomicInteger INSTANCE_COUNT = new AtomicInteger(0);
 
+    private static final long COALESCE_WINDOW_MS = 20;
+    private static final int NOTIFICATION_QUEUE_CAPACITY = 10_000;
+    private static final long STATS_EVENT_INTERVAL_MS = 1000;
+    private static final String STATS_ACTION_PREFIX = "DrbdStatsEvent-";
+
     private final ErrorReporter errorReporter;
     private final DrbdEventService drbdEventService;
     private final EventBroker eventBroker;
+    private final CoreTimer timer;
+    private final CoalescingResourceObserver asyncObserver;
+
+    // Only accessed by the notification delivery thread
+    private final Map<EventIdentifier, StatsEventState> statsEventStates = new HashMap<>();
+    private final Set<DrbdResource> openResources = new HashSet<>();
+    private final Set<DrbdVolume> openVolumes = new HashSet<>();
+    private long statsActionSeq = 0;
 
     private ServiceName instanceName;
     private boolean started = false;
@@ -49,12 +85,21 @@ public class DrbdEventPublisher implements SystemService, ResourceObserver, Drbd
     public DrbdEventPublisher(
         ErrorReporter errorReporterRef,
         DrbdEventService drbdEventServiceRef,
-        EventBroker eventBrokerRef
+        EventBroker eventBrokerRef,
+        CoreTimer timerRef
     )
     {
         errorReporter = errorReporterRef;
         drbdEventService = drbdEventServiceRef;
         eventBroker = eventBrokerRef;
+        timer = timerRef;
+        asyncObserver = new CoalescingResourceObserver(
+            this,
+            errorReporterRef,
+            COALESCE_WINDOW_MS,
+            NOTIFICATION_QUEUE_CAPACITY,
+            this::republishAll
+        );
 
         try
         {
@@ -96,36 +141,49 @@ public class DrbdEventPublisher implements SystemService, ResourceObserver, Drbd
         instanceName = instanceNameRef;
     }
 
+    /**
+     * @return the queue through which the DRBD state changes are delivered, for statistics
+     */
+    public CoalescingResourceObserver getNotificationQueue()
+    {
+        return asyncObserver;
+    }
+
     @Override
     public void start()
     {
+        asyncObserver.start(SERVICE_INFO);
         drbdEventService.addDrbdStateChangeObserver(this);
-        drbdEventService.addObserver(this, DrbdStateTracker.OBS_ALL);
+        drbdEventService.addObserver(asyncObserver, DrbdStateTracker.OBS_ALL);
         started = true;
     }
 
     @Override
     public void shutdown()
     {
-        drbdEventService.removeObserver(this);
+        drbdEventService.removeObserver(asyncObserver);
+        asyncObserver.shutdown();
         started = false;
     }
 
     @Override
     public void awaitShutdown(long timeout)
+        throws InterruptedException
     {
-        // Nothing to do
+        asyncObserver.awaitShutdown(timeout);
     }
 
     @Override
     public void resourceCreated(DrbdResource resource)
     {
+        openResources.add(resource);
         eventBroker.openEventStream(resourceStateEventIdentifier(resource));
     }
 
     @Override
     public void resourceDestroyed(DrbdResource resource)
     {
+        openResources.remove(resource);
         eventBroker.closeEventStream(resourceStateEventIdentifier(resource));
     }
 
@@ -136,7 +194,9 @@ public class DrbdEventPublisher implements SystemService, ResourceObserver, Drbd
     {
         if (connection == null)
         {
+            openVolumes.add(volume);
             eventBroker.openEventStream(volumeDiskStateEventIdentifier(resource, volume));
+            eventBroker.openEventStream(drbdVolumeStatsEventIdentifier(resource, volume.getVolNr()));
         }
     }
 
@@ -149,16 +209,32 @@ public class DrbdEventPublisher implements SystemService, ResourceObserver, Drbd
     {
         if (connection == null)
         {
+            openVolumes.remove(volume);
             eventBroker.closeEventStream(volumeDiskStateEventIdentifier(resource, volume));
+
+            EventIdentifier statsEventIdentifier = drbdVolumeStatsEventIdentifier(resource, volume.getVolNr());
+            statsEventStates.remove(statsEventIdentifier);
+            eventBroker.closeEventStream(statsEventIdentifier);
         }
     }
 
     @Override
     public void drbdStateUnavailable()
     {
-        eventBroker.closeAllEventStreams(
-            ApiConsts.EVENT_VOLUME_DISK_STATE,
-            new ObjectIdentifier(null, null, null, null)
+        // Close the streams only after the notifications that are still queued have been published
+        asyncObserver.runInOrder(() ->
+            {
+                eventBroker.closeAllEventStreams(
+                    ApiConsts.EVENT_VOLUME_DISK_STATE,
+                    new ObjectIdentifier(null, null, null, null)
+                );
+                eventBroker.closeAllEventStreams(
+                    InternalApiConsts.EVENT_DRBD_VOLUME_STATS,
+                    new ObjectIdentifier(null, null, null, null)
+                );
+                statsEventStates.clear();
+                openVolumes.clear();
+            }
         );
     }
 
@@ -185,6 +261,24 @@ public class DrbdEventPublisher implements SystemService, ResourceObserver, Drbd
     )
     {
         eventBroker.triggerEvent(resourceStateEventIdentifier(resource));
+        triggerStatsEvent(resource, volume.getVolNr(), true);
+    }
+
+    @Override
+    public void statisticsChanged(DrbdResource resource, DrbdConnection connection, DrbdVolume volume)
+    {
+        if (volume != null)
+        {
+            triggerStatsEvent(resource, volume.getVolNr(), false);
+        }
+        else
+        {
+            // Statistics of the connection itself, which are part of the statistics of each volume
+            for (VolumeNumber vlmNr : resource.getVolumesMap().keySet())
+            {
+                triggerStatsEvent(resource, vlmNr, false);
+            }
+        }
     }
 
     @Override
@@ -193,6 +287,141 @@ public class DrbdEventPublisher implements SystemService, ResourceObserver, Drbd
         eventBroker.triggerEvent(resourceStateEventIdentifier(resource));
     }
 
+    /**
+     * Publishes the current state of all objects with open event streams, after state changes were dropped
+     */
+    private void republishAll()
+    {
+        errorReporter.logInfo(
+            "Publishing the state of %d resources again after dropped state changes",
+            openResources.size()
+        );
+        for (DrbdResource resource : openResources)
+        {
+            eventBroker.triggerEvent(resourceStateEventIdentifier(resource));
+        }
+        for (DrbdVolume volume : openVolumes)
+        {
+            eventBroker.triggerEvent(volumeDiskStateEventIdentifier(volume.getResource(), volume));
+            triggerStatsEvent(volume.getResource(), volume.getVolNr(), false);
+        }
+    }
+
+    private void triggerStatsEvent(DrbdResource resource, VolumeNumber vlmNr, boolean force)
+    {
+        EventIdentifier eventIdentifier = drbdVolumeStatsEventIdentifier(resource, vlmNr);
+        long now = System.currentTimeMillis();
+        StatsEventState state = statsEventStates.get(eventIdentifier);
+        if (state == null)
+        {
+            state = new StatsEventState(resource, vlmNr);
+            statsEventStates.put(eventIdentifier, state);
+            publishStatsEvent(eventIdentifier, state, now);
+        }
+        else
+        if (force || now - state.lastEventTime >= STATS_EVENT_INTERVAL_MS)
+        {
+            publishStatsEvent(eventIdentifier, state, now);
+        }
+        else
+        {
+            state.changePending = true;
+            scheduleStatsCheck(eventIdentifier, state, state.lastEventTime + STATS_EVENT_INTERVAL_MS - now);
+        }
+    }
+
+    private void publishStatsEvent(EventIdentifier eventIdentifier, StatsEventState state, long now)
+    {
+        state.lastEventTime = now;
+        state.changePending = false;
+        state.ratesActive = hasActiveRates(state);
+        eventBroker.triggerEvent(eventIdentifier);
+
+        if (state.ratesActive)
+        {
+            scheduleStatsCheck(eventIdentifier, state, STATS_EVENT_INTERVAL_MS);
+        }
+    }
+
+    /**
+     * Runs at the end of an interval. Publishes the changes that were held back during the interval, or the
+     * expiry of the rates that were published last.
+     */
+    private void checkStatsEvent(EventIdentifier eventIdentifier, StatsEventState state)
+    {
+        // Ignore the check if the volume was destroyed meanwhile
+        if (statsEventStates.get(eventIdentifier) == state)
+        {
+            state.checkScheduled = false;
+            long now = System.currentTimeMillis();
+            boolean ratesActive = hasActiveRates(state);
+            if (state.changePending || state.ratesActive != ratesActive)
+            {
+                publishStatsEvent(eventIdentifier, state, now);
+            }
+            else
+            if (ratesActive)
+            {
+                scheduleStatsCheck(eventIdentifier, state, STATS_EVENT_INTERVAL_MS);
+            }
+        }
+    }
+
+    private void scheduleStatsCheck(EventIdentifier eventIdentifier, StatsEventState state, long delay)
+    {
+        if (!state.checkScheduled)
+        {
+            state.checkScheduled = true;
+            String actionId = STATS_ACTION_PREFIX + statsActionSeq++;
+            try
+            {
+                // The check runs on the delivery thread, which owns the state
+                timer.addDelayedAction(
+                    delay,
+                    new CoreTimerAction()
+                    {
+                        @Override
+                        public String getId()
+                        {
+                            return actionId;
+                        }
+
+                        @Override
+                        public void run()
+                        {
+                            asyncObserver.runInOrder(() -> checkStatsEvent(eventIdentifier, state));
+                        }
+                    }
+                );
+            }
+            catch (NegativeTimeException | ValueOutOfRangeException exc)
+            {
+                throw new ImplementationError("Invalid statistics event delay " + delay, exc);
+            }
+        }
+    }
+
+    private boolean hasActiveRates(StatsEventState state)
+    {
+        boolean ratesActive = false;
+        Iterator<DrbdConnection> connectionIter = state.resource.getConnectionsMap().values().iterator();
+        while (!ratesActive && connectionIter.hasNext())
+        {
+            DrbdVolume peerVolume = connectionIter.next().getVolume(state.vlmNr);
+            ratesActive = peerVolume != null && peerVolume.hasActiveRates();
+        }
+        return ratesActive;
+    }
+
+    private EventIdentifier drbdVolumeStatsEventIdentifier(DrbdResource resource, VolumeNumber vlmNr)
+    {
+        return EventIdentifier.volumeDefinition(
+            InternalApiConsts.EVENT_DRBD_VOLUME_STATS,
+            resource.getName(),
+            vlmNr
+        );
+    }
+
     private EventIdentifier volumeDiskStateEventIdentifier(DrbdResource resource, DrbdVolume volume)
     {
         return EventIdentifier.volumeDefinition(
@@ -209,4 +438,21 @@ public class DrbdEventPublisher implements SystemService, ResourceObserver, Drbd
             resource.getName()
         );
     }
+
+    private static class StatsEventState
+    {
+        private final DrbdResource resource;
+        private final VolumeNumber vlmNr;
+
+        private long lastEventTime;
+        private boolean changePending = false;
+        private boolean ratesActive = false;
+        private boolean checkScheduled = false;
+
+        StatsEventState(DrbdResource resourceRef, VolumeNumber vlmNrRef)
+        {
+            resource = resourceRef;
+            vlmNr = vlmNrRef;
+        }
+    }
 }
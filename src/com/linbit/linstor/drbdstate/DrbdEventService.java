@@ -1,10 +1,13 @@
 package com.linbit.linstor.drbdstate;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import com.linbit.ImplementationError;
 import com.linbit.InvalidNameException;
@@ -17,6 +20,7 @@ import com.linbit.extproc.OutputProxy.ExceptionEvent;
 import com.linbit.extproc.OutputProxy.StdErrEvent;
 import com.linbit.extproc.OutputProxy.StdOutEvent;
 import com.linbit.linstor.core.DrbdStateChange;
+import com.linbit.linstor.core.LinStorArguments;
 import com.linbit.linstor.logging.ErrorReporter;
 
 import javax.inject.Inject;
@@ -32,10 +36,17 @@ public class DrbdEventService implements SystemService, Runnable, DrbdStateStore
     public static final String DRBDSETUP_COMMAND = "drbdsetup";
     private static final int EVENT_QUEUE_DEFAULT_SIZE = 10_000;
 
+    // Fill levels of the event queue, in percent of its capacity, at which a warning is logged
+    // and at which the warning is re-armed
+    private static final int EVENT_QUEUE_WARN_PERCENT = 80;
+    private static final int EVENT_QUEUE_REARM_PERCENT = 50;
+
     private ServiceName instanceName;
     private boolean started = false;
 
     private final BlockingDeque<Event> eventDeque;
+    private volatile int peakEventQueueSize = 0;
+    private boolean eventQueueWarned = false;
     private Thread thread;
     private boolean running;
 
@@ -43,6 +54,7 @@ public class DrbdEventService implements SystemService, Runnable, DrbdStateStore
     private boolean needsReinitialize = false;
 
     private DaemonHandler demonHandler;
+    private DrbdEventsCapture capture;
     private final ErrorReporter errorReporter;
     private final DrbdStateTracker tracker;
 
@@ -61,14 +73,35 @@ public class DrbdEventService implements SystemService, Runnable, DrbdStateStore
     @Inject
     public DrbdEventService(
         final ErrorReporter errorReporterRef,
-        final DrbdStateTracker trackerRef
+        final DrbdStateTracker trackerRef,
+        final LinStorArguments argsRef
+    )
+    {
+        this(
+            errorReporterRef,
+            trackerRef,
+            deque -> createDaemonHandler(deque, argsRef),
+            argsRef.getDrbdEventsCaptureFile() == null ? null : Paths.get(argsRef.getDrbdEventsCaptureFile())
+        );
+    }
+
+    /**
+     * @param daemonHandlerFactory Creates the source of the events2 stream for the given event queue
+     * @param captureFile File to record the events2 stream to, or null
+     */
+    public DrbdEventService(
+        final ErrorReporter errorReporterRef,
+        final DrbdStateTracker trackerRef,
+        final Function<BlockingDeque<Event>, DaemonHandler> daemonHandlerFactory,
+        final Path captureFile
     )
     {
         try
         {
             instanceName = new ServiceName(INSTANCE_PREFIX + INSTANCE_COUNT.incrementAndGet());
             eventDeque = new LinkedBlockingDeque<>(EVENT_QUEUE_DEFAULT_SIZE);
-            demonHandler = new DaemonHandler(eventDeque, DRBDSETUP_COMMAND, "events2", "all");
+            demonHandler = daemonHandlerFactory.apply(eventDeque);
+            capture = captureFile == null ? null : new DrbdEventsCapture(captureFile);
             running = false;
             errorReporter = errorReporterRef;
             tracker = trackerRef;
@@ -80,18 +113,43 @@ public class DrbdEventService implements SystemService, Runnable, DrbdStateStore
         }
     }
 
+    private static DaemonHandler createDaemonHandler(BlockingDeque<Event> deque, LinStorArguments args)
+    {
+        DaemonHandler handler;
+        if (args.getDrbdEventsReplayFile() != null)
+        {
+            handler = new DrbdEventsReplayHandler(
+                deque,
+                Paths.get(args.getDrbdEventsReplayFile()),
+                args.getDrbdEventsReplaySpeed()
+            );
+        }
+        else
+        {
+            handler = new DaemonHandler(deque, DRBDSETUP_COMMAND, "events2", "all", "--statistics");
+        }
+        return handler;
+    }
+
     @Override
     public void run()
     {
+        openCapture();
         while (running)
         {
             Event event;
             try
             {
                 event = eventDeque.take();
+                updateEventQueueStats(eventDeque.size() + 1);
                 if (event instanceof StdOutEvent)
                 {
-                    eventsMonitor.receiveEvent(new String(((StdOutEvent) event).data));
+                    StdOutEvent stdOutEvent = (StdOutEvent) event;
+                    if (capture != null)
+                    {
+                        captureEvent(stdOutEvent);
+                    }
+                    eventsMonitor.receiveEvent(stdOutEvent.data);
                 }
                 else
                 if (event instanceof StdErrEvent)
@@ -132,6 +190,104 @@ public class DrbdEventService implements SystemService, Runnable, DrbdStateStore
                 ));
             }
         }
+        closeCapture();
+    }
+
+    private void openCapture()
+    {
+        if (capture != null)
+        {
+            try
+            {
+                capture.open();
+                errorReporter.logInfo("Recording DRBD 'events2' to '%s'", capture.getCaptureFile());
+            }
+            catch (IOException ioExc)
+            {
+                errorReporter.reportError(ioExc);
+                errorReporter.logError(
+                    "Unable to open '%s', DRBD 'events2' is not recorded", capture.getCaptureFile()
+                );
+                capture = null;
+            }
+        }
+    }
+
+    private void captureEvent(StdOutEvent event)
+    {
+        try
+        {
+            capture.record(event.data, event.receivedNanos);
+        }
+        catch (IOException ioExc)
+        {
+            errorReporter.reportError(ioExc);
+            errorReporter.logError(
+                "Unable to write to '%s', recording of DRBD 'events2' stopped", capture.getCaptureFile()
+            );
+            closeCapture();
+            capture = null;
+        }
+    }
+
+    private void closeCapture()
+    {
+        if (capture != null)
+        {
+            try
+            {
+                capture.close();
+            }
+            catch (IOException ioExc)
+            {
+                errorReporter.reportError(ioExc);
+            }
+        }
+    }
+
+    private void updateEventQueueStats(int queueSize)
+    {
+        if (queueSize > peakEventQueueSize)
+        {
+            peakEventQueueSize = queueSize;
+        }
+        int fillPercent = queueSize * 100 / EVENT_QUEUE_DEFAULT_SIZE;
+        if (!eventQueueWarned && fillPercent >= EVENT_QUEUE_WARN_PERCENT)
+        {
+            eventQueueWarned = true;
+            errorReporter.logWarning(
+                "DRBD event queue is %d%% full (%d of %d events), DRBD events are processed too slowly",
+                fillPercent,
+                queueSize,
+                EVENT_QUEUE_DEFAULT_SIZE
+            );
+        }
+        else
+        if (eventQueueWarned && fillPercent < EVENT_QUEUE_REARM_PERCENT)
+        {
+            eventQueueWarned = false;
+        }
+    }
+
+    /**
+     * @return number of DRBD events waiting to be processed
+     */
+    public int getEventQueueSize()
+    {
+        return eventDeque.size();
+    }
+
+    /**
+     * @return largest number of DRBD events that were waiting to be processed at the same time
+     */
+    public int getPeakEventQueueSize()
+    {
+        return peakEventQueueSize;
+    }
+
+    public int getEventQueueCapacity()
+    {
+        return EVENT_QUEUE_DEFAULT_SIZE;
     }
 
     @Override
@@ -0,0 +1,189 @@
+package com.linbit.linstor.drbdstate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Records the 'drbdsetup events2' stream to a file and reads such recordings back
+ *
+ * Each line of a capture holds the time at which the line was received, in microseconds since the
+ * start of the capture, followed by a tab character and the line as it was received from DRBD.
+ * Lines starting with '#' are comments. Lines without a timestamp are accepted when reading, so that
+ * plain 'drbdsetup events2' output can be replayed as well; such lines are due at the same time as
+ * the line preceding them.
+ */
+public class DrbdEventsCapture
+{
+    public static final String HEADER =
+        "# drbdsetup events2 capture: <microseconds since start of capture> <tab> <events2 line>";
+
+    private static final byte DELIMITER = '\n';
+    private static final byte SEPARATOR = '\t';
+    private static final byte COMMENT = '#';
+
+    private final Path captureFile;
+    private OutputStream captureOut;
+    private long startNanos;
+    private boolean started;
+
+    public DrbdEventsCapture(Path captureFileRef)
+    {
+        captureFile = captureFileRef;
+        captureOut = null;
+        started = false;
+    }
+
+    public Path getCaptureFile()
+    {
+        return captureFile;
+    }
+
+    /**
+     * Opens the capture file. The first call truncates the file, later calls (e.g. after the events
+     * service was restarted) append to it and keep the timestamps relative to the first start.
+     */
+    public void open() throws IOException
+    {
+        if (captureOut == null)
+        {
+            if (started)
+            {
+                captureOut = new BufferedOutputStream(Files.newOutputStream(
+                    captureFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND
+                ));
+            }
+            else
+            {
+                captureOut = new BufferedOutputStream(Files.newOutputStream(
+                    captureFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE
+                ));
+                captureOut.write(HEADER.getBytes(StandardCharsets.UTF_8));
+                captureOut.write(DELIMITER);
+                startNanos = System.nanoTime();
+                started = true;
+            }
+        }
+    }
+
+    /**
+     * Appends a line to the capture. The line is flushed immediately, so that the capture is complete
+     * up to the last line even if the satellite terminates unexpectedly.
+     *
+     * @param line The line as received from DRBD, without the line delimiter
+     * @param receivedNanos The time at which the line was received, as returned by System.nanoTime()
+     */
+    public void record(byte[] line, long receivedNanos) throws IOException
+    {
+        if (captureOut == null)
+        {
+            throw new IOException("The capture file '" + captureFile + "' is not open");
+        }
+        long offsetMicros = Math.max(0, (receivedNanos - startNanos) / 1000);
+        captureOut.write(Long.toString(offsetMicros).getBytes(StandardCharsets.US_ASCII));
+        captureOut.write(SEPARATOR);
+        captureOut.write(line);
+        captureOut.write(DELIMITER);
+        captureOut.flush();
+    }
+
+    public void close() throws IOException
+    {
+        if (captureOut != null)
+        {
+            try
+            {
+                captureOut.close();
+            }
+            finally
+            {
+                captureOut = null;
+            }
+        }
+    }
+
+    /**
+     * Reads all lines of a capture
+     */
+    public static List<CapturedLine> read(Path file) throws IOException
+    {
+        return parse(Files.readAllBytes(file));
+    }
+
+    static List<CapturedLine> parse(byte[] content)
+    {
+        List<CapturedLine> lines = new ArrayList<>();
+        long offsetMicros = 0;
+        int lineStart = 0;
+        while (lineStart < content.length)
+        {
+            int lineEnd = lineStart;
+            while (lineEnd < content.length && content[lineEnd] != DELIMITER)
+            {
+                ++lineEnd;
+            }
+
+            int dataStart = lineStart;
+            int idx = lineStart;
+            long timestamp = 0;
+            while (idx < lineEnd && content[idx] >= '0' && content[idx] <= '9')
+            {
+                timestamp = timestamp * 10 + (content[idx] - '0');
+                ++idx;
+            }
+            if (idx > lineStart && idx < lineEnd && content[idx] == SEPARATOR)
+            {
+                offsetMicros = timestamp;
+                dataStart = idx + 1;
+            }
+
+            int dataEnd = lineEnd;
+            if (dataEnd > dataStart && content[dataEnd - 1] == '\r')
+            {
+                --dataEnd;
+            }
+            if (dataEnd > dataStart && content[dataStart] != COMMENT)
+            {
+                lines.add(new CapturedLine(offsetMicros, Arrays.copyOfRange(content, dataStart, dataEnd)));
+            }
+            lineStart = lineEnd + 1;
+        }
+        return lines;
+    }
+
+    /**
+     * A line of a capture together with the time at which it was received
+     */
+    public static class CapturedLine
+    {
+        private final long offsetMicros;
+        private final byte[] data;
+
+        public CapturedLine(long offsetMicrosRef, byte[] dataRef)
+        {
+            offsetMicros = offsetMicrosRef;
+            data = dataRef;
+        }
+
+        /**
+         * @return the time at which the line was received, in microseconds since the start of the capture
+         */
+        public long getOffsetMicros()
+        {
+            return offsetMicros;
+        }
+
+        public byte[] getData()
+        {
+            return data;
+        }
+    }
+}
@@ -6,9 +6,8 @@ import com.linbit.linstor.VolumeNumber;
 import com.linbit.linstor.core.DrbdStateChange;
 import com.linbit.linstor.logging.ErrorReporter;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
-import java.util.StringTokenizer;
-import java.util.TreeMap;
 
 /**
  * Drbdsetup events monitor
@@ -32,12 +31,18 @@ public class DrbdEventsMonitor
     public static final String OBJ_CONNECTION   = "connection";
     public static final String OBJ_END_OF_INIT  = "-";
 
+    // Volume numbers of the events are looked up in this cache instead of creating new instances for every line
+    private static final int VOL_NR_CACHE_SIZE = 64;
+
     // DRBD state tracker & events multiplexer reference
     private final DrbdStateTracker tracker;
     private boolean stateAvailable = false;
 
     private final ErrorReporter errorReporter;
 
+    private final DrbdEventLineParser parser = new DrbdEventLineParser();
+    private final VolumeNumber[] volNrCache = new VolumeNumber[VOL_NR_CACHE_SIZE];
+
     public DrbdEventsMonitor(DrbdStateTracker trackerRef, ErrorReporter errorReporterRef)
     {
         tracker = trackerRef;
@@ -53,59 +58,49 @@ public class DrbdEventsMonitor
                 new NullPointerException()
             );
         }
-        errorReporter.logTrace("DRBD 'events2': %s", eventString);
+        receiveEvent(eventString.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Processes one event line in its raw form, as received from the events2 stream
+     */
+    public void receiveEvent(byte[] eventData) throws EventsSourceException
+    {
+        if (eventData == null)
+        {
+            throw new ImplementationError(
+                "Event data passed by caller is a null pointer",
+                new NullPointerException()
+            );
+        }
+        if (errorReporter.isTraceEnabled())
+        {
+            errorReporter.logTrace("DRBD 'events2': %s", new String(eventData, StandardCharsets.UTF_8));
+        }
 
         // Skip empty lines
-        if (!eventString.isEmpty())
+        if (parser.parse(eventData, 0, eventData.length))
         {
-            StringTokenizer tokens = new StringTokenizer(eventString, " ");
-            Map<String, String> props = new TreeMap<>();
+            Map<String, String> props = parser.getFields();
+            String objType = parser.getObjType();
 
-            if (tokens.hasMoreTokens())
-            {
-                String action = tokens.nextToken();
-                if (tokens.hasMoreTokens())
-                {
-                    String objType = tokens.nextToken();
-                    while (tokens.hasMoreTokens())
-                    {
-                        String kvPair = tokens.nextToken();
-                        int splitIdx = kvPair.indexOf(':');
-                        if (splitIdx != -1)
-                        {
-                            String key = kvPair.substring(0, splitIdx);
-                            String value = kvPair.substring(splitIdx + 1);
-                            props.put(key, value);
-                        }
-                    }
-
-                    // Select action
-                    switch (action)
-                    {
-                        case ACTION_EXISTS: // fall-through
-                        case ACTION_CREATE:
-                            create(props, objType);
-                            break;
-                        case ACTION_CHANGE:
-                            change(props, objType);
-                            break;
-                        case ACTION_DESTROY:
-                            destroy(props, objType);
-                            break;
-                        default:
-                            // Other action type, such as a helper script call
-                            // Those are not tracked
-                            break;
-                    }
-                }
-                else
-                {
-                    throw new EventsSourceException("Received an event line without an object type parameter");
-                }
-            }
-            else
+            // Select action
+            switch (parser.getAction())
             {
-                throw new EventsSourceException("Received an event line without an action parameter");
+                case ACTION_EXISTS: // fall-through
+                case ACTION_CREATE:
+                    create(props, objType);
+                    break;
+                case ACTION_CHANGE:
+                    change(props, objType);
+                    break;
+                case ACTION_DESTROY:
+                    destroy(props, objType);
+                    break;
+                default:
+                    // Other action type, such as a helper script call
+                    // Those are not tracked
+                    break;
             }
         }
     }
@@ -406,7 +401,7 @@ public class DrbdEventsMonitor
         return propValue;
     }
 
-    private static VolumeNumber getVolumeNr(
+    private VolumeNumber getVolumeNr(
         Map<String, String> props,
         String action,
         String objType
@@ -419,7 +414,19 @@ public class DrbdEventsMonitor
         try
         {
             parsedNumber = Integer.parseInt(volNrText);
-            volNr = new VolumeNumber(parsedNumber);
+            if (parsedNumber >= 0 && parsedNumber < VOL_NR_CACHE_SIZE)
+            {
+                volNr = volNrCache[parsedNumber];
+                if (volNr == null)
+                {
+                    volNr = new VolumeNumber(parsedNumber);
+                    volNrCache[parsedNumber] = volNr;
+                }
+            }
+            else
+            {
+                volNr = new VolumeNumber(parsedNumber);
+            }
         }
         catch (NumberFormatException | ValueOutOfRangeException exc)
         {
@@ -0,0 +1,142 @@
+package com.linbit.linstor.drbdstate;
+
+import com.linbit.extproc.DaemonHandler;
+import com.linbit.extproc.OutputProxy.Event;
+import com.linbit.extproc.OutputProxy.StdOutEvent;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stand-in for the 'drbdsetup events2' daemon that feeds a recorded stream into the event queue
+ *
+ * The lines are fed with the timing of the recording divided by the speed factor, or as fast as the
+ * queue accepts them if the speed factor is 0. Once all lines are fed, the handler stays silent, just
+ * like 'drbdsetup events2' does while no DRBD state changes. Restarting the handler replays the
+ * recording from the beginning.
+ *
+ * @see DrbdEventsCapture
+ */
+public class DrbdEventsReplayHandler extends DaemonHandler
+{
+    private static final long NANOS_PER_MICRO = 1000;
+
+    private final BlockingDeque<Event> deque;
+    private final Path captureFile;
+    private final double speed;
+
+    private Thread replayThread;
+    private boolean finished;
+    private long replayedCount;
+
+    public DrbdEventsReplayHandler(final BlockingDeque<Event> dequeRef, final Path captureFileRef, double speedRef)
+    {
+        super(dequeRef);
+        if (speedRef < 0)
+        {
+            throw new IllegalArgumentException("Negative replay speed " + speedRef);
+        }
+        deque = dequeRef;
+        captureFile = captureFileRef;
+        speed = speedRef;
+    }
+
+    @Override
+    public void start() throws IOException
+    {
+        if (replayThread != null)
+        {
+            stop(true);
+        }
+
+        List<DrbdEventsCapture.CapturedLine> lines = DrbdEventsCapture.read(captureFile);
+        synchronized (this)
+        {
+            finished = false;
+            replayedCount = 0;
+        }
+        replayThread = new Thread(() -> replay(lines), "DrbdEventsReplay");
+        replayThread.setDaemon(true);
+        replayThread.start();
+    }
+
+    @Override
+    public void stop(boolean force)
+    {
+        if (replayThread != null)
+        {
+            replayThread.interrupt();
+            replayThread = null;
+        }
+    }
+
+    /**
+     * Waits until all lines of the recording were fed into the event queue
+     *
+     * @return true if the replay finished, false if the timeout elapsed
+     */
+    public synchronized boolean awaitCompletion(long timeoutMillis) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (!finished && remaining > 0)
+        {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        return finished;
+    }
+
+    /**
+     * @return number of lines fed into the event queue since the last start
+     */
+    public synchronized long getReplayedCount()
+    {
+        return replayedCount;
+    }
+
+    /**
+     * Feeds a single line into the event queue
+     */
+    protected void feed(byte[] data) throws InterruptedException
+    {
+        deque.put(new StdOutEvent(data));
+    }
+
+    private void replay(List<DrbdEventsCapture.CapturedLine> lines)
+    {
+        long startNanos = System.nanoTime();
+        try
+        {
+            for (DrbdEventsCapture.CapturedLine line : lines)
+            {
+                if (speed > 0)
+                {
+                    long dueNanos = startNanos + (long) (line.getOffsetMicros() * NANOS_PER_MICRO / speed);
+                    long delayNanos = dueNanos - System.nanoTime();
+                    if (delayNanos > 0)
+                    {
+                        TimeUnit.NANOSECONDS.sleep(delayNanos);
+                    }
+                }
+                feed(line.getData());
+                synchronized (this)
+                {
+                    ++replayedCount;
+                }
+            }
+            synchronized (this)
+            {
+                finished = true;
+                notifyAll();
+            }
+        }
+        catch (InterruptedException ignored)
+        {
+            // stopped, or restarted
+        }
+    }
+}
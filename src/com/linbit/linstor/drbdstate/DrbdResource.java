@@ -5,7 +5,6 @@ import com.linbit.InvalidNameException;
 import com.linbit.linstor.ResourceName;
 import com.linbit.linstor.VolumeNumber;
 
-import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 
@@ -138,10 +137,27 @@ public class DrbdResource
 
         if (suspendedLabel != null)
         {
-            suspendedUser = Arrays.stream(suspendedLabel.split(",")).anyMatch(SUSPENDED_LABEL_USER::equals);
+            suspendedUser = containsListItem(suspendedLabel, SUSPENDED_LABEL_USER);
         }
     }
 
+    /**
+     * Checks whether a comma separated list contains the specified item, without splitting the list
+     */
+    static boolean containsListItem(String list, String item)
+    {
+        boolean found = false;
+        int idx = list.indexOf(item);
+        while (!found && idx != -1)
+        {
+            int end = idx + item.length();
+            found = (idx == 0 || list.charAt(idx - 1) == ',') &&
+                (end == list.length() || list.charAt(end) == ',');
+            idx = list.indexOf(item, idx + 1);
+        }
+        return found;
+    }
+
     public DrbdConnection getConnection(String name)
     {
         if (name == null)
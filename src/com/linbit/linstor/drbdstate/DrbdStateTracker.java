@@ -59,6 +59,9 @@ public class DrbdStateTracker
     // Observe connection state change
     public static final long OBS_CONN       = 0x800;
 
+    // Observe volume, peer volume and connection statistics changes
+    public static final long OBS_STATS      = 0x1000;
+
     // Observe everything
     public static final long OBS_ALL        = 0xFFFFFFFFFFFFFFFFL;
 
@@ -76,6 +79,7 @@ public class DrbdStateTracker
     private final int OBS_CONN_CRT_SLOT;
     private final int OBS_CONN_DSTR_SLOT;
     private final int OBS_CONN_SLOT;
+    private final int OBS_STATS_SLOT;
 
     private int obsSlotCount;
     private Set<ResourceObserver>[] observers;
@@ -109,6 +113,7 @@ public class DrbdStateTracker
         OBS_CONN_CRT_SLOT    = initBitToSlot(OBS_CONN_CRT);
         OBS_CONN_DSTR_SLOT   = initBitToSlot(OBS_CONN_DSTR);
         OBS_CONN_SLOT        = initBitToSlot(OBS_CONN);
+        OBS_STATS_SLOT       = initBitToSlot(OBS_STATS);
 
         observers = new HashSet[obsSlotCount];
         for (int slot = 0; slot < obsSlotCount; ++slot)
@@ -385,6 +390,15 @@ public class DrbdStateTracker
                 obs.connectionDestroyed(resource, connection);
             }
         }
+
+        @Override
+        public void statisticsChanged(DrbdResource resource, DrbdConnection connection, DrbdVolume volume)
+        {
+            for (ResourceObserver obs : container.observers[container.OBS_STATS_SLOT])
+            {
+                obs.statisticsChanged(resource, connection, volume);
+            }
+        }
     }
 
     public static void main(String[] argv)
@@ -407,7 +421,8 @@ public class DrbdStateTracker
             "OBS_REPL_SLOT       = %d\n" +
             "OBS_CONN_CRT_SLOT   = %d\n" +
             "OBS_CONN_DSTR_SLOT  = %d\n" +
-            "OBS_CONN_SLOT       = %d\n",
+            "OBS_CONN_SLOT       = %d\n" +
+            "OBS_STATS_SLOT      = %d\n",
             OBS_RES_CRT_SLOT,
             OBS_RES_DSTR_SLOT,
             OBS_ROLE_SLOT,
@@ -419,7 +434,8 @@ public class DrbdStateTracker
             OBS_REPL_SLOT,
             OBS_CONN_CRT_SLOT,
             OBS_CONN_DSTR_SLOT,
-            OBS_CONN_SLOT
+            OBS_CONN_SLOT,
+            OBS_STATS_SLOT
         );
 
         System.out.printf(
@@ -434,7 +450,8 @@ public class DrbdStateTracker
             "OBS_REPL            = %08x\n" +
             "OBS_CONN_CRT        = %08x\n" +
             "OBS_CONN_DSTR       = %08x\n" +
-            "OBS_CONN            = %08x\n",
+            "OBS_CONN            = %08x\n" +
+            "OBS_STATS           = %08x\n",
             OBS_RES_CRT,
             OBS_RES_DSTR,
             OBS_ROLE,
@@ -446,7 +463,8 @@ public class DrbdStateTracker
             OBS_REPL,
             OBS_CONN_CRT,
             OBS_CONN_DSTR,
-            OBS_CONN
+            OBS_CONN,
+            OBS_STATS
         );
 
         System.out.printf("obsSlotCount = %d, observers.length = %d\n", obsSlotCount, observers.length);
@@ -6,6 +6,7 @@ import com.linbit.linstor.MinorNumber;
 import com.linbit.linstor.VolumeNumber;
 
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Tracks the state of a kernel DRBD volume or peer volume
@@ -21,6 +22,23 @@ public class DrbdVolume
     public static final String PROP_KEY_REPLICATION  = "replication";
     public static final String PROP_KEY_CLIENT       = "client";
 
+    // Statistics, only reported by 'drbdsetup events2 --statistics'
+    public static final String PROP_KEY_DONE          = "done";
+    public static final String PROP_KEY_OUT_OF_SYNC   = "out-of-sync";
+    public static final String PROP_KEY_SENT          = "sent";
+    public static final String PROP_KEY_RECEIVED      = "received";
+    public static final String PROP_KEY_PENDING       = "pending";
+    public static final String PROP_KEY_UNACKED       = "unacked";
+    public static final String PROP_KEY_UPPER_PENDING = "upper-pending";
+    public static final String PROP_KEY_LOWER_PENDING = "lower-pending";
+
+    // Minimum time between two samples of the sent/received counters that a transfer rate is calculated from
+    private static final long MIN_RATE_INTERVAL_NANOS = 500_000_000L;
+    // Rates without a new sample of the counters for this long are reported as 0, because DRBD does not
+    // report the counters again while they do not change
+    static final long RATE_EXPIRY_NANOS = 3_000_000_000L;
+    private static final double NANOS_PER_SEC = 1_000_000_000.0;
+
     public static final String DS_LABEL_DISKLESS     = "Diskless";
     public static final String DS_LABEL_ATTACHING    = "Attaching";
     public static final String DS_LABEL_DETACHING    = "Detaching";
@@ -218,6 +236,24 @@ public class DrbdVolume
     protected DrbdConnection connRef;
     protected Boolean client;
 
+    // Statistics are read by other threads than the one that processes the events
+    protected volatile Double resyncDone;
+    protected volatile long outOfSyncKib;
+    protected volatile long sentKib;
+    protected volatile long receivedKib;
+    protected volatile double sendKibPerSec;
+    protected volatile double receiveKibPerSec;
+    protected volatile int pending;
+    protected volatile int unacked;
+    protected volatile int upperPending;
+    protected volatile int lowerPending;
+
+    private long rateSentKib;
+    private long rateReceivedKib;
+    // Read by other threads to expire the rates
+    private volatile long rateTimestamp;
+    private boolean rateSampled = false;
+
     protected DrbdVolume(DrbdResource resource, VolumeNumber volNr)
         throws ValueOutOfRangeException
     {
@@ -267,6 +303,92 @@ public class DrbdVolume
         return volReplState;
     }
 
+    /**
+     * @return the resync progress in percent, or null if the volume is not resyncing
+     */
+    public Double getResyncDone()
+    {
+        return resyncDone;
+    }
+
+    public long getOutOfSyncKib()
+    {
+        return outOfSyncKib;
+    }
+
+    public long getSentKib()
+    {
+        return sentKib;
+    }
+
+    public long getReceivedKib()
+    {
+        return receivedKib;
+    }
+
+    public double getSendKibPerSec()
+    {
+        return getSendKibPerSec(System.nanoTime());
+    }
+
+    double getSendKibPerSec(long timestamp)
+    {
+        return ratesExpired(timestamp) ? 0.0 : sendKibPerSec;
+    }
+
+    public double getReceiveKibPerSec()
+    {
+        return getReceiveKibPerSec(System.nanoTime());
+    }
+
+    double getReceiveKibPerSec(long timestamp)
+    {
+        return ratesExpired(timestamp) ? 0.0 : receiveKibPerSec;
+    }
+
+    /**
+     * @return true if the transfer rates are not 0 and have not expired yet
+     */
+    public boolean hasActiveRates()
+    {
+        return getSendKibPerSec() != 0.0 || getReceiveKibPerSec() != 0.0;
+    }
+
+    private boolean ratesExpired(long timestamp)
+    {
+        return timestamp - rateTimestamp >= RATE_EXPIRY_NANOS;
+    }
+
+    public int getPending()
+    {
+        return pending;
+    }
+
+    public int getUnacked()
+    {
+        return unacked;
+    }
+
+    public int getUpperPending()
+    {
+        return upperPending;
+    }
+
+    public int getLowerPending()
+    {
+        return lowerPending;
+    }
+
+    public boolean isResyncing()
+    {
+        return volReplState == ReplState.SYNC_SOURCE ||
+            volReplState == ReplState.SYNC_TARGET ||
+            volReplState == ReplState.PAUSED_SYNC_SOURCE ||
+            volReplState == ReplState.PAUSED_SYNC_TARGET ||
+            volReplState == ReplState.VERIFY_SOURCE ||
+            volReplState == ReplState.VERIFY_TARGET;
+    }
+
     protected static DrbdVolume newFromProps(DrbdResource resource, Map<String, String> props)
         throws EventsSourceException
     {
@@ -364,19 +486,21 @@ public class DrbdVolume
                 );
             }
 
-            try
-            {
-                volMinorNr = new MinorNumber(minorNr);
-            }
-            catch (ValueOutOfRangeException valExc)
-            {
-                throw new EventsSourceException(
-                    "Event line with invalid minor number",
-                    valExc
-                );
-            }
-            if (!volMinorNr.equals(prevMinorNr))
+            // Unchanged minor numbers are reported on every change event of the volume,
+            // a new MinorNumber instance is only created if the number actually changed
+            if (prevMinorNr == null || prevMinorNr.value != minorNr)
             {
+                try
+                {
+                    volMinorNr = new MinorNumber(minorNr);
+                }
+                catch (ValueOutOfRangeException valExc)
+                {
+                    throw new EventsSourceException(
+                        "Event line with invalid minor number",
+                        valExc
+                    );
+                }
                 // Only local minor number changes are tracked
                 // Peer minor number changes do not normally trigger a local event,
                 // the check is just an additional safeguard
@@ -406,5 +530,180 @@ public class DrbdVolume
                 obs.diskStateChanged(resRef, connRef, this, prevDiskState, volDiskState);
             }
         }
+
+        updateStatistics(props, obs, System.nanoTime());
+    }
+
+    void updateStatistics(Map<String, String> props, ResourceObserver obs, long timestamp)
+        throws EventsSourceException
+    {
+        boolean changed = false;
+
+        Double prevResyncDone = resyncDone;
+        String doneStr = props.get(PROP_KEY_DONE);
+        if (doneStr != null)
+        {
+            resyncDone = parseDouble(PROP_KEY_DONE, doneStr);
+        }
+        if (!isResyncing())
+        {
+            // 'done' is only reported while the resync is running
+            resyncDone = null;
+        }
+        changed |= !Objects.equals(prevResyncDone, resyncDone);
+
+        String outOfSyncStr = props.get(PROP_KEY_OUT_OF_SYNC);
+        if (outOfSyncStr != null)
+        {
+            long prevOutOfSyncKib = outOfSyncKib;
+            outOfSyncKib = parseLong(PROP_KEY_OUT_OF_SYNC, outOfSyncStr);
+            changed |= prevOutOfSyncKib != outOfSyncKib;
+        }
+
+        String sentStr = props.get(PROP_KEY_SENT);
+        String receivedStr = props.get(PROP_KEY_RECEIVED);
+        if (sentStr != null || receivedStr != null)
+        {
+            if (sentStr != null)
+            {
+                sentKib = parseLong(PROP_KEY_SENT, sentStr);
+            }
+            if (receivedStr != null)
+            {
+                receivedKib = parseLong(PROP_KEY_RECEIVED, receivedStr);
+            }
+            changed |= updateRates(timestamp);
+        }
+
+        String pendingStr = props.get(PROP_KEY_PENDING);
+        if (pendingStr != null)
+        {
+            int prevPending = pending;
+            pending = parseInt(PROP_KEY_PENDING, pendingStr);
+            changed |= prevPending != pending;
+        }
+
+        String unackedStr = props.get(PROP_KEY_UNACKED);
+        if (unackedStr != null)
+        {
+            int prevUnacked = unacked;
+            unacked = parseInt(PROP_KEY_UNACKED, unackedStr);
+            changed |= prevUnacked != unacked;
+        }
+
+        String upperPendingStr = props.get(PROP_KEY_UPPER_PENDING);
+        if (upperPendingStr != null)
+        {
+            int prevUpperPending = upperPending;
+            upperPending = parseInt(PROP_KEY_UPPER_PENDING, upperPendingStr);
+            changed |= prevUpperPending != upperPending;
+        }
+
+        String lowerPendingStr = props.get(PROP_KEY_LOWER_PENDING);
+        if (lowerPendingStr != null)
+        {
+            int prevLowerPending = lowerPending;
+            lowerPending = parseInt(PROP_KEY_LOWER_PENDING, lowerPendingStr);
+            changed |= prevLowerPending != lowerPending;
+        }
+
+        if (changed)
+        {
+            obs.statisticsChanged(resRef, connRef, this);
+        }
+    }
+
+    /**
+     * Calculates the transfer rates from the change of the sent/received counters since the last sample
+     *
+     * @return true if the rates changed
+     */
+    private boolean updateRates(long timestamp)
+    {
+        boolean changed = false;
+        if (!rateSampled)
+        {
+            rateSampled = true;
+            rateSentKib = sentKib;
+            rateReceivedKib = receivedKib;
+            rateTimestamp = timestamp;
+        }
+        else
+        {
+            long elapsed = timestamp - rateTimestamp;
+            if (elapsed >= MIN_RATE_INTERVAL_NANOS)
+            {
+                // Expired rates were already reported as 0
+                double prevSendKibPerSec = getSendKibPerSec(timestamp);
+                double prevReceiveKibPerSec = getReceiveKibPerSec(timestamp);
+
+                // The counters start over when the connection is re-established
+                sendKibPerSec = sentKib >= rateSentKib ?
+                    (sentKib - rateSentKib) * NANOS_PER_SEC / elapsed : 0.0;
+                receiveKibPerSec = receivedKib >= rateReceivedKib ?
+                    (receivedKib - rateReceivedKib) * NANOS_PER_SEC / elapsed : 0.0;
+
+                rateSentKib = sentKib;
+                rateReceivedKib = receivedKib;
+                rateTimestamp = timestamp;
+
+                changed = prevSendKibPerSec != sendKibPerSec || prevReceiveKibPerSec != receiveKibPerSec;
+            }
+        }
+        return changed;
+    }
+
+    private static double parseDouble(String key, String value)
+        throws EventsSourceException
+    {
+        double result;
+        try
+        {
+            result = Double.parseDouble(value);
+        }
+        catch (NumberFormatException nfExc)
+        {
+            throw new EventsSourceException(
+                "Event line with unparsable value '" + value + "' for '" + key + "'",
+                nfExc
+            );
+        }
+        return result;
+    }
+
+    private static long parseLong(String key, String value)
+        throws EventsSourceException
+    {
+        long result;
+        try
+        {
+            result = Long.parseLong(value);
+        }
+        catch (NumberFormatException nfExc)
+        {
+            throw new EventsSourceException(
+                "Event line with unparsable value '" + value + "' for '" + key + "'",
+                nfExc
+            );
+        }
+        return result;
+    }
+
+    private static int parseInt(String key, String value)
+        throws EventsSourceException
+    {
+        int result;
+        try
+        {
+            result = Integer.parseInt(value);
+        }
+        catch (NumberFormatException nfExc)
+        {
+            throw new EventsSourceException(
+                "Event line with unparsable value '" + value + "' for '" + key + "'",
+                nfExc
+            );
+        }
+        return result;
     }
 }
@@ -138,6 +138,23 @@ public interface ResourceObserver
         // Do nothing
     }
 
+    /**
+     * Called when the statistics of a DRBD volume, peer volume or connection have changed.
+     * Statistics are only reported if the DRBD events are read with statistics enabled.
+     *
+     * @param resource Representation of the DRBD resource that owns
+     *     the volume or connection affected by the event
+     * @param connection If the statistics of a peer volume or connection have changed,
+     *     representation of the DRBD connection; if the statistics of a local volume
+     *     have changed, this argument is set to null
+     * @param volume Representation of the volume affected by the event; if the statistics
+     *     of the connection itself have changed, this argument is set to null
+     */
+    default void statisticsChanged(DrbdResource resource, DrbdConnection connection, DrbdVolume volume)
+    {
+        // Do nothing
+    }
+
     /**
      * Called when a DRBD resource's volume or peer volume has been destroyed
      * and is no longer known to the DRBD kernel module
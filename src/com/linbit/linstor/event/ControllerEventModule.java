@@ -1,12 +1,22 @@
 package com.linbit.linstor.event;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.name.Names;
+import com.linbit.linstor.core.LinStorArguments;
+import com.linbit.linstor.event.generator.DrbdVolumeStatsGenerator;
 import com.linbit.linstor.event.generator.ResourceDeploymentStateGenerator;
 import com.linbit.linstor.event.generator.ResourceStateGenerator;
 import com.linbit.linstor.event.generator.VolumeDiskStateGenerator;
+import com.linbit.linstor.event.generator.VolumeIoStatsGenerator;
+import com.linbit.linstor.event.generator.controller.CtrlDrbdVolumeStatsGenerator;
 import com.linbit.linstor.event.generator.controller.CtrlResourceDeploymentStateGenerator;
 import com.linbit.linstor.event.generator.controller.CtrlResourceStateGenerator;
 import com.linbit.linstor.event.generator.controller.CtrlVolumeDiskStateGenerator;
+import com.linbit.linstor.event.generator.controller.CtrlVolumeIoStatsGenerator;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
 
 public class ControllerEventModule extends AbstractModule
 {
@@ -16,5 +26,34 @@ public class ControllerEventModule extends AbstractModule
         bind(VolumeDiskStateGenerator.class).to(CtrlVolumeDiskStateGenerator.class);
         bind(ResourceStateGenerator.class).to(CtrlResourceStateGenerator.class);
         bind(ResourceDeploymentStateGenerator.class).to(CtrlResourceDeploymentStateGenerator.class);
+        bind(VolumeIoStatsGenerator.class).to(CtrlVolumeIoStatsGenerator.class);
+        bind(DrbdVolumeStatsGenerator.class).to(CtrlDrbdVolumeStatsGenerator.class);
+
+        // Clients receive batches only if they ask for them
+        bind(Boolean.class).annotatedWith(Names.named(EventBatcher.BATCH_ALL_PEERS)).toInstance(false);
+    }
+
+    @Provides
+    @Singleton
+    @Named(EventBatcher.BATCH_INTERVAL_MS)
+    public long eventBatchInterval(LinStorArguments args)
+    {
+        return args.getEventBatchIntervalMs();
+    }
+
+    @Provides
+    @Singleton
+    @Named(EventDebouncer.QUIET_PERIOD_MS)
+    public long eventDebounceQuietPeriod(LinStorArguments args)
+    {
+        return args.getEventDebounceQuietPeriodMs();
+    }
+
+    @Provides
+    @Singleton
+    @Named(EventDebouncer.MAX_DELAY_MS)
+    public long eventDebounceMaxDelay(LinStorArguments args)
+    {
+        return args.getEventDebounceMaxDelayMs();
     }
 }
@@ -0,0 +1,186 @@
+package com.linbit.linstor.event;
+
+import com.linbit.ImplementationError;
+import com.linbit.NegativeTimeException;
+import com.linbit.ValueOutOfRangeException;
+import com.linbit.linstor.InternalApiConsts;
+import com.linbit.linstor.api.interfaces.serializer.CommonSerializer;
+import com.linbit.linstor.netcom.Peer;
+import com.linbit.linstor.timer.CoreTimer;
+import com.linbit.linstor.timer.CoreTimerAction;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the events for each peer and sends them in one message
+ *
+ * The first event for a peer starts a batch, which is sent when the batch interval has elapsed or when it has
+ * reached the maximum size, whichever comes first. The events of a batch are sent in the order in which they
+ * were added, so the order of the event counters of each watch is preserved.
+ *
+ * Batching is either used for all peers, or only for the peers that have asked for it. Once enabled for a peer,
+ * it stays enabled until the peer disconnects, so that events sent singly are never overtaken by a batch.
+ */
+@Singleton
+public class EventBatcher
+{
+    public static final String BATCH_INTERVAL_MS = "EventBatchIntervalMs";
+    public static final String BATCH_ALL_PEERS = "EventBatchAllPeers";
+
+    static final int MAX_BATCH_EVENTS = 1000;
+
+    private static final String FLUSH_ACTION_PREFIX = "EventBatchFlush-";
+
+    private final CommonSerializer commonSerializer;
+    private final CoreTimer timer;
+    private final long batchIntervalMs;
+    private final boolean batchAllPeers;
+
+    // Guarded by this
+    private final Map<Peer, Batch> batches;
+    private final Set<String> batchedPeerIds;
+    private long flushActionSeq;
+
+    @Inject
+    public EventBatcher(
+        CommonSerializer commonSerializerRef,
+        CoreTimer timerRef,
+        @Named(BATCH_INTERVAL_MS) long batchIntervalMsRef,
+        @Named(BATCH_ALL_PEERS) boolean batchAllPeersRef
+    )
+    {
+        commonSerializer = commonSerializerRef;
+        timer = timerRef;
+        batchIntervalMs = batchIntervalMsRef;
+        batchAllPeers = batchAllPeersRef;
+
+        batches = new HashMap<>();
+        batchedPeerIds = new HashSet<>();
+        flushActionSeq = 0;
+    }
+
+    public boolean isEnabled()
+    {
+        return batchIntervalMs > 0;
+    }
+
+    public synchronized boolean isEnabled(Peer peer)
+    {
+        return isEnabled() && (batchAllPeers || batchedPeerIds.contains(peer.getId()));
+    }
+
+    /**
+     * Sends the following events for the peer in batches
+     *
+     * @return false if batching is disabled
+     */
+    public synchronized boolean enableForPeer(Peer peer)
+    {
+        boolean enabled = isEnabled();
+        if (enabled)
+        {
+            batchedPeerIds.add(peer.getId());
+        }
+        return enabled;
+    }
+
+    /**
+     * Adds an event to the batch of the peer
+     *
+     * @param peer The peer to send the event to
+     * @param eventEntry The event header without message header, followed by the event data
+     */
+    public void addEvent(Peer peer, byte[] eventEntry)
+    {
+        Batch newBatch = null;
+        synchronized (this)
+        {
+            Batch batch = batches.get(peer);
+            if (batch == null)
+            {
+                batch = new Batch(peer, FLUSH_ACTION_PREFIX + flushActionSeq++);
+                batches.put(peer, batch);
+                newBatch = batch;
+            }
+            batch.events.add(eventEntry);
+            if (batch.events.size() >= MAX_BATCH_EVENTS)
+            {
+                flush(batch);
+                newBatch = null;
+            }
+        }
+
+        // The timer calls the flush action while holding its own lock, so the action is added without holding
+        // the lock of the batcher. If the batch is flushed early, the action does nothing.
+        if (newBatch != null)
+        {
+            try
+            {
+                timer.addDelayedAction(batchIntervalMs, newBatch);
+            }
+            catch (NegativeTimeException | ValueOutOfRangeException exc)
+            {
+                throw new ImplementationError(
+                    "Invalid event batch interval " + batchIntervalMs,
+                    exc
+                );
+            }
+        }
+    }
+
+    /**
+     * Discards the pending events and the batching choice of a peer that has disconnected
+     */
+    public synchronized void connectionClosed(Peer peer)
+    {
+        batches.remove(peer);
+        batchedPeerIds.remove(peer.getId());
+    }
+
+    private synchronized void flush(Batch batch)
+    {
+        if (batches.get(batch.peer) == batch)
+        {
+            batches.remove(batch.peer);
+            batch.peer.sendMessage(
+                commonSerializer.builder(InternalApiConsts.API_EVENT_BATCH)
+                    .eventBatch(batch.events)
+                    .build()
+            );
+        }
+    }
+
+    private class Batch implements CoreTimerAction
+    {
+        private final Peer peer;
+        private final String flushActionId;
+        private final List<byte[]> events;
+
+        Batch(Peer peerRef, String flushActionIdRef)
+        {
+            peer = peerRef;
+            flushActionId = flushActionIdRef;
+            events = new ArrayList<>();
+        }
+
+        @Override
+        public String getId()
+        {
+            return flushActionId;
+        }
+
+        @Override
+        public void run()
+        {
+            flush(this);
+        }
+    }
+}
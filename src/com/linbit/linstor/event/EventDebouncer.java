@@ -0,0 +1,193 @@
+package com.linbit.linstor.event;
+
+import com.linbit.ImplementationError;
+import com.linbit.NegativeTimeException;
+import com.linbit.ValueOutOfRangeException;
+import com.linbit.linstor.api.ApiConsts;
+import com.linbit.linstor.timer.CoreTimer;
+import com.linbit.linstor.timer.CoreTimerAction;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Forwards the values of rapidly changing events once they have settled
+ *
+ * A value is forwarded when no further value for the same event stream was received for the quiet period, but no
+ * later than the maximum delay after the first value that was not forwarded yet. Since the event writers read the
+ * current state when the event is sent, the clients receive the settled state and not the intermediate ones.
+ * Opening and closing an event stream is forwarded immediately and discards a pending value.
+ *
+ * Only the forwarding to the clients is delayed. Event handlers still update the satellite state and notify the
+ * controller's own consumers, such as the {@link com.linbit.linstor.event.handler.SnapshotStateMachine} and the
+ * {@link com.linbit.linstor.event.handler.ResourceDefinitionEventStore}, for every value.
+ */
+@Singleton
+public class EventDebouncer
+{
+    public static final String QUIET_PERIOD_MS = "EventDebounceQuietPeriodMs";
+    public static final String MAX_DELAY_MS = "EventDebounceMaxDelayMs";
+
+    private static final String FLUSH_ACTION_PREFIX = "EventDebounce-";
+
+    private final CoreTimer timer;
+    private final EventBroker eventBroker;
+    private final long quietPeriodMs;
+    private final long maxDelayMs;
+
+    // Guarded by this
+    private final Map<EventIdentifier, PendingValue> pendingValues;
+    private long flushActionSeq;
+
+    @Inject
+    public EventDebouncer(
+        CoreTimer timerRef,
+        EventBroker eventBrokerRef,
+        @Named(QUIET_PERIOD_MS) long quietPeriodMsRef,
+        @Named(MAX_DELAY_MS) long maxDelayMsRef
+    )
+    {
+        timer = timerRef;
+        eventBroker = eventBrokerRef;
+        quietPeriodMs = quietPeriodMsRef;
+        maxDelayMs = maxDelayMsRef;
+
+        pendingValues = new HashMap<>();
+        flushActionSeq = 0;
+    }
+
+    public boolean isEnabled()
+    {
+        return quietPeriodMs > 0;
+    }
+
+    /**
+     * Same as {@link EventBroker#forwardEvent(EventIdentifier, String)}, except that values are debounced
+     */
+    public void forwardEvent(EventIdentifier eventIdentifier, String eventStreamAction)
+    {
+        if (isEnabled() && ApiConsts.EVENT_STREAM_VALUE.equals(eventStreamAction))
+        {
+            debounce(eventIdentifier);
+        }
+        else
+        {
+            synchronized (this)
+            {
+                pendingValues.remove(eventIdentifier);
+                eventBroker.forwardEvent(eventIdentifier, eventStreamAction);
+            }
+        }
+    }
+
+    private void debounce(EventIdentifier eventIdentifier)
+    {
+        long now = System.currentTimeMillis();
+        FlushAction flushAction = null;
+        synchronized (this)
+        {
+            PendingValue pendingValue = pendingValues.get(eventIdentifier);
+            if (pendingValue == null)
+            {
+                pendingValue = new PendingValue(eventIdentifier, now);
+                pendingValues.put(eventIdentifier, pendingValue);
+                flushAction = new FlushAction(pendingValue, FLUSH_ACTION_PREFIX + flushActionSeq++);
+            }
+            pendingValue.lastValueMs = now;
+        }
+
+        // The timer calls the flush action while holding its own lock, so the action is added without holding
+        // the lock of the debouncer
+        if (flushAction != null)
+        {
+            schedule(flushAction, Math.min(quietPeriodMs, maxDelayMs));
+        }
+    }
+
+    private void flush(PendingValue pendingValue)
+    {
+        long now = System.currentTimeMillis();
+        FlushAction nextFlushAction = null;
+        long delay = 0;
+        synchronized (this)
+        {
+            // Nothing to do if the value was discarded by opening or closing the event stream
+            if (pendingValues.get(pendingValue.eventIdentifier) == pendingValue)
+            {
+                long dueMs = Math.min(pendingValue.lastValueMs + quietPeriodMs, pendingValue.firstValueMs + maxDelayMs);
+                if (now >= dueMs)
+                {
+                    pendingValues.remove(pendingValue.eventIdentifier);
+                    eventBroker.triggerEvent(pendingValue.eventIdentifier);
+                }
+                else
+                {
+                    // Values were received in the meantime, check again when the quiet period has elapsed
+                    nextFlushAction = new FlushAction(pendingValue, FLUSH_ACTION_PREFIX + flushActionSeq++);
+                    delay = dueMs - now;
+                }
+            }
+        }
+
+        if (nextFlushAction != null)
+        {
+            schedule(nextFlushAction, delay);
+        }
+    }
+
+    private void schedule(FlushAction flushAction, long delay)
+    {
+        try
+        {
+            timer.addDelayedAction(delay, flushAction);
+        }
+        catch (NegativeTimeException | ValueOutOfRangeException exc)
+        {
+            throw new ImplementationError(
+                "Invalid event debounce delay " + delay,
+                exc
+            );
+        }
+    }
+
+    private static class PendingValue
+    {
+        private final EventIdentifier eventIdentifier;
+        private final long firstValueMs;
+        private long lastValueMs;
+
+        PendingValue(EventIdentifier eventIdentifierRef, long firstValueMsRef)
+        {
+            eventIdentifier = eventIdentifierRef;
+            firstValueMs = firstValueMsRef;
+            lastValueMs = firstValueMsRef;
+        }
+    }
+
+    private class FlushAction implements CoreTimerAction
+    {
+        private final PendingValue pendingValue;
+        private final String flushActionId;
+
+        FlushAction(PendingValue pendingValueRef, String flushActionIdRef)
+        {
+            pendingValue = pendingValueRef;
+            flushActionId = flushActionIdRef;
+        }
+
+        @Override
+        public String getId()
+        {
+            return flushActionId;
+        }
+
+        @Override
+        public void run()
+        {
+            flush(pendingValue);
+        }
+    }
+}
@@ -24,27 +24,32 @@ import java.io.InputStream;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Processes incoming events
+ *
+ * Events from a peer are handled in the order of their event counters. Events that arrive ahead of their turn are
+ * buffered. The events of different peers are handled independently of each other. If the events from a peer
+ * cannot be brought into order within a bounded buffer, for example because an event was lost, the connection to
+ * the peer is closed. When the connection is established again, all event streams are opened again with their
+ * current state.
  */
 @Singleton
 public class EventProcessor
 {
+    static final int MAX_BUFFERED_EVENTS = 10_000;
+
     private final ErrorReporter errorReporter;
     private final Map<String, Provider<EventHandler>> eventHandlers;
     private final LinStorScope apiCallScope;
     private final Provider<TransactionMgr> transMgrGenerator;
     private final Provider<TransactionMgr> transMgrProvider;
 
-    // Synchronizes access to incomingEventStreamStore and pendingEventsPerPeer
-    private final ReentrantLock eventHandlingLock;
-
-    private final EventStreamStore incomingEventStreamStore;
     private final Map<String, EventBuffer> pendingEventsPerPeer;
 
     @Inject
@@ -62,55 +67,63 @@ public class EventProcessor
         transMgrGenerator = trnActProviderRef;
         transMgrProvider = transMgrProviderRef;
 
-        eventHandlingLock = new ReentrantLock();
-        incomingEventStreamStore = new EventStreamStoreImpl();
-        pendingEventsPerPeer = new HashMap<>();
+        pendingEventsPerPeer = new ConcurrentHashMap<>();
     }
 
     public void outboundConnectionEstablished(Peer peer)
     {
-
-        eventHandlingLock.lock();
-        try
-        {
-            pendingEventsPerPeer.put(peer.getId(), new EventBuffer());
-        }
-        finally
-        {
-            eventHandlingLock.unlock();
-        }
+        pendingEventsPerPeer.put(peer.getId(), new EventBuffer());
     }
 
     public void connectionClosed(Peer peer)
     {
-        eventHandlingLock.lock();
-        try
+        EventBuffer eventBuffer = pendingEventsPerPeer.get(peer.getId());
+        if (eventBuffer != null)
         {
-            Node node = peer.getNode();
-            if (node != null && !node.isDeleted())
+            eventBuffer.lock.lock();
+            try
             {
-                // The peer is a Satellite
-                for (Map.Entry<String, Provider<EventHandler>> eventHandlerEntry : eventHandlers.entrySet())
+                Node node = peer.getNode();
+                if (node != null && !node.isDeleted())
                 {
-                    Collection<EventIdentifier> eventStreams = incomingEventStreamStore.getDescendantEventStreams(
-                        EventIdentifier.node(eventHandlerEntry.getKey(), node.getName())
-                    );
-
-                    for (EventIdentifier eventIdentifier : eventStreams)
+                    // The peer is a Satellite
+                    for (Map.Entry<String, Provider<EventHandler>> eventHandlerEntry : eventHandlers.entrySet())
                     {
-                        executeNoConnection(eventHandlerEntry.getValue(), eventIdentifier, peer);
+                        Collection<EventIdentifier> eventStreams =
+                            eventBuffer.incomingEventStreamStore.getDescendantEventStreams(
+                                EventIdentifier.node(eventHandlerEntry.getKey(), node.getName())
+                            );
+
+                        for (EventIdentifier eventIdentifier : eventStreams)
+                        {
+                            executeNoConnection(eventHandlerEntry.getValue(), eventIdentifier, peer);
 
-                        incomingEventStreamStore.removeEventStream(eventIdentifier);
+                            eventBuffer.incomingEventStreamStore.removeEventStream(eventIdentifier);
+                        }
                     }
                 }
+                eventBuffer.close();
+                pendingEventsPerPeer.remove(peer.getId(), eventBuffer);
+                errorReporter.logTrace("Removed pending events from peer '%s' ", peer);
+            }
+            finally
+            {
+                eventBuffer.lock.unlock();
             }
-            pendingEventsPerPeer.remove(peer.getId());
-            errorReporter.logTrace("Removed pending events from peer '%s' ", peer);
         }
-        finally
+    }
+
+    /**
+     * Returns the statistics of the event buffers of all peers, sorted by peer ID
+     */
+    public Map<String, EventBufferStats> getEventBufferStats()
+    {
+        Map<String, EventBufferStats> stats = new TreeMap<>();
+        for (Map.Entry<String, EventBuffer> entry : pendingEventsPerPeer.entrySet())
         {
-            eventHandlingLock.unlock();
+            stats.put(entry.getKey(), entry.getValue().getStats());
         }
+        return stats;
     }
 
     public void handleEvent(
@@ -124,34 +137,68 @@ public class EventProcessor
         InputStream eventDataIn
     )
     {
-        eventHandlingLock.lock();
-        try
+        EventBuffer eventBuffer = pendingEventsPerPeer.get(peer.getId());
+        if (eventBuffer == null)
         {
-            EventBuffer eventBuffer = pendingEventsPerPeer.get(peer.getId());
-            if (eventBuffer == null)
+            errorReporter.logWarning("Received event for unknown peer " + peer);
+        }
+        else
+        {
+            eventBuffer.lock.lock();
+            try
             {
-                errorReporter.logWarning("Received event for unknown peer " + peer);
+                if (eventBuffer.isClosed())
+                {
+                    errorReporter.logTrace("Ignoring event %d from peer '%s', events are resynchronized",
+                        eventCounter, peer);
+                }
+                else
+                if (eventCounter < eventBuffer.expectedEventCounter)
+                {
+                    errorReporter.logWarning("Ignoring event %d from peer '%s', expected event %d",
+                        eventCounter, peer, eventBuffer.expectedEventCounter);
+                }
+                else
+                if (eventBuffer.getBufferedCount() >= MAX_BUFFERED_EVENTS)
+                {
+                    resync(eventBuffer, peer);
+                }
+                else
+                {
+                    eventBuffer.addEvent(new Event(
+                        eventCounter,
+                        eventAction,
+                        eventName,
+                        resourceNameStr,
+                        volumeNr,
+                        snapshotNameStr,
+                        peer,
+                        eventDataIn
+                    ));
+
+                    executePendingEvents(eventBuffer);
+                }
             }
-            else
+            finally
             {
-                eventBuffer.addEvent(new Event(
-                    eventCounter,
-                    eventAction,
-                    eventName,
-                    resourceNameStr,
-                    volumeNr,
-                    snapshotNameStr,
-                    peer,
-                    eventDataIn
-                ));
-
-                executePendingEvents(eventBuffer);
+                eventBuffer.lock.unlock();
             }
         }
-        finally
-        {
-            eventHandlingLock.unlock();
-        }
+    }
+
+    /**
+     * Gives up on the events of the peer and closes the connection. When the connection is closed, the event
+     * streams of the peer are closed as usual. They are opened again with the current state when the connection
+     * is established again.
+     */
+    private void resync(EventBuffer eventBuffer, Peer peer)
+    {
+        errorReporter.logError(
+            "%d events from peer '%s' are waiting for event %d, closing the connection to resynchronize the events",
+            eventBuffer.getBufferedCount(), peer, eventBuffer.expectedEventCounter
+        );
+        eventBuffer.overflow();
+        peer.closeConnection();
     }
 
     private void executePendingEvents(EventBuffer eventBuffer)
@@ -184,7 +231,7 @@ public class EventProcessor
 
                     if (eventAction.equals(ApiConsts.EVENT_STREAM_OPEN))
                     {
-                        incomingEventStreamStore.addEventStream(eventIdentifier);
+                        eventBuffer.incomingEventStreamStore.addEventStream(eventIdentifier);
                     }
 
                     errorReporter.logTrace("Handling event '%s %s' start", eventAction, eventIdentifier);
@@ -193,7 +240,7 @@ public class EventProcessor
 
                     if (eventAction.equals(ApiConsts.EVENT_STREAM_CLOSE_REMOVED))
                     {
-                        incomingEventStreamStore.removeEventStream(eventIdentifier);
+                        eventBuffer.incomingEventStreamStore.removeEventStream(eventIdentifier);
                     }
                 }
 
@@ -267,16 +314,102 @@ public class EventProcessor
         }
     }
 
+    /**
+     * Statistics of the event buffer of a peer
+     */
+    public static class EventBufferStats
+    {
+        private final int bufferedEvents;
+        private final int peakBufferedEvents;
+        private final long handledEvents;
+        private final long reorderedEvents;
+        private final long overflows;
+
+        EventBufferStats(
+            int bufferedEventsRef,
+            int peakBufferedEventsRef,
+            long handledEventsRef,
+            long reorderedEventsRef,
+            long overflowsRef
+        )
+        {
+            bufferedEvents = bufferedEventsRef;
+            peakBufferedEvents = peakBufferedEventsRef;
+            handledEvents = handledEventsRef;
+            reorderedEvents = reorderedEventsRef;
+            overflows = overflowsRef;
+        }
+
+        /**
+         * @return the number of events waiting for an earlier event
+         */
+        public int getBufferedEvents()
+        {
+            return bufferedEvents;
+        }
+
+        public int getPeakBufferedEvents()
+        {
+            return peakBufferedEvents;
+        }
+
+        public long getHandledEvents()
+        {
+            return handledEvents;
+        }
+
+        /**
+         * @return the number of events that arrived before an earlier event and had to be buffered
+         */
+        public long getReorderedEvents()
+        {
+            return reorderedEvents;
+        }
+
+        /**
+         * @return the number of times the buffer was full and the events were resynchronized
+         */
+        public long getOverflows()
+        {
+            return overflows;
+        }
+    }
+
+    /**
+     * Events and open event streams of a peer
+     *
+     * The statistics are volatile so that they can be read without waiting for the lock, which is held while the
+     * event handlers run.
+     */
     private static class EventBuffer
     {
+        // Serializes the handling of the events of the peer and guards the fields of the buffer
+        private final ReentrantLock lock = new ReentrantLock();
+
         private final PriorityQueue<Event> events =
             new PriorityQueue<>(Comparator.comparingLong(Event::getEventCounter));
 
+        private final EventStreamStore incomingEventStreamStore = new EventStreamStoreImpl();
+
         private long expectedEventCounter = 1;
+        private boolean closed = false;
+
+        private volatile int bufferedCount = 0;
+        private volatile int peakBufferedCount = 0;
+        private volatile long handledCount = 0;
+        private volatile long reorderedCount = 0;
+        private volatile long overflowCount = 0;
 
         public void addEvent(Event event)
         {
             events.add(event);
+            bufferedCount = events.size();
+            if (event.getEventCounter() != expectedEventCounter)
+            {
+                // The expected event is handled right away, only events waiting for it count towards the peak
+                reorderedCount++;
+                peakBufferedCount = Math.max(peakBufferedCount, bufferedCount);
+            }
         }
 
         public Event getNextEvent()
@@ -286,8 +419,45 @@ public class EventProcessor
             if (nextIsExpected)
             {
                 expectedEventCounter++;
+                events.poll();
+                handledCount++;
+                bufferedCount = events.size();
             }
-            return nextIsExpected ? events.poll() : null;
+            return nextIsExpected ? nextEvent : null;
+        }
+
+        public int getBufferedCount()
+        {
+            return bufferedCount;
+        }
+
+        public boolean isClosed()
+        {
+            return closed;
+        }
+
+        public void overflow()
+        {
+            overflowCount++;
+            close();
+        }
+
+        public void close()
+        {
+            closed = true;
+            events.clear();
+            bufferedCount = 0;
+        }
+
+        public EventBufferStats getStats()
+        {
+            return new EventBufferStats(
+                bufferedCount,
+                peakBufferedCount,
+                handledCount,
+                reorderedCount,
+                overflowCount
+            );
         }
     }
 
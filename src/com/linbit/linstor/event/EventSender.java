@@ -17,14 +17,20 @@ import javax.inject.Named;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
 @Singleton
 public class EventSender
 {
+    static final int INITIAL_EVENTS_CHUNK_SIZE = 1000;
+
     private final ErrorReporter errorReporter;
     private final WatchStore watchStore;
     private final CommonSerializer commonSerializer;
@@ -32,12 +38,27 @@ public class EventSender
     private final Map<String, EventWriter> eventWriters;
     private final LinStorScope apiCallScope;
     private final Provider<TransactionMgr> transMgrGenerator;
-
-    // Serialize event writing and sending.
-    // This could be relaxed to allow events to be written on multiple threads, if required for performance.
+    private final EventBatcher eventBatcher;
+
+    // Serialize changes to the watches and to the event streams.
+    // Values of open event streams are written and sent without this lock. The last value is updated before
+    // the watches to send it to are looked up, while a new watch is added before the last value is read. So a
+    // watch that is created concurrently either receives the new value from the cache or is sent the new value
+    // afterwards.
+    // Messages to a single watch are serialized by synchronizing on the watch, so that they are sent in the
+    // order of their event counters.
+    // When a watch is created, its monitor is taken before this lock. This does not deadlock with the other
+    // direction because the watch cannot be found by others until it is added under this lock.
     private final ReentrantLock watchAndStreamLock;
     private final EventStreamStore outgoingEventStreamStore;
 
+    // Last value written for each open event stream, used to send the initial state to new watches.
+    // Entries are added when a stream is opened and removed when it is closed, both under the watchAndStreamLock.
+    // Values are written concurrently, so each trigger takes a sequence number and an entry is only replaced by
+    // the value of a later trigger.
+    private final Map<EventIdentifier, CachedValue> lastValues;
+    private final AtomicLong triggerSequence;
+
     @Inject
     public EventSender(
         ErrorReporter errorReporterRef,
@@ -46,7 +67,8 @@ public class EventSender
         CoreModule.PeerMap peerMapRef,
         Map<String, EventWriter> eventWritersRef,
         LinStorScope apiCallScopeRef,
-        @Named(LinStorModule.TRANS_MGR_GENERATOR) Provider<TransactionMgr> trnActProviderRef
+        @Named(LinStorModule.TRANS_MGR_GENERATOR) Provider<TransactionMgr> trnActProviderRef,
+        EventBatcher eventBatcherRef
     )
     {
         errorReporter = errorReporterRef;
@@ -56,14 +78,43 @@ public class EventSender
         eventWriters = eventWritersRef;
         apiCallScope = apiCallScopeRef;
         transMgrGenerator = trnActProviderRef;
+        eventBatcher = eventBatcherRef;
 
         watchAndStreamLock = new ReentrantLock();
         outgoingEventStreamStore = new EventStreamStoreImpl();
+        lastValues = new ConcurrentHashMap<>();
+        triggerSequence = new AtomicLong();
     }
 
+    /**
+     * Adds the watch and sends the current state of all matching event streams.
+     * The state is taken from the last values of the streams while the streams cannot change. Only the values
+     * that are not known are generated again. The initial events are sent after the lock is released, so that
+     * the other event streams are not blocked meanwhile.
+     */
     public void createWatch(Watch watch)
     {
-        watchAndStreamLock.lock();
+        // Values triggered concurrently for the new watch are sent after the initial events
+        synchronized (watch)
+        {
+            List<InitialEvent> initialEvents;
+            watchAndStreamLock.lock();
+            try
+            {
+                initialEvents = createWatchImpl(watch);
+            }
+            finally
+            {
+                watchAndStreamLock.unlock();
+            }
+
+            sendInitialEvents(watch, initialEvents);
+        }
+    }
+
+    private List<InitialEvent> createWatchImpl(Watch watch)
+    {
+        List<InitialEvent> initialEvents = new ArrayList<>();
         try
         {
             watchStore.addWatch(watch);
@@ -86,12 +137,12 @@ public class EventSender
                     }
                     else
                     {
-                        writeAndSendTo(
+                        CachedValue cachedValue = lastValues.get(eventIdentifier);
+                        initialEvents.add(new InitialEvent(
                             eventIdentifier,
-                            ApiConsts.EVENT_STREAM_OPEN,
                             eventWriter,
-                            Collections.singleton(watch)
-                        );
+                            cachedValue == null ? null : cachedValue.eventData
+                        ));
                     }
                 }
             }
@@ -101,9 +152,33 @@ public class EventSender
             errorReporter.logError(
                 "Watch already exists for peer " + watch.getPeerId() + ", id " + watch.getPeerWatchId());
         }
-        finally
-        {
-            watchAndStreamLock.unlock();
+        return initialEvents;
+    }
+
+    private void sendInitialEvents(Watch watch, List<InitialEvent> initialEvents)
+    {
+        int chunkStart = 0;
+        // Stop early if the watch is removed, for example because the client disconnected
+        while (chunkStart < initialEvents.size() && watchStore.containsWatch(watch))
+        {
+            int chunkEnd = Math.min(chunkStart + INITIAL_EVENTS_CHUNK_SIZE, initialEvents.size());
+            errorReporter.logTrace(
+                "Sending initial events %d to %d of %d for watch %d of peer %s",
+                chunkStart, chunkEnd, initialEvents.size(), watch.getPeerWatchId(), watch.getPeerId()
+            );
+            for (InitialEvent initialEvent : initialEvents.subList(chunkStart, chunkEnd))
+            {
+                byte[] eventData = initialEvent.cachedEventData;
+                if (eventData == null)
+                {
+                    eventData = writeEventData(initialEvent.eventIdentifier, initialEvent.eventWriter);
+                }
+                if (eventData != null)
+                {
+                    sendEvent(watch, initialEvent.eventIdentifier, ApiConsts.EVENT_STREAM_OPEN, eventData);
+                }
+            }
+            chunkStart = chunkEnd;
         }
     }
 
@@ -126,6 +201,7 @@ public class EventSender
         try
         {
             watchStore.removeWatchesForPeer(peer.getId());
+            eventBatcher.connectionClosed(peer);
         }
         finally
         {
@@ -169,14 +245,21 @@ public class EventSender
 
     public void triggerEvent(EventIdentifier eventIdentifier, String eventStreamAction)
     {
-        watchAndStreamLock.lock();
-        try
+        if (ApiConsts.EVENT_STREAM_VALUE.equals(eventStreamAction))
         {
             sendToWatches(eventIdentifier, eventStreamAction);
         }
-        finally
+        else
         {
-            watchAndStreamLock.unlock();
+            watchAndStreamLock.lock();
+            try
+            {
+                sendToWatches(eventIdentifier, eventStreamAction);
+            }
+            finally
+            {
+                watchAndStreamLock.unlock();
+            }
         }
     }
 
@@ -229,11 +312,20 @@ public class EventSender
         }
         else
         {
-            Collection<Watch> watches = watchStore.getWatchesForEvent(eventIdentifier);
+            long sequence = triggerSequence.incrementAndGet();
+            boolean hasWatches = !watchStore.getWatchesForEvent(eventIdentifier).isEmpty();
+            if (!hasWatches)
+            {
+                // Nobody is interested in the value, so it is not written. It is generated when it is needed.
+                updateLastValue(eventIdentifier, eventStreamAction, sequence, null);
 
-            if (!watches.isEmpty())
+                // A watch that was added before the last value was cleared may have received the previous value
+                hasWatches = !watchStore.getWatchesForEvent(eventIdentifier).isEmpty();
+            }
+
+            if (hasWatches)
             {
-                writeAndSendTo(eventIdentifier, eventStreamAction, eventWriter, watches);
+                writeAndSendTo(eventIdentifier, eventStreamAction, eventWriter, sequence);
             }
 
             if (ApiConsts.EVENT_STREAM_CLOSE_REMOVED.equals(eventStreamAction) ||
@@ -253,11 +345,15 @@ public class EventSender
         EventIdentifier eventIdentifier,
         String eventStreamAction,
         EventWriter eventWriter,
-        Collection<Watch> watches
+        long sequence
     )
     {
         byte[] eventData = writeEventData(eventIdentifier, eventWriter);
 
+        // Watches created while the value was written received the previous value, so they are looked up again
+        updateLastValue(eventIdentifier, eventStreamAction, sequence, eventData);
+        Collection<Watch> watches = watchStore.getWatchesForEvent(eventIdentifier);
+
         byte[] dataToSend;
         if (ApiConsts.EVENT_STREAM_CLOSE_REMOVED.equals(eventStreamAction) ||
             ApiConsts.EVENT_STREAM_CLOSE_NO_CONNECTION.equals(eventStreamAction))
@@ -283,6 +379,39 @@ public class EventSender
         }
     }
 
+    private void updateLastValue(
+        EventIdentifier eventIdentifier,
+        String eventStreamAction,
+        long sequence,
+        byte[] eventData
+    )
+    {
+        CachedValue newValue = new CachedValue(sequence, eventData);
+        if (ApiConsts.EVENT_STREAM_OPEN.equals(eventStreamAction))
+        {
+            lastValues.merge(eventIdentifier, newValue, EventSender::getLater);
+        }
+        else
+        if (ApiConsts.EVENT_STREAM_VALUE.equals(eventStreamAction))
+        {
+            // Values are written without the watchAndStreamLock, do not add an entry for a stream that was closed
+            // while the value was written
+            lastValues.computeIfPresent(eventIdentifier, (ignored, oldValue) -> getLater(oldValue, newValue));
+        }
+        else
+        {
+            lastValues.remove(eventIdentifier);
+        }
+    }
+
+    /**
+     * A value written for an earlier trigger may be older than the current one, even if it was written later
+     */
+    private static CachedValue getLater(CachedValue oldValue, CachedValue newValue)
+    {
+        return newValue.sequence > oldValue.sequence ? newValue : oldValue;
+    }
+
     private byte[] writeEventData(
         EventIdentifier eventIdentifier,
         EventWriter eventWriter
@@ -384,17 +513,58 @@ public class EventSender
         }
         else
         {
-            long eventCounter = watchStore.getAndIncrementEventCounter(watch);
+            synchronized (watch)
+            {
+                long eventCounter = watchStore.getAndIncrementEventCounter(watch);
 
-            byte[] eventHeaderBytes = commonSerializer.builder(ApiConsts.API_EVENT)
-                .event(watch.getPeerWatchId(), eventCounter, eventIdentifier, eventStreamAction)
-                .build();
+                // Batched events are sent without a message header each, the batch has one for all of them
+                boolean batch = eventBatcher.isEnabled(peer);
+                byte[] eventHeaderBytes =
+                    (batch ? commonSerializer.builder() : commonSerializer.builder(ApiConsts.API_EVENT))
+                        .event(watch.getPeerWatchId(), eventCounter, eventIdentifier, eventStreamAction)
+                        .build();
 
-            byte[] completeData = new byte[eventHeaderBytes.length + eventData.length];
-            System.arraycopy(eventHeaderBytes, 0, completeData, 0, eventHeaderBytes.length);
+                byte[] completeData = new byte[eventHeaderBytes.length + eventData.length];
+                System.arraycopy(eventHeaderBytes, 0, completeData, 0, eventHeaderBytes.length);
                 System.arraycopy(eventData, 0, completeData, eventHeaderBytes.length, eventData.length);
 
-            peer.sendMessage(completeData);
+                if (batch)
+                {
+                    eventBatcher.addEvent(peer, completeData);
+                }
+                else
+                {
+                    peer.sendMessage(completeData);
+                }
+            }
+        }
+    }
+
+    private static class CachedValue
+    {
+        private final long sequence;
+
+        // Null if the value is not known
+        private final byte[] eventData;
+
+        CachedValue(long sequenceRef, byte[] eventDataRef)
+        {
+            sequence = sequenceRef;
+            eventData = eventDataRef;
+        }
+    }
+
+    private static class InitialEvent
+    {
+        private final EventIdentifier eventIdentifier;
+        private final EventWriter eventWriter;
+        private final byte[] cachedEventData;
+
+        InitialEvent(EventIdentifier eventIdentifierRef, EventWriter eventWriterRef, byte[] cachedEventDataRef)
+        {
+            eventIdentifier = eventIdentifierRef;
+            eventWriter = eventWriterRef;
+            cachedEventData = cachedEventDataRef;
         }
     }
 }
@@ -1,12 +1,22 @@
 package com.linbit.linstor.event;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.name.Names;
+import com.linbit.linstor.core.LinStorArguments;
+import com.linbit.linstor.event.generator.DrbdVolumeStatsGenerator;
 import com.linbit.linstor.event.generator.ResourceDeploymentStateGenerator;
 import com.linbit.linstor.event.generator.ResourceStateGenerator;
 import com.linbit.linstor.event.generator.VolumeDiskStateGenerator;
+import com.linbit.linstor.event.generator.VolumeIoStatsGenerator;
+import com.linbit.linstor.event.generator.satellite.StltDrbdVolumeStatsGenerator;
 import com.linbit.linstor.event.generator.satellite.StltResourceDeploymentStateGenerator;
 import com.linbit.linstor.event.generator.satellite.StltResourceStateGenerator;
 import com.linbit.linstor.event.generator.satellite.StltVolumeDiskStateGenerator;
+import com.linbit.linstor.event.generator.satellite.StltVolumeIoStatsGenerator;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
 
 public class SatelliteEventModule extends AbstractModule
 {
@@ -16,5 +26,18 @@ public class SatelliteEventModule extends AbstractModule
         bind(VolumeDiskStateGenerator.class).to(StltVolumeDiskStateGenerator.class);
         bind(ResourceStateGenerator.class).to(StltResourceStateGenerator.class);
         bind(ResourceDeploymentStateGenerator.class).to(StltResourceDeploymentStateGenerator.class);
+        bind(VolumeIoStatsGenerator.class).to(StltVolumeIoStatsGenerator.class);
+        bind(DrbdVolumeStatsGenerator.class).to(StltDrbdVolumeStatsGenerator.class);
+
+        // The only peer of a satellite is the controller, which understands batches
+        bind(Boolean.class).annotatedWith(Names.named(EventBatcher.BATCH_ALL_PEERS)).toInstance(true);
+    }
+
+    @Provides
+    @Singleton
+    @Named(EventBatcher.BATCH_INTERVAL_MS)
+    public long eventBatchInterval(LinStorArguments args)
+    {
+        return args.getEventBatchIntervalMs();
     }
 }
@@ -5,7 +5,9 @@ import com.linbit.linstor.LinStorDataAlreadyExistsException;
 import java.util.Collection;
 
 /**
- * Not thread-safe; external synchronization is expected.
+ * Adding and removing watches is not thread-safe; external synchronization is expected.
+ * Looking up the watches for an event and incrementing the event counters may run concurrently
+ * with each other and with adding and removing watches.
  */
 public interface WatchStore
 {
@@ -16,12 +18,19 @@ public interface WatchStore
         throws LinStorDataAlreadyExistsException;
 
     /**
-     * Get all watches for the identified object and all ancestor objects.
+     * Get all watches for the event on the identified object and all ancestor objects.
+     * Watches without an event name match all events.
+     * The returned collection must not be modified.
      */
     Collection<Watch> getWatchesForEvent(EventIdentifier eventIdentifier);
 
     long getAndIncrementEventCounter(Watch watch);
 
+    /**
+     * @return True if the watch has been added and not yet removed.
+     */
+    boolean containsWatch(Watch watch);
+
     /**
      * Remove all watchs for a peer.
      */
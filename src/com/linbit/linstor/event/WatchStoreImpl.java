@@ -8,26 +8,33 @@ import com.linbit.linstor.VolumeNumber;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 @Singleton
 public class WatchStoreImpl implements WatchStore
 {
+    // Key in the index for the watches that match all events
+    private static final String ALL_EVENTS = "";
+
+    // Number of cached event matches after which the cache of the current index is cleared
+    private static final int MAX_CACHED_MATCHES = 100_000;
+
+    // Only modified under the external synchronization
     private final Map<ObjectIdentifier, Set<Watch>> watchesByObject = new HashMap<>();
     private final Map<String, Map<Integer, Watch>> watchesByPeer = new HashMap<>();
-    private final Map<Watch, Long> eventCounterNext = new HashMap<>();
+
+    // Read by the event delivery without external synchronization
+    private final Map<Watch, AtomicLong> eventCounterNext = new ConcurrentHashMap<>();
+    private volatile WatchIndex watchIndex = WatchIndex.EMPTY;
 
     @Inject
     public WatchStoreImpl()
@@ -57,26 +64,30 @@ public class WatchStoreImpl implements WatchStore
         {
             getInsertingDefault(watchesByPeer, peerId, HashMap::new).put(peerWatchId, watch);
 
-            eventCounterNext.put(watch, 1L);
+            eventCounterNext.put(watch, new AtomicLong(1L));
         }
+
+        watchIndex = watchIndex.update(watch, true);
     }
 
     @Override
     public Collection<Watch> getWatchesForEvent(EventIdentifier eventIdentifier)
     {
-        return matchingObjects(eventIdentifier).stream()
-            .map(watchesByObject::get)
-            .filter(Objects::nonNull)
-            .flatMap(Collection::stream)
-            .collect(Collectors.toSet());
+        return watchIndex.getMatching(eventIdentifier);
     }
 
     @Override
     public long getAndIncrementEventCounter(Watch watch)
     {
-        long counter = eventCounterNext.get(watch);
-        eventCounterNext.put(watch, counter + 1);
-        return counter;
+        AtomicLong counter = eventCounterNext.get(watch);
+        // The watch may have been removed while the event was delivered, the counter is irrelevant then
+        return counter == null ? 0 : counter.getAndIncrement();
+    }
+
+    @Override
+    public boolean containsWatch(Watch watch)
+    {
+        return eventCounterNext.containsKey(watch);
     }
 
     @Override
@@ -109,68 +120,69 @@ public class WatchStoreImpl implements WatchStore
         removeWatches(new HashSet<>(watchesByObject.get(objectIdentifier)));
     }
 
-    private <K, V> V getInsertingDefault(Map<K, V> map, K key, Supplier<V> defaultSupplier)
+    private static <K, V> V getInsertingDefault(Map<K, V> map, K key, Supplier<V> defaultSupplier)
     {
         map.computeIfAbsent(key, ignored -> defaultSupplier.get());
         return map.get(key);
     }
 
-    private <K, V> void putMultiMap(Map<K, Set<V>> multiMap, K key, V value)
+    private static <K, V> void putMultiMap(Map<K, Set<V>> multiMap, K key, V value)
     {
         getInsertingDefault(multiMap, key, HashSet::new).add(value);
     }
 
-    private <V> Set<V> removeCollapsingEmpty(Set<V> set, V value)
+    private static <V> Set<V> removeCollapsingEmpty(Set<V> set, V value)
     {
         set.remove(value);
         return set.isEmpty() ? null : set;
     }
 
-    private <K, V> void removeMultiMap(Map<K, Set<V>> multiMap, K key, V value)
+    private static <K, V> void removeMultiMap(Map<K, Set<V>> multiMap, K key, V value)
     {
         multiMap.computeIfPresent(key, (ignored, values) -> removeCollapsingEmpty(values, value));
     }
 
-    private <K, V> Map<K, V> removeMapCollapsingEmpty(Map<K, V> map, K key)
+    private static <K, V> Map<K, V> removeMapCollapsingEmpty(Map<K, V> map, K key)
     {
         map.remove(key);
         return map.isEmpty() ? null : map;
     }
 
     /**
-     * Get all ancestor objects, including the object itself.
+     * Returns an unmodifiable copy of the map with the value for the key replaced, or removed if the
+     * value is null.
      */
-    private List<ObjectIdentifier> matchingObjects(EventIdentifier eventIdentifier)
+    private static <K, V> Map<K, V> copyWith(Map<K, V> map, K key, V value)
     {
-        List<NodeName> nodeNames = eventIdentifier.getNodeName() == null ?
-            Collections.singletonList(null) : Arrays.asList(null, eventIdentifier.getNodeName());
-
-        List<ResourceName> resourceNames = eventIdentifier.getResourceName() == null ?
-            Collections.singletonList(null) : Arrays.asList(null, eventIdentifier.getResourceName());
-
-        List<ObjectIdentifier> objectIdentifiers = new ArrayList<>();
-        for (NodeName nodeName : nodeNames)
+        Map<K, V> copy = new HashMap<>(map);
+        if (value == null)
         {
-            for (ResourceName resourceName : resourceNames)
-            {
-                List<VolumeNumber> volumeNumbers =
-                    (resourceName == null || eventIdentifier.getVolumeNumber() == null) ?
-                    Collections.singletonList(null) : Arrays.asList(null, eventIdentifier.getVolumeNumber());
-
-                for (VolumeNumber volumeNumber : volumeNumbers)
-                {
-                    List<SnapshotName> snapshotNames =
-                        (resourceName == null || volumeNumber != null || eventIdentifier.getSnapshotName() == null) ?
-                            Collections.singletonList(null) : Arrays.asList(null, eventIdentifier.getSnapshotName());
+            copy.remove(key);
+        }
+        else
+        {
+            copy.put(key, value);
+        }
+        return copy.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(copy);
+    }
 
-                    for (SnapshotName snapshotName : snapshotNames)
-                    {
-                        objectIdentifiers.add(new ObjectIdentifier(nodeName, resourceName, volumeNumber, snapshotName));
-                    }
-                }
-            }
+    private static <V> Set<V> copyWith(Set<V> set, V value, boolean add)
+    {
+        Set<V> copy = new HashSet<>(set);
+        if (add)
+        {
+            copy.add(value);
+        }
+        else
+        {
+            copy.remove(value);
         }
-        return objectIdentifiers;
+        return copy.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(copy);
+    }
+
+    private static <K, V> Map<K, V> nullIfEmpty(Map<K, V> map)
+    {
+        return map.isEmpty() ? null : map;
     }
 
     private void removeWatches(Collection<Watch> watches)
@@ -194,5 +206,216 @@ public class WatchStoreImpl implements WatchStore
 
             eventCounterNext.remove(watch);
         }
+
+        watchIndex = watchIndex.update(watch, false);
+    }
+
+    /**
+     * Immutable index of the watches by event name, node, resource and volume or snapshot.
+     *
+     * Changes create a new index that shares all parts that are not on the path to the changed watch.
+     * The watches that match an event are cached per index, so that repeated events for the same object
+     * are matched without walking the index.
+     */
+    private static final class WatchIndex
+    {
+        static final WatchIndex EMPTY = new WatchIndex(Collections.emptyMap());
+
+        private final Map<String, Map<NodeName, Map<ResourceName, ObjectWatches>>> watchesByEventName;
+        private final Map<EventIdentifier, Collection<Watch>> matchCache = new ConcurrentHashMap<>();
+
+        private WatchIndex(Map<String, Map<NodeName, Map<ResourceName, ObjectWatches>>> watchesByEventNameRef)
+        {
+            watchesByEventName = watchesByEventNameRef;
+        }
+
+        WatchIndex update(Watch watch, boolean add)
+        {
+            String eventName = watch.getEventIdentifier().getEventName();
+            String eventKey = eventName == null || eventName.isEmpty() ? ALL_EVENTS : eventName;
+            ObjectIdentifier objectIdentifier = watch.getEventIdentifier().getObjectIdentifier();
+            NodeName nodeName = objectIdentifier.getNodeName();
+            ResourceName resourceName = objectIdentifier.getResourceName();
+
+            Map<NodeName, Map<ResourceName, ObjectWatches>> watchesByNode =
+                watchesByEventName.getOrDefault(eventKey, Collections.emptyMap());
+            Map<ResourceName, ObjectWatches> watchesByResource =
+                watchesByNode.getOrDefault(nodeName, Collections.emptyMap());
+            ObjectWatches objectWatches = watchesByResource.getOrDefault(resourceName, ObjectWatches.EMPTY)
+                .update(objectIdentifier, watch, add);
+
+            return new WatchIndex(copyWith(
+                watchesByEventName,
+                eventKey,
+                nullIfEmpty(copyWith(
+                    watchesByNode,
+                    nodeName,
+                    nullIfEmpty(copyWith(
+                        watchesByResource,
+                        resourceName,
+                        objectWatches.isEmpty() ? null : objectWatches
+                    ))
+                ))
+            ));
+        }
+
+        Collection<Watch> getMatching(EventIdentifier eventIdentifier)
+        {
+            Collection<Watch> matching = matchCache.get(eventIdentifier);
+            if (matching == null)
+            {
+                Set<Watch> collector = new HashSet<>();
+                collectMatchingNodes(
+                    watchesByEventName.get(eventIdentifier.getEventName()), eventIdentifier, collector
+                );
+                collectMatchingNodes(watchesByEventName.get(ALL_EVENTS), eventIdentifier, collector);
+                matching = collector.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(collector);
+
+                if (matchCache.size() >= MAX_CACHED_MATCHES)
+                {
+                    matchCache.clear();
+                }
+                matchCache.put(eventIdentifier, matching);
+            }
+            return matching;
+        }
+
+        /**
+         * Collects the watches for the identified object and all ancestor objects
+         */
+        private static void collectMatchingNodes(
+            Map<NodeName, Map<ResourceName, ObjectWatches>> watchesByNode,
+            EventIdentifier eventIdentifier,
+            Set<Watch> collector
+        )
+        {
+            if (watchesByNode != null)
+            {
+                collectMatchingResources(watchesByNode.get(null), eventIdentifier, collector);
+                if (eventIdentifier.getNodeName() != null)
+                {
+                    collectMatchingResources(
+                        watchesByNode.get(eventIdentifier.getNodeName()), eventIdentifier, collector
+                    );
+                }
+            }
+        }
+
+        private static void collectMatchingResources(
+            Map<ResourceName, ObjectWatches> watchesByResource,
+            EventIdentifier eventIdentifier,
+            Set<Watch> collector
+        )
+        {
+            if (watchesByResource != null)
+            {
+                ObjectWatches anyResourceWatches = watchesByResource.get(null);
+                if (anyResourceWatches != null)
+                {
+                    collector.addAll(anyResourceWatches.watches);
+                }
+                if (eventIdentifier.getResourceName() != null)
+                {
+                    ObjectWatches resourceWatches = watchesByResource.get(eventIdentifier.getResourceName());
+                    if (resourceWatches != null)
+                    {
+                        resourceWatches.collectMatching(eventIdentifier, collector);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Immutable set of the watches for an object and for its volumes and snapshots
+     */
+    private static final class ObjectWatches
+    {
+        static final ObjectWatches EMPTY = new ObjectWatches(
+            Collections.emptySet(), Collections.emptyMap(), Collections.emptyMap()
+        );
+
+        private final Set<Watch> watches;
+        private final Map<VolumeNumber, Set<Watch>> watchesByVolume;
+        private final Map<SnapshotName, Set<Watch>> watchesBySnapshot;
+
+        private ObjectWatches(
+            Set<Watch> watchesRef,
+            Map<VolumeNumber, Set<Watch>> watchesByVolumeRef,
+            Map<SnapshotName, Set<Watch>> watchesBySnapshotRef
+        )
+        {
+            watches = watchesRef;
+            watchesByVolume = watchesByVolumeRef;
+            watchesBySnapshot = watchesBySnapshotRef;
+        }
+
+        boolean isEmpty()
+        {
+            return watches.isEmpty() && watchesByVolume.isEmpty() && watchesBySnapshot.isEmpty();
+        }
+
+        ObjectWatches update(ObjectIdentifier objectIdentifier, Watch watch, boolean add)
+        {
+            VolumeNumber volumeNumber = objectIdentifier.getVolumeNumber();
+            SnapshotName snapshotName = objectIdentifier.getSnapshotName();
+
+            ObjectWatches updated;
+            if (volumeNumber == null && snapshotName == null)
+            {
+                updated = new ObjectWatches(copyWith(watches, watch, add), watchesByVolume, watchesBySnapshot);
+            }
+            else
+            if (snapshotName == null)
+            {
+                Set<Watch> volumeWatches = copyWith(
+                    watchesByVolume.getOrDefault(volumeNumber, Collections.emptySet()), watch, add
+                );
+                updated = new ObjectWatches(
+                    watches,
+                    copyWith(watchesByVolume, volumeNumber, volumeWatches.isEmpty() ? null : volumeWatches),
+                    watchesBySnapshot
+                );
+            }
+            else
+            if (volumeNumber == null)
+            {
+                Set<Watch> snapshotWatches = copyWith(
+                    watchesBySnapshot.getOrDefault(snapshotName, Collections.emptySet()), watch, add
+                );
+                updated = new ObjectWatches(
+                    watches,
+                    watchesByVolume,
+                    copyWith(watchesBySnapshot, snapshotName, snapshotWatches.isEmpty() ? null : snapshotWatches)
+                );
+            }
+            else
+            {
+                // Watches for a volume of a snapshot do not match any event
+                updated = this;
+            }
+            return updated;
+        }
+
+        void collectMatching(EventIdentifier eventIdentifier, Set<Watch> collector)
+        {
+            collector.addAll(watches);
+            if (eventIdentifier.getVolumeNumber() != null)
+            {
+                Set<Watch> volumeWatches = watchesByVolume.get(eventIdentifier.getVolumeNumber());
+                if (volumeWatches != null)
+                {
+                    collector.addAll(volumeWatches);
+                }
+            }
+            if (eventIdentifier.getSnapshotName() != null)
+            {
+                Set<Watch> snapshotWatches = watchesBySnapshot.get(eventIdentifier.getSnapshotName());
+                if (snapshotWatches != null)
+                {
+                    collector.addAll(snapshotWatches);
+                }
+            }
+        }
     }
 }
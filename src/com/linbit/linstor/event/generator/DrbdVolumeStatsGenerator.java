@@ -0,0 +1,10 @@
+package com.linbit.linstor.event.generator;
+
+import com.linbit.linstor.core.DrbdVolumeStats;
+import com.linbit.linstor.event.ObjectIdentifier;
+
+public interface DrbdVolumeStatsGenerator
+{
+    DrbdVolumeStats generate(ObjectIdentifier objectIdentifier)
+        throws Exception;
+}
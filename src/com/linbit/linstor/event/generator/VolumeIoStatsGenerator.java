@@ -0,0 +1,10 @@
+package com.linbit.linstor.event.generator;
+
+import com.linbit.linstor.core.VolumeIoStats;
+import com.linbit.linstor.event.ObjectIdentifier;
+
+public interface VolumeIoStatsGenerator
+{
+    VolumeIoStats generate(ObjectIdentifier objectIdentifier)
+        throws Exception;
+}
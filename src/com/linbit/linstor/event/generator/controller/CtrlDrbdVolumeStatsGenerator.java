@@ -0,0 +1,38 @@
+package com.linbit.linstor.event.generator.controller;
+
+import com.linbit.linstor.core.DrbdVolumeStats;
+import com.linbit.linstor.event.ObjectIdentifier;
+import com.linbit.linstor.event.generator.SatelliteStateHelper;
+import com.linbit.linstor.event.generator.DrbdVolumeStatsGenerator;
+import com.linbit.linstor.satellitestate.SatelliteVolumeState;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+@Singleton
+public class CtrlDrbdVolumeStatsGenerator implements DrbdVolumeStatsGenerator
+{
+    private final SatelliteStateHelper satelliteStateHelper;
+
+    @Inject
+    public CtrlDrbdVolumeStatsGenerator(
+        SatelliteStateHelper satelliteStateHelperRef
+    )
+    {
+        satelliteStateHelper = satelliteStateHelperRef;
+    }
+
+    @Override
+    public DrbdVolumeStats generate(ObjectIdentifier objectIdentifier)
+    {
+        return satelliteStateHelper.withSatelliteState(
+            objectIdentifier.getNodeName(),
+            satelliteState -> satelliteState.getFromVolume(
+                objectIdentifier.getResourceName(),
+                objectIdentifier.getVolumeNumber(),
+                SatelliteVolumeState::getDrbdStats
+            ),
+            null
+        );
+    }
+}
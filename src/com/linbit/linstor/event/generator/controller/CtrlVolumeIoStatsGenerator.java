@@ -0,0 +1,38 @@
+package com.linbit.linstor.event.generator.controller;
+
+import com.linbit.linstor.core.VolumeIoStats;
+import com.linbit.linstor.event.ObjectIdentifier;
+import com.linbit.linstor.event.generator.SatelliteStateHelper;
+import com.linbit.linstor.event.generator.VolumeIoStatsGenerator;
+import com.linbit.linstor.satellitestate.SatelliteVolumeState;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+@Singleton
+public class CtrlVolumeIoStatsGenerator implements VolumeIoStatsGenerator
+{
+    private final SatelliteStateHelper satelliteStateHelper;
+
+    @Inject
+    public CtrlVolumeIoStatsGenerator(
+        SatelliteStateHelper satelliteStateHelperRef
+    )
+    {
+        satelliteStateHelper = satelliteStateHelperRef;
+    }
+
+    @Override
+    public VolumeIoStats generate(ObjectIdentifier objectIdentifier)
+    {
+        return satelliteStateHelper.withSatelliteState(
+            objectIdentifier.getNodeName(),
+            satelliteState -> satelliteState.getFromVolume(
+                objectIdentifier.getResourceName(),
+                objectIdentifier.getVolumeNumber(),
+                SatelliteVolumeState::getIoStats
+            ),
+            null
+        );
+    }
+}
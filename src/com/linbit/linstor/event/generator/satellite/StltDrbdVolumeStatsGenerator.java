@@ -0,0 +1,70 @@
+package com.linbit.linstor.event.generator.satellite;
+
+import com.linbit.linstor.core.DrbdVolumeStats;
+import com.linbit.linstor.drbdstate.DrbdConnection;
+import com.linbit.linstor.drbdstate.DrbdEventService;
+import com.linbit.linstor.drbdstate.DrbdResource;
+import com.linbit.linstor.drbdstate.DrbdVolume;
+import com.linbit.linstor.event.ObjectIdentifier;
+import com.linbit.linstor.event.generator.DrbdVolumeStatsGenerator;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Singleton
+public class StltDrbdVolumeStatsGenerator implements DrbdVolumeStatsGenerator
+{
+    private final DrbdEventService drbdEventService;
+
+    @Inject
+    public StltDrbdVolumeStatsGenerator(DrbdEventService drbdEventServiceRef)
+    {
+        drbdEventService = drbdEventServiceRef;
+    }
+
+    @Override
+    public DrbdVolumeStats generate(ObjectIdentifier objectIdentifier)
+        throws Exception
+    {
+        DrbdVolumeStats stats = null;
+
+        if (drbdEventService.isDrbdStateAvailable())
+        {
+            DrbdResource drbdResource =
+                drbdEventService.getDrbdResource(objectIdentifier.getResourceName().displayValue);
+            if (drbdResource != null)
+            {
+                DrbdVolume volume = drbdResource.getVolume(objectIdentifier.getVolumeNumber());
+                if (volume != null)
+                {
+                    Map<String, DrbdVolumeStats.PeerStats> peerStats = new TreeMap<>();
+                    for (DrbdConnection connection : drbdResource.getConnectionsMap().values())
+                    {
+                        DrbdVolume peerVolume = connection.getVolume(objectIdentifier.getVolumeNumber());
+                        if (peerVolume != null)
+                        {
+                            peerStats.put(
+                                connection.getConnectionName(),
+                                new DrbdVolumeStats.PeerStats(
+                                    peerVolume.getResyncDone(),
+                                    peerVolume.getOutOfSyncKib(),
+                                    peerVolume.getSendKibPerSec(),
+                                    peerVolume.getReceiveKibPerSec(),
+                                    peerVolume.getPending(),
+                                    peerVolume.getUnacked(),
+                                    connection.getApInFlightKib(),
+                                    connection.getRsInFlightKib()
+                                )
+                            );
+                        }
+                    }
+                    stats = new DrbdVolumeStats(volume.getUpperPending(), volume.getLowerPending(), peerStats);
+                }
+            }
+        }
+
+        return stats;
+    }
+}
@@ -0,0 +1,27 @@
+package com.linbit.linstor.event.generator.satellite;
+
+import com.linbit.linstor.core.VolumeIoStats;
+import com.linbit.linstor.core.VolumeIoStatsService;
+import com.linbit.linstor.event.ObjectIdentifier;
+import com.linbit.linstor.event.generator.VolumeIoStatsGenerator;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+@Singleton
+public class StltVolumeIoStatsGenerator implements VolumeIoStatsGenerator
+{
+    private final VolumeIoStatsService vlmIoStatsSvc;
+
+    @Inject
+    public StltVolumeIoStatsGenerator(VolumeIoStatsService vlmIoStatsSvcRef)
+    {
+        vlmIoStatsSvc = vlmIoStatsSvcRef;
+    }
+
+    @Override
+    public VolumeIoStats generate(ObjectIdentifier objectIdentifier)
+    {
+        return vlmIoStatsSvc.getStats(objectIdentifier.getResourceName(), objectIdentifier.getVolumeNumber());
+    }
+}
@@ -0,0 +1,79 @@
+package com.linbit.linstor.event.handler.protobuf.controller;
+
+import com.linbit.linstor.InternalApiConsts;
+import com.linbit.linstor.api.ApiConsts;
+import com.linbit.linstor.core.DrbdVolumeStats;
+import com.linbit.linstor.event.EventBroker;
+import com.linbit.linstor.event.EventIdentifier;
+import com.linbit.linstor.event.generator.SatelliteStateHelper;
+import com.linbit.linstor.event.handler.EventHandler;
+import com.linbit.linstor.event.handler.protobuf.ProtobufEventHandler;
+import com.linbit.linstor.proto.LinStorMapEntryOuterClass;
+import com.linbit.linstor.satellitestate.SatelliteVolumeState;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.TreeMap;
+
+@ProtobufEventHandler(
+    eventName = InternalApiConsts.EVENT_DRBD_VOLUME_STATS
+)
+public class DrbdVolumeStatsEventHandler implements EventHandler
+{
+    private final SatelliteStateHelper satelliteStateHelper;
+    private final EventBroker eventBroker;
+
+    @Inject
+    public DrbdVolumeStatsEventHandler(
+        SatelliteStateHelper satelliteStateHelperRef,
+        EventBroker eventBrokerRef
+    )
+    {
+        satelliteStateHelper = satelliteStateHelperRef;
+        eventBroker = eventBrokerRef;
+    }
+
+    @Override
+    public void execute(String eventAction, EventIdentifier eventIdentifier, InputStream eventDataIn)
+        throws IOException
+    {
+        if (eventAction.equals(ApiConsts.EVENT_STREAM_OPEN) || eventAction.equals(ApiConsts.EVENT_STREAM_VALUE))
+        {
+            // The statistics are sent as a sequence of delimited key/value entries
+            Map<String, String> drbdStatsMap = new TreeMap<>();
+            LinStorMapEntryOuterClass.LinStorMapEntry entry =
+                LinStorMapEntryOuterClass.LinStorMapEntry.parseDelimitedFrom(eventDataIn);
+            while (entry != null)
+            {
+                drbdStatsMap.put(entry.getKey(), entry.getValue());
+                entry = LinStorMapEntryOuterClass.LinStorMapEntry.parseDelimitedFrom(eventDataIn);
+            }
+            DrbdVolumeStats drbdStats = DrbdVolumeStats.fromMap(drbdStatsMap);
+
+            satelliteStateHelper.onSatelliteState(
+                eventIdentifier.getNodeName(),
+                satelliteState -> satelliteState.setOnVolume(
+                    eventIdentifier.getResourceName(),
+                    eventIdentifier.getVolumeNumber(),
+                    SatelliteVolumeState::setDrbdStats,
+                    drbdStats
+                )
+            );
+        }
+        else
+        {
+            satelliteStateHelper.onSatelliteState(
+                eventIdentifier.getNodeName(),
+                satelliteState -> satelliteState.unsetOnVolume(
+                    eventIdentifier.getResourceName(),
+                    eventIdentifier.getVolumeNumber(),
+                    SatelliteVolumeState::setDrbdStats
+                )
+            );
+        }
+
+        eventBroker.forwardEvent(eventIdentifier, eventAction);
+    }
+}
@@ -1,7 +1,7 @@
 package com.linbit.linstor.event.handler.protobuf.controller;
 
 import com.linbit.linstor.api.ApiConsts;
-import com.linbit.linstor.event.EventBroker;
+import com.linbit.linstor.event.EventDebouncer;
 import com.linbit.linstor.event.EventIdentifier;
 import com.linbit.linstor.event.generator.SatelliteStateHelper;
 import com.linbit.linstor.event.handler.EventHandler;
@@ -20,17 +20,17 @@ import java.io.InputStream;
 public class ResourceStateEventHandler implements EventHandler
 {
     private final SatelliteStateHelper satelliteStateHelper;
-    private final EventBroker eventBroker;
+    private final EventDebouncer eventDebouncer;
     private final ResourceDefinitionEventStreamTracker resourceDefinitionEventStreamTracker;
 
     @Inject
     public ResourceStateEventHandler(
-        SatelliteStateHelper satelliteStateHelperRef, EventBroker eventBrokerRef,
+        SatelliteStateHelper satelliteStateHelperRef, EventDebouncer eventDebouncerRef,
         ResourceDefinitionEventStreamTracker resourceDefinitionEventStreamTrackerRef
     )
     {
         satelliteStateHelper = satelliteStateHelperRef;
-        eventBroker = eventBrokerRef;
+        eventDebouncer = eventDebouncerRef;
         resourceDefinitionEventStreamTracker = resourceDefinitionEventStreamTrackerRef;
     }
 
@@ -80,7 +80,8 @@ public class ResourceStateEventHandler implements EventHandler
             );
         }
 
-        eventBroker.forwardEvent(eventIdentifier, eventAction);
+        // Forwarded to the clients once the state has settled
+        eventDebouncer.forwardEvent(eventIdentifier, eventAction);
 
         resourceDefinitionEventStreamTracker.resourceEventReceived(eventIdentifier, eventAction);
     }
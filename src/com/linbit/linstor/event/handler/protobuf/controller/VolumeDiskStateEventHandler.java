@@ -1,7 +1,7 @@
 package com.linbit.linstor.event.handler.protobuf.controller;
 
 import com.linbit.linstor.api.ApiConsts;
-import com.linbit.linstor.event.EventBroker;
+import com.linbit.linstor.event.EventDebouncer;
 import com.linbit.linstor.event.EventIdentifier;
 import com.linbit.linstor.event.generator.SatelliteStateHelper;
 import com.linbit.linstor.event.handler.EventHandler;
@@ -19,16 +19,16 @@ import java.io.InputStream;
 public class VolumeDiskStateEventHandler implements EventHandler
 {
     private final SatelliteStateHelper satelliteStateHelper;
-    private final EventBroker eventBroker;
+    private final EventDebouncer eventDebouncer;
 
     @Inject
     public VolumeDiskStateEventHandler(
         SatelliteStateHelper satelliteStateHelperRef,
-        EventBroker eventBrokerRef
+        EventDebouncer eventDebouncerRef
     )
     {
         satelliteStateHelper = satelliteStateHelperRef;
-        eventBroker = eventBrokerRef;
+        eventDebouncer = eventDebouncerRef;
     }
 
     @Override
@@ -62,6 +62,7 @@ public class VolumeDiskStateEventHandler implements EventHandler
             );
         }
 
-        eventBroker.forwardEvent(eventIdentifier, eventAction);
+        // Forwarded to the clients once the state has settled
+        eventDebouncer.forwardEvent(eventIdentifier, eventAction);
     }
 }
@@ -0,0 +1,79 @@
+package com.linbit.linstor.event.handler.protobuf.controller;
+
+import com.linbit.linstor.InternalApiConsts;
+import com.linbit.linstor.api.ApiConsts;
+import com.linbit.linstor.core.VolumeIoStats;
+import com.linbit.linstor.event.EventBroker;
+import com.linbit.linstor.event.EventIdentifier;
+import com.linbit.linstor.event.generator.SatelliteStateHelper;
+import com.linbit.linstor.event.handler.EventHandler;
+import com.linbit.linstor.event.handler.protobuf.ProtobufEventHandler;
+import com.linbit.linstor.proto.LinStorMapEntryOuterClass;
+import com.linbit.linstor.satellitestate.SatelliteVolumeState;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.TreeMap;
+
+@ProtobufEventHandler(
+    eventName = InternalApiConsts.EVENT_VOLUME_IO_STATS
+)
+public class VolumeIoStatsEventHandler implements EventHandler
+{
+    private final SatelliteStateHelper satelliteStateHelper;
+    private final EventBroker eventBroker;
+
+    @Inject
+    public VolumeIoStatsEventHandler(
+        SatelliteStateHelper satelliteStateHelperRef,
+        EventBroker eventBrokerRef
+    )
+    {
+        satelliteStateHelper = satelliteStateHelperRef;
+        eventBroker = eventBrokerRef;
+    }
+
+    @Override
+    public void execute(String eventAction, EventIdentifier eventIdentifier, InputStream eventDataIn)
+        throws IOException
+    {
+        if (eventAction.equals(ApiConsts.EVENT_STREAM_OPEN) || eventAction.equals(ApiConsts.EVENT_STREAM_VALUE))
+        {
+            // The statistics are sent as a sequence of delimited key/value entries
+            Map<String, String> ioStatsMap = new TreeMap<>();
+            LinStorMapEntryOuterClass.LinStorMapEntry entry =
+                LinStorMapEntryOuterClass.LinStorMapEntry.parseDelimitedFrom(eventDataIn);
+            while (entry != null)
+            {
+                ioStatsMap.put(entry.getKey(), entry.getValue());
+                entry = LinStorMapEntryOuterClass.LinStorMapEntry.parseDelimitedFrom(eventDataIn);
+            }
+            VolumeIoStats ioStats = VolumeIoStats.fromMap(ioStatsMap);
+
+            satelliteStateHelper.onSatelliteState(
+                eventIdentifier.getNodeName(),
+                satelliteState -> satelliteState.setOnVolume(
+                    eventIdentifier.getResourceName(),
+                    eventIdentifier.getVolumeNumber(),
+                    SatelliteVolumeState::setIoStats,
+                    ioStats
+                )
+            );
+        }
+        else
+        {
+            satelliteStateHelper.onSatelliteState(
+                eventIdentifier.getNodeName(),
+                satelliteState -> satelliteState.unsetOnVolume(
+                    eventIdentifier.getResourceName(),
+                    eventIdentifier.getVolumeNumber(),
+                    SatelliteVolumeState::setIoStats
+                )
+            );
+        }
+
+        eventBroker.forwardEvent(eventIdentifier, eventAction);
+    }
+}
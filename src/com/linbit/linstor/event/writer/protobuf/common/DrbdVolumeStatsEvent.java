@@ -0,0 +1,43 @@
+package com.linbit.linstor.event.writer.protobuf.common;
+
+import com.linbit.linstor.InternalApiConsts;
+import com.linbit.linstor.api.interfaces.serializer.CommonSerializer;
+import com.linbit.linstor.core.DrbdVolumeStats;
+import com.linbit.linstor.event.ObjectIdentifier;
+import com.linbit.linstor.event.WatchableObject;
+import com.linbit.linstor.event.generator.DrbdVolumeStatsGenerator;
+import com.linbit.linstor.event.writer.EventWriter;
+import com.linbit.linstor.event.writer.protobuf.ProtobufEventWriter;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+@ProtobufEventWriter(
+    eventName = InternalApiConsts.EVENT_DRBD_VOLUME_STATS,
+    objectType = WatchableObject.VOLUME
+)
+@Singleton
+public class DrbdVolumeStatsEvent implements EventWriter
+{
+    private final CommonSerializer commonSerializer;
+    private final DrbdVolumeStatsGenerator drbdVolumeStatsGenerator;
+
+    @Inject
+    public DrbdVolumeStatsEvent(
+        CommonSerializer commonSerializerRef,
+        DrbdVolumeStatsGenerator drbdVolumeStatsGeneratorRef
+    )
+    {
+        commonSerializer = commonSerializerRef;
+        drbdVolumeStatsGenerator = drbdVolumeStatsGeneratorRef;
+    }
+
+    @Override
+    public byte[] writeEvent(ObjectIdentifier objectIdentifier)
+        throws Exception
+    {
+        DrbdVolumeStats drbdStats = drbdVolumeStatsGenerator.generate(objectIdentifier);
+
+        return drbdStats == null ? null : commonSerializer.builder().drbdVolumeStats(drbdStats).build();
+    }
+}
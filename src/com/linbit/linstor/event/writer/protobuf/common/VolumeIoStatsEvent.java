@@ -0,0 +1,43 @@
+package com.linbit.linstor.event.writer.protobuf.common;
+
+import com.linbit.linstor.InternalApiConsts;
+import com.linbit.linstor.api.interfaces.serializer.CommonSerializer;
+import com.linbit.linstor.core.VolumeIoStats;
+import com.linbit.linstor.event.ObjectIdentifier;
+import com.linbit.linstor.event.WatchableObject;
+import com.linbit.linstor.event.generator.VolumeIoStatsGenerator;
+import com.linbit.linstor.event.writer.EventWriter;
+import com.linbit.linstor.event.writer.protobuf.ProtobufEventWriter;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+@ProtobufEventWriter(
+    eventName = InternalApiConsts.EVENT_VOLUME_IO_STATS,
+    objectType = WatchableObject.VOLUME
+)
+@Singleton
+public class VolumeIoStatsEvent implements EventWriter
+{
+    private final CommonSerializer commonSerializer;
+    private final VolumeIoStatsGenerator volumeIoStatsGenerator;
+
+    @Inject
+    public VolumeIoStatsEvent(
+        CommonSerializer commonSerializerRef,
+        VolumeIoStatsGenerator volumeIoStatsGeneratorRef
+    )
+    {
+        commonSerializer = commonSerializerRef;
+        volumeIoStatsGenerator = volumeIoStatsGeneratorRef;
+    }
+
+    @Override
+    public byte[] writeEvent(ObjectIdentifier objectIdentifier)
+        throws Exception
+    {
+        VolumeIoStats ioStats = volumeIoStatsGenerator.generate(objectIdentifier);
+
+        return ioStats == null ? null : commonSerializer.builder().volumeIoStats(ioStats).build();
+    }
+}
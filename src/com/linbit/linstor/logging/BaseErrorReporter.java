@@ -13,7 +13,10 @@ import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 
 public abstract class BaseErrorReporter
 {
@@ -28,6 +31,8 @@ public abstract class BaseErrorReporter
 
     protected final boolean printStackTraces;
 
+    private final List<ReportSection> reportSections = new CopyOnWriteArrayList<>();
+
 
     // Unique instance ID of this error reporter instance
     // The linstor server would typically create one instance of the error reporter upon startup,
@@ -85,6 +90,30 @@ public abstract class BaseErrorReporter
         return logMsg;
     }
 
+    public void addReportSection(String title, Supplier<String> contentSupplier)
+    {
+        reportSections.add(new ReportSection(title, contentSupplier));
+    }
+
+    void reportSections(PrintStream output)
+    {
+        for (ReportSection section : reportSections)
+        {
+            String content;
+            try
+            {
+                content = section.contentSupplier.get();
+            }
+            catch (Exception exc)
+            {
+                content = "The content of this section is not available: " + exc;
+            }
+            output.println(section.title + ":");
+            AutoIndent.printWithIndent(output, AutoIndent.DEFAULT_INDENTATION, content);
+            output.println();
+        }
+    }
+
     void reportAccessContext(PrintStream output, AccessContext accCtx)
     {
         output.println("Access context information\n");
@@ -403,4 +432,16 @@ public abstract class BaseErrorReporter
             output.println();
         }
     }
+
+    private static class ReportSection
+    {
+        private final String title;
+        private final Supplier<String> contentSupplier;
+
+        ReportSection(String titleRef, Supplier<String> contentSupplierRef)
+        {
+            title = titleRef;
+            contentSupplier = contentSupplierRef;
+        }
+    }
 }
@@ -2,6 +2,8 @@ package com.linbit.linstor.logging;
 
 import org.slf4j.event.Level;
 
+import java.util.function.Supplier;
+
 import com.linbit.linstor.LinStorException;
 import com.linbit.linstor.netcom.Peer;
 import com.linbit.linstor.security.AccessContext;
@@ -39,6 +41,18 @@ public interface ErrorReporter
     void logWarning(String format, Object... args);
     void logError(String format, Object... args);
 
+    /**
+     * Adds a section that is included in all following error reports, e.g. statistics that help with
+     * analyzing errors
+     *
+     * @param title The title of the section
+     * @param contentSupplier Generates the content of the section whenever a report is written
+     */
+    default void addReportSection(String title, Supplier<String> contentSupplier)
+    {
+        // Reports of this implementation do not contain additional sections
+    }
+
     /**
      * Returns the instance ID of the error reporter instance
      *
@@ -179,6 +179,8 @@ public final class StdErrorReporter extends BaseErrorReporter implements ErrorRe
                 ++loopCtr;
             }
 
+            reportSections(output);
+
             output.println("\nEND OF ERROR REPORT.");
 
             switch (logLevel)
@@ -355,6 +357,8 @@ public final class StdErrorReporter extends BaseErrorReporter implements ErrorRe
                         break;
                 }
 
+                reportSections(output);
+
                 output.println("\nEND OF ERROR REPORT.\n");
             }
         }
@@ -0,0 +1,273 @@
+package com.linbit.linstor.propscon;
+
+import com.linbit.linstor.dbdrivers.derby.DbConstants;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stores all properties of a {@link PropsContainer} instance in a single row
+ *
+ * The properties are encoded in a compact binary format. The keys are sorted and only the part of each key
+ * that differs from the previous key is stored, because the keys of an instance usually share long prefixes.
+ *
+ * <pre>
+ * format version    byte
+ * entry count       varint
+ * per entry:
+ *   shared prefix   varint, number of characters shared with the previous key
+ *   key suffix      varint length, UTF-8 bytes
+ *   value           varint length, UTF-8 bytes
+ * </pre>
+ */
+public final class CompactPropsStorage
+{
+    public static final byte FORMAT_VERSION = 1;
+
+    private static final String TBL_PROPS = DbConstants.TBL_PROPS_CONTAINERS_COMPACT;
+    private static final String COL_INSTANCE = DbConstants.PROPS_INSTANCE;
+    private static final String COL_DATA = DbConstants.PROPS_DATA;
+
+    private static final String SELECT_PROPS_BY_INSTANCE =
+        " SELECT " + COL_DATA + "\n" +
+        " FROM " + TBL_PROPS + "\n" +
+        " WHERE " + COL_INSTANCE + " = ?";
+
+    private static final String SELECT_PROPS_BY_INSTANCE_FOR_UPDATE =
+        SELECT_PROPS_BY_INSTANCE + "\n" +
+        " FOR UPDATE";
+
+    private static final String SELECT_ALL_PROPS =
+        " SELECT " + COL_INSTANCE + ", " + COL_DATA + "\n" +
+        " FROM " + TBL_PROPS;
+
+    private static final String UPDATE_PROPS =
+        " UPDATE " + TBL_PROPS + "\n" +
+        " SET " + COL_DATA + " = ?\n" +
+        " WHERE " + COL_INSTANCE + " = ?";
+
+    private static final String INSERT_PROPS =
+        " INSERT INTO " + TBL_PROPS + "\n" +
+        " (" + COL_INSTANCE + ", " + COL_DATA + ")\n" +
+        " VALUES (?, ?)";
+
+    private static final String DELETE_PROPS =
+        " DELETE FROM " + TBL_PROPS + "\n" +
+        " WHERE " + COL_INSTANCE + " = ?";
+
+    private static final int VARINT_DATA_BITS = 7;
+    private static final int VARINT_DATA_MASK = 0x7F;
+    private static final int VARINT_CONTINUE = 0x80;
+
+    /**
+     * Returns the properties of the given instance, or an empty map if the instance has no properties
+     */
+    public static Map<String, String> read(Connection dbCon, String instanceName)
+        throws SQLException
+    {
+        return read(dbCon, instanceName, SELECT_PROPS_BY_INSTANCE);
+    }
+
+    /**
+     * Like {@link #read(Connection, String)}, but locks the row of the instance until the end of the current
+     * transaction, so that the properties can be changed and written back without losing concurrent changes.
+     * If the instance has no row yet, a concurrent insert of the row fails instead.
+     */
+    public static Map<String, String> readForUpdate(Connection dbCon, String instanceName)
+        throws SQLException
+    {
+        return read(dbCon, instanceName, SELECT_PROPS_BY_INSTANCE_FOR_UPDATE);
+    }
+
+    private static Map<String, String> read(Connection dbCon, String instanceName, String query)
+        throws SQLException
+    {
+        Map<String, String> props;
+        try (PreparedStatement stmt = dbCon.prepareStatement(query))
+        {
+            stmt.setString(1, instanceName);
+            try (ResultSet resultSet = stmt.executeQuery())
+            {
+                props = resultSet.next() ? decode(resultSet.getBytes(1)) : new TreeMap<>();
+            }
+        }
+        return props;
+    }
+
+    /**
+     * Returns the properties of all instances, grouped by instance name
+     */
+    public static Map<String, Map<String, String>> readAll(Connection dbCon)
+        throws SQLException
+    {
+        Map<String, Map<String, String>> props = new HashMap<>();
+        try (
+            PreparedStatement stmt = dbCon.prepareStatement(SELECT_ALL_PROPS);
+            ResultSet resultSet = stmt.executeQuery()
+        )
+        {
+            while (resultSet.next())
+            {
+                props.put(resultSet.getString(1), decode(resultSet.getBytes(2)));
+            }
+        }
+        return props;
+    }
+
+    /**
+     * Replaces the properties of the given instance. The row of the instance is deleted if there are no
+     * properties.
+     */
+    @SuppressWarnings("checkstyle:magicnumber")
+    public static void write(Connection dbCon, String instanceName, Map<String, String> props)
+        throws SQLException
+    {
+        if (props.isEmpty())
+        {
+            try (PreparedStatement stmt = dbCon.prepareStatement(DELETE_PROPS))
+            {
+                stmt.setString(1, instanceName);
+                stmt.executeUpdate();
+            }
+        }
+        else
+        {
+            byte[] data = encode(props);
+            int updatedRows;
+            try (PreparedStatement stmt = dbCon.prepareStatement(UPDATE_PROPS))
+            {
+                stmt.setBytes(1, data);
+                stmt.setString(2, instanceName);
+                updatedRows = stmt.executeUpdate();
+            }
+            if (updatedRows == 0)
+            {
+                try (PreparedStatement stmt = dbCon.prepareStatement(INSERT_PROPS))
+                {
+                    stmt.setString(1, instanceName);
+                    stmt.setBytes(2, data);
+                    stmt.executeUpdate();
+                }
+            }
+        }
+    }
+
+    public static byte[] encode(Map<String, String> props)
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(FORMAT_VERSION);
+        writeVarint(out, props.size());
+        String prevKey = "";
+        for (Map.Entry<String, String> entry : new TreeMap<>(props).entrySet())
+        {
+            String key = entry.getKey();
+            int prefixLength = sharedPrefixLength(prevKey, key);
+            writeVarint(out, prefixLength);
+            writeString(out, key.substring(prefixLength));
+            writeString(out, entry.getValue());
+            prevKey = key;
+        }
+        return out.toByteArray();
+    }
+
+    public static Map<String, String> decode(byte[] data)
+        throws SQLException
+    {
+        Map<String, String> props = new TreeMap<>();
+        try
+        {
+            ByteBuffer in = ByteBuffer.wrap(data);
+            byte formatVersion = in.get();
+            if (formatVersion != FORMAT_VERSION)
+            {
+                throw new SQLException("Unknown format version " + formatVersion + " of compact properties");
+            }
+            int count = readVarint(in);
+            String prevKey = "";
+            for (int idx = 0; idx < count; ++idx)
+            {
+                int prefixLength = readVarint(in);
+                String key = prevKey.substring(0, prefixLength) + readString(in);
+                props.put(key, readString(in));
+                prevKey = key;
+            }
+        }
+        catch (RuntimeException exc)
+        {
+            throw new SQLException("Invalid compact properties data", exc);
+        }
+        return props;
+    }
+
+    private static int sharedPrefixLength(String prevKey, String key)
+    {
+        int maxLength = Math.min(prevKey.length(), key.length());
+        int length = 0;
+        while (length < maxLength && prevKey.charAt(length) == key.charAt(length))
+        {
+            ++length;
+        }
+        // Do not split a surrogate pair, the suffix must be valid UTF-16
+        if (length > 0 && Character.isHighSurrogate(key.charAt(length - 1)))
+        {
+            --length;
+        }
+        return length;
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String str)
+    {
+        byte[] data = str.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, data.length);
+        out.write(data, 0, data.length);
+    }
+
+    private static String readString(ByteBuffer in)
+    {
+        byte[] data = new byte[readVarint(in)];
+        in.get(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value)
+    {
+        int remaining = value;
+        while ((remaining & ~VARINT_DATA_MASK) != 0)
+        {
+            out.write((remaining & VARINT_DATA_MASK) | VARINT_CONTINUE);
+            remaining >>>= VARINT_DATA_BITS;
+        }
+        out.write(remaining);
+    }
+
+    private static int readVarint(ByteBuffer in)
+    {
+        int value = 0;
+        int shift = 0;
+        byte current;
+        do
+        {
+            if (shift >= Integer.SIZE)
+            {
+                throw new IllegalArgumentException("Varint too long");
+            }
+            current = in.get();
+            value |= (current & VARINT_DATA_MASK) << shift;
+            shift += VARINT_DATA_BITS;
+        }
+        while ((current & VARINT_CONTINUE) != 0);
+        return value;
+    }
+
+    private CompactPropsStorage()
+    {
+    }
+}
@@ -1,8 +1,11 @@
 package com.linbit.linstor.propscon;
 
+import com.linbit.linstor.dbcp.DbConnectionPool;
+import com.linbit.linstor.dbdrivers.DatabaseDriverInfo;
 import com.linbit.linstor.dbdrivers.derby.DbConstants;
 import com.linbit.linstor.dbdrivers.interfaces.PropsConDatabaseDriver;
 import com.linbit.linstor.logging.ErrorReporter;
+import com.linbit.linstor.transaction.TransactionBatch;
 import com.linbit.linstor.transaction.TransactionMgr;
 
 import javax.inject.Inject;
@@ -13,6 +16,10 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -26,18 +33,20 @@ public class PropsConGenericDbDriver implements PropsConDatabaseDriver
     private static final String COL_KEY = DbConstants.PROP_KEY;
     private static final String COL_VALUE = DbConstants.PROP_VALUE;
 
-    private static final String SELECT_ENTRY_FOR_UPDATE =
-        " SELECT " + COL_INSTANCE + ", " + COL_KEY + ", " + COL_VALUE + "\n" +
-        " FROM " + TBL_PROP + "\n" +
-        " WHERE " + COL_INSTANCE + " = ? AND \n" +
-        "       " + COL_KEY +      " = ? \n" +
-        " FOR UPDATE";
+    private static final String INSERT_ENTRY =
+        " INSERT INTO " + TBL_PROP + "\n" +
+        " (" + COL_INSTANCE + ", " + COL_KEY + ", " + COL_VALUE + ")\n" +
+        " VALUES (?, ?, ?)";
 
     private static final String SELECT_ALL_ENTRIES_BY_INSTANCE =
         " SELECT " + COL_KEY + ", " + COL_VALUE + "\n" +
         " FROM " + TBL_PROP + "\n" +
         " WHERE " + COL_INSTANCE + " = ?";
 
+    private static final String SELECT_ALL_ENTRIES =
+        " SELECT " + COL_INSTANCE + ", " + COL_KEY + ", " + COL_VALUE + "\n" +
+        " FROM " + TBL_PROP;
+
     private static final String REMOVE_ENTRY =
         " DELETE FROM " + TBL_PROP + "\n" +
         "    WHERE " + COL_INSTANCE + " = ? \n" +
@@ -50,22 +59,48 @@ public class PropsConGenericDbDriver implements PropsConDatabaseDriver
     private final ErrorReporter errorReporter;
     private final Provider<TransactionMgr> transMgrProvider;
 
+    // Native upsert statement of the database, or null if the properties are written by
+    // deleting and inserting the entries
+    private final String upsertEntry;
+
+    // If true, all properties of an instance are stored in a single row, see CompactPropsStorage
+    private final boolean compact;
+
+    // All properties, grouped by instance name, while a preload is active.
+    // Any modification of the table discards the preloaded properties.
+    private volatile Map<String, Map<String, String>> preloadedProps;
+
     @Inject
     public PropsConGenericDbDriver(
         ErrorReporter errorReporterRef,
-        Provider<TransactionMgr> transMgrProviderRef
+        Provider<TransactionMgr> transMgrProviderRef,
+        DbConnectionPool dbConnPoolRef
     )
     {
         errorReporter = errorReporterRef;
         transMgrProvider = transMgrProviderRef;
+
+        DatabaseDriverInfo databaseInfo = dbConnPoolRef.getDatabaseInfo();
+        upsertEntry = databaseInfo == null ? null : databaseInfo.upsertStatement(
+            TBL_PROP,
+            Arrays.asList(COL_INSTANCE, COL_KEY),
+            Collections.singletonList(COL_VALUE)
+        );
+        compact = dbConnPoolRef.isCompactProps();
     }
 
+    /**
+     * The property is written to the database when the transaction is committed
+     */
     @Override
     public void persist(String instanceName, String key, String value) throws SQLException
     {
         persistImpl(instanceName, key, value);
     }
 
+    /**
+     * The properties are written to the database when the transaction is committed
+     */
     @Override
     public void persist(String instanceName, Map<String, String> props) throws SQLException
     {
@@ -75,53 +110,41 @@ public class PropsConGenericDbDriver implements PropsConDatabaseDriver
         }
     }
 
-    @SuppressWarnings("checkstyle:magicnumber")
-    private void persistImpl(String instanceName, String key, String value) throws SQLException
+    private void persistImpl(String instanceName, String key, String value)
     {
         errorReporter.logTrace("Storing property %s", getId(instanceName, key, value));
-        try (
-            PreparedStatement stmt = getConnection().prepareStatement(
-                SELECT_ENTRY_FOR_UPDATE,
-                ResultSet.TYPE_SCROLL_SENSITIVE,
-                ResultSet.CONCUR_UPDATABLE
-            )
-        )
+        clearPreload();
+        if (compact)
         {
-            String instanceUpper = instanceName.toUpperCase();
-            stmt.setString(1, instanceUpper);
-            stmt.setString(2, key);
-
-            try (ResultSet resultSet = stmt.executeQuery())
-            {
-                if (resultSet.next())
-                {
-                    resultSet.updateString(3, value);
-                    resultSet.updateRow();
-                }
-                else
-                {
-                    resultSet.moveToInsertRow();
-                    resultSet.updateString(1, instanceUpper);
-                    resultSet.updateString(2, key);
-                    resultSet.updateString(3, value);
-                    resultSet.insertRow();
-                }
-            }
+            getCompactBatch().put(instanceName.toUpperCase(), key, value);
+        }
+        else
+        {
+            getBatch().put(instanceName.toUpperCase(), key, value);
         }
-        errorReporter.logTrace("Property stored %s", getId(instanceName, key, value));
+        errorReporter.logTrace("Property queued for commit %s", getId(instanceName, key, value));
     }
 
     @Override
     public void remove(String instanceName, String key) throws SQLException
     {
         errorReporter.logTrace("Removing property %s", getId(instanceName, key));
+        clearPreload();
 
-        try (PreparedStatement stmt = getConnection().prepareStatement(REMOVE_ENTRY))
+        if (compact)
         {
-            stmt.setString(1, instanceName.toUpperCase());
-            stmt.setString(2, key);
+            getCompactBatch().remove(instanceName.toUpperCase(), key);
+        }
+        else
+        {
+            getBatch().remove(instanceName.toUpperCase(), key);
+            try (PreparedStatement stmt = getConnection().prepareStatement(REMOVE_ENTRY))
+            {
+                stmt.setString(1, instanceName.toUpperCase());
+                stmt.setString(2, key);
 
-            stmt.executeUpdate();
+                stmt.executeUpdate();
+            }
         }
 
         errorReporter.logTrace("Property removed %s", getId(instanceName, key));
@@ -129,6 +152,23 @@ public class PropsConGenericDbDriver implements PropsConDatabaseDriver
 
     @Override
     public void remove(String instanceName, Set<String> keys) throws SQLException
+    {
+        clearPreload();
+        if (compact)
+        {
+            for (String key : keys)
+            {
+                errorReporter.logTrace("Removing property %s", getId(instanceName, key));
+                getCompactBatch().remove(instanceName.toUpperCase(), key);
+            }
+        }
+        else
+        {
+            removeRows(instanceName, keys);
+        }
+    }
+
+    private void removeRows(String instanceName, Set<String> keys) throws SQLException
     {
         try (PreparedStatement stmt = getConnection().prepareStatement(REMOVE_ENTRY))
         {
@@ -137,6 +177,8 @@ public class PropsConGenericDbDriver implements PropsConDatabaseDriver
             {
                 errorReporter.logTrace("Removing property %s", getId(instanceName, key));
 
+                getBatch().remove(instanceName.toUpperCase(), key);
+
                 stmt.setString(2, key);
                 stmt.executeUpdate();
 
@@ -149,21 +191,31 @@ public class PropsConGenericDbDriver implements PropsConDatabaseDriver
     public void removeAll(String instanceName) throws SQLException
     {
         errorReporter.logTrace("Removing all properties by instance %s", getId(instanceName));
+        clearPreload();
 
-        int rowsUpdated;
-        try (
-            PreparedStatement stmt = getConnection()
-                .prepareStatement(REMOVE_ALL_ENTRIES)
-        )
+        if (compact)
         {
-            stmt.setString(1, instanceName.toUpperCase());
-            rowsUpdated = stmt.executeUpdate();
+            getCompactBatch().removeAll(instanceName.toUpperCase());
+            errorReporter.logTrace("Removed all properties by instance %s", getId(instanceName));
+        }
+        else
+        {
+            getBatch().removeAll(instanceName.toUpperCase());
+            int rowsUpdated;
+            try (
+                PreparedStatement stmt = getConnection()
+                    .prepareStatement(REMOVE_ALL_ENTRIES)
+            )
+            {
+                stmt.setString(1, instanceName.toUpperCase());
+                rowsUpdated = stmt.executeUpdate();
+            }
+            errorReporter.logTrace(
+                "Removed all (%d) properties by instance %s",
+                rowsUpdated,
+                getId(instanceName)
+            );
         }
-        errorReporter.logTrace(
-            "Removed all (%d) properties by instance %s",
-            rowsUpdated,
-            getId(instanceName)
-        );
     }
 
     @Override
@@ -171,22 +223,49 @@ public class PropsConGenericDbDriver implements PropsConDatabaseDriver
     {
         errorReporter.logTrace("Loading properties for instance %s", getId(instanceName));
         Map<String, String> ret = new TreeMap<>();
-        Connection connection = getConnection();
-        try (PreparedStatement stmt = connection.prepareStatement(SELECT_ALL_ENTRIES_BY_INSTANCE))
+        Map<String, Map<String, String>> props = preloadedProps;
+        if (props != null)
         {
-            stmt.setString(1, instanceName.toUpperCase());
-
-            try (ResultSet resultSet = stmt.executeQuery())
+            Map<String, String> instanceProps = props.get(instanceName.toUpperCase());
+            if (instanceProps != null)
             {
-                while (resultSet.next())
+                ret.putAll(instanceProps);
+            }
+        }
+        else
+        if (compact)
+        {
+            ret.putAll(CompactPropsStorage.read(getConnection(), instanceName.toUpperCase()));
+        }
+        else
+        {
+            Connection connection = getConnection();
+            try (PreparedStatement stmt = connection.prepareStatement(SELECT_ALL_ENTRIES_BY_INSTANCE))
+            {
+                stmt.setString(1, instanceName.toUpperCase());
+
+                try (ResultSet resultSet = stmt.executeQuery())
                 {
-                    String key = resultSet.getString(1);
-                    String value = resultSet.getString(2);
+                    while (resultSet.next())
+                    {
+                        String key = resultSet.getString(1);
+                        String value = resultSet.getString(2);
 
-                    ret.put(key, value);
+                        ret.put(key, value);
+                    }
                 }
             }
         }
+        // properties that were changed in the current transaction are not written to the database yet
+        if (compact)
+        {
+            getCompactBatch().applyTo(instanceName.toUpperCase(), ret);
+        }
+        else
+        {
+            ret.putAll(getBatch().get(instanceName.toUpperCase()));
+        }
+
         errorReporter.logTrace(
             "Loaded all (%d) properties for instance %s",
             ret.size(),
@@ -195,11 +274,66 @@ public class PropsConGenericDbDriver implements PropsConDatabaseDriver
         return ret;
     }
 
+    /**
+     * Reads the whole properties table once and keeps the properties in memory until {@link #clearPreload()}
+     * is called, so that restoring many objects does not query the table once per instance
+     */
+    @SuppressWarnings("checkstyle:magicnumber")
+    public void preloadAll() throws SQLException
+    {
+        errorReporter.logTrace("Preloading all properties");
+        Map<String, Map<String, String>> props;
+        int propCount = 0;
+        if (compact)
+        {
+            props = CompactPropsStorage.readAll(getConnection());
+            for (Map<String, String> instanceProps : props.values())
+            {
+                propCount += instanceProps.size();
+            }
+        }
+        else
+        {
+            props = new HashMap<>();
+            try (
+                PreparedStatement stmt = getConnection().prepareStatement(SELECT_ALL_ENTRIES);
+                ResultSet resultSet = stmt.executeQuery()
+            )
+            {
+                while (resultSet.next())
+                {
+                    props.computeIfAbsent(resultSet.getString(1), ignored -> new HashMap<>())
+                        .put(resultSet.getString(2), resultSet.getString(3));
+                    ++propCount;
+                }
+            }
+        }
+        preloadedProps = props;
+        errorReporter.logTrace("Preloaded %d properties of %d instances", propCount, props.size());
+    }
+
+    /**
+     * Discards the properties read by {@link #preloadAll()}. Subsequent loads query the database again.
+     */
+    public void clearPreload()
+    {
+        preloadedProps = null;
+    }
+
     private Connection getConnection()
     {
         return transMgrProvider.get().getConnection();
     }
 
+    private PropsBatch getBatch()
+    {
+        return transMgrProvider.get().getBatch(PropsBatch.class, PropsBatch::new);
+    }
+
+    private CompactPropsBatch getCompactBatch()
+    {
+        return transMgrProvider.get().getBatch(CompactPropsBatch.class, CompactPropsBatch::new);
+    }
 
     private String getId(String instanceName)
     {
@@ -215,4 +349,182 @@ public class PropsConGenericDbDriver implements PropsConDatabaseDriver
     {
         return "(InstanceName=" + instanceName + " Key=" + key + " Value=" + value + ")";
     }
+
+    /**
+     * Properties that were set during a transaction, grouped by instance name. Only the last value set for a key
+     * is written. Removing properties is not deferred, but discards the pending values of the removed keys.
+     */
+    private class PropsBatch implements TransactionBatch
+    {
+        private final Map<String, Map<String, String>> pendingProps = new TreeMap<>();
+
+        void put(String instanceName, String key, String value)
+        {
+            pendingProps.computeIfAbsent(instanceName, ignored -> new TreeMap<>()).put(key, value);
+        }
+
+        void remove(String instanceName, String key)
+        {
+            Map<String, String> instanceProps = pendingProps.get(instanceName);
+            if (instanceProps != null)
+            {
+                instanceProps.remove(key);
+            }
+        }
+
+        void removeAll(String instanceName)
+        {
+            pendingProps.remove(instanceName);
+        }
+
+        Map<String, String> get(String instanceName)
+        {
+            return pendingProps.getOrDefault(instanceName, Collections.emptyMap());
+        }
+
+        @Override
+        public void flush(Connection dbCon) throws SQLException
+        {
+            pendingProps.values().removeIf(Map::isEmpty);
+            if (!pendingProps.isEmpty())
+            {
+                int propCount;
+                if (upsertEntry != null)
+                {
+                    propCount = flushUpsert(dbCon);
+                }
+                else
+                {
+                    propCount = flushReplace(dbCon);
+                }
+                pendingProps.clear();
+                errorReporter.logTrace("Stored %d properties", propCount);
+            }
+        }
+
+        @SuppressWarnings("checkstyle:magicnumber")
+        private int flushUpsert(Connection dbCon) throws SQLException
+        {
+            int propCount = 0;
+            try (PreparedStatement upsertStmt = dbCon.prepareStatement(upsertEntry))
+            {
+                for (Entry<String, Map<String, String>> instanceEntry : pendingProps.entrySet())
+                {
+                    upsertStmt.setString(1, instanceEntry.getKey());
+                    for (Entry<String, String> propEntry : instanceEntry.getValue().entrySet())
+                    {
+                        upsertStmt.setString(2, propEntry.getKey());
+                        upsertStmt.setString(3, propEntry.getValue());
+                        upsertStmt.addBatch();
+                        ++propCount;
+                    }
+                }
+                upsertStmt.executeBatch();
+            }
+            return propCount;
+        }
+
+        @SuppressWarnings("checkstyle:magicnumber")
+        private int flushReplace(Connection dbCon) throws SQLException
+        {
+            int propCount = 0;
+            try (
+                PreparedStatement deleteStmt = dbCon.prepareStatement(REMOVE_ENTRY);
+                PreparedStatement insertStmt = dbCon.prepareStatement(INSERT_ENTRY)
+            )
+            {
+                for (Entry<String, Map<String, String>> instanceEntry : pendingProps.entrySet())
+                {
+                    String instanceName = instanceEntry.getKey();
+                    deleteStmt.setString(1, instanceName);
+                    insertStmt.setString(1, instanceName);
+                    for (Entry<String, String> propEntry : instanceEntry.getValue().entrySet())
+                    {
+                        deleteStmt.setString(2, propEntry.getKey());
+                        deleteStmt.addBatch();
+
+                        insertStmt.setString(2, propEntry.getKey());
+                        insertStmt.setString(3, propEntry.getValue());
+                        insertStmt.addBatch();
+                        ++propCount;
+                    }
+                }
+                deleteStmt.executeBatch();
+                insertStmt.executeBatch();
+            }
+            return propCount;
+        }
+    }
+
+    /**
+     * Changes of properties in the compact storage format during a transaction, grouped by instance name.
+     * When the transaction is committed, the properties of each changed instance are read, changed and
+     * written back in a single row.
+     */
+    private class CompactPropsBatch implements TransactionBatch
+    {
+        // Changed properties of each instance. A null value marks a removed property.
+        private final Map<String, Map<String, String>> changedProps = new TreeMap<>();
+        private final Set<String> clearedInstances = new HashSet<>();
+
+        void put(String instanceName, String key, String value)
+        {
+            changedProps.computeIfAbsent(instanceName, ignored -> new TreeMap<>()).put(key, value);
+        }
+
+        void remove(String instanceName, String key)
+        {
+            changedProps.computeIfAbsent(instanceName, ignored -> new TreeMap<>()).put(key, null);
+        }
+
+        void removeAll(String instanceName)
+        {
+            clearedInstances.add(instanceName);
+            changedProps.put(instanceName, new TreeMap<>());
+        }
+
+        /**
+         * Applies the changes of the given instance to properties that were read from the database
+         */
+        void applyTo(String instanceName, Map<String, String> props)
+        {
+            if (clearedInstances.contains(instanceName))
+            {
+                props.clear();
+            }
+            Map<String, String> instanceChanges = changedProps.get(instanceName);
+            if (instanceChanges != null)
+            {
+                for (Entry<String, String> entry : instanceChanges.entrySet())
+                {
+                    if (entry.getValue() == null)
+                    {
+                        props.remove(entry.getKey());
+                    }
+                    else
+                    {
+                        props.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void flush(Connection dbCon) throws SQLException
+        {
+            for (String instanceName : changedProps.keySet())
+            {
+                Map<String, String> props = clearedInstances.contains(instanceName) ?
+                    new TreeMap<>() : CompactPropsStorage.readForUpdate(dbCon, instanceName);
+                applyTo(instanceName, props);
+                CompactPropsStorage.write(dbCon, instanceName, props);
+            }
+            if (!changedProps.isEmpty())
+            {
+                errorReporter.logTrace("Stored the properties of %d instances", changedProps.size());
+            }
+            changedProps.clear();
+            clearedInstances.clear();
+        }
+    }
 }
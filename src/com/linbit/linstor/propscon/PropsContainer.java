@@ -81,6 +81,9 @@ public class PropsContainer extends AbsTransactionObject implements Props
 
     protected final PropsConDatabaseDriver dbDriver;
     protected Provider<TransactionMgr> transMgrProvider;
+
+    // Values before the first change in the current transaction, only used by the root container.
+    // Allocated by the first change and released by commit or rollback.
     private Map<String, String> cachedPropMap;
 
     protected String instanceName;
@@ -106,7 +109,6 @@ public class PropsContainer extends AbsTransactionObject implements Props
 
             rootContainer = this;
             parentContainer = null;
-            cachedPropMap = new HashMap<>();
         }
         else
         {
@@ -119,7 +121,6 @@ public class PropsContainer extends AbsTransactionObject implements Props
 
             rootContainer = parent.getRoot();
             parentContainer = parent;
-            cachedPropMap = null;
         }
         propMap = new TreeMap<>();
         containerMap = new TreeMap<>();
@@ -887,7 +888,7 @@ public class PropsContainer extends AbsTransactionObject implements Props
     @Override
     public boolean isDirty()
     {
-        return !rootContainer.cachedPropMap.isEmpty();
+        return rootContainer.cachedPropMap != null;
     }
 
     @Override
@@ -898,6 +899,10 @@ public class PropsContainer extends AbsTransactionObject implements Props
 
     private void cache(String key, String value)
     {
+        if (rootContainer.cachedPropMap == null)
+        {
+            rootContainer.cachedPropMap = new HashMap<>();
+        }
         if (!rootContainer.cachedPropMap.containsKey(key))
         {
             rootContainer.cachedPropMap.put(key, value);
@@ -907,14 +912,16 @@ public class PropsContainer extends AbsTransactionObject implements Props
     @Override
     public void commitImpl()
     {
-        rootContainer.cachedPropMap.clear();
+        rootContainer.cachedPropMap = null;
     }
 
     @Override
     public void rollbackImpl()
     {
         PropsContainer root = rootContainer;
-        for (Entry<String, String> entry : root.cachedPropMap.entrySet())
+        Map<String, String> cachedProps = root.cachedPropMap == null ?
+            Collections.emptyMap() : root.cachedPropMap;
+        for (Entry<String, String> entry : cachedProps.entrySet())
         {
             String key = entry.getKey();
             String value = entry.getValue();
@@ -953,7 +960,7 @@ public class PropsContainer extends AbsTransactionObject implements Props
                 );
             }
         }
-        root.cachedPropMap.clear();
+        root.cachedPropMap = null;
     }
 
     private void dbPersist(String key, String value, String oldValue) throws SQLException
@@ -4,8 +4,11 @@ import com.linbit.linstor.ResourceName;
 import com.linbit.linstor.SnapshotName;
 import com.linbit.linstor.VolumeNumber;
 import com.linbit.linstor.core.SnapshotState;
+import com.linbit.linstor.core.VolumeIoStats;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
@@ -113,6 +116,25 @@ public class SatelliteState
         }
     }
 
+    /**
+     * @return the I/O statistics of all volumes of the satellite that reported any
+     */
+    public VolumeIoStats getTotalIoStats()
+    {
+        List<VolumeIoStats> ioStatsList = new ArrayList<>();
+        for (SatelliteResourceState resourceState : resourceStates.values())
+        {
+            for (SatelliteVolumeState volumeState : resourceState.getVolumeStates().values())
+            {
+                if (volumeState.getIoStats() != null)
+                {
+                    ioStatsList.add(volumeState.getIoStats());
+                }
+            }
+        }
+        return VolumeIoStats.sum(ioStatsList);
+    }
+
     public SnapshotState getSnapshotState(ResourceName resourceName, SnapshotName snapshotName)
     {
         return resourceStates.computeIfAbsent(resourceName, ignored -> new SatelliteResourceState())
@@ -1,9 +1,16 @@
 package com.linbit.linstor.satellitestate;
 
+import com.linbit.linstor.core.DrbdVolumeStats;
+import com.linbit.linstor.core.VolumeIoStats;
+
 public class SatelliteVolumeState
 {
     private String diskState;
 
+    private VolumeIoStats ioStats;
+
+    private DrbdVolumeStats drbdStats;
+
     public SatelliteVolumeState()
     {
     }
@@ -11,6 +18,8 @@ public class SatelliteVolumeState
     public SatelliteVolumeState(SatelliteVolumeState other)
     {
         diskState = other.diskState;
+        ioStats = other.ioStats;
+        drbdStats = other.drbdStats;
     }
 
     public String getDiskState()
@@ -23,8 +32,28 @@ public class SatelliteVolumeState
         diskState = diskStateRef;
     }
 
+    public VolumeIoStats getIoStats()
+    {
+        return ioStats;
+    }
+
+    public void setIoStats(VolumeIoStats ioStatsRef)
+    {
+        ioStats = ioStatsRef;
+    }
+
+    public DrbdVolumeStats getDrbdStats()
+    {
+        return drbdStats;
+    }
+
+    public void setDrbdStats(DrbdVolumeStats drbdStatsRef)
+    {
+        drbdStats = drbdStatsRef;
+    }
+
     public boolean isEmpty()
     {
-        return diskState == null;
+        return diskState == null && ioStats == null && drbdStats == null;
     }
 }
@@ -4,6 +4,12 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import com.linbit.InvalidNameException;
 import com.linbit.SingleColumnDatabaseDriver;
 import com.linbit.linstor.LinStorSqlRuntimeException;
@@ -69,6 +75,16 @@ public class ObjectProtectionGenericDbDriver implements ObjectProtectionDatabase
         "     LEFT JOIN " + TBL_ROLES + " AS ROLE ON OP." + OP_OWNER + " = ROLE." + ROLE_NAME +
         " WHERE " +
         "     OP." + OP_OBJECT_PATH + " = ?";
+    private static final String OP_LOAD_ALL =
+        " SELECT " +
+        "     OP." + OP_OBJECT_PATH + ", " +
+        "     OP." + OP_CREATOR + ", " +
+        "     OP." + OP_OWNER + ", " +
+        "     OP." + OP_SEC_TYPE_NAME + ", " +
+        "     ROLE." + ROLE_PRIVILEGES +
+        " FROM " +
+        "     " + TBL_OP + " AS OP " +
+        "     LEFT JOIN " + TBL_ROLES + " AS ROLE ON OP." + OP_OWNER + " = ROLE." + ROLE_NAME;
     private static final String ACL_INSERT =
         " INSERT INTO " + TBL_ACL +
         " (" + ACL_OBJECT_PATH + ", " + ACL_ROLE_NAME + ", " + ACL_ACCESS_TYPE + ")" +
@@ -89,6 +105,13 @@ public class ObjectProtectionGenericDbDriver implements ObjectProtectionDatabase
         " FROM " +
         "     " + TBL_ACL + " AS ACL " +
         " WHERE " + ACL_OBJECT_PATH + " = ?";
+    private static final String ACL_LOAD_ALL =
+        " SELECT " +
+        "     ACL." + ACL_OBJECT_PATH + ", " +
+        "     ACL." + ACL_ROLE_NAME + ", " +
+        "     ACL." + ACL_ACCESS_TYPE +
+        " FROM " +
+        "     " + TBL_ACL + " AS ACL ";
     private static final String ACL_DELETE_ALL =
         " DELETE FROM " + TBL_ACL + " WHERE " + ACL_OBJECT_PATH + " = ?";
 
@@ -100,6 +123,11 @@ public class ObjectProtectionGenericDbDriver implements ObjectProtectionDatabase
     private TransactionObjectFactory transObjFactory;
     private final Provider<TransactionMgr> transMgrProvider;
 
+    // Rows of the object protection and ACL tables, grouped by object path, while a preload is active.
+    // Any modification of the tables discards the preloaded rows.
+    private volatile Map<String, OpRow> preloadedOps;
+    private volatile Map<String, List<AclRow>> preloadedAcls;
+
     @Inject
     public ObjectProtectionGenericDbDriver(
         @SystemContext AccessContext accCtx,
@@ -122,6 +150,7 @@ public class ObjectProtectionGenericDbDriver implements ObjectProtectionDatabase
     public void insertOp(ObjectProtection objProt) throws SQLException
     {
         errorReporter.logTrace("Creating ObjectProtection %s", getObjProtId(objProt.getObjectProtectionPath()));
+        clearPreload();
         try (PreparedStatement stmt = getConnection().prepareStatement(OP_INSERT))
         {
             stmt.setString(1, objProt.getObjectProtectionPath());
@@ -138,6 +167,7 @@ public class ObjectProtectionGenericDbDriver implements ObjectProtectionDatabase
     public void deleteOp(String objectPath) throws SQLException
     {
         errorReporter.logTrace("Deleting ObjectProtection %s", getObjProtId(objectPath));
+        clearPreload();
         try (PreparedStatement stmt = getConnection().prepareStatement(OP_DELETE))
         {
             stmt.setString(1, objectPath);
@@ -160,6 +190,7 @@ public class ObjectProtectionGenericDbDriver implements ObjectProtectionDatabase
         throws SQLException
     {
         errorReporter.logTrace("Creating AccessControl entry %s", getAclTraceId(parent, role, grantedAccess));
+        clearPreload();
         try (PreparedStatement stmt = getConnection().prepareStatement(ACL_INSERT))
         {
             stmt.setString(1, parent.getObjectProtectionPath());
@@ -182,6 +213,7 @@ public class ObjectProtectionGenericDbDriver implements ObjectProtectionDatabase
             grantedAccess,
             getAclTraceId(parent, role)
         );
+        clearPreload();
         try (PreparedStatement stmt = getConnection().prepareStatement(ACL_UPDATE))
         {
             stmt.setLong(1, grantedAccess.getAccessMask());
@@ -202,6 +234,7 @@ public class ObjectProtectionGenericDbDriver implements ObjectProtectionDatabase
     public void deleteAcl(ObjectProtection parent, Role role) throws SQLException
     {
         errorReporter.logTrace("Deleting AccessControl entry %s", getAclTraceId(parent, role));
+        clearPreload();
         try (PreparedStatement stmt = getConnection().prepareStatement(ACL_DELETE))
         {
             stmt.setString(1, parent.getObjectProtectionPath());
@@ -212,14 +245,112 @@ public class ObjectProtectionGenericDbDriver implements ObjectProtectionDatabase
         errorReporter.logTrace("AccessControl entry deleted %s", getAclDebugId(parent, role));
     }
 
-    @Override
+    /**
+     * Reads the object protection and ACL tables once and keeps the rows in memory until {@link #clearPreload()}
+     * is called, so that restoring many objects does not query the tables once per object
+     */
     @SuppressWarnings("checkstyle:magicnumber")
+    public void preloadAll() throws SQLException
+    {
+        errorReporter.logTrace("Preloading all ObjectProtections");
+        Map<String, OpRow> ops = new HashMap<>();
+        try (
+            PreparedStatement opLoadStmt = getConnection().prepareStatement(OP_LOAD_ALL);
+            ResultSet opResultSet = opLoadStmt.executeQuery()
+        )
+        {
+            while (opResultSet.next())
+            {
+                ops.put(
+                    opResultSet.getString(1),
+                    new OpRow(
+                        opResultSet.getString(2),
+                        opResultSet.getString(3),
+                        opResultSet.getString(4),
+                        opResultSet.getLong(5)
+                    )
+                );
+            }
+        }
+
+        Map<String, List<AclRow>> acls = new HashMap<>();
+        int aclCount = 0;
+        try (
+            PreparedStatement aclLoadStmt = getConnection().prepareStatement(ACL_LOAD_ALL);
+            ResultSet aclResultSet = aclLoadStmt.executeQuery()
+        )
+        {
+            while (aclResultSet.next())
+            {
+                acls.computeIfAbsent(aclResultSet.getString(1), ignored -> new ArrayList<>())
+                    .add(new AclRow(aclResultSet.getString(2), aclResultSet.getInt(3)));
+                ++aclCount;
+            }
+        }
+
+        preloadedAcls = acls;
+        preloadedOps = ops;
+        errorReporter.logTrace(
+            "Preloaded %d ObjectProtections with %d AccessControl entries",
+            ops.size(),
+            aclCount
+        );
+    }
+
+    /**
+     * Discards the rows read by {@link #preloadAll()}. Subsequent loads query the database again.
+     */
+    public void clearPreload()
+    {
+        preloadedOps = null;
+        preloadedAcls = null;
+    }
+
+    @Override
     public ObjectProtection loadObjectProtection(String objPath, boolean logWarnIfNotExists)
         throws SQLException
     {
         errorReporter.logTrace("Loading ObjectProtection %s", getObjProtId(objPath));
         ObjectProtection objProt = null;
 
+        Map<String, OpRow> ops = preloadedOps;
+        Map<String, List<AclRow>> acls = preloadedAcls;
+        OpRow opRow;
+        if (ops != null && acls != null)
+        {
+            opRow = ops.get(objPath);
+        }
+        else
+        {
+            opRow = loadOpRow(objPath);
+            acls = null;
+        }
+
+        if (opRow != null)
+        {
+            objProt = restoreObjectProtection(objPath, opRow);
+            errorReporter.logTrace("ObjectProtection instance created. %s", getObjProtId(objPath));
+
+            List<AclRow> aclRows = acls == null ?
+                loadAclRows(objPath) :
+                acls.getOrDefault(objPath, Collections.emptyList());
+            restoreAclEntries(objProt, objPath, aclRows);
+            errorReporter.logTrace("AccessControl entries restored %s", getObjProtId(objPath));
+
+            errorReporter.logTrace("ObjectProtection loaded %s", getObjProtId(objPath));
+        }
+        else
+        if (logWarnIfNotExists)
+        {
+            errorReporter.logWarning("ObjectProtection not found in DB %s", getObjProtId(objPath));
+        }
+        return objProt;
+    }
+
+    @SuppressWarnings("checkstyle:magicnumber")
+    private OpRow loadOpRow(String objPath) throws SQLException
+    {
+        OpRow opRow = null;
         try (PreparedStatement opLoadStmt = getConnection().prepareStatement(OP_LOAD))
         {
             opLoadStmt.setString(1, objPath);
@@ -228,101 +359,117 @@ public class ObjectProtectionGenericDbDriver implements ObjectProtectionDatabase
             {
                 if (opResultSet.next())
                 {
-                    Identity identity = null;
-                    Role role = null;
-                    SecurityType secType = null;
-                    try
-                    {
-                        identity = Identity.get(new IdentityName(opResultSet.getString(1)));
-                        role = Role.get(new RoleName(opResultSet.getString(2)));
-                        secType = SecurityType.get(new SecTypeName(opResultSet.getString(3)));
-                        PrivilegeSet privLimitSet = new PrivilegeSet(opResultSet.getLong(4));
-                        AccessContext accCtx = new AccessContext(identity, role, secType, privLimitSet);
-                        objProt = new ObjectProtection(accCtx, objPath, this, transObjFactory, transMgrProvider);
-                        objProt.setPersisted(true);
-                    }
-                    catch (InvalidNameException invalidNameExc)
-                    {
-                        String name;
-                        String invalidValue;
-                        if (identity == null)
-                        {
-                            name = "IdentityName";
-                            invalidValue = opResultSet.getString(1);
-                        }
-                        else
-                        if (role == null)
-                        {
-                            name = "RoleName";
-                            invalidValue = opResultSet.getString(2);
-                        }
-                        else
-                        {
-                            name = "SecTypeName";
-                            invalidValue = opResultSet.getString(3);
-                        }
-                        throw new LinStorSqlRuntimeException(
-                            String.format(
-                                "A stored %s in the table %s could not be restored." +
-                                    "(ObjectPath=%s, invalid %s=%s)",
-                                name,
-                                TBL_OP,
-                                objPath,
-                                name,
-                                invalidValue
-                            ),
-                            invalidNameExc
-                        );
-                    }
+                    opRow = new OpRow(
+                        opResultSet.getString(1),
+                        opResultSet.getString(2),
+                        opResultSet.getString(3),
+                        opResultSet.getLong(4)
+                    );
                 }
             }
         }
-        if (objProt != null)
-        {
-            errorReporter.logTrace("ObjectProtection instance created. %s", getObjProtId(objPath));
-            // restore ACL
+        return opRow;
+    }
 
-            try (PreparedStatement aclLoadStmt = getConnection().prepareStatement(ACL_LOAD))
+    private List<AclRow> loadAclRows(String objPath) throws SQLException
+    {
+        List<AclRow> aclRows = new ArrayList<>();
+        try (PreparedStatement aclLoadStmt = getConnection().prepareStatement(ACL_LOAD))
+        {
+            aclLoadStmt.setString(1, objPath);
+            try (ResultSet aclResultSet = aclLoadStmt.executeQuery())
             {
-                aclLoadStmt.setString(1, objPath);
-                String currentRoleName = null;
-                try (ResultSet aclResultSet = aclLoadStmt.executeQuery())
-                {
-                    while (aclResultSet.next())
-                    {
-                        currentRoleName = aclResultSet.getString(1);
-                        Role role = Role.get(new RoleName(currentRoleName));
-                        AccessType type = AccessType.get(aclResultSet.getInt(2));
-
-                        objProt.restoreAclEntry(role, type);
-                    }
-                }
-                catch (InvalidNameException invalidNameExc)
+                while (aclResultSet.next())
                 {
-                    throw new LinStorSqlRuntimeException(
-                        String.format(
-                            "A stored RoleName in the table %s could not be restored." +
-                                "(ObjectPath=%s, invalid RoleName=%s)",
-                            TBL_OP,
-                            objPath,
-                            currentRoleName
-                        ),
-                        invalidNameExc
-                    );
+                    aclRows.add(new AclRow(aclResultSet.getString(1), aclResultSet.getInt(2)));
                 }
             }
-            errorReporter.logTrace("AccessControl entries restored %s", getObjProtId(objPath));
+        }
+        return aclRows;
+    }
 
-            errorReporter.logTrace("ObjectProtection loaded %s", getObjProtId(objPath));
+    private ObjectProtection restoreObjectProtection(String objPath, OpRow opRow)
+    {
+        ObjectProtection objProt;
+        Identity identity = null;
+        Role role = null;
+        SecurityType secType = null;
+        try
+        {
+            identity = Identity.get(new IdentityName(opRow.creator));
+            role = Role.get(new RoleName(opRow.owner));
+            secType = SecurityType.get(new SecTypeName(opRow.secTypeName));
+            PrivilegeSet privLimitSet = new PrivilegeSet(opRow.privileges);
+            AccessContext accCtx = new AccessContext(identity, role, secType, privLimitSet);
+            objProt = new ObjectProtection(accCtx, objPath, this, transObjFactory, transMgrProvider);
+            objProt.setPersisted(true);
         }
-        else
-        if (logWarnIfNotExists)
+        catch (InvalidNameException invalidNameExc)
         {
-            errorReporter.logWarning("ObjectProtection not found in DB %s", getObjProtId(objPath));
+            String name;
+            String invalidValue;
+            if (identity == null)
+            {
+                name = "IdentityName";
+                invalidValue = opRow.creator;
+            }
+            else
+            if (role == null)
+            {
+                name = "RoleName";
+                invalidValue = opRow.owner;
+            }
+            else
+            {
+                name = "SecTypeName";
+                invalidValue = opRow.secTypeName;
+            }
+            throw new LinStorSqlRuntimeException(
+                String.format(
+                    "A stored %s in the table %s could not be restored." +
+                        "(ObjectPath=%s, invalid %s=%s)",
+                    name,
+                    TBL_OP,
+                    objPath,
+                    name,
+                    invalidValue
+                ),
+                invalidNameExc
+            );
         }
         return objProt;
     }
 
+    private void restoreAclEntries(ObjectProtection objProt, String objPath, List<AclRow> aclRows)
+        throws SQLException
+    {
+        String currentRoleName = null;
+        try
+        {
+            for (AclRow aclRow : aclRows)
+            {
+                currentRoleName = aclRow.roleName;
+                Role role = Role.get(new RoleName(currentRoleName));
+                AccessType type = AccessType.get(aclRow.accessType);
+
+                objProt.restoreAclEntry(role, type);
+            }
+        }
+        catch (InvalidNameException invalidNameExc)
+        {
+            throw new LinStorSqlRuntimeException(
+                String.format(
+                    "A stored RoleName in the table %s could not be restored." +
+                        "(ObjectPath=%s, invalid RoleName=%s)",
+                    TBL_OP,
+                    objPath,
+                    currentRoleName
+                ),
+                invalidNameExc
+            );
+        }
+    }
+
     @Override
     public SingleColumnDatabaseDriver<ObjectProtection, Identity> getIdentityDatabaseDrier()
     {
@@ -395,6 +542,34 @@ public class ObjectProtectionGenericDbDriver implements ObjectProtectionDatabase
         return "(ObjProtPath=" + objectProtectionPath + ")";
     }
 
+    private static class OpRow
+    {
+        private final String creator;
+        private final String owner;
+        private final String secTypeName;
+        private final long privileges;
+
+        OpRow(String creatorRef, String ownerRef, String secTypeNameRef, long privilegesRef)
+        {
+            creator = creatorRef;
+            owner = ownerRef;
+            secTypeName = secTypeNameRef;
+            privileges = privilegesRef;
+        }
+    }
+
+    private static class AclRow
+    {
+        private final String roleName;
+        private final int accessType;
+
+        AclRow(String roleNameRef, int accessTypeRef)
+        {
+            roleName = roleNameRef;
+            accessType = accessTypeRef;
+        }
+    }
+
     private class IdentityGenericDbDriver implements SingleColumnDatabaseDriver<ObjectProtection, Identity>
     {
         @Override
@@ -406,6 +581,7 @@ public class ObjectProtectionGenericDbDriver implements ObjectProtectionDatabase
                 creator.name.value,
                 getObjProtId(parent.getObjectProtectionPath())
             );
+            clearPreload();
             try (PreparedStatement stmt = getConnection().prepareStatement(OP_UPDATE_IDENTITY))
             {
                 stmt.setString(1, creator.name.value);
@@ -433,6 +609,7 @@ public class ObjectProtectionGenericDbDriver implements ObjectProtectionDatabase
                 owner.name.value,
                 getObjProtId(parent.getObjectProtectionPath())
             );
+            clearPreload();
             try (PreparedStatement stmt = getConnection().prepareStatement(OP_UPDATE_ROLE))
             {
                 stmt.setString(1, owner.name.value);
@@ -460,6 +637,7 @@ public class ObjectProtectionGenericDbDriver implements ObjectProtectionDatabase
                 secType.name.value,
                 getObjProtId(parent.getObjectProtectionPath())
             );
+            clearPreload();
             try (PreparedStatement stmt = getConnection().prepareStatement(OP_UPDATE_SEC_TYPE))
             {
                 stmt.setString(1, secType.name.value);
@@ -20,8 +20,6 @@ import com.linbit.extproc.ExtCmd;
 import com.linbit.extproc.ExtCmd.OutputData;
 import com.linbit.fsevent.FileSystemWatch;
 import com.linbit.fsevent.FileSystemWatch.Event;
-import com.linbit.fsevent.FileSystemWatch.FileEntryGroup;
-import com.linbit.fsevent.FileSystemWatch.FileEntryGroupBuilder;
 import com.linbit.linstor.core.StltConfigAccessor;
 import com.linbit.linstor.logging.ErrorReporter;
 import com.linbit.fsevent.FsWatchTimeoutException;
@@ -45,6 +43,7 @@ public abstract class AbsStorageDriver implements StorageDriver
     protected long fileEventTimeout = FILE_EVENT_TIMEOUT_DEFAULT;
 
     protected int sizeAlignmentToleranceFactor = EXTENT_SIZE_ALIGN_TOLERANCE_DEFAULT;
+    protected double overcommitRatio = CapacityInfo.OVERCOMMIT_UNLIMITED;
     protected StltConfigAccessor stltCfgAccessor;
 
     public AbsStorageDriver(
@@ -843,6 +842,62 @@ public abstract class AbsStorageDriver implements StorageDriver
         return ret;
     }
 
+    /**
+     * If the key is present, this method returns its value, otherwise the defaultValue
+     * parameter is returned
+     *
+     * @param map
+     * @param key
+     * @param defaultValue
+     * @return
+     * @throws StorageException
+     */
+    protected double checkedGetAsDouble(Map<String, String> map, String key, double defaultValue)
+        throws StorageException
+    {
+        double result;
+        try
+        {
+            result = uncheckedGetAsDouble(map, key, defaultValue);
+        }
+        catch (NumberFormatException numberFormatExc)
+        {
+            throw new StorageException(
+                "Invalid configuration",
+                String.format("Key [%s] was expected to contain a decimal value, but was [%s]", key, map.get(key)),
+                String.format("Failed to parse [%s] as a decimal value", map.get(key)),
+                "Specify a valid value for the key",
+                null,
+                numberFormatExc
+            );
+        }
+        return result;
+    }
+
+    /**
+     * If the key is present, this method returns its value, otherwise the defaultValue
+     * parameter is returned
+     *
+     * @param map
+     * @param key
+     * @param defaultValue
+     * @return
+     */
+    protected double uncheckedGetAsDouble(Map<String, String> map, String key, double defaultValue)
+    {
+        String value = map.get(key);
+        double ret;
+        if (value != null)
+        {
+            ret = Double.parseDouble(value);
+        }
+        else
+        {
+            ret = defaultValue;
+        }
+        return ret;
+    }
+
     /**
      * Performs a {@link Map#get} and throws a StorageException if the value is
      * null or if the value is not found as a path on the system or the file is not executable.
@@ -956,6 +1011,21 @@ public abstract class AbsStorageDriver implements StorageDriver
         }
     }
 
+    protected void checkOvercommitRatio(Map<String, String> config) throws StorageException
+    {
+        double ratio = checkedGetAsDouble(config, StorageConstants.CONFIG_OVERCOMMIT_RATIO_KEY, overcommitRatio);
+        if (Double.isNaN(ratio) || Double.isInfinite(ratio) || ratio < 0)
+        {
+            throw new StorageException(
+                "Overcommit ratio is out of range",
+                String.format("Overcommit ratio has to be 0 or a positive number, but was %s", ratio),
+                null,
+                "Specify a positive overcommit ratio or 0 to disable the overcommit limit",
+                null
+            );
+        }
+    }
+
     protected VolumeInfo getVolumeInfo(String identifier) throws StorageException
     {
         return getVolumeInfo(identifier, true);
@@ -965,11 +1035,9 @@ public abstract class AbsStorageDriver implements StorageDriver
         throws IOException, NegativeTimeException, ValueOutOfRangeException,
         FsWatchTimeoutException, InterruptedException
     {
-        FileEntryGroupBuilder groupBuilder = new FileSystemWatch.FileEntryGroupBuilder();
-        groupBuilder.newEntry(getExpectedVolumePath(identifier), event);
-        FileEntryGroup entryGroup = groupBuilder.create(null);
-        fileSystemWatch.addFileEntryList(entryGroup.getEntryList());
-        entryGroup.waitGroup(fileEventTimeout);
+        String expectedPath = getExpectedVolumePath(identifier);
+        long waitTime = fileSystemWatch.waitFile(expectedPath, event, fileEventTimeout);
+        errorReporter.logTrace("Waited %d ms for %s event of device '%s'", waitTime, event, expectedPath);
     }
 
     protected String getCryptVolumePath(String identifier)
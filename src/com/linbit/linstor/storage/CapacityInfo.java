@@ -0,0 +1,148 @@
+package com.linbit.linstor.storage;
+
+/**
+ * Capacity accounting of a storage pool, all values in KiB.
+ *
+ * For thick pools, the virtual allocation equals the physical allocation and no metadata
+ * is reported. Thinly provisioned pools (LVM thin pools, sparse ZFS volumes) can hand out
+ * more virtual space than they physically have, which is why {@link #getFreeSize(double)}
+ * takes the pool's overcommit ratio into account instead of only looking at the raw free space.
+ */
+public class CapacityInfo
+{
+    /**
+     * Overcommit ratio that disables the check of the virtual allocation
+     */
+    public static final double OVERCOMMIT_UNLIMITED = 0.0;
+
+    private final long capacity;
+    private final long used;
+    private final long virtualAllocated;
+    private final long metadataCapacity;
+    private final long metadataUsed;
+
+    public CapacityInfo(
+        final long capacityRef,
+        final long usedRef,
+        final long virtualAllocatedRef,
+        final long metadataCapacityRef,
+        final long metadataUsedRef
+    )
+    {
+        capacity = capacityRef;
+        used = usedRef;
+        virtualAllocated = virtualAllocatedRef;
+        metadataCapacity = metadataCapacityRef;
+        metadataUsed = metadataUsedRef;
+    }
+
+    /**
+     * Creates the capacity info of a thick pool, where every allocated KiB is also used
+     */
+    public static CapacityInfo thick(final long capacity, final long freeSize)
+    {
+        final long allocated = capacity - freeSize;
+        return new CapacityInfo(capacity, allocated, allocated, 0, 0);
+    }
+
+    /**
+     * @return the physical size of the pool's data area
+     */
+    public long getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * @return the physically used part of the pool's data area
+     */
+    public long getUsed()
+    {
+        return used;
+    }
+
+    /**
+     * @return the sum of the sizes of all volumes in the pool
+     */
+    public long getVirtualAllocated()
+    {
+        return virtualAllocated;
+    }
+
+    /**
+     * @return the size of the pool's metadata area or 0 if the pool has no separate metadata
+     */
+    public long getMetadataCapacity()
+    {
+        return metadataCapacity;
+    }
+
+    /**
+     * @return the used part of the pool's metadata area
+     */
+    public long getMetadataUsed()
+    {
+        return metadataUsed;
+    }
+
+    /**
+     * @return the physically free part of the pool's data area
+     */
+    public long getPhysicalFree()
+    {
+        return Math.max(0, capacity - used);
+    }
+
+    /**
+     * Calculates the space that may still be allocated for new volumes.
+     *
+     * The result is limited by
+     * <ul>
+     *   <li>the physically free space of the data area</li>
+     *   <li>the data that still fits into the metadata area, extrapolated from the current
+     *       ratio of used data and used metadata</li>
+     *   <li>the virtual space that remains until <code>capacity * overcommitRatio</code>
+     *       is reached, unless the ratio is {@link #OVERCOMMIT_UNLIMITED}</li>
+     * </ul>
+     *
+     * @param overcommitRatio
+     * @return the allocatable space in KiB, never negative
+     */
+    public long getFreeSize(final double overcommitRatio)
+    {
+        long freeSize = getPhysicalFree();
+        if (metadataCapacity > 0)
+        {
+            final long metadataFree = Math.max(0, metadataCapacity - metadataUsed);
+            if (metadataFree == 0)
+            {
+                freeSize = 0;
+            }
+            else
+            if (metadataUsed > 0 && used > 0)
+            {
+                final double dataPerMetadata = (double) used / metadataUsed;
+                freeSize = Math.min(freeSize, (long) (metadataFree * dataPerMetadata));
+            }
+        }
+        if (overcommitRatio > OVERCOMMIT_UNLIMITED)
+        {
+            final long virtualLimit = (long) (capacity * overcommitRatio);
+            freeSize = Math.min(freeSize, virtualLimit - virtualAllocated);
+        }
+        return Math.max(0, freeSize);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format(
+            "capacity: %d KiB, used: %d KiB, virtual: %d KiB, metadata: %d/%d KiB",
+            capacity,
+            used,
+            virtualAllocated,
+            metadataUsed,
+            metadataCapacity
+        );
+    }
+}
@@ -106,4 +106,10 @@ public class DisklessDriver implements StorageDriver
     {
         return Long.MAX_VALUE;
     }
+
+    @Override
+    public CapacityInfo getCapacityInfo()
+    {
+        return CapacityInfo.thick(Long.MAX_VALUE, Long.MAX_VALUE);
+    }
 }
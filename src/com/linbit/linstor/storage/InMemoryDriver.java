@@ -0,0 +1,651 @@
+package com.linbit.linstor.storage;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.linbit.drbd.md.MaxSizeException;
+import com.linbit.drbd.md.MetaData;
+import com.linbit.drbd.md.MinSizeException;
+import com.linbit.linstor.logging.ErrorReporter;
+
+/**
+ * Storage driver that keeps volumes, snapshots and the free space of the pool in memory only.
+ *
+ * No external commands are executed and no block devices are created. The driver is only intended
+ * for tests and benchmarks, e.g. scale testing of the controller and satellites on systems without
+ * LVM or ZFS. The device paths that it reports do not exist, so the driver does not provide backing
+ * storage and DRBD resources on its storage pools are diskless.
+ * Every operation can be delayed by a configurable latency distribution and can be configured
+ * to fail with a given probability.
+ *
+ * Latency values have one of the following forms (all values in milliseconds):
+ * <ul>
+ *   <li>{@code <ms>} - a fixed delay</li>
+ *   <li>{@code <min>-<max>} - a uniformly distributed delay</li>
+ *   <li>{@code exp:<mean>} - an exponentially distributed delay</li>
+ * </ul>
+ * Failure rates are probabilities in the range 0.0 - 1.0.
+ */
+public class InMemoryDriver implements StorageDriver
+{
+    public static final long CAPACITY_DEFAULT = 100L * 1024 * 1024 * 1024; // 100 TiB in KiB
+    public static final long EXTENT_SIZE_DEFAULT = 4096;
+    public static final String DEVICE_DIR_DEFAULT = "/dev/linstor-inmem";
+
+    private static final String CRYPT_PREFIX = "Linstor-Crypt-";
+    private static final String SNAPSHOT_DELIMITER = "@";
+
+    public enum Operation
+    {
+        CREATE("Create"),
+        DELETE("Delete"),
+        START("Start"),
+        STOP("Stop"),
+        CHECK("Check"),
+        QUERY("Query"),
+        SNAPSHOT_CREATE("SnapshotCreate"),
+        SNAPSHOT_RESTORE("SnapshotRestore"),
+        SNAPSHOT_DELETE("SnapshotDelete");
+
+        private final String configName;
+
+        Operation(String configNameRef)
+        {
+            configName = configNameRef;
+        }
+
+        public String getLatencyKey()
+        {
+            return StorageConstants.CONFIG_INMEM_LATENCY_KEY_PREFIX + configName;
+        }
+
+        public String getFailRateKey()
+        {
+            return StorageConstants.CONFIG_INMEM_FAIL_RATE_KEY_PREFIX + configName;
+        }
+    }
+
+    private final ErrorReporter errorReporter;
+    private final StorageDriverKind storageDriverKind;
+
+    private final Map<String, SimVolume> volumes = new HashMap<>();
+    private final Map<String, SimVolume> snapshots = new HashMap<>();
+
+    private volatile long capacity = CAPACITY_DEFAULT;
+    private volatile long extentSize = EXTENT_SIZE_DEFAULT;
+    private volatile String deviceDir = DEVICE_DIR_DEFAULT;
+    private volatile int sizeAlignmentToleranceFactor = AbsStorageDriver.EXTENT_SIZE_ALIGN_TOLERANCE_DEFAULT;
+    private volatile Map<Operation, LatencyDistribution> latencies = new HashMap<>();
+    private volatile Map<Operation, Double> failRates = new HashMap<>();
+
+    // Sum of the allocated sizes of all volumes in KiB, guarded by "this"
+    private long allocated = 0;
+
+    public InMemoryDriver(ErrorReporter errorReporterRef, StorageDriverKind storageDriverKindRef)
+    {
+        errorReporter = errorReporterRef;
+        storageDriverKind = storageDriverKindRef;
+    }
+
+    @Override
+    public StorageDriverKind getKind()
+    {
+        return storageDriverKind;
+    }
+
+    @Override
+    public void startVolume(String identifier, String cryptKey) throws StorageException
+    {
+        simulate(Operation.START, identifier);
+        synchronized (this)
+        {
+            // there is nothing to activate, but starting a missing volume fails as it would with LVM or ZFS
+            getExistingVolume(identifier);
+        }
+    }
+
+    @Override
+    public void stopVolume(String identifier, boolean isEncrypted) throws StorageException
+    {
+        simulate(Operation.STOP, identifier);
+        synchronized (this)
+        {
+            getExistingVolume(identifier);
+        }
+    }
+
+    @Override
+    public String createVolume(String identifier, long size, String cryptKey)
+        throws StorageException, MaxSizeException, MinSizeException
+    {
+        long effSize = alignToExtent(size);
+
+        MetaData.checkMinDrbdSizeNet(effSize);
+        MetaData.checkMaxDrbdSize(effSize);
+
+        simulate(Operation.CREATE, identifier);
+        synchronized (this)
+        {
+            allocateVolume(identifier, effSize);
+        }
+        startVolume(identifier, cryptKey);
+        return getVolumePath(identifier, cryptKey != null);
+    }
+
+    @Override
+    public void deleteVolume(String identifier, boolean isEncrypted) throws StorageException
+    {
+        simulate(Operation.DELETE, identifier);
+        synchronized (this)
+        {
+            SimVolume vlm = volumes.remove(identifier);
+            if (vlm != null)
+            {
+                allocated -= vlm.size;
+            }
+        }
+    }
+
+    /**
+     * Checks whether a volume or snapshot exists.
+     * Snapshots are identified by "{@code <volume identifier>@<snapshot name>}"
+     */
+    @Override
+    public boolean volumesExists(String identifier, AbsStorageDriver.VolumeType volumeType)
+        throws StorageException
+    {
+        simulate(Operation.QUERY, identifier);
+        boolean exists;
+        synchronized (this)
+        {
+            if (volumeType == AbsStorageDriver.VolumeType.VOLUME)
+            {
+                exists = volumes.containsKey(identifier);
+            }
+            else
+            {
+                exists = snapshots.containsKey(identifier);
+            }
+        }
+        return exists;
+    }
+
+    @Override
+    public void checkVolume(String identifier, long size) throws StorageException
+    {
+        try
+        {
+            MetaData.checkMaxDrbdSize(size);
+        }
+        catch (MaxSizeException exc)
+        {
+            throw new StorageException(
+                "CheckVolume failed",
+                null,
+                String.format("The size to check [%d] exceeds the current maximum device size: %d KiB",
+                    size,
+                    MetaData.DRBD_MAX_kiB
+                ),
+                "Specify a valid size for check",
+                null
+            );
+        }
+
+        simulate(Operation.CHECK, identifier);
+        final long vlmSize;
+        synchronized (this)
+        {
+            vlmSize = getExistingVolume(identifier).size;
+        }
+
+        if (vlmSize < size)
+        {
+            throw new StorageException(
+                "CheckVolume failed",
+                String.format("CheckVolume failed for volume [%s]", identifier),
+                "Volume does not have the required size",
+                null,
+                String.format(
+                    "Volume [%s] has size %d (KiB) but check required at least %d (KiB)",
+                    identifier,
+                    vlmSize,
+                    size
+                )
+            );
+        }
+
+        final long floorSize = (size / extentSize) * extentSize;
+        final long toleratedSize = floorSize + extentSize * sizeAlignmentToleranceFactor;
+        if (vlmSize > toleratedSize)
+        {
+            throw new StorageException(
+                "CheckVolume failed",
+                String.format("CheckVolume failed for volume [%s]", identifier),
+                "Volume is larger than tolerated",
+                String.format(
+                    "Note: it is possible to increase the tolerance factor. Configuration key: %s",
+                    StorageConstants.CONFIG_SIZE_ALIGN_TOLERANCE_KEY
+                ),
+                String.format(
+                    "Volume [%s] is larger size [%d] than tolerated [%d]",
+                    identifier,
+                    vlmSize,
+                    toleratedSize
+                )
+            );
+        }
+    }
+
+    @Override
+    public String getVolumePath(String identifier, boolean isEncrypted) throws StorageException
+    {
+        simulate(Operation.QUERY, identifier);
+        synchronized (this)
+        {
+            getExistingVolume(identifier);
+        }
+        return deviceDir + File.separator + (isEncrypted ? CRYPT_PREFIX + identifier : identifier);
+    }
+
+    @Override
+    public long getSize(String identifier) throws StorageException
+    {
+        simulate(Operation.QUERY, identifier);
+        synchronized (this)
+        {
+            return getExistingVolume(identifier).size;
+        }
+    }
+
+    @Override
+    public long getFreeSize() throws StorageException
+    {
+        simulate(Operation.QUERY, null);
+        synchronized (this)
+        {
+            return Math.max(0, capacity - allocated);
+        }
+    }
+
+    @Override
+    public CapacityInfo getCapacityInfo() throws StorageException
+    {
+        simulate(Operation.QUERY, null);
+        synchronized (this)
+        {
+            return CapacityInfo.thick(capacity, Math.max(0, capacity - allocated));
+        }
+    }
+
+    @Override
+    public Map<String, String> getTraits() throws StorageException
+    {
+        final HashMap<String, String> traits = new HashMap<>();
+
+        traits.put(DriverTraits.KEY_ALLOC_UNIT, String.valueOf(extentSize));
+
+        return traits;
+    }
+
+    @Override
+    public void setConfiguration(Map<String, String> config) throws StorageException
+    {
+        // parse everything first, so that an invalid configuration is rejected as a whole
+        long newCapacity = getLong(config, StorageConstants.CONFIG_INMEM_CAPACITY_KEY, capacity, 0);
+        long newExtentSize = getLong(config, StorageConstants.CONFIG_INMEM_EXTENT_SIZE_KEY, extentSize, 1);
+        int newToleranceFactor = (int) getLong(
+            config,
+            StorageConstants.CONFIG_SIZE_ALIGN_TOLERANCE_KEY,
+            sizeAlignmentToleranceFactor,
+            1
+        );
+        String newDeviceDir = config.get(StorageConstants.CONFIG_INMEM_DEVICE_DIR_KEY);
+        if (newDeviceDir == null)
+        {
+            newDeviceDir = deviceDir;
+        }
+        else
+        if (newDeviceDir.trim().isEmpty())
+        {
+            throw invalidConfig(StorageConstants.CONFIG_INMEM_DEVICE_DIR_KEY, newDeviceDir, null);
+        }
+
+        Map<Operation, LatencyDistribution> newLatencies = new HashMap<>(latencies);
+        Map<Operation, Double> newFailRates = new HashMap<>(failRates);
+        for (Operation op : Operation.values())
+        {
+            String latency = config.get(op.getLatencyKey());
+            if (latency != null)
+            {
+                newLatencies.put(op, LatencyDistribution.parse(op.getLatencyKey(), latency));
+            }
+            String failRate = config.get(op.getFailRateKey());
+            if (failRate != null)
+            {
+                newFailRates.put(op, parseFailRate(op.getFailRateKey(), failRate));
+            }
+        }
+
+        synchronized (this)
+        {
+            capacity = newCapacity;
+            extentSize = newExtentSize;
+            sizeAlignmentToleranceFactor = newToleranceFactor;
+            deviceDir = newDeviceDir;
+            latencies = newLatencies;
+            failRates = newFailRates;
+        }
+    }
+
+    @Override
+    public void createSnapshot(String identifier, String snapshotName) throws StorageException
+    {
+        simulate(Operation.SNAPSHOT_CREATE, identifier);
+        synchronized (this)
+        {
+            SimVolume vlm = getExistingVolume(identifier);
+            String snapshotIdentifier = getSnapshotIdentifier(identifier, snapshotName);
+            if (snapshots.containsKey(snapshotIdentifier))
+            {
+                throw new StorageException(
+                    "Snapshot creation failed",
+                    String.format("Failed to create snapshot \"%s\" of volume \"%s\"", snapshotName, identifier),
+                    "The snapshot already exists",
+                    null,
+                    null
+                );
+            }
+            // snapshots are copy-on-write and nothing is ever written, so they do not allocate space
+            snapshots.put(snapshotIdentifier, new SimVolume(vlm.size));
+        }
+    }
+
+    @Override
+    public void restoreSnapshot(
+        String sourceIdentifier,
+        String snapshotName,
+        String targetIdentifier,
+        String cryptKey
+    )
+        throws StorageException
+    {
+        simulate(Operation.SNAPSHOT_RESTORE, targetIdentifier);
+        synchronized (this)
+        {
+            SimVolume snapshot = snapshots.get(getSnapshotIdentifier(sourceIdentifier, snapshotName));
+            if (snapshot == null)
+            {
+                throw new StorageException(
+                    "Failed to restore a snapshot",
+                    String.format(
+                        "Failed to restore snapshot [%s] from volume [%s] to volume [%s]",
+                        snapshotName,
+                        sourceIdentifier,
+                        targetIdentifier
+                    ),
+                    "The snapshot does not exist",
+                    null,
+                    null
+                );
+            }
+            allocateVolume(targetIdentifier, snapshot.size);
+        }
+        startVolume(targetIdentifier, cryptKey);
+    }
+
+    @Override
+    public void deleteSnapshot(String volumeIdentifier, String snapshotName) throws StorageException
+    {
+        simulate(Operation.SNAPSHOT_DELETE, volumeIdentifier);
+        synchronized (this)
+        {
+            snapshots.remove(getSnapshotIdentifier(volumeIdentifier, snapshotName));
+        }
+    }
+
+    private long alignToExtent(long size)
+    {
+        final long extent = extentSize;
+        long effSize = size;
+        if (effSize % extent != 0)
+        {
+            effSize = ((effSize / extent) + 1) * extent;
+        }
+        return effSize;
+    }
+
+    private String getSnapshotIdentifier(String identifier, String snapshotName)
+    {
+        return identifier + SNAPSHOT_DELIMITER + snapshotName;
+    }
+
+    // Caller must hold the lock on "this"
+    private void allocateVolume(String identifier, long size) throws StorageException
+    {
+        if (volumes.containsKey(identifier))
+        {
+            throw new StorageException(
+                "Failed to create volume",
+                String.format("Failed to create volume [%s] with size %d", identifier, size),
+                "The volume already exists",
+                null,
+                null
+            );
+        }
+        if (capacity - allocated < size)
+        {
+            throw new StorageException(
+                "Failed to create volume",
+                String.format("Failed to create volume [%s] with size %d", identifier, size),
+                "Not enough free space in the simulated storage pool",
+                null,
+                String.format("Capacity: %d KiB, allocated: %d KiB", capacity, allocated)
+            );
+        }
+        volumes.put(identifier, new SimVolume(size));
+        allocated += size;
+    }
+
+    // Caller must hold the lock on "this"
+    private SimVolume getExistingVolume(String identifier) throws StorageException
+    {
+        SimVolume vlm = volumes.get(identifier);
+        if (vlm == null)
+        {
+            throw new StorageException(
+                "Volume not found",
+                String.format("The simulated volume [%s] does not exist", identifier),
+                null,
+                null,
+                null
+            );
+        }
+        return vlm;
+    }
+
+    /**
+     * Applies the configured latency and failure injection for the given operation.
+     * Must not be called while holding the lock on "this".
+     */
+    private void simulate(Operation op, String identifier) throws StorageException
+    {
+        LatencyDistribution latency = latencies.get(op);
+        if (latency != null)
+        {
+            long delay = latency.next();
+            if (delay > 0)
+            {
+                try
+                {
+                    TimeUnit.MILLISECONDS.sleep(delay);
+                }
+                catch (InterruptedException interruptExc)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new StorageException(
+                        "Simulated storage operation interrupted",
+                        interruptExc
+                    );
+                }
+            }
+        }
+        Double failRate = failRates.get(op);
+        if (failRate != null && ThreadLocalRandom.current().nextDouble() < failRate)
+        {
+            errorReporter.logTrace("InMemoryDriver: injecting failure for %s of '%s'", op, identifier);
+            throw new StorageException(
+                "Simulated storage failure",
+                String.format("Injected failure for operation %s on volume [%s]", op, identifier),
+                "Failure injection is enabled for this operation",
+                String.format("Adjust or remove the configuration key %s", op.getFailRateKey()),
+                null
+            );
+        }
+    }
+
+    private static long getLong(Map<String, String> config, String key, long defaultValue, long minValue)
+        throws StorageException
+    {
+        long ret = defaultValue;
+        String value = config.get(key);
+        if (value != null)
+        {
+            try
+            {
+                ret = Long.parseLong(value.trim());
+            }
+            catch (NumberFormatException numberFormatExc)
+            {
+                throw invalidConfig(key, value, numberFormatExc);
+            }
+            if (ret < minValue)
+            {
+                throw invalidConfig(key, value, null);
+            }
+        }
+        return ret;
+    }
+
+    private static double parseFailRate(String key, String value) throws StorageException
+    {
+        double rate;
+        try
+        {
+            rate = Double.parseDouble(value.trim());
+        }
+        catch (NumberFormatException numberFormatExc)
+        {
+            throw invalidConfig(key, value, numberFormatExc);
+        }
+        if (!(rate >= 0.0 && rate <= 1.0))
+        {
+            throw invalidConfig(key, value, null);
+        }
+        return rate;
+    }
+
+    private static StorageException invalidConfig(String key, String value, Exception cause)
+    {
+        return new StorageException(
+            "Invalid configuration",
+            String.format("Key [%s] has an invalid value [%s]", key, value),
+            null,
+            "Specify a valid value for the key",
+            null,
+            cause
+        );
+    }
+
+    private static class SimVolume
+    {
+        private final long size;
+
+        SimVolume(long sizeRef)
+        {
+            size = sizeRef;
+        }
+    }
+
+    static class LatencyDistribution
+    {
+        private static final String EXP_PREFIX = "exp:";
+
+        private final long min;
+        private final long max;
+        private final double expMean;
+
+        private LatencyDistribution(long minRef, long maxRef, double expMeanRef)
+        {
+            min = minRef;
+            max = maxRef;
+            expMean = expMeanRef;
+        }
+
+        static LatencyDistribution parse(String key, String spec) throws StorageException
+        {
+            LatencyDistribution dist;
+            String trimmed = spec.trim();
+            try
+            {
+                if (trimmed.startsWith(EXP_PREFIX))
+                {
+                    double mean = Double.parseDouble(trimmed.substring(EXP_PREFIX.length()));
+                    if (!(mean >= 0.0))
+                    {
+                        throw invalidConfig(key, spec, null);
+                    }
+                    dist = new LatencyDistribution(0, 0, mean);
+                }
+                else
+                {
+                    int dashIdx = trimmed.indexOf('-', 1);
+                    long minVal;
+                    long maxVal;
+                    if (dashIdx < 0)
+                    {
+                        minVal = Long.parseLong(trimmed);
+                        maxVal = minVal;
+                    }
+                    else
+                    {
+                        minVal = Long.parseLong(trimmed.substring(0, dashIdx).trim());
+                        maxVal = Long.parseLong(trimmed.substring(dashIdx + 1).trim());
+                    }
+                    if (minVal < 0 || maxVal < minVal)
+                    {
+                        throw invalidConfig(key, spec, null);
+                    }
+                    dist = new LatencyDistribution(minVal, maxVal, 0.0);
+                }
+            }
+            catch (NumberFormatException numberFormatExc)
+            {
+                throw invalidConfig(key, spec, numberFormatExc);
+            }
+            return dist;
+        }
+
+        long next()
+        {
+            long delay;
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            if (expMean > 0.0)
+            {
+                delay = Math.round(-expMean * Math.log(1.0 - rnd.nextDouble()));
+            }
+            else
+            if (max > min)
+            {
+                delay = min + rnd.nextLong(max - min + 1);
+            }
+            else
+            {
+                delay = min;
+            }
+            return delay;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.linbit.linstor.storage;
+
+import com.linbit.fsevent.FileSystemWatch;
+import com.linbit.linstor.core.StltConfigAccessor;
+import com.linbit.linstor.logging.ErrorReporter;
+import com.linbit.linstor.timer.CoreTimer;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates {@link InMemoryDriver} instances, which simulate a storage pool without any backing devices.
+ * Only intended for tests and benchmarks.
+ */
+public class InMemoryDriverKind implements StorageDriverKind
+{
+    @Override
+    public String getDriverName()
+    {
+        return "InMemoryDriver";
+    }
+
+    @Override
+    public StorageDriver makeStorageDriver(
+        ErrorReporter errorReporter,
+        FileSystemWatch fileSystemWatch,
+        CoreTimer timer,
+        StltConfigAccessor stltCfgAccessor
+    )
+    {
+        return new InMemoryDriver(errorReporter, this);
+    }
+
+    @Override
+    public Map<String, String> getStaticTraits()
+    {
+        final HashMap<String, String> traits = new HashMap<>();
+
+        traits.put(DriverTraits.KEY_PROV, DriverTraits.PROV_FAT);
+
+        return traits;
+    }
+
+    @Override
+    public Set<String> getConfigurationKeys()
+    {
+        final HashSet<String> keySet = new HashSet<>();
+
+        keySet.add(StorageConstants.CONFIG_INMEM_CAPACITY_KEY);
+        keySet.add(StorageConstants.CONFIG_INMEM_EXTENT_SIZE_KEY);
+        keySet.add(StorageConstants.CONFIG_INMEM_DEVICE_DIR_KEY);
+        keySet.add(StorageConstants.CONFIG_SIZE_ALIGN_TOLERANCE_KEY);
+        for (InMemoryDriver.Operation op : InMemoryDriver.Operation.values())
+        {
+            keySet.add(op.getLatencyKey());
+            keySet.add(op.getFailRateKey());
+        }
+
+        return keySet;
+    }
+
+    @Override
+    public boolean isSnapshotSupported()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean hasBackingStorage()
+    {
+        // the reported device paths do not exist, so resources on this storage pool are diskless
+        return false;
+    }
+}
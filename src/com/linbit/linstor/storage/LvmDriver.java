@@ -27,6 +27,9 @@ public class LvmDriver extends AbsStorageDriver
     public static final String LVM_LVS_DEFAULT = "lvs";
     public static final String LVM_VGS_DEFAULT = "vgs";
 
+    // DO NOT USE "," or "." AS DELIMITER due to localization issues
+    protected static final String LVM_DELIMITER = ";";
+
     protected String lvmCreateCommand = LVM_CREATE_DEFAULT;
     protected String lvmLvsCommand = LVM_LVS_DEFAULT;
     protected String lvmVgsCommand = LVM_VGS_DEFAULT;
@@ -508,6 +511,98 @@ public class LvmDriver extends AbsStorageDriver
         return freeSize;
     }
 
+    @Override
+    public CapacityInfo getCapacityInfo() throws StorageException
+    {
+        final String[] command = new String[]
+            {
+                lvmVgsCommand,
+                volumeGroup,
+                "-o", "vg_size,vg_free",
+                "--separator", LVM_DELIMITER,
+                "--units", "k",
+                "--noheadings",
+                "--nosuffix"
+            };
+        String rawOut = null;
+        CapacityInfo capacityInfo;
+        try
+        {
+            final ExtCmd extCommand = new ExtCmd(timer, errorReporter);
+            final OutputData output = extCommand.exec(command);
+
+            checkExitCode(output, command);
+
+            rawOut = new String(output.stdoutData).trim();
+            final String[] data = rawOut.split(LVM_DELIMITER);
+            if (data.length < 2)
+            {
+                throw new NumberFormatException("Expected 2 columns");
+            }
+            capacityInfo = CapacityInfo.thick(parseKib(data[0]), parseKib(data[1]));
+        }
+        catch (NumberFormatException nfexc)
+        {
+            throw new StorageException(
+                "Unable to parse volume group's capacity.",
+                "Volume group: " + volumeGroup + "; capacity to parse: '" + rawOut + "'",
+                null,
+                null,
+                "External command used to query capacity: " + glue(command, " "),
+                nfexc
+            );
+        }
+        catch (ChildProcessTimeoutException | IOException exc)
+        {
+            throw new StorageException(
+                "Failed to query volume group capacity",
+                String.format("Failed to query the capacity of volume group: %s", volumeGroup),
+                (exc instanceof ChildProcessTimeoutException) ?
+                    "External command timed out" :
+                    "External command threw an IOException",
+                null,
+                String.format("External command: %s", glue(command, " ")),
+                exc
+            );
+        }
+        return capacityInfo;
+    }
+
+    /**
+     * Parses a size reported by LVM with <code>--units k</code>, cutting off the fraction
+     * (which might be separated by a '.' or a ',' depending on the locale)
+     *
+     * @param rawSize
+     * @return the size in KiB
+     */
+    static long parseKib(String rawSize)
+    {
+        String rawLong = rawSize.trim();
+        int indexOf = rawLong.indexOf('.');
+        if (indexOf == -1)
+        {
+            indexOf = rawLong.indexOf(',');
+        }
+        if (indexOf > -1)
+        {
+            rawLong = rawLong.substring(0, indexOf);
+        }
+        return rawLong.isEmpty() ? 0 : Long.parseLong(rawLong);
+    }
+
+    /**
+     * Parses a percentage reported by LVM, which might use a ',' as decimal separator
+     * depending on the locale
+     *
+     * @param rawPercent
+     * @return the percentage or 0 if LVM did not report a value
+     */
+    static double parsePercent(String rawPercent)
+    {
+        String percent = rawPercent.trim().replace(',', '.');
+        return percent.isEmpty() ? 0 : Double.parseDouble(percent);
+    }
+
     protected String getVolumeGroupFromConfig(Map<String, String> config)
     {
         return getAsString(config, StorageConstants.CONFIG_LVM_VOLUME_GROUP_KEY, volumeGroup);
@@ -29,6 +29,17 @@ public class LvmThinDriver extends LvmDriver
 
     private static final String ID_SNAP_DELIMITER = "_";
 
+    // Columns of the lvs output parsed by parseThinPoolCapacity
+    private static final int COL_NAME = 0;
+    private static final int COL_POOL = 1;
+    private static final int COL_SIZE = 2;
+    private static final int COL_DATA_PERCENT = 3;
+    private static final int COL_METADATA_SIZE = 4;
+    private static final int COL_METADATA_PERCENT = 5;
+    private static final int COL_COUNT = 6;
+
+    private static final int PERCENT = 100;
+
     protected String lvmConvertCommand = LVM_CONVERT_DEFAULT;
 
     protected String thinPoolName = LVM_THIN_POOL_DEFAULT;
@@ -143,6 +154,7 @@ public class LvmThinDriver extends LvmDriver
         super.checkConfiguration(config);
         checkCommand(config, StorageConstants.CONFIG_LVM_CONVERT_COMMAND_KEY);
         checkThinPoolEntry(config);
+        checkOvercommitRatio(config);
     }
 
     @Override
@@ -151,6 +163,131 @@ public class LvmThinDriver extends LvmDriver
         super.applyConfiguration(config);
         thinPoolName = getThinPoolNameFromConfig(config);
         lvmConvertCommand = getAsString(config, StorageConstants.CONFIG_LVM_CONVERT_COMMAND_KEY, lvmConvertCommand);
+        overcommitRatio = uncheckedGetAsDouble(config, StorageConstants.CONFIG_OVERCOMMIT_RATIO_KEY, overcommitRatio);
+    }
+
+    /**
+     * The free size of the volume group is irrelevant for thin volumes, as the thin pool already
+     * occupies its space. Instead, the thin pool's data and metadata usage as well as the
+     * overcommit ratio limit how much can still be allocated.
+     */
+    @Override
+    public long getFreeSize() throws StorageException
+    {
+        return getCapacityInfo().getFreeSize(overcommitRatio);
+    }
+
+    @Override
+    public CapacityInfo getCapacityInfo() throws StorageException
+    {
+        final String[] command = new String[]
+            {
+                lvmLvsCommand,
+                "-o", "lv_name,pool_lv,lv_size,data_percent,lv_metadata_size,metadata_percent",
+                "--separator", LVM_DELIMITER,
+                "--noheadings",
+                "--units", "k",
+                "--nosuffix",
+                volumeGroup
+            };
+        CapacityInfo capacityInfo;
+        try
+        {
+            final ExtCmd extCommand = new ExtCmd(timer, errorReporter);
+            final OutputData output = extCommand.exec(command);
+
+            checkExitCode(output, command);
+
+            capacityInfo = parseThinPoolCapacity(new String(output.stdoutData), thinPoolName);
+        }
+        catch (NumberFormatException nfexc)
+        {
+            throw new StorageException(
+                "Unable to parse thin pool's capacity.",
+                "Thin pool: " + volumeGroup + File.separator + thinPoolName,
+                null,
+                null,
+                "External command used to query capacity: " + glue(command, " "),
+                nfexc
+            );
+        }
+        catch (ChildProcessTimeoutException | IOException exc)
+        {
+            throw new StorageException(
+                "Failed to query thin pool capacity",
+                String.format("Failed to query the capacity of thin pool: %s/%s", volumeGroup, thinPoolName),
+                (exc instanceof ChildProcessTimeoutException) ?
+                    "External command timed out" :
+                    "External command threw an IOException",
+                null,
+                String.format("External command: %s", glue(command, " ")),
+                exc
+            );
+        }
+        if (capacityInfo == null)
+        {
+            throw new StorageException(
+                "Thin pool not found",
+                String.format("The thin pool [%s/%s] was not found", volumeGroup, thinPoolName),
+                null,
+                null,
+                String.format("External command: %s", glue(command, " "))
+            );
+        }
+        return capacityInfo;
+    }
+
+    /**
+     * Parses the output of the <code>lvs</code> command used by {@link #getCapacityInfo()}.
+     * The thin pool's line provides the data and metadata usage, the sizes of all volumes
+     * using the thin pool add up to its virtual allocation.
+     *
+     * @return the capacity info or null if the thin pool is not part of the output
+     */
+    static CapacityInfo parseThinPoolCapacity(String stdOut, String thinPool)
+    {
+        CapacityInfo capacityInfo = null;
+        long poolSize = 0;
+        double dataPercent = 0;
+        long metadataSize = 0;
+        double metadataPercent = 0;
+        long virtualAllocated = 0;
+        boolean poolFound = false;
+
+        for (final String line : stdOut.split("\n"))
+        {
+            // a limit keeps trailing empty columns, which are reported for volumes without data usage
+            final String[] data = line.trim().split(LVM_DELIMITER, COL_COUNT);
+            if (data.length > COL_SIZE)
+            {
+                final String name = data[COL_NAME].trim();
+                final String pool = data[COL_POOL].trim();
+                if (name.equals(thinPool) && data.length >= COL_COUNT)
+                {
+                    poolFound = true;
+                    poolSize = parseKib(data[COL_SIZE]);
+                    dataPercent = parsePercent(data[COL_DATA_PERCENT]);
+                    metadataSize = parseKib(data[COL_METADATA_SIZE]);
+                    metadataPercent = parsePercent(data[COL_METADATA_PERCENT]);
+                }
+                else
+                if (pool.equals(thinPool))
+                {
+                    virtualAllocated += parseKib(data[COL_SIZE]);
+                }
+            }
+        }
+        if (poolFound)
+        {
+            capacityInfo = new CapacityInfo(
+                poolSize,
+                (long) (poolSize * dataPercent / PERCENT),
+                virtualAllocated,
+                metadataSize,
+                (long) (metadataSize * metadataPercent / PERCENT)
+            );
+        }
+        return capacityInfo;
     }
 
     @Override
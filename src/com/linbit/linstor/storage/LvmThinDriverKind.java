@@ -53,6 +53,7 @@ public class LvmThinDriverKind implements StorageDriverKind
         keySet.add(StorageConstants.CONFIG_LVM_VOLUME_GROUP_KEY);
         keySet.add(StorageConstants.CONFIG_SIZE_ALIGN_TOLERANCE_KEY);
         keySet.add(StorageConstants.CONFIG_LVM_THIN_POOL_KEY);
+        keySet.add(StorageConstants.CONFIG_OVERCOMMIT_RATIO_KEY);
 
         return keySet;
     }
@@ -25,6 +25,12 @@ public class StorageConstants
     public static final String CONFIG_LVM_VGS_COMMAND_KEY = "lvmVgs";
 
     public static final String CONFIG_SIZE_ALIGN_TOLERANCE_KEY = "alignmentTolerance";
+    public static final String CONFIG_PARALLEL_VOLUME_OPS_KEY = "ParallelVolumeOps";
+
+    /*
+     * Thin provisioning stuff
+     */
+    public static final String CONFIG_OVERCOMMIT_RATIO_KEY = "OvercommitRatio";
 
 
     /*
@@ -33,6 +39,16 @@ public class StorageConstants
     public static final String CONFIG_ZFS_POOL_KEY = ApiConsts.KEY_STOR_POOL_ZPOOL;
     public static final String CONFIG_ZFS_COMMAND_KEY = "zfs";
 
+    /*
+     * In-memory (simulated) storage stuff
+     */
+    public static final String CONFIG_INMEM_CAPACITY_KEY = "inMemCapacity";
+    public static final String CONFIG_INMEM_EXTENT_SIZE_KEY = "inMemExtentSize";
+    public static final String CONFIG_INMEM_DEVICE_DIR_KEY = "inMemDeviceDir";
+    // Per-operation keys are built by appending InMemoryDriver.Operation#getConfigName()
+    public static final String CONFIG_INMEM_LATENCY_KEY_PREFIX = "inMemLatency";
+    public static final String CONFIG_INMEM_FAIL_RATE_KEY_PREFIX = "inMemFailRate";
+
     public static final Map<String, String> KEY_DESCRIPTION = new HashMap<>();
 
 
@@ -49,6 +65,21 @@ public class StorageConstants
             "Specifies how many times of the extent size the volume's size " +
             "can be larger than specified upon creation."
         );
+        KEY_DESCRIPTION.put(
+            CONFIG_PARALLEL_VOLUME_OPS_KEY,
+            "Maximum number of volumes of a resource that are created concurrently in this storage pool"
+        );
+        KEY_DESCRIPTION.put(
+            CONFIG_OVERCOMMIT_RATIO_KEY,
+            "Maximum ratio of the sum of all volume sizes to the physical size of a thin pool. " +
+            "0 disables the limit."
+        );
+        KEY_DESCRIPTION.put(CONFIG_INMEM_CAPACITY_KEY, "Total capacity of the simulated pool in KiB");
+        KEY_DESCRIPTION.put(CONFIG_INMEM_EXTENT_SIZE_KEY, "Allocation unit of the simulated pool in KiB");
+        KEY_DESCRIPTION.put(
+            CONFIG_INMEM_DEVICE_DIR_KEY,
+            "Directory prefix used for the (non-existent) block device paths of simulated volumes"
+        );
     }
 
     private StorageConstants()
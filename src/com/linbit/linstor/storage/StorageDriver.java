@@ -104,9 +104,20 @@ public interface StorageDriver
 
     /**
      * Returns the free size of the pool.
+     *
+     * For thinly provisioned pools, this is the space that may still be allocated with respect
+     * to the metadata usage and the configured overcommit ratio, see {@link CapacityInfo#getFreeSize(double)}.
      */
     long getFreeSize() throws StorageException;
 
+    /**
+     * Returns the capacity, physical and virtual allocation and metadata usage of the pool.
+     *
+     * @return Capacity accounting of the pool, all values in KiB
+     * @throws StorageException If querying the pool fails
+     */
+    CapacityInfo getCapacityInfo() throws StorageException;
+
     /**
      * Returns a map of this driver's characteristics, such as what minimum unit of allocation
      * is for the storage managed by the driver, or whether the storage uses fat or thin
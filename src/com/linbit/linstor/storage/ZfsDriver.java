@@ -183,6 +183,7 @@ public class ZfsDriver extends AbsStorageDriver
         checkCommand(config, StorageConstants.CONFIG_ZFS_COMMAND_KEY);
         checkPool(config);
         checkToleranceFactor(config);
+        checkOvercommitRatio(config);
     }
 
 
@@ -194,6 +195,7 @@ public class ZfsDriver extends AbsStorageDriver
         sizeAlignmentToleranceFactor = uncheckedGetAsInt(
             config, StorageConstants.CONFIG_SIZE_ALIGN_TOLERANCE_KEY, sizeAlignmentToleranceFactor
         );
+        overcommitRatio = uncheckedGetAsDouble(config, StorageConstants.CONFIG_OVERCOMMIT_RATIO_KEY, overcommitRatio);
     }
 
     @Override
@@ -337,16 +339,29 @@ public class ZfsDriver extends AbsStorageDriver
         return identifier + "@" + snapshotName;
     }
 
+    /**
+     * The pool's <code>available</code> space already excludes the reservations of thick
+     * volumes, but sparse volumes may still exceed the pool's capacity. Therefore the
+     * free size is additionally limited by the overcommit ratio.
+     */
     @Override
-    @SuppressWarnings("checkstyle:magicnumber")
     public long getFreeSize() throws StorageException
+    {
+        return getCapacityInfo().getFreeSize(overcommitRatio);
+    }
+
+    @Override
+    public CapacityInfo getCapacityInfo() throws StorageException
     {
         final String[] command = new String[]
         {
-            zfsCommand, "get", "available", "-o", "value", "-Hp", pool
+            zfsCommand, "list", "-Hp", "-r",
+            "-t", "filesystem,volume",
+            "-o", "name,used,available,volsize",
+            pool
         };
 
-        long freeSize;
+        CapacityInfo capacityInfo;
         try
         {
             final ExtCmd extCommand = new ExtCmd(timer, errorReporter);
@@ -354,14 +369,24 @@ public class ZfsDriver extends AbsStorageDriver
 
             checkExitCode(outputData, command);
 
-            String strFreeSize = new String(outputData.stdoutData);
-            freeSize = Long.parseLong(strFreeSize.trim()) >> 10; // we have to return free size in KiB
+            capacityInfo = parsePoolCapacity(new String(outputData.stdoutData), pool);
+        }
+        catch (NumberFormatException nfexc)
+        {
+            throw new StorageException(
+                "Unable to parse pool's capacity.",
+                String.format("Failed to parse the capacity of pool: %s", pool),
+                null,
+                null,
+                String.format("External command: %s", glue(command, " ")),
+                nfexc
+            );
         }
         catch (ChildProcessTimeoutException | IOException exc)
         {
             throw new StorageException(
-                "Failed to get the free size (zfs 'available')",
-                String.format("Failed to get the free size for pool: %s", pool),
+                "Failed to get the capacity (zfs 'used', 'available' and 'volsize')",
+                String.format("Failed to get the capacity for pool: %s", pool),
                 (exc instanceof ChildProcessTimeoutException) ?
                     "External command timed out" :
                     "External command threw an IOException",
@@ -370,7 +395,59 @@ public class ZfsDriver extends AbsStorageDriver
                 exc
             );
         }
-        return freeSize;
+        if (capacityInfo == null)
+        {
+            throw new StorageException(
+                "Pool not found",
+                String.format("The pool [%s] was not found", pool),
+                null,
+                null,
+                String.format("External command: %s", glue(command, " "))
+            );
+        }
+        return capacityInfo;
+    }
+
+    /**
+     * Parses the output of the <code>zfs list</code> command used by {@link #getCapacityInfo()}.
+     * The pool's own line provides its used and available space, the sizes of all volumes
+     * within the pool add up to its virtual allocation.
+     *
+     * @return the capacity info or null if the pool is not part of the output
+     */
+    @SuppressWarnings("checkstyle:magicnumber")
+    static CapacityInfo parsePoolCapacity(String stdOut, String pool)
+    {
+        CapacityInfo capacityInfo = null;
+        long used = 0;
+        long available = 0;
+        long virtualAllocated = 0;
+        boolean poolFound = false;
+
+        for (final String line : stdOut.split("\n"))
+        {
+            final String[] data = line.trim().split("\t");
+            if (data.length >= 4)
+            {
+                if (data[0].equals(pool))
+                {
+                    poolFound = true;
+                    // we have to return sizes in KiB
+                    used = Long.parseLong(data[1].trim()) >> 10;
+                    available = Long.parseLong(data[2].trim()) >> 10;
+                }
+                else
+                if (!data[3].trim().equals("-"))
+                {
+                    virtualAllocated += Long.parseLong(data[3].trim()) >> 10;
+                }
+            }
+        }
+        if (poolFound)
+        {
+            capacityInfo = new CapacityInfo(used + available, used, virtualAllocated, 0, 0);
+        }
+        return capacityInfo;
     }
 
     private String getPoolFromConfig(Map<String, String> config)
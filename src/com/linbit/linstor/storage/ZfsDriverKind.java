@@ -46,6 +46,7 @@ public class ZfsDriverKind implements StorageDriverKind
         keys.add(StorageConstants.CONFIG_ZFS_POOL_KEY);
         keys.add(StorageConstants.CONFIG_ZFS_COMMAND_KEY);
         keys.add(StorageConstants.CONFIG_SIZE_ALIGN_TOLERANCE_KEY);
+        keys.add(StorageConstants.CONFIG_OVERCOMMIT_RATIO_KEY);
 
         //TODO zfs offers a lot of editable properties, for example recordsize..
 
@@ -1,16 +1,22 @@
 package com.linbit.linstor.transaction;
 
 import com.linbit.linstor.dbcp.DbConnectionPool;
+import com.linbit.linstor.dbcp.GroupCommitCoordinator;
+import com.linbit.linstor.dbcp.SnapshotGeneration;
 
 import javax.inject.Inject;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
 
 public class ControllerTransactionMgr implements TransactionMgr
 {
     private final DbConnectionPool dbConnectionPool;
     private final Connection dbCon;
     private final TransactionObjectCollection transactionObjectCollection;
+    private final Map<Class<? extends TransactionBatch>, TransactionBatch> batches;
 
     @Inject
     public ControllerTransactionMgr(DbConnectionPool dbConnPool) throws SQLException
@@ -19,6 +25,7 @@ public class ControllerTransactionMgr implements TransactionMgr
         dbCon = dbConnPool.getConnection();
         dbCon.setAutoCommit(false);
         transactionObjectCollection = new TransactionObjectCollection();
+        batches = new LinkedHashMap<>();
     }
 
     @Override
@@ -30,8 +37,40 @@ public class ControllerTransactionMgr implements TransactionMgr
     @Override
     public void commit() throws SQLException
     {
-        dbCon.commit();
+        for (TransactionBatch batch : batches.values())
+        {
+            batch.flush(dbCon);
+        }
+        batches.clear();
+
+        SnapshotGeneration snapshotGeneration = dbConnectionPool.getSnapshotGeneration();
+        if (snapshotGeneration == null)
+        {
+            commitDatabase();
+        }
+        else
+        {
+            snapshotGeneration.commit(dbCon, this::commitDatabase);
+        }
+    }
 
+    private void commitDatabase() throws SQLException
+    {
+        GroupCommitCoordinator groupCommitCoordinator = dbConnectionPool.getGroupCommitCoordinator();
+        if (groupCommitCoordinator == null)
+        {
+            dbCon.commit();
+
+            commitTransactionObjects();
+        }
+        else
+        {
+            groupCommitCoordinator.commit(dbCon, this::commitTransactionObjects);
+        }
+    }
+
+    private void commitTransactionObjects()
+    {
         transactionObjectCollection.commitAll();
 
         clearTransactionObjects();
@@ -41,6 +80,8 @@ public class ControllerTransactionMgr implements TransactionMgr
     @Override
     public void rollback() throws SQLException
     {
+        batches.clear();
+
         transactionObjectCollection.rollbackAll();
 
         dbCon.rollback();
@@ -72,11 +113,18 @@ public class ControllerTransactionMgr implements TransactionMgr
         return dbCon;
     }
 
+    @Override
+    public <T extends TransactionBatch> T getBatch(Class<T> batchClass, Supplier<T> batchFactory)
+    {
+        return batchClass.cast(batches.computeIfAbsent(batchClass, ignored -> batchFactory.get()));
+    }
+
     @Override
     public void returnConnection()
     {
         dbConnectionPool.returnConnection(dbCon);
 
+        batches.clear();
         clearTransactionObjects();
     }
 }
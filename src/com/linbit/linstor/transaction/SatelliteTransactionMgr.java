@@ -2,15 +2,20 @@ package com.linbit.linstor.transaction;
 
 import javax.inject.Inject;
 import java.sql.Connection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
 
 public class SatelliteTransactionMgr implements TransactionMgr
 {
     private final TransactionObjectCollection transactionObjectCollection;
+    private final Map<Class<? extends TransactionBatch>, TransactionBatch> batches;
 
     @Inject
     public SatelliteTransactionMgr()
     {
         transactionObjectCollection = new TransactionObjectCollection();
+        batches = new LinkedHashMap<>();
     }
 
     @Override
@@ -22,6 +27,8 @@ public class SatelliteTransactionMgr implements TransactionMgr
     @Override
     public void commit()
     {
+        // there is no database on the satellite to flush the batches to
+        batches.clear();
         transactionObjectCollection.commitAll();
         clearTransactionObjects();
     }
@@ -30,6 +37,7 @@ public class SatelliteTransactionMgr implements TransactionMgr
     @Override
     public void rollback()
     {
+        batches.clear();
         transactionObjectCollection.rollbackAll();
         clearTransactionObjects();
     }
@@ -58,9 +66,16 @@ public class SatelliteTransactionMgr implements TransactionMgr
         return null;
     }
 
+    @Override
+    public <T extends TransactionBatch> T getBatch(Class<T> batchClass, Supplier<T> batchFactory)
+    {
+        return batchClass.cast(batches.computeIfAbsent(batchClass, ignored -> batchFactory.get()));
+    }
+
     @Override
     public void returnConnection()
     {
+        batches.clear();
         clearTransactionObjects();
     }
 }
@@ -0,0 +1,20 @@
+package com.linbit.linstor.transaction;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Database writes that are collected during a transaction instead of being executed immediately.
+ *
+ * The {@link TransactionMgr} flushes its batches before the database transaction is committed and
+ * discards them when the transaction is rolled back.
+ */
+public interface TransactionBatch
+{
+    /**
+     * Executes the collected writes on the given connection
+     *
+     * @throws SQLException
+     */
+    void flush(Connection dbCon) throws SQLException;
+}
@@ -19,6 +19,9 @@ public class TransactionMap<KEY, VALUE extends TransactionObject>
 {
     private MapDatabaseDriver<KEY, VALUE> dbDriver;
     private Map<KEY, VALUE> map;
+
+    // Values before the first change in the current transaction, allocated by the first change and
+    // released by commit or rollback, so that maps without pending changes do not keep an empty copy
     private Map<KEY, VALUE> oldValues;
 
     public TransactionMap(
@@ -38,7 +41,7 @@ public class TransactionMap<KEY, VALUE extends TransactionObject>
             dbDriver = driver;
         }
 
-        oldValues = new HashMap<>();
+        oldValues = null;
     }
 
     @Override
@@ -57,33 +60,36 @@ public class TransactionMap<KEY, VALUE extends TransactionObject>
     public void commitImpl()
     {
         assert (TransactionMgr.isCalledFromTransactionMgr("commit"));
-        oldValues.clear();
+        oldValues = null;
     }
 
     @Override
     public void rollbackImpl()
     {
         assert (TransactionMgr.isCalledFromTransactionMgr("rollback"));
-        for (Entry<KEY, VALUE> entry : oldValues.entrySet())
+        if (oldValues != null)
         {
-            KEY key = entry.getKey();
-            VALUE value = entry.getValue();
-            if (value == null)
-            {
-                map.remove(key);
-            }
-            else
+            for (Entry<KEY, VALUE> entry : oldValues.entrySet())
             {
-                map.put(key, value);
+                KEY key = entry.getKey();
+                VALUE value = entry.getValue();
+                if (value == null)
+                {
+                    map.remove(key);
+                }
+                else
+                {
+                    map.put(key, value);
+                }
             }
+            oldValues = null;
         }
-        oldValues.clear();
     }
 
     @Override
     public boolean isDirty()
     {
-        return !oldValues.isEmpty();
+        return oldValues != null;
     }
 
     @Override
@@ -175,6 +181,10 @@ public class TransactionMap<KEY, VALUE extends TransactionObject>
         activateTransMgr();
         if (!Objects.equals(value, oldValue))
         {
+            if (oldValues == null)
+            {
+                oldValues = new HashMap<>();
+            }
             if (!oldValues.containsKey(key))
             {
                 oldValues.put(key, oldValue);
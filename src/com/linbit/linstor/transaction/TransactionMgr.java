@@ -2,6 +2,7 @@ package com.linbit.linstor.transaction;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.function.Supplier;
 
 public interface TransactionMgr
 {
@@ -16,6 +17,12 @@ public interface TransactionMgr
 
     Connection getConnection();
 
+    /**
+     * Returns the batch of the given type that collects the deferred writes of this transaction,
+     * creating it with the given factory if this transaction has none yet
+     */
+    <T extends TransactionBatch> T getBatch(Class<T> batchClass, Supplier<T> batchFactory);
+
     void returnConnection();
 
     static boolean isCalledFromTransactionMgr(String methodName)
@@ -705,6 +705,92 @@ public class FileSystemWatchTest
         }
     }
 
+    /**
+     * Tests that an already existing file counts only once towards completing its FileEntryGroup
+     */
+    @Test
+    public void multiFileExistingPartialTest() throws Exception
+    {
+        String existingFile = testFilePath("file1");
+        String createFile = testFilePath("file2");
+
+        createFile(existingFile);
+
+        FileEntryGroupBuilder gBuilder = new FileEntryGroupBuilder();
+        gBuilder.newEntry(existingFile, FileSystemWatch.Event.CREATE);
+        gBuilder.newEntry(createFile, FileSystemWatch.Event.CREATE);
+
+        EntryGroupReceiver gRec = new EntryGroupReceiver();
+        FileEntryGroup entryGroup = gBuilder.create(gRec);
+        fsw.addFileEntryList(entryGroup.getEntryList());
+
+        if (gRec.isFinished(entryGroup))
+        {
+            fail("EntryGroupObserver triggered before all conditions are met");
+        }
+        createFile(createFile);
+
+        Delay.sleep(TEST_DELAY);
+
+        entryGroupCheck(gRec, entryGroup);
+
+        // Cleanup
+        deleteFile(existingFile);
+        deleteFile(createFile);
+    }
+
+    /**
+     * Waits for a file that is created after the wait started
+     */
+    @Test
+    public void waitFileTest() throws Exception
+    {
+        String createFile = testFilePath("file1");
+
+        new Thread(
+            () ->
+            {
+                Delay.sleep(TEST_DELAY);
+                createFile(createFile);
+            }
+        ).start();
+
+        fsw.waitFile(createFile, FileSystemWatch.Event.CREATE, TEST_DELAY * 10);
+
+        assertThat(fsw.getWaitCount()).isEqualTo(1);
+        assertThat(fsw.getWaitTimeoutCount()).isEqualTo(0);
+        assertThat(fsw.getWatchedFileCount()).isEqualTo(0);
+        assertThat(fsw.getWatchedDirectoryCount()).isEqualTo(0);
+
+        // Cleanup
+        deleteFile(createFile);
+    }
+
+    /**
+     * Tests that the entry is unregistered if waiting for a file times out
+     */
+    @Test
+    public void waitFileTimeoutTest() throws Exception
+    {
+        String createFile = testFilePath("file1");
+
+        boolean threw = false;
+        try
+        {
+            fsw.waitFile(createFile, FileSystemWatch.Event.CREATE, TEST_DELAY / 10);
+        }
+        catch (FsWatchTimeoutException ignored)
+        {
+            threw = true;
+        }
+        assertThat(threw).isTrue();
+
+        assertThat(fsw.getWaitCount()).isEqualTo(0);
+        assertThat(fsw.getWaitTimeoutCount()).isEqualTo(1);
+        assertThat(fsw.getWatchedFileCount()).isEqualTo(0);
+        assertThat(fsw.getWatchedDirectoryCount()).isEqualTo(0);
+    }
+
     private static class FileEventReceiver implements FileObserver
     {
         Set<String> expected = new TreeSet<>();
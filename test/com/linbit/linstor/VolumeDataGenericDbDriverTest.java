@@ -380,6 +380,7 @@ public class VolumeDataGenericDbDriverTest extends GenericDbBase
         String testKey = "TestKey";
         String testValue = "TestValue";
         vol.getProps(SYS_CTX).setProp(testKey, testValue);
+        commit();
 
         Map<String, String> map = new HashMap<>();
         map.put(testKey, testValue);
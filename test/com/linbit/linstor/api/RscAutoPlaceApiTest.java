@@ -17,15 +17,19 @@ import com.linbit.linstor.api.utils.AbsApiCallTester;
 import com.linbit.linstor.core.ApiTestBase;
 import com.linbit.linstor.core.CtrlRscApiCallHandler;
 import com.linbit.linstor.core.CtrlRscAutoPlaceApiCallHandler;
+import com.linbit.linstor.core.VolumeIoStats;
 import com.linbit.linstor.netcom.Peer;
 import com.linbit.linstor.propscon.InvalidKeyException;
 import com.linbit.linstor.propscon.InvalidValueException;
 import com.linbit.linstor.propscon.Props;
+import com.linbit.linstor.satellitestate.SatelliteState;
+import com.linbit.linstor.satellitestate.SatelliteVolumeState;
 import com.linbit.linstor.security.AccessDeniedException;
 import com.linbit.linstor.storage.LvmDriver;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 
 import javax.inject.Provider;
 
@@ -38,6 +42,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -73,6 +78,9 @@ public class RscAutoPlaceApiTest extends ApiTestBase
         super.setUp();
         createRscDfn(TEST_RSC_NAME, TEST_TCP_PORT_NR);
         MINOR_GEN.set(MINOR_NR_MIN);
+
+        Mockito.when(mockSatellite.getSatelliteStateLock()).thenReturn(new ReentrantReadWriteLock());
+        Mockito.when(mockSatellite.getSatelliteState()).thenReturn(new SatelliteState());
     }
 
     @Test
@@ -451,6 +459,43 @@ public class RscAutoPlaceApiTest extends ApiTestBase
         assertNotEquals(firstNodeProps.getProp("Aux/B"), secondNodeProps.getProp("Aux/B"));
     }
 
+    @Test
+    @SuppressWarnings("checkstyle:magicnumber")
+    public void preferLessLoadedNodeTest() throws Exception
+    {
+        evaluateTest(
+            new RscAutoPlaceApiCall(
+                TEST_RSC_NAME,
+                1,
+                ApiConsts.WARN_NOT_CONNECTED, // stlt.idle
+                ApiConsts.CREATED, // stlt.idle, rsc
+                ApiConsts.MASK_VLM | ApiConsts.CREATED, // stlt.idle, rsc, vlm
+                ApiConsts.CREATED // rsc autoplace
+            )
+            .addVlmDfn(TEST_RSC_NAME, 0, 5 * GB)
+            .stltBuilder("stlt.busy")
+                .setNodeProp("Aux/A", "1")
+                .addStorPool("stor", 10 * GB)
+                .setTotalIops(1000)
+                .build()
+            .stltBuilder("stlt.idle")
+                .setNodeProp("Aux/A", "1")
+                .addStorPool("stor", 10 * GB)
+                .setTotalIops(10)
+                .build()
+
+            .addReplicasOnDfifferentNodeProp("Aux/A")
+        );
+
+        expectDeployed(
+            "stor",
+            TEST_RSC_NAME,
+            "stlt.idle"
+        );
+        assertThat(nodesMap.get(new NodeName("stlt.busy")).getResource(SYS_CTX, new ResourceName(TEST_RSC_NAME)))
+            .isNull();
+    }
+
     private void expectDeployed(
         String storPoolNameStr,
         String rscNameStr,
@@ -697,6 +742,24 @@ public class RscAutoPlaceApiTest extends ApiTestBase
             return this;
         }
 
+        SatelliteBuilder setTotalIops(double iops) throws Exception
+        {
+            SatelliteState stltState = new SatelliteState();
+            stltState.setOnVolume(
+                new ResourceName("LoadRsc"),
+                new VolumeNumber(0),
+                SatelliteVolumeState::setIoStats,
+                new VolumeIoStats(iops, 0, 0, 0, 0, 0)
+            );
+
+            Peer stltPeer = Mockito.mock(Peer.class);
+            Mockito.when(stltPeer.getSatelliteStateLock()).thenReturn(new ReentrantReadWriteLock());
+            Mockito.when(stltPeer.getSatelliteState()).thenReturn(stltState);
+            stlt.setPeer(SYS_CTX, stltPeer);
+
+            return this;
+        }
+
         public RscAutoPlaceApiCall build() throws Exception
         {
             return parent;
@@ -0,0 +1,81 @@
+package com.linbit.linstor.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class DmStatsReportTest
+{
+    private static final double DELTA = 0.0001;
+    private static final long SEC = 1_000_000_000L;
+
+    @Test
+    public void testParse()
+    {
+        Map<String, DmStatsReport.Counters> counters = DmStatsReport.parse(
+            "  drbdpool-rsc_00000;0;100;800;2000000;50;400;5000000\n" +
+            "  drbdpool-rsc_00000;1;999;999;999;999;999;999\n" +
+            "  drbdpool-my--rsc_00000;0;0;0;0;0;0;0\n" +
+            "  WARNING: malformed;line\n"
+        );
+
+        assertEquals(2, counters.size());
+
+        // only the first region of a device is considered
+        DmStatsReport.Counters next = new DmStatsReport.Counters(300, 2800, 4000000, 50, 400, 5000000);
+        VolumeIoStats stats = next.statsSince(counters.get("drbdpool-rsc_00000"), 2 * SEC);
+        assertEquals(100.0, stats.getReadIops(), DELTA);
+        assertEquals(0.0, stats.getWriteIops(), DELTA);
+        // 2000 sectors of 512 bytes in 2 seconds
+        assertEquals(500.0, stats.getReadKibPerSec(), DELTA);
+        // 2 ms spent on 200 reads
+        assertEquals(0.01, stats.getReadLatencyMs(), DELTA);
+        assertEquals(0.0, stats.getWriteLatencyMs(), DELTA);
+    }
+
+    @Test
+    public void testCountersReset()
+    {
+        DmStatsReport.Counters prev = new DmStatsReport.Counters(100, 800, 2000000, 50, 400, 5000000);
+        DmStatsReport.Counters recreated = new DmStatsReport.Counters(1, 8, 1000, 0, 0, 0);
+
+        assertNull(recreated.statsSince(prev, SEC));
+        assertNull(prev.statsSince(prev, 0));
+    }
+
+    @Test
+    public void testGuessDmName()
+    {
+        assertEquals("drbdpool-rsc_00000", DmStatsReport.guessDmName("/dev/drbdpool/rsc_00000"));
+        assertEquals("my--vg-my--rsc_00000", DmStatsReport.guessDmName("/dev/my-vg/my-rsc_00000"));
+        assertEquals(
+            "Linstor-Crypt-rsc_00000",
+            DmStatsReport.guessDmName("/dev/mapper/Linstor-Crypt-rsc_00000")
+        );
+        assertNull(DmStatsReport.guessDmName("/dev/zvol/tank/rsc_00000"));
+    }
+
+    @Test
+    public void testSum()
+    {
+        VolumeIoStats total = VolumeIoStats.sum(Arrays.asList(
+            new VolumeIoStats(100, 10, 400, 40, 1.0, 4.0),
+            new VolumeIoStats(300, 0, 1200, 0, 3.0, 0)
+        ));
+
+        assertEquals(400.0, total.getReadIops(), DELTA);
+        assertEquals(10.0, total.getWriteIops(), DELTA);
+        assertEquals(1600.0, total.getReadKibPerSec(), DELTA);
+        // weighted by the number of reads
+        assertEquals(2.5, total.getReadLatencyMs(), DELTA);
+        assertEquals(4.0, total.getWriteLatencyMs(), DELTA);
+
+        VolumeIoStats restored = VolumeIoStats.fromMap(total.toMap());
+        assertEquals(total.getReadLatencyMs(), restored.getReadLatencyMs(), DELTA);
+        assertEquals(total.getWriteKibPerSec(), restored.getWriteKibPerSec(), DELTA);
+    }
+}
@@ -0,0 +1,56 @@
+package com.linbit.linstor.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DrbdMetaDataCacheTest
+{
+    private static final String DEV_PATH = "/dev/drbdpool/rsc_00000";
+    private static final String VLM_NAME = "rsc_00000";
+    private static final long SIZE = 102_400;
+
+    private DrbdMetaDataCache cache;
+
+    @Before
+    public void setUp()
+    {
+        cache = new DrbdMetaDataCache();
+    }
+
+    @Test
+    public void testPresent()
+    {
+        assertFalse(cache.isKnownPresent(DEV_PATH, VLM_NAME, SIZE));
+
+        cache.setPresent(DEV_PATH, VLM_NAME, SIZE);
+
+        assertTrue(cache.isKnownPresent(DEV_PATH, VLM_NAME, SIZE));
+    }
+
+    @Test
+    public void testKeyMismatch()
+    {
+        cache.setPresent(DEV_PATH, VLM_NAME, SIZE);
+
+        assertFalse(cache.isKnownPresent(DEV_PATH, VLM_NAME, SIZE * 2));
+        assertFalse(cache.isKnownPresent(DEV_PATH, "rsc_00001", SIZE));
+        assertFalse(cache.isKnownPresent("/dev/mapper/Linstor-Crypt-rsc_00000", VLM_NAME, SIZE));
+    }
+
+    @Test
+    public void testInvalidate()
+    {
+        cache.setPresent(DEV_PATH, VLM_NAME, SIZE);
+        cache.setPresent("/dev/drbdpool/rsc_00001", "rsc_00001", SIZE);
+
+        cache.invalidate(VLM_NAME);
+
+        assertFalse(cache.isKnownPresent(DEV_PATH, VLM_NAME, SIZE));
+        assertTrue(cache.isKnownPresent("/dev/drbdpool/rsc_00001", "rsc_00001", SIZE));
+        assertEquals(1, cache.size());
+    }
+}
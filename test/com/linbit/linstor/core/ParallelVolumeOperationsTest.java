@@ -0,0 +1,166 @@
+package com.linbit.linstor.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.linbit.WorkQueue;
+import com.linbit.linstor.StorPoolName;
+import com.linbit.linstor.VolumeNumber;
+import com.linbit.linstor.api.pojo.VolumeStateDevManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelVolumeOperationsTest
+{
+    private ExecutorService executor;
+    private WorkQueue workQueue;
+
+    @Before
+    public void setUp()
+    {
+        executor = Executors.newFixedThreadPool(4);
+        workQueue = executor::execute;
+    }
+
+    @After
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @SuppressWarnings("checkstyle:magicnumber")
+    public void testMixedResultsAcrossStorPools() throws Exception
+    {
+        Map<StorPoolName, List<VolumeStateDevManager>> vlmStatesByStorPool = new HashMap<>();
+        vlmStatesByStorPool.put(new StorPoolName("pool1"), makeVlmStates(0, 2, 4));
+        vlmStatesByStorPool.put(new StorPoolName("pool2"), makeVlmStates(1, 3, 5));
+        Map<StorPoolName, Integer> parallelOps = new HashMap<>();
+        parallelOps.put(new StorPoolName("pool1"), 2);
+        parallelOps.put(new StorPoolName("pool2"), 1);
+
+        Map<Integer, Throwable> thrown = new HashMap<>();
+        thrown.put(3, new IllegalStateException("volume 3"));
+        thrown.put(4, new IllegalStateException("volume 4"));
+        thrown.put(5, new StackOverflowError());
+        Set<Integer> processed = ConcurrentHashMap.newKeySet();
+
+        SortedMap<VolumeNumber, Throwable> failures = ParallelVolumeOperations.run(
+            workQueue,
+            vlmStatesByStorPool,
+            parallelOps,
+            vlmState ->
+            {
+                int vlmNr = vlmState.getVlmNr().value;
+                processed.add(vlmNr);
+                Throwable failure = thrown.get(vlmNr);
+                if (failure instanceof Exception)
+                {
+                    throw (Exception) failure;
+                }
+                if (failure instanceof Error)
+                {
+                    throw (Error) failure;
+                }
+            }
+        );
+
+        assertEquals(6, processed.size());
+        assertEquals(Arrays.asList(3, 4, 5), vlmNrs(failures));
+        // the failure of the lowest volume number is the one that is reported
+        assertSame(thrown.get(3), failures.get(failures.firstKey()));
+        assertSame(thrown.get(5), failures.get(new VolumeNumber(5)));
+    }
+
+    @Test
+    @SuppressWarnings("checkstyle:magicnumber")
+    public void testRejectedRunner() throws Exception
+    {
+        RejectedExecutionException rejectedExc = new RejectedExecutionException("queue shut down");
+        Map<StorPoolName, List<VolumeStateDevManager>> vlmStatesByStorPool = new HashMap<>();
+        vlmStatesByStorPool.put(new StorPoolName("pool1"), makeVlmStates(0, 1));
+        Map<StorPoolName, Integer> parallelOps = new HashMap<>();
+        parallelOps.put(new StorPoolName("pool1"), 2);
+
+        SortedMap<VolumeNumber, Throwable> failures = ParallelVolumeOperations.run(
+            task ->
+            {
+                throw rejectedExc;
+            },
+            vlmStatesByStorPool,
+            parallelOps,
+            vlmState ->
+            {
+            }
+        );
+
+        assertEquals(Arrays.asList(0, 1), vlmNrs(failures));
+        assertSame(rejectedExc, failures.get(failures.firstKey()));
+    }
+
+    @Test
+    @SuppressWarnings("checkstyle:magicnumber")
+    public void testPartiallyRejectedRunners() throws Exception
+    {
+        Map<StorPoolName, List<VolumeStateDevManager>> vlmStatesByStorPool = new HashMap<>();
+        vlmStatesByStorPool.put(new StorPoolName("pool1"), makeVlmStates(0, 1, 2));
+        Map<StorPoolName, Integer> parallelOps = new HashMap<>();
+        parallelOps.put(new StorPoolName("pool1"), 3);
+
+        List<Runnable> acceptedTasks = new ArrayList<>();
+        Set<Integer> processed = ConcurrentHashMap.newKeySet();
+        SortedMap<VolumeNumber, Throwable> failures = ParallelVolumeOperations.run(
+            task ->
+            {
+                if (!acceptedTasks.isEmpty())
+                {
+                    throw new RejectedExecutionException("queue full");
+                }
+                acceptedTasks.add(task);
+                executor.execute(task);
+            },
+            vlmStatesByStorPool,
+            parallelOps,
+            vlmState -> processed.add(vlmState.getVlmNr().value)
+        );
+
+        // the runner that was started processes all volumes
+        assertTrue(failures.isEmpty());
+        assertEquals(3, processed.size());
+    }
+
+    private static List<VolumeStateDevManager> makeVlmStates(int... vlmNrs) throws Exception
+    {
+        List<VolumeStateDevManager> vlmStates = new ArrayList<>();
+        for (int vlmNr : vlmNrs)
+        {
+            vlmStates.add(new VolumeStateDevManager(new VolumeNumber(vlmNr)));
+        }
+        return vlmStates;
+    }
+
+    private static List<Integer> vlmNrs(SortedMap<VolumeNumber, Throwable> failures)
+    {
+        List<Integer> vlmNrs = new ArrayList<>();
+        for (VolumeNumber vlmNr : failures.keySet())
+        {
+            vlmNrs.add(vlmNr.value);
+        }
+        return vlmNrs;
+    }
+}
@@ -0,0 +1,190 @@
+package com.linbit.linstor.dbcp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class GroupCommitCoordinatorTest
+{
+    private static final String DEFERRED = "DEFERRED";
+    private static final String DURABLE = "DURABLE";
+    private static final long DURABLE_COMMIT_MILLIS = 100;
+
+    @Test
+    public void testSingleCommit() throws Exception
+    {
+        GroupCommitCoordinator coordinator = new GroupCommitCoordinator(DEFERRED, DURABLE);
+        Statement stmt = mock(Statement.class);
+        Connection dbCon = mockConnection(stmt);
+        AtomicInteger committed = new AtomicInteger();
+
+        coordinator.commit(dbCon, committed::incrementAndGet);
+
+        assertEquals(1, committed.get());
+        verify(stmt).execute(DEFERRED);
+        verify(stmt).execute(DURABLE);
+        verify(dbCon, times(2)).commit();
+
+        GroupCommitCoordinator.GroupCommitStats stats = coordinator.getStats();
+        assertEquals(1, stats.getGroups());
+        assertEquals(1, stats.getCommits());
+        assertEquals(1, stats.getMaxGroupSize());
+    }
+
+    @Test
+    public void testConcurrentCommitsShareDurableCommit() throws Exception
+    {
+        final int count = 10;
+        GroupCommitCoordinator coordinator = new GroupCommitCoordinator(DEFERRED, DURABLE);
+        AtomicInteger durableCommits = new AtomicInteger();
+        List<Statement> stmts = new ArrayList<>();
+        List<Connection> dbCons = new ArrayList<>();
+        for (int idx = 0; idx < count; ++idx)
+        {
+            Statement stmt = mock(Statement.class);
+            when(stmt.execute(DURABLE)).thenAnswer(
+                invocation ->
+                {
+                    durableCommits.incrementAndGet();
+                    // Transactions that commit while the durable commit is running join the next group
+                    Thread.sleep(DURABLE_COMMIT_MILLIS);
+                    return false;
+                }
+            );
+            stmts.add(stmt);
+            dbCons.add(mockConnection(stmt));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(count);
+        try
+        {
+            CountDownLatch allCommitted = new CountDownLatch(count);
+            List<Future<?>> futures = new ArrayList<>();
+            for (Connection dbCon : dbCons)
+            {
+                futures.add(executor.submit(() ->
+                {
+                    coordinator.commit(dbCon, allCommitted::countDown);
+                    return null;
+                }));
+            }
+
+            // The transactions are committed without waiting for the durable commit
+            assertTrue(allCommitted.await(10, TimeUnit.SECONDS));
+            for (Future<?> future : futures)
+            {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        GroupCommitCoordinator.GroupCommitStats stats = coordinator.getStats();
+        assertEquals(count, stats.getCommits());
+        for (Statement stmt : stmts)
+        {
+            verify(stmt).execute(DEFERRED);
+        }
+        assertEquals(stats.getGroups(), durableCommits.get());
+        assertTrue(stats.getGroups() < count);
+    }
+
+    @Test
+    public void testSequentialCommitsDoNotWait() throws Exception
+    {
+        final int count = 50;
+        GroupCommitCoordinator coordinator = new GroupCommitCoordinator(DEFERRED, DURABLE);
+        Statement stmt = mock(Statement.class);
+        Connection dbCon = mockConnection(stmt);
+
+        long startNanos = System.nanoTime();
+        for (int idx = 0; idx < count; ++idx)
+        {
+            coordinator.commit(dbCon, () -> { });
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        // Without other transactions, each transaction runs its durable commit at once
+        assertTrue("Sequential commits took " + elapsedMillis + " ms", elapsedMillis < count * 10);
+        GroupCommitCoordinator.GroupCommitStats stats = coordinator.getStats();
+        assertEquals(count, stats.getGroups());
+        assertEquals(count, stats.getCommits());
+        assertEquals(1, stats.getMaxGroupSize());
+        verify(stmt, times(count)).execute(DURABLE);
+    }
+
+    @Test
+    public void testDurableCommitFailure() throws Exception
+    {
+        GroupCommitCoordinator coordinator = new GroupCommitCoordinator(DEFERRED, DURABLE);
+        Statement stmt = mock(Statement.class);
+        when(stmt.execute(DURABLE)).thenThrow(new SQLException("flush failed"));
+        Connection dbCon = mockConnection(stmt);
+        AtomicInteger committed = new AtomicInteger();
+
+        try
+        {
+            coordinator.commit(dbCon, committed::incrementAndGet);
+            fail("Exception expected");
+        }
+        catch (SQLException expected)
+        {
+            // expected
+        }
+
+        // The transaction itself was committed
+        assertEquals(1, committed.get());
+        verify(dbCon, times(1)).commit();
+    }
+
+    @Test
+    public void testCommitFailure() throws Exception
+    {
+        GroupCommitCoordinator coordinator = new GroupCommitCoordinator(DEFERRED, DURABLE);
+        Statement stmt = mock(Statement.class);
+        Connection dbCon = mockConnection(stmt);
+        doThrow(new SQLException("commit failed")).when(dbCon).commit();
+        AtomicInteger committed = new AtomicInteger();
+
+        try
+        {
+            coordinator.commit(dbCon, committed::incrementAndGet);
+            fail("Exception expected");
+        }
+        catch (SQLException expected)
+        {
+            // expected
+        }
+
+        assertEquals(0, committed.get());
+        assertEquals(0, coordinator.getStats().getGroups());
+    }
+
+    private Connection mockConnection(Statement stmt) throws SQLException
+    {
+        Connection dbCon = mock(Connection.class);
+        when(dbCon.createStatement()).thenReturn(stmt);
+        return dbCon;
+    }
+}
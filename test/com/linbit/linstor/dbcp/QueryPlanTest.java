@@ -0,0 +1,208 @@
+package com.linbit.linstor.dbcp;
+
+import com.linbit.linstor.core.LinstorConfig;
+import com.linbit.linstor.dbdrivers.ControllerDbModule;
+import com.linbit.linstor.propscon.CompactPropsStorage;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.inject.spi.Element;
+import com.google.inject.spi.Elements;
+import com.google.inject.spi.LinkedKeyBinding;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the query plans of the database statements of the controller on the schema created by the migrations,
+ * so that a schema change cannot silently make a lookup read the whole table
+ */
+public class QueryPlanTest
+{
+    private static final String DB_TYPE = "h2";
+    private static final String DB_URL = "jdbc:h2:mem:queryPlanTest";
+
+    /**
+     * Classes with statements that are not bound as database drivers in the {@link ControllerDbModule}
+     */
+    private static final List<Class<?>> STATEMENT_HELPER_CLASSES = Arrays.asList(
+        CompactPropsStorage.class,
+        SnapshotGeneration.class,
+        LinstorConfig.class
+    );
+
+    private static final Pattern STATEMENT_PATTERN = Pattern.compile("^\\s*(SELECT|UPDATE|DELETE)\\b");
+    private static final Pattern WHERE_PATTERN = Pattern.compile("\\bWHERE\\b");
+    private static final Pattern TABLE_SCAN_PATTERN = Pattern.compile("\\.tableScan\\b");
+
+    private static DbConnectionPool dbConnPool;
+
+    @BeforeClass
+    public static void setUpBeforeClass()
+        throws SQLException
+    {
+        Properties dbProps = new Properties();
+        dbProps.setProperty("user", "linstor");
+        dbProps.setProperty("password", "linbit");
+
+        dbConnPool = new DbConnectionPool();
+        dbConnPool.initializeDataSource(DB_URL, dbProps);
+        dbConnPool.migrate(DB_TYPE);
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass()
+    {
+        dbConnPool.shutdown();
+    }
+
+    /**
+     * Statements with a WHERE clause must not scan any table. Statements that read or change all rows of a
+     * table may scan that table, but must not scan joined tables.
+     */
+    @Test
+    public void testNoTableScans()
+        throws Exception
+    {
+        List<String> failures = new ArrayList<>();
+        int statementCount = 0;
+        Connection dbCon = dbConnPool.getConnection();
+        try
+        {
+            for (Class<?> statementClass : getStatementClasses())
+            {
+                for (Field field : statementClass.getDeclaredFields())
+                {
+                    String sql = getStatement(field);
+                    if (sql != null)
+                    {
+                        String plan = explain(dbCon, sql);
+                        int allowedScans = WHERE_PATTERN.matcher(sql).find() ? 0 : 1;
+                        if (countTableScans(plan) > allowedScans)
+                        {
+                            failures.add(statementClass.getSimpleName() + "." + field.getName() + ":\n" + plan);
+                        }
+                        ++statementCount;
+                    }
+                }
+            }
+        }
+        finally
+        {
+            dbConnPool.returnConnection(dbCon);
+        }
+
+        assertTrue("No statements found", statementCount > 0);
+        if (!failures.isEmpty())
+        {
+            fail("Statements with table scans:\n\n" + String.join("\n\n", failures));
+        }
+    }
+
+    @Test
+    public void testLookupIndexesExist()
+        throws Exception
+    {
+        Connection dbCon = dbConnPool.getConnection();
+        try
+        {
+            Set<String> indexNames = new LinkedHashSet<>();
+            try (ResultSet resultSet = dbCon.getMetaData().getIndexInfo(null, null, "SEC_ACL_MAP", false, false))
+            {
+                while (resultSet.next())
+                {
+                    indexNames.add(resultSet.getString("INDEX_NAME"));
+                }
+            }
+            assertTrue(indexNames.toString(), indexNames.contains("IDX_SAM_OBJECT_PATH"));
+        }
+        finally
+        {
+            dbConnPool.returnConnection(dbCon);
+        }
+    }
+
+    /**
+     * Collects the implementations that the {@link ControllerDbModule} binds, so that new database drivers
+     * are checked without having to be added here
+     */
+    private static Set<Class<?>> getStatementClasses()
+    {
+        Set<Class<?>> statementClasses = new LinkedHashSet<>();
+        for (Element element : Elements.getElements(new ControllerDbModule()))
+        {
+            if (element instanceof LinkedKeyBinding)
+            {
+                statementClasses.add(
+                    ((LinkedKeyBinding<?>) element).getLinkedKey().getTypeLiteral().getRawType()
+                );
+            }
+        }
+        statementClasses.addAll(STATEMENT_HELPER_CLASSES);
+        return statementClasses;
+    }
+
+    private static String getStatement(Field field)
+        throws IllegalAccessException
+    {
+        String sql = null;
+        int modifiers = field.getModifiers();
+        if (Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers) && field.getType() == String.class)
+        {
+            field.setAccessible(true);
+            String value = (String) field.get(null);
+            if (value != null && STATEMENT_PATTERN.matcher(value.toUpperCase()).find())
+            {
+                sql = value;
+            }
+        }
+        return sql;
+    }
+
+    private static String explain(Connection dbCon, String sql)
+        throws SQLException
+    {
+        String plan;
+        try (PreparedStatement stmt = dbCon.prepareStatement("EXPLAIN " + sql))
+        {
+            int paramCount = stmt.getParameterMetaData().getParameterCount();
+            for (int idx = 1; idx <= paramCount; ++idx)
+            {
+                stmt.setObject(idx, null);
+            }
+            try (ResultSet resultSet = stmt.executeQuery())
+            {
+                resultSet.next();
+                plan = resultSet.getString(1);
+            }
+        }
+        return plan;
+    }
+
+    private static int countTableScans(String plan)
+    {
+        int count = 0;
+        Matcher matcher = TABLE_SCAN_PATTERN.matcher(plan);
+        while (matcher.find())
+        {
+            ++count;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,124 @@
+package com.linbit.linstor.dbcp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class StatementStatisticsTest
+{
+    private static final String SELECT = "SELECT A FROM T";
+    private static final String UPDATE = "UPDATE T SET A = ?";
+    private static final String DELETE = "DELETE FROM T";
+
+    @Test
+    public void testPercentiles()
+    {
+        StatementStatistics statistics = new StatementStatistics();
+        for (int idx = 0; idx < 99; ++idx)
+        {
+            statistics.record(SELECT, TimeUnit.MICROSECONDS.toNanos(100), 1);
+        }
+        statistics.record(SELECT, TimeUnit.MICROSECONDS.toNanos(10000), 1);
+
+        StatementStatistics.Entry entry = statistics.getEntries(StatementStatistics.Entry.BY_TOTAL).get(0);
+        assertEquals(100, entry.getCount());
+        assertEquals(100, entry.getRows());
+        assertEquals(19900, entry.getTotalMicros());
+        assertEquals(10000, entry.getMaxMicros());
+        assertEquals(128, entry.getPercentileMicros(0.50));
+        assertEquals(128, entry.getPercentileMicros(0.99));
+        assertEquals(10000, entry.getPercentileMicros(1.0));
+    }
+
+    @Test
+    public void testStatementLimit()
+    {
+        StatementStatistics statistics = new StatementStatistics();
+        for (int idx = 0; idx < StatementStatistics.MAX_STATEMENTS + 10; ++idx)
+        {
+            statistics.record(SELECT + " WHERE A = " + idx, 0, 0);
+        }
+
+        List<StatementStatistics.Entry> entries = statistics.getEntries(StatementStatistics.Entry.BY_COUNT);
+        assertEquals(StatementStatistics.MAX_STATEMENTS + 1, entries.size());
+        assertEquals(StatementStatistics.OTHER_STATEMENTS, entries.get(0).getSql());
+        assertEquals(10, entries.get(0).getCount());
+    }
+
+    @Test
+    public void testInstrumentedConnection() throws Exception
+    {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true, true, true, false);
+        PreparedStatement selectStmt = mock(PreparedStatement.class);
+        when(selectStmt.executeQuery()).thenReturn(resultSet);
+        PreparedStatement updateStmt = mock(PreparedStatement.class);
+        when(updateStmt.executeBatch()).thenReturn(new int[] {1, 1, Statement.SUCCESS_NO_INFO});
+        Statement stmt = mock(Statement.class);
+        when(stmt.executeUpdate(DELETE)).thenReturn(5);
+
+        Connection dbCon = mock(Connection.class);
+        when(dbCon.prepareStatement(SELECT)).thenReturn(selectStmt);
+        when(dbCon.prepareStatement(UPDATE)).thenReturn(updateStmt);
+        when(dbCon.createStatement()).thenReturn(stmt);
+
+        StatementStatistics statistics = new StatementStatistics();
+        Connection instrumentedCon = InstrumentedConnection.wrap(dbCon, statistics);
+
+        for (int idx = 0; idx < 2; ++idx)
+        {
+            try (
+                PreparedStatement instrumentedStmt = instrumentedCon.prepareStatement(SELECT);
+                ResultSet instrumentedResultSet = instrumentedStmt.executeQuery()
+            )
+            {
+                while (instrumentedResultSet.next())
+                {
+                    // read all rows
+                }
+            }
+            when(resultSet.next()).thenReturn(true, false);
+        }
+        try (PreparedStatement instrumentedStmt = instrumentedCon.prepareStatement(UPDATE))
+        {
+            instrumentedStmt.setString(1, "value");
+            instrumentedStmt.addBatch();
+            instrumentedStmt.executeBatch();
+        }
+        try (Statement instrumentedStmt = instrumentedCon.createStatement())
+        {
+            instrumentedStmt.executeUpdate(DELETE);
+        }
+        instrumentedCon.commit();
+
+        verify(updateStmt).setString(1, "value");
+        verify(dbCon).commit();
+        assertTrue(instrumentedCon.equals(instrumentedCon));
+
+        Map<String, StatementStatistics.Entry> entries = new HashMap<>();
+        for (StatementStatistics.Entry entry : statistics.getEntries(StatementStatistics.Entry.BY_COUNT))
+        {
+            entries.put(entry.getSql(), entry);
+        }
+        assertEquals(4, entries.size());
+        assertEquals(2, entries.get(SELECT).getCount());
+        assertEquals(4, entries.get(SELECT).getRows());
+        assertEquals(1, entries.get(UPDATE).getCount());
+        assertEquals(2, entries.get(UPDATE).getRows());
+        assertEquals(5, entries.get(DELETE).getRows());
+        assertEquals(1, entries.get(InstrumentedConnection.COMMIT).getCount());
+    }
+}
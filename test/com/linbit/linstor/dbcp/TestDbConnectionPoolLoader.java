@@ -1,5 +1,7 @@
 package com.linbit.linstor.dbcp;
 
+import com.linbit.linstor.dbdrivers.DatabaseDriverInfo;
+
 import java.sql.SQLException;
 import java.util.Properties;
 
@@ -21,6 +23,7 @@ public class TestDbConnectionPoolLoader
 
         DbConnectionPool dbConnPool = new DbConnectionPool();
         dbConnPool.initializeDataSource(DB_URL, DB_PROPS);
+        dbConnPool.setDatabaseInfo(DatabaseDriverInfo.createDriverInfo(DB_TYPE));
 
         return dbConnPool;
     }
@@ -0,0 +1,152 @@
+package com.linbit.linstor.dbdrivers;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StartupSnapshotTest
+{
+    private static final String DB_URL = "jdbc:h2:mem:startupSnapshotTest";
+    private static final String SELECT_ALL = "SELECT NAME, SIZE, ENABLED FROM ITEMS ORDER BY NAME";
+    private static final String SELECT_BY_NAME = "SELECT NAME, SIZE, ENABLED FROM ITEMS WHERE NAME = ?";
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    private Connection dbCon;
+
+    @Before
+    public void setUp()
+        throws SQLException
+    {
+        dbCon = DriverManager.getConnection(DB_URL);
+        try (Statement stmt = dbCon.createStatement())
+        {
+            stmt.execute("CREATE TABLE ITEMS (NAME VARCHAR(32) NOT NULL, SIZE BIGINT, ENABLED BOOLEAN NOT NULL)");
+            stmt.execute("INSERT INTO ITEMS VALUES ('a', 10, TRUE)");
+            stmt.execute("INSERT INTO ITEMS VALUES ('b', NULL, FALSE)");
+        }
+    }
+
+    @After
+    public void tearDown()
+        throws SQLException
+    {
+        try (Statement stmt = dbCon.createStatement())
+        {
+            stmt.execute("DROP TABLE ITEMS");
+        }
+        dbCon.close();
+    }
+
+    @Test
+    public void testWriteAndRead()
+        throws Exception
+    {
+        Path file = writeSnapshot(7);
+
+        assertNull(StartupSnapshot.read(file, DB_URL, 8));
+        assertNull(StartupSnapshot.read(file, "jdbc:h2:mem:other", 7));
+
+        StartupSnapshot snapshot = StartupSnapshot.read(file, DB_URL, 7);
+        assertNotNull(snapshot);
+        assertEquals(7, snapshot.getGeneration());
+        assertEquals(1, snapshot.getQueryCount());
+
+        StartupSnapshot.QueryResult queryResult = snapshot.getQueryResult(SELECT_ALL);
+        assertEquals(3, queryResult.getColumnCount());
+        assertEquals(Integer.valueOf(2), queryResult.findColumn("size"));
+        assertEquals(2, queryResult.getRows().size());
+        assertNull(queryResult.getRows().get(1)[1]);
+    }
+
+    @Test
+    public void testReplayFromSnapshot()
+        throws Exception
+    {
+        StartupSnapshot snapshot = StartupSnapshot.read(writeSnapshot(1), DB_URL, 1);
+
+        // Changes of the database after the snapshot was taken must not be visible
+        try (Statement stmt = dbCon.createStatement())
+        {
+            stmt.execute("DELETE FROM ITEMS");
+        }
+
+        Set<String> loadQueries = new HashSet<>();
+        Connection wrappedCon = StartupSnapshotConnection.wrap(dbCon, snapshot, loadQueries);
+        try (
+            PreparedStatement stmt = wrappedCon.prepareStatement(SELECT_ALL);
+            ResultSet resultSet = stmt.executeQuery()
+        )
+        {
+            assertTrue(resultSet.next());
+            assertEquals("a", resultSet.getString("NAME"));
+            assertEquals(10, resultSet.getLong("SIZE"));
+            assertTrue(resultSet.getBoolean("ENABLED"));
+
+            assertTrue(resultSet.next());
+            assertEquals("b", resultSet.getString(1));
+            assertEquals(0, resultSet.getLong(2));
+            assertTrue(resultSet.wasNull());
+            assertFalse(resultSet.getBoolean(3));
+
+            assertFalse(resultSet.next());
+        }
+        assertTrue(loadQueries.contains(SELECT_ALL));
+    }
+
+    @Test
+    public void testQueryWithParametersUsesDatabase()
+        throws Exception
+    {
+        StartupSnapshot snapshot = StartupSnapshot.read(writeSnapshot(1), DB_URL, 1);
+
+        Set<String> loadQueries = new HashSet<>();
+        Connection wrappedCon = StartupSnapshotConnection.wrap(dbCon, snapshot, loadQueries);
+        try (PreparedStatement stmt = wrappedCon.prepareStatement(SELECT_BY_NAME))
+        {
+            stmt.setString(1, "b");
+            try (ResultSet resultSet = stmt.executeQuery())
+            {
+                assertTrue(resultSet.next());
+                assertEquals("b", resultSet.getString("NAME"));
+                assertFalse(resultSet.next());
+            }
+        }
+        assertTrue(loadQueries.isEmpty());
+    }
+
+    private Path writeSnapshot(long generation)
+        throws Exception
+    {
+        StartupSnapshot snapshot = new StartupSnapshot(DB_URL, generation);
+        try (
+            PreparedStatement stmt = dbCon.prepareStatement(SELECT_ALL);
+            ResultSet resultSet = stmt.executeQuery()
+        )
+        {
+            assertTrue(snapshot.record(SELECT_ALL, resultSet));
+        }
+        Path file = tmpFolder.getRoot().toPath().resolve("startup-snapshot.bin");
+        snapshot.write(file);
+        return file;
+    }
+}
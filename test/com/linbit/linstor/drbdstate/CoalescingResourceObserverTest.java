@@ -0,0 +1,235 @@
+package com.linbit.linstor.drbdstate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.linbit.linstor.testutils.EmptyErrorReporter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CoalescingResourceObserverTest
+{
+    // Long enough for all events of a test to arrive within the same coalescing window
+    private static final long WINDOW_MS = 500;
+    private static final long TIMEOUT_SEC = 10;
+
+    private DrbdStateTracker tracker;
+    private DrbdEventsMonitor monitor;
+    private RecordingObserver recorder;
+    private CoalescingResourceObserver asyncObserver;
+    private CountDownLatch overflowActionRun;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        tracker = new DrbdStateTracker();
+        monitor = new DrbdEventsMonitor(tracker, new EmptyErrorReporter());
+        recorder = new RecordingObserver();
+
+        monitor.receiveEvent("exists resource name:rsc0 role:Secondary suspended:no");
+        monitor.receiveEvent("exists device name:rsc0 volume:0 minor:1000 disk:Inconsistent client:no");
+        monitor.receiveEvent("exists connection name:rsc0 peer-node-id:1 conn-name:node1 connection:Connected");
+        monitor.receiveEvent("exists -");
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        if (asyncObserver != null)
+        {
+            asyncObserver.shutdown();
+            asyncObserver.awaitShutdown(TimeUnit.SECONDS.toMillis(TIMEOUT_SEC));
+        }
+    }
+
+    @Test
+    public void testCoalesceChanges() throws Exception
+    {
+        start(1000);
+
+        monitor.receiveEvent("change device name:rsc0 volume:0 disk:UpToDate");
+        monitor.receiveEvent("change resource name:rsc0 role:Primary");
+        monitor.receiveEvent("change device name:rsc0 volume:0 disk:Outdated");
+        monitor.receiveEvent("change device name:rsc0 volume:0 disk:UpToDate");
+        monitor.receiveEvent("change resource name:rsc0 role:Secondary");
+        monitor.receiveEvent("change connection name:rsc0 peer-node-id:1 conn-name:node1 connection:Connecting");
+        awaitDelivery();
+
+        // the disk state change keeps the position of the first change, the role went back to Secondary
+        assertEquals(
+            Arrays.asList(
+                "disk rsc0/0 Inconsistent>UpToDate",
+                "conn rsc0/node1 Connected>Connecting"
+            ),
+            recorder.getCalls()
+        );
+        assertEquals(6, asyncObserver.getQueuedCount());
+        assertEquals(3, asyncObserver.getCoalescedCount());
+        assertEquals(0, asyncObserver.getDroppedCount());
+        assertEquals(2, asyncObserver.getDeliveredCount());
+    }
+
+    @Test
+    public void testCreateAndDestroyAreBarriers() throws Exception
+    {
+        start(1000);
+
+        monitor.receiveEvent("change device name:rsc0 volume:0 disk:UpToDate");
+        monitor.receiveEvent("destroy device name:rsc0 volume:0");
+        monitor.receiveEvent("create device name:rsc0 volume:0 minor:1000 disk:Diskless client:yes");
+        monitor.receiveEvent("change device name:rsc0 volume:0 disk:Attaching");
+        monitor.receiveEvent("change device name:rsc0 volume:0 disk:UpToDate");
+        awaitDelivery();
+
+        List<String> calls = recorder.getCalls();
+        assertTrue(calls.toString(), calls.indexOf("disk rsc0/0 Inconsistent>UpToDate") == 0);
+        assertTrue(calls.toString(), calls.indexOf("volumeDestroyed rsc0/0") == 1);
+        assertTrue(calls.toString(), calls.indexOf("volumeCreated rsc0/0") == 2);
+        assertEquals("disk rsc0/0 DUnknown>UpToDate", calls.get(calls.size() - 1));
+    }
+
+    @Test
+    public void testDropWhenFull() throws Exception
+    {
+        start(1);
+
+        monitor.receiveEvent("change device name:rsc0 volume:0 disk:UpToDate");
+        monitor.receiveEvent("change resource name:rsc0 role:Primary");
+        monitor.receiveEvent("change device name:rsc0 volume:0 disk:Outdated");
+        awaitOverflowAction();
+
+        assertEquals(
+            Arrays.asList("disk rsc0/0 Inconsistent>Outdated", "overflow role:Primary"),
+            recorder.getCalls()
+        );
+        assertEquals(1, asyncObserver.getCoalescedCount());
+        assertEquals(1, asyncObserver.getDroppedCount());
+    }
+
+    @Test
+    public void testFinalStateAfterOverflow() throws Exception
+    {
+        start(2);
+
+        monitor.receiveEvent("change device name:rsc0 volume:0 disk:UpToDate");
+        monitor.receiveEvent("change connection name:rsc0 peer-node-id:1 conn-name:node1 connection:Connecting");
+        for (int idx = 0; idx < 10; ++idx)
+        {
+            monitor.receiveEvent("change resource name:rsc0 role:Primary");
+            monitor.receiveEvent("change resource name:rsc0 role:Secondary");
+        }
+        monitor.receiveEvent("change resource name:rsc0 role:Primary");
+        awaitOverflowAction();
+
+        // the role changes were dropped, the overflow action sees the final role
+        assertEquals(
+            Arrays.asList(
+                "disk rsc0/0 Inconsistent>UpToDate",
+                "conn rsc0/node1 Connected>Connecting",
+                "overflow role:Primary"
+            ),
+            recorder.getCalls()
+        );
+        assertEquals(21, asyncObserver.getDroppedCount());
+
+        // the overflow action is only run again after the next overflow
+        monitor.receiveEvent("change device name:rsc0 volume:0 disk:Outdated");
+        awaitDelivery();
+        assertEquals("disk rsc0/0 UpToDate>Outdated", recorder.getCalls().get(3));
+        assertEquals(4, recorder.getCalls().size());
+    }
+
+    private void start(int capacity)
+    {
+        overflowActionRun = new CountDownLatch(1);
+        asyncObserver = new CoalescingResourceObserver(
+            recorder,
+            new EmptyErrorReporter(),
+            WINDOW_MS,
+            capacity,
+            () ->
+            {
+                recorder.record("overflow role:" + tracker.getResource("rsc0").getRole());
+                overflowActionRun.countDown();
+            }
+        );
+        asyncObserver.start("CoalescingResourceObserverTest");
+        tracker.addObserver(asyncObserver, DrbdStateTracker.OBS_ALL);
+    }
+
+    /**
+     * The overflow action runs after the notifications that were queued with it have been delivered
+     */
+    private void awaitOverflowAction() throws InterruptedException
+    {
+        assertTrue(overflowActionRun.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+    }
+
+    private void awaitDelivery() throws InterruptedException
+    {
+        CountDownLatch delivered = new CountDownLatch(1);
+        asyncObserver.runInOrder(delivered::countDown);
+        assertTrue(delivered.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+    }
+
+    private static class RecordingObserver implements ResourceObserver
+    {
+        private final List<String> calls = new ArrayList<>();
+
+        synchronized List<String> getCalls()
+        {
+            return new ArrayList<>(calls);
+        }
+
+        private synchronized void record(String call)
+        {
+            calls.add(call);
+        }
+
+        @Override
+        public void roleChanged(DrbdResource resource, DrbdResource.Role previous, DrbdResource.Role current)
+        {
+            record("role " + resource.getName().displayValue + " " + previous + ">" + current);
+        }
+
+        @Override
+        public void volumeCreated(DrbdResource resource, DrbdConnection connection, DrbdVolume volume)
+        {
+            record("volumeCreated " + resource.getName().displayValue + "/" + volume.getVolNr().value);
+        }
+
+        @Override
+        public void diskStateChanged(
+            DrbdResource resource, DrbdConnection connection, DrbdVolume volume,
+            DrbdVolume.DiskState previous, DrbdVolume.DiskState current
+        )
+        {
+            record("disk " + resource.getName().displayValue + "/" + volume.getVolNr().value + " " +
+                previous + ">" + current);
+        }
+
+        @Override
+        public void volumeDestroyed(DrbdResource resource, DrbdConnection connection, DrbdVolume volume)
+        {
+            record("volumeDestroyed " + resource.getName().displayValue + "/" + volume.getVolNr().value);
+        }
+
+        @Override
+        public void connectionStateChanged(
+            DrbdResource resource, DrbdConnection connection,
+            DrbdConnection.State previous, DrbdConnection.State current
+        )
+        {
+            record("conn " + resource.getName().displayValue + "/" + connection.getConnectionName() + " " +
+                previous + ">" + current);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.linbit.linstor.drbdstate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.linbit.linstor.VolumeNumber;
+import com.linbit.linstor.testutils.EmptyErrorReporter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DrbdEventLineParserTest
+{
+    private DrbdEventLineParser parser;
+
+    @Before
+    public void setUp()
+    {
+        parser = new DrbdEventLineParser();
+    }
+
+    @Test
+    public void testParse() throws Exception
+    {
+        assertTrue(parse("change peer-device name:rsc0 peer-node-id:1 conn-name:node1 volume:0 " +
+            "replication:SyncSource done:12.50 invalid-token"));
+
+        assertEquals(DrbdEventsMonitor.ACTION_CHANGE, parser.getAction());
+        assertEquals(DrbdEventsMonitor.OBJ_PEER_VOLUME, parser.getObjType());
+        Map<String, String> fields = parser.getFields();
+        assertEquals(6, fields.size());
+        assertEquals("rsc0", fields.get(DrbdResource.PROP_KEY_RES_NAME));
+        assertEquals("node1", fields.get(DrbdConnection.PROP_KEY_CONN_NAME));
+        assertEquals("12.50", fields.get("done"));
+        assertNull(fields.get("invalid-token"));
+    }
+
+    @Test
+    public void testFieldsReusedAndTokensCached() throws Exception
+    {
+        parse("change resource name:rsc0 role:Primary");
+        String role = parser.getFields().get(DrbdResource.PROP_KEY_ROLE);
+
+        parse("change resource name:rsc0 role:Primary suspended:no");
+        assertEquals(3, parser.getFields().size());
+        assertSame(role, parser.getFields().get(DrbdResource.PROP_KEY_ROLE));
+
+        parse("exists -");
+        assertEquals(DrbdEventsMonitor.OBJ_END_OF_INIT, parser.getObjType());
+        assertTrue(parser.getFields().isEmpty());
+    }
+
+    @Test
+    public void testEmptyLine() throws Exception
+    {
+        assertFalse(parse(""));
+        assertFalse(parse("  \n"));
+    }
+
+    @Test(expected = EventsSourceException.class)
+    public void testMissingObjectType() throws Exception
+    {
+        parse("change");
+    }
+
+    @Test
+    public void testMonitorUpdatesTracker() throws Exception
+    {
+        DrbdStateTracker tracker = new DrbdStateTracker();
+        DrbdEventsMonitor monitor = new DrbdEventsMonitor(tracker, new EmptyErrorReporter());
+
+        monitor.receiveEvent("exists resource name:rsc0 role:Secondary suspended:user,quorum");
+        monitor.receiveEvent("exists device name:rsc0 volume:0 minor:1000 disk:Inconsistent client:no");
+        monitor.receiveEvent("exists -");
+        monitor.receiveEvent("change device name:rsc0 volume:0 minor:1000 disk:UpToDate".getBytes(
+            StandardCharsets.UTF_8));
+
+        assertTrue(monitor.isStateAvailable());
+        DrbdResource resource = tracker.getResource("rsc0");
+        assertEquals(DrbdResource.Role.SECONDARY, resource.getRole());
+        assertTrue(resource.getSuspendedUser());
+        DrbdVolume volume = resource.getVolume(new VolumeNumber(0));
+        assertEquals(DrbdVolume.DiskState.UP_TO_DATE, volume.getDiskState());
+        assertEquals(1000, volume.getMinorNr().value);
+
+        assertTrue(DrbdResource.containsListItem("user", "user"));
+        assertFalse(DrbdResource.containsListItem("no", "user"));
+        assertFalse(DrbdResource.containsListItem("superuser,quorum", "user"));
+    }
+
+    private boolean parse(String line) throws EventsSourceException
+    {
+        byte[] data = line.getBytes(StandardCharsets.UTF_8);
+        return parser.parse(data, 0, data.length);
+    }
+}
@@ -0,0 +1,176 @@
+package com.linbit.linstor.drbdstate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.linbit.extproc.OutputProxy.Event;
+import com.linbit.extproc.OutputProxy.StdOutEvent;
+import com.linbit.linstor.VolumeNumber;
+import com.linbit.linstor.testutils.EmptyErrorReporter;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DrbdEventsCaptureTest
+{
+    private static final long TIMEOUT_MS = 10_000;
+
+    private static final List<String> STREAM = Arrays.asList(
+        "exists resource name:rsc0 role:Secondary suspended:no",
+        "exists device name:rsc0 volume:0 minor:1000 disk:Inconsistent client:no",
+        "exists -",
+        "change device name:rsc0 volume:0 disk:UpToDate"
+    );
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    @Test
+    public void testRecordAndRead() throws Exception
+    {
+        Path file = tmpFolder.newFile().toPath();
+        DrbdEventsCapture capture = new DrbdEventsCapture(file);
+        capture.open();
+        long startNanos = System.nanoTime();
+        for (int idx = 0; idx < STREAM.size(); ++idx)
+        {
+            capture.record(bytes(STREAM.get(idx)), startNanos + TimeUnit.MILLISECONDS.toNanos(100 * idx));
+        }
+        capture.close();
+
+        // reopening appends with timestamps relative to the first start
+        capture.open();
+        capture.record(bytes("change resource name:rsc0 role:Primary"), startNanos + TimeUnit.SECONDS.toNanos(1));
+        capture.close();
+
+        List<DrbdEventsCapture.CapturedLine> lines = DrbdEventsCapture.read(file);
+        assertEquals(STREAM.size() + 1, lines.size());
+        for (int idx = 0; idx < STREAM.size(); ++idx)
+        {
+            assertEquals(STREAM.get(idx), string(lines.get(idx).getData()));
+        }
+        assertEquals("change resource name:rsc0 role:Primary", string(lines.get(STREAM.size()).getData()));
+
+        long firstOffset = lines.get(0).getOffsetMicros();
+        assertEquals(300_000, lines.get(3).getOffsetMicros() - firstOffset);
+        assertEquals(1_000_000, lines.get(4).getOffsetMicros() - firstOffset);
+    }
+
+    @Test
+    public void testReadPlainLines()
+    {
+        List<DrbdEventsCapture.CapturedLine> lines = DrbdEventsCapture.parse(bytes(
+            "# comment\n" +
+            "exists resource name:rsc0 role:Secondary\r\n" +
+            "\n" +
+            "1500\tchange resource name:rsc0 role:Primary\n" +
+            "change resource name:rsc0 role:Secondary"
+        ));
+
+        assertEquals(3, lines.size());
+        assertEquals("exists resource name:rsc0 role:Secondary", string(lines.get(0).getData()));
+        assertEquals(0, lines.get(0).getOffsetMicros());
+        assertEquals("change resource name:rsc0 role:Primary", string(lines.get(1).getData()));
+        assertEquals(1500, lines.get(1).getOffsetMicros());
+        // lines without a timestamp are due together with the preceding line
+        assertEquals(1500, lines.get(2).getOffsetMicros());
+    }
+
+    @Test
+    public void testReplayTiming() throws Exception
+    {
+        Path file = tmpFolder.newFile().toPath();
+        Files.write(file, Arrays.asList("0\tline0", "200000\tline1", "400000\tline2"), StandardCharsets.UTF_8);
+
+        BlockingDeque<Event> deque = new LinkedBlockingDeque<>();
+        // twice the original speed
+        DrbdEventsReplayHandler handler = new DrbdEventsReplayHandler(deque, file, 2.0);
+        long startNanos = System.nanoTime();
+        handler.start();
+        assertTrue(handler.awaitCompletion(TIMEOUT_MS));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        handler.stop(true);
+
+        assertTrue("replay took " + elapsedMillis + "ms", elapsedMillis >= 200);
+        assertEquals(3, handler.getReplayedCount());
+        List<String> replayed = new ArrayList<>();
+        for (Event event : deque)
+        {
+            replayed.add(string(((StdOutEvent) event).data));
+        }
+        assertEquals(Arrays.asList("line0", "line1", "line2"), replayed);
+    }
+
+    @Test
+    public void testEventServiceReplayAndCapture() throws Exception
+    {
+        Path replayFile = tmpFolder.newFile().toPath();
+        Path captureFile = tmpFolder.newFile().toPath();
+        Files.write(replayFile, STREAM, StandardCharsets.UTF_8);
+
+        DrbdStateTracker tracker = new DrbdStateTracker();
+        List<DrbdEventsReplayHandler> handlers = new ArrayList<>();
+        DrbdEventService eventService = new DrbdEventService(
+            new EmptyErrorReporter(),
+            tracker,
+            deque ->
+            {
+                DrbdEventsReplayHandler handler = new DrbdEventsReplayHandler(deque, replayFile, 0);
+                handlers.add(handler);
+                return handler;
+            },
+            captureFile
+        );
+
+        eventService.start();
+        assertTrue(handlers.get(0).awaitCompletion(TIMEOUT_MS));
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!isUpToDate(eventService) && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(10);
+        }
+        eventService.shutdown();
+        eventService.awaitShutdown(TIMEOUT_MS);
+
+        assertTrue(isUpToDate(eventService));
+
+        List<DrbdEventsCapture.CapturedLine> captured = DrbdEventsCapture.read(captureFile);
+        assertEquals(STREAM.size(), captured.size());
+        for (int idx = 0; idx < STREAM.size(); ++idx)
+        {
+            assertEquals(STREAM.get(idx), string(captured.get(idx).getData()));
+        }
+    }
+
+    private static boolean isUpToDate(DrbdEventService eventService) throws Exception
+    {
+        boolean upToDate = false;
+        if (eventService.isDrbdStateAvailable())
+        {
+            DrbdVolume volume = eventService.getDrbdResource("rsc0").getVolume(new VolumeNumber(0));
+            upToDate = volume.getDiskState() == DrbdVolume.DiskState.UP_TO_DATE;
+        }
+        return upToDate;
+    }
+
+    private static byte[] bytes(String str)
+    {
+        return str.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] data)
+    {
+        return new String(data, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,177 @@
+package com.linbit.linstor.drbdstate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.linbit.linstor.VolumeNumber;
+import com.linbit.linstor.core.DrbdVolumeStats;
+import com.linbit.linstor.testutils.EmptyErrorReporter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DrbdStatisticsTest
+{
+    private static final double DELTA = 0.0001;
+    private static final long SEC = 1_000_000_000L;
+
+    private DrbdStateTracker tracker;
+    private DrbdEventsMonitor monitor;
+    private CountingObserver statsObserver;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        tracker = new DrbdStateTracker();
+        monitor = new DrbdEventsMonitor(tracker, new EmptyErrorReporter());
+        statsObserver = new CountingObserver();
+        tracker.addObserver(statsObserver, DrbdStateTracker.OBS_STATS);
+
+        monitor.receiveEvent("exists resource name:rsc0 role:Primary suspended:no write-ordering:flush");
+        monitor.receiveEvent("exists device name:rsc0 volume:0 minor:1000 disk:UpToDate client:no " +
+            "size:1048576 read:100 written:200 al-writes:3 bm-writes:0 upper-pending:2 lower-pending:1");
+        monitor.receiveEvent("exists connection name:rsc0 peer-node-id:1 conn-name:node1 connection:Connected " +
+            "role:Secondary ap-in-flight:64 rs-in-flight:512");
+        monitor.receiveEvent("exists peer-device name:rsc0 peer-node-id:1 conn-name:node1 volume:0 " +
+            "replication:SyncSource peer-disk:Inconsistent resync-suspended:no received:0 sent:4096 " +
+            "out-of-sync:65536 pending:3 unacked:1 done:12.50");
+        monitor.receiveEvent("exists -");
+    }
+
+    @Test
+    public void testParseStatistics() throws Exception
+    {
+        DrbdResource resource = tracker.getResource("rsc0");
+        DrbdVolume volume = resource.getVolume(new VolumeNumber(0));
+        assertEquals(2, volume.getUpperPending());
+        assertEquals(1, volume.getLowerPending());
+
+        DrbdConnection connection = resource.getConnection("node1");
+        assertEquals(64, connection.getApInFlightKib());
+        assertEquals(512, connection.getRsInFlightKib());
+
+        DrbdVolume peerVolume = connection.getVolume(new VolumeNumber(0));
+        assertEquals(12.5, peerVolume.getResyncDone(), DELTA);
+        assertEquals(65536, peerVolume.getOutOfSyncKib());
+        assertEquals(4096, peerVolume.getSentKib());
+        assertEquals(3, peerVolume.getPending());
+        assertEquals(1, peerVolume.getUnacked());
+
+        // device, connection and peer device
+        assertEquals(3, statsObserver.count);
+    }
+
+    @Test
+    public void testResyncFinished() throws Exception
+    {
+        monitor.receiveEvent("change peer-device name:rsc0 peer-node-id:1 conn-name:node1 volume:0 " +
+            "replication:Established peer-disk:UpToDate out-of-sync:0");
+
+        DrbdVolume peerVolume = tracker.getResource("rsc0").getConnection("node1").getVolume(new VolumeNumber(0));
+        assertNull(peerVolume.getResyncDone());
+        assertEquals(0, peerVolume.getOutOfSyncKib());
+    }
+
+    @Test
+    public void testRates() throws Exception
+    {
+        DrbdVolume peerVolume = tracker.getResource("rsc0").getConnection("node1").getVolume(new VolumeNumber(0));
+        int count = statsObserver.count;
+
+        // the first sample was taken when the peer device was created
+        long start = System.nanoTime() + 10 * SEC;
+        peerVolume.updateStatistics(props("sent", "0", "received", "0"), tracker.multiplexer, start);
+        peerVolume.updateStatistics(
+            props("sent", "20480", "received", "1024"), tracker.multiplexer, start + 2 * SEC
+        );
+        assertEquals(10240.0, peerVolume.getSendKibPerSec(), DELTA);
+        assertEquals(512.0, peerVolume.getReceiveKibPerSec(), DELTA);
+
+        // samples that are too close together do not change the rates
+        peerVolume.updateStatistics(
+            props("sent", "40960", "received", "1024"), tracker.multiplexer, start + 2 * SEC + 1
+        );
+        assertEquals(10240.0, peerVolume.getSendKibPerSec(), DELTA);
+
+        // counters that start over do not result in negative rates
+        peerVolume.updateStatistics(props("sent", "0", "received", "0"), tracker.multiplexer, start + 4 * SEC);
+        assertEquals(0.0, peerVolume.getSendKibPerSec(), DELTA);
+        assertEquals(0.0, peerVolume.getReceiveKibPerSec(), DELTA);
+
+        assertEquals(count + 2, statsObserver.count);
+    }
+
+    @Test
+    public void testRatesExpire() throws Exception
+    {
+        DrbdVolume peerVolume = tracker.getResource("rsc0").getConnection("node1").getVolume(new VolumeNumber(0));
+
+        long start = System.nanoTime() + 10 * SEC;
+        peerVolume.updateStatistics(props("sent", "0", "received", "0"), tracker.multiplexer, start);
+        peerVolume.updateStatistics(props("sent", "2048", "received", "0"), tracker.multiplexer, start + SEC);
+        assertEquals(2048.0, peerVolume.getSendKibPerSec(start + SEC), DELTA);
+
+        // no new sample of the counters, e.g. because the transfer stopped
+        long expired = start + SEC + DrbdVolume.RATE_EXPIRY_NANOS;
+        assertEquals(0.0, peerVolume.getSendKibPerSec(expired), DELTA);
+        assertEquals(0.0, peerVolume.getReceiveKibPerSec(expired), DELTA);
+
+        // the expired rate was already reported as 0, so a sample without transfers is no change
+        int count = statsObserver.count;
+        peerVolume.updateStatistics(props("sent", "2048", "received", "0"), tracker.multiplexer, expired + SEC);
+        assertEquals(0.0, peerVolume.getSendKibPerSec(expired + SEC), DELTA);
+        assertEquals(count, statsObserver.count);
+    }
+
+    @Test
+    public void testStatsMap()
+    {
+        Map<String, DrbdVolumeStats.PeerStats> peerStats = new TreeMap<>();
+        peerStats.put("node1", new DrbdVolumeStats.PeerStats(12.5, 65536, 10240.0, 0, 3, 1, 64, 512));
+        peerStats.put("node2", new DrbdVolumeStats.PeerStats(50.0, 1024, 2048.0, 0, 1, 0, 0, 128));
+        peerStats.put("node3", new DrbdVolumeStats.PeerStats(null, 0, 0, 0, 0, 0, 0, 0));
+        DrbdVolumeStats stats = new DrbdVolumeStats(2, 1, peerStats);
+
+        assertEquals(12.5, stats.getResyncDone(), DELTA);
+        assertEquals(65536, stats.getOutOfSyncKib());
+        assertEquals(12288.0, stats.getSendKibPerSec(), DELTA);
+        assertEquals(4, stats.getPending());
+
+        Map<String, String> map = stats.toMap();
+        assertEquals("12.5", map.get(DrbdVolumeStats.KEY_RESYNC_DONE));
+        assertEquals("512", map.get(DrbdVolumeStats.PEER_KEY_PREFIX + "node1/" + DrbdVolumeStats.KEY_RS_IN_FLIGHT_KIB));
+
+        DrbdVolumeStats restored = DrbdVolumeStats.fromMap(map);
+        assertEquals(2, restored.getUpperPending());
+        assertEquals(3, restored.getPeerStats().size());
+        assertNull(restored.getPeerStats().get("node3").getResyncDone());
+        assertEquals(50.0, restored.getPeerStats().get("node2").getResyncDone(), DELTA);
+        assertEquals(stats.getOutOfSyncKib(), restored.getOutOfSyncKib());
+        assertEquals(stats.getUnacked(), restored.getUnacked());
+    }
+
+    private static Map<String, String> props(String... keyValues)
+    {
+        Map<String, String> props = new HashMap<>();
+        for (int idx = 0; idx < keyValues.length; idx += 2)
+        {
+            props.put(keyValues[idx], keyValues[idx + 1]);
+        }
+        return props;
+    }
+
+    private static class CountingObserver implements ResourceObserver
+    {
+        private int count = 0;
+
+        @Override
+        public void statisticsChanged(DrbdResource resource, DrbdConnection connection, DrbdVolume volume)
+        {
+            ++count;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.linbit.linstor.event;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.linbit.linstor.api.interfaces.serializer.CommonSerializer;
+import com.linbit.linstor.netcom.Peer;
+import com.linbit.linstor.timer.CoreTimer;
+import com.linbit.timer.Action;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class EventBatcherTest
+{
+    private static final long INTERVAL_MS = 100;
+
+    private CoreTimer timer;
+    private List<List<byte[]>> sentBatches;
+    private EventBatcher eventBatcher;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp()
+    {
+        timer = mock(CoreTimer.class);
+        sentBatches = new ArrayList<>();
+
+        CommonSerializer.CommonSerializerBuilder builder = mock(CommonSerializer.CommonSerializerBuilder.class);
+        when(builder.eventBatch(anyList())).then(
+            invocation ->
+            {
+                sentBatches.add(new ArrayList<>((List<byte[]>) invocation.getArguments()[0]));
+                return builder;
+            }
+        );
+        when(builder.build()).thenReturn(new byte[0]);
+
+        CommonSerializer commonSerializer = mock(CommonSerializer.class);
+        when(commonSerializer.builder(anyString())).thenReturn(builder);
+
+        eventBatcher = new EventBatcher(commonSerializer, timer, INTERVAL_MS, true);
+    }
+
+    @Test
+    public void testEnabled()
+    {
+        assertTrue(eventBatcher.isEnabled());
+        assertFalse(new EventBatcher(mock(CommonSerializer.class), timer, 0, true).isEnabled());
+    }
+
+    @Test
+    public void testEnableForPeer()
+    {
+        Peer peer = mock(Peer.class);
+        when(peer.getId()).thenReturn("client");
+        Peer otherPeer = mock(Peer.class);
+        when(otherPeer.getId()).thenReturn("otherClient");
+
+        EventBatcher optInBatcher = new EventBatcher(mock(CommonSerializer.class), timer, INTERVAL_MS, false);
+        assertFalse(optInBatcher.isEnabled(peer));
+
+        assertTrue(optInBatcher.enableForPeer(peer));
+        assertTrue(optInBatcher.isEnabled(peer));
+        assertFalse(optInBatcher.isEnabled(otherPeer));
+
+        optInBatcher.connectionClosed(peer);
+        assertFalse(optInBatcher.isEnabled(peer));
+
+        EventBatcher disabledBatcher = new EventBatcher(mock(CommonSerializer.class), timer, 0, false);
+        assertFalse(disabledBatcher.enableForPeer(peer));
+        assertFalse(disabledBatcher.isEnabled(peer));
+    }
+
+    @Test
+    public void testFlushAfterInterval() throws Exception
+    {
+        Peer peer = mock(Peer.class);
+        Peer otherPeer = mock(Peer.class);
+
+        eventBatcher.addEvent(peer, new byte[] {1});
+        eventBatcher.addEvent(otherPeer, new byte[] {2});
+        eventBatcher.addEvent(peer, new byte[] {3});
+
+        List<Action<String>> flushActions = captureFlushActions(2);
+        verify(peer, never()).sendMessage(any(byte[].class));
+
+        flushActions.get(0).run();
+        verify(peer).sendMessage(any(byte[].class));
+        verify(otherPeer, never()).sendMessage(any(byte[].class));
+        assertEquals(1, sentBatches.size());
+        assertEquals(2, sentBatches.get(0).size());
+        assertArrayEquals(new byte[] {1}, sentBatches.get(0).get(0));
+        assertArrayEquals(new byte[] {3}, sentBatches.get(0).get(1));
+
+        flushActions.get(1).run();
+        verify(otherPeer).sendMessage(any(byte[].class));
+        assertEquals(2, sentBatches.size());
+
+        // the next event starts a new batch
+        eventBatcher.addEvent(peer, new byte[] {4});
+        captureFlushActions(3);
+    }
+
+    @Test
+    public void testFlushWhenFull() throws Exception
+    {
+        Peer peer = mock(Peer.class);
+
+        for (int idx = 0; idx < EventBatcher.MAX_BATCH_EVENTS; ++idx)
+        {
+            eventBatcher.addEvent(peer, new byte[] {(byte) idx});
+        }
+
+        verify(peer).sendMessage(any(byte[].class));
+        assertEquals(1, sentBatches.size());
+        assertEquals(EventBatcher.MAX_BATCH_EVENTS, sentBatches.get(0).size());
+
+        // the flush action of the full batch does not send anything
+        captureFlushActions(1).get(0).run();
+        verify(peer, times(1)).sendMessage(any(byte[].class));
+    }
+
+    @Test
+    public void testConnectionClosed() throws Exception
+    {
+        Peer peer = mock(Peer.class);
+
+        eventBatcher.addEvent(peer, new byte[] {1});
+        eventBatcher.connectionClosed(peer);
+        captureFlushActions(1).get(0).run();
+
+        verify(peer, never()).sendMessage(any(byte[].class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Action<String>> captureFlushActions(int count) throws Exception
+    {
+        ArgumentCaptor<Action> captor = ArgumentCaptor.forClass(Action.class);
+        verify(timer, times(count)).addDelayedAction(anyLong(), captor.capture());
+        List<Action<String>> actions = new ArrayList<>();
+        for (Action action : captor.getAllValues())
+        {
+            actions.add(action);
+        }
+        return actions;
+    }
+}
@@ -0,0 +1,124 @@
+package com.linbit.linstor.event;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.linbit.linstor.NodeName;
+import com.linbit.linstor.ResourceName;
+import com.linbit.linstor.VolumeNumber;
+import com.linbit.linstor.api.ApiConsts;
+import com.linbit.linstor.timer.CoreTimer;
+import com.linbit.timer.Action;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class EventDebouncerTest
+{
+    private static final long SHORT_MS = 50;
+    private static final long LONG_MS = 60_000;
+
+    private CoreTimer timer;
+    private EventBroker eventBroker;
+    private EventIdentifier eventIdentifier;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        timer = mock(CoreTimer.class);
+        eventBroker = mock(EventBroker.class);
+        eventIdentifier = EventIdentifier.volume(
+            ApiConsts.EVENT_VOLUME_DISK_STATE,
+            new NodeName("node1"),
+            new ResourceName("rsc1"),
+            new VolumeNumber(0)
+        );
+    }
+
+    @Test
+    public void testDisabled() throws Exception
+    {
+        EventDebouncer eventDebouncer = new EventDebouncer(timer, eventBroker, 0, LONG_MS);
+
+        eventDebouncer.forwardEvent(eventIdentifier, ApiConsts.EVENT_STREAM_VALUE);
+        eventDebouncer.forwardEvent(eventIdentifier, ApiConsts.EVENT_STREAM_VALUE);
+
+        verify(eventBroker, times(2)).forwardEvent(eventIdentifier, ApiConsts.EVENT_STREAM_VALUE);
+        verify(timer, never()).addDelayedAction(anyLong(), any());
+    }
+
+    @Test
+    public void testQuietPeriod() throws Exception
+    {
+        EventDebouncer eventDebouncer = new EventDebouncer(timer, eventBroker, SHORT_MS, LONG_MS);
+
+        eventDebouncer.forwardEvent(eventIdentifier, ApiConsts.EVENT_STREAM_VALUE);
+        eventDebouncer.forwardEvent(eventIdentifier, ApiConsts.EVENT_STREAM_VALUE);
+        eventDebouncer.forwardEvent(eventIdentifier, ApiConsts.EVENT_STREAM_VALUE);
+        verify(eventBroker, never()).triggerEvent(any());
+
+        Thread.sleep(SHORT_MS + 10);
+        captureFlushActions(1).get(0).run();
+
+        verify(eventBroker, times(1)).triggerEvent(eventIdentifier);
+        verify(eventBroker, never()).forwardEvent(any(), any());
+    }
+
+    @Test
+    public void testValueDuringQuietPeriod() throws Exception
+    {
+        EventDebouncer eventDebouncer = new EventDebouncer(timer, eventBroker, LONG_MS, LONG_MS);
+
+        eventDebouncer.forwardEvent(eventIdentifier, ApiConsts.EVENT_STREAM_VALUE);
+        captureFlushActions(1).get(0).run();
+
+        // not settled yet, checked again later
+        verify(eventBroker, never()).triggerEvent(any());
+        verify(timer, times(2)).addDelayedAction(anyLong(), any());
+    }
+
+    @Test
+    public void testMaxDelay() throws Exception
+    {
+        EventDebouncer eventDebouncer = new EventDebouncer(timer, eventBroker, LONG_MS, SHORT_MS);
+
+        eventDebouncer.forwardEvent(eventIdentifier, ApiConsts.EVENT_STREAM_VALUE);
+        verify(timer).addDelayedAction(eq(SHORT_MS), any());
+        Thread.sleep(SHORT_MS + 10);
+        eventDebouncer.forwardEvent(eventIdentifier, ApiConsts.EVENT_STREAM_VALUE);
+        captureFlushActions(1).get(0).run();
+
+        verify(eventBroker, times(1)).triggerEvent(eventIdentifier);
+    }
+
+    @Test
+    public void testCloseDiscardsPendingValue() throws Exception
+    {
+        EventDebouncer eventDebouncer = new EventDebouncer(timer, eventBroker, SHORT_MS, LONG_MS);
+
+        eventDebouncer.forwardEvent(eventIdentifier, ApiConsts.EVENT_STREAM_VALUE);
+        eventDebouncer.forwardEvent(eventIdentifier, ApiConsts.EVENT_STREAM_CLOSE_REMOVED);
+        verify(eventBroker).forwardEvent(eventIdentifier, ApiConsts.EVENT_STREAM_CLOSE_REMOVED);
+
+        Thread.sleep(SHORT_MS + 10);
+        captureFlushActions(1).get(0).run();
+
+        verify(eventBroker, never()).triggerEvent(any());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<Action> captureFlushActions(int count) throws Exception
+    {
+        ArgumentCaptor<Action> captor = ArgumentCaptor.forClass(Action.class);
+        verify(timer, times(count)).addDelayedAction(anyLong(), captor.capture());
+        return captor.getAllValues();
+    }
+}
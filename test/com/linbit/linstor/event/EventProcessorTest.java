@@ -0,0 +1,142 @@
+package com.linbit.linstor.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.linbit.linstor.Node;
+import com.linbit.linstor.NodeName;
+import com.linbit.linstor.api.ApiConsts;
+import com.linbit.linstor.api.LinStorScope;
+import com.linbit.linstor.event.handler.EventHandler;
+import com.linbit.linstor.netcom.Peer;
+import com.linbit.linstor.testutils.EmptyErrorReporter;
+import com.linbit.linstor.transaction.TransactionMgr;
+
+import javax.inject.Provider;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class EventProcessorTest
+{
+    private static final String EVENT_NAME = "TestEvent";
+    private static final String PEER_ID = "peer1";
+
+    private List<String> handledActions;
+    private Peer peer;
+    private EventProcessor eventProcessor;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        handledActions = new ArrayList<>();
+        EventHandler eventHandler =
+            (eventAction, eventIdentifier, eventDataIn) -> handledActions.add(eventAction);
+
+        Node node = mock(Node.class);
+        when(node.getName()).thenReturn(new NodeName("node1"));
+        peer = mock(Peer.class);
+        when(peer.getId()).thenReturn(PEER_ID);
+        when(peer.getNode()).thenReturn(node);
+
+        TransactionMgr transMgr = mock(TransactionMgr.class);
+        Provider<TransactionMgr> transMgrProvider = () -> transMgr;
+        eventProcessor = new EventProcessor(
+            new EmptyErrorReporter(),
+            Collections.singletonMap(EVENT_NAME, () -> eventHandler),
+            new LinStorScope(),
+            transMgrProvider,
+            transMgrProvider
+        );
+        eventProcessor.outboundConnectionEstablished(peer);
+    }
+
+    @Test
+    public void testReorder()
+    {
+        handleEvent(2, ApiConsts.EVENT_STREAM_VALUE);
+        handleEvent(3, ApiConsts.EVENT_STREAM_CLOSE_REMOVED);
+        assertEquals(0, handledActions.size());
+        assertEquals(2, getStats().getBufferedEvents());
+
+        handleEvent(1, ApiConsts.EVENT_STREAM_OPEN);
+
+        assertEquals(
+            Arrays.asList(
+                ApiConsts.EVENT_STREAM_OPEN, ApiConsts.EVENT_STREAM_VALUE, ApiConsts.EVENT_STREAM_CLOSE_REMOVED
+            ),
+            handledActions
+        );
+        EventProcessor.EventBufferStats stats = getStats();
+        assertEquals(0, stats.getBufferedEvents());
+        assertEquals(2, stats.getPeakBufferedEvents());
+        assertEquals(3, stats.getHandledEvents());
+        assertEquals(2, stats.getReorderedEvents());
+    }
+
+    @Test
+    public void testDuplicateIgnored()
+    {
+        handleEvent(1, ApiConsts.EVENT_STREAM_OPEN);
+        handleEvent(1, ApiConsts.EVENT_STREAM_OPEN);
+        handleEvent(2, ApiConsts.EVENT_STREAM_VALUE);
+
+        assertEquals(2, handledActions.size());
+        assertEquals(0, getStats().getBufferedEvents());
+    }
+
+    @Test
+    public void testOverflow()
+    {
+        // event 1 never arrives
+        for (int counter = 2; counter < EventProcessor.MAX_BUFFERED_EVENTS + 2; ++counter)
+        {
+            handleEvent(counter, ApiConsts.EVENT_STREAM_VALUE);
+        }
+        verify(peer, never()).closeConnection();
+        assertEquals(EventProcessor.MAX_BUFFERED_EVENTS, getStats().getBufferedEvents());
+
+        handleEvent(EventProcessor.MAX_BUFFERED_EVENTS + 2, ApiConsts.EVENT_STREAM_VALUE);
+        verify(peer).closeConnection();
+        assertEquals(0, getStats().getBufferedEvents());
+        assertEquals(1, getStats().getOverflows());
+
+        // further events are ignored until the connection is established again
+        handleEvent(1, ApiConsts.EVENT_STREAM_OPEN);
+        assertEquals(0, handledActions.size());
+        verify(peer, times(1)).closeConnection();
+
+        eventProcessor.connectionClosed(peer);
+        eventProcessor.outboundConnectionEstablished(peer);
+        handleEvent(1, ApiConsts.EVENT_STREAM_OPEN);
+        assertEquals(1, handledActions.size());
+    }
+
+    private void handleEvent(long eventCounter, String eventAction)
+    {
+        eventProcessor.handleEvent(
+            eventCounter,
+            eventAction,
+            EVENT_NAME,
+            null,
+            null,
+            null,
+            peer,
+            new ByteArrayInputStream(new byte[0])
+        );
+    }
+
+    private EventProcessor.EventBufferStats getStats()
+    {
+        return eventProcessor.getEventBufferStats().get(PEER_ID);
+    }
+}
@@ -0,0 +1,239 @@
+package com.linbit.linstor.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.linbit.linstor.NodeName;
+import com.linbit.linstor.ResourceName;
+import com.linbit.linstor.api.ApiConsts;
+import com.linbit.linstor.api.LinStorScope;
+import com.linbit.linstor.api.interfaces.serializer.CommonSerializer;
+import com.linbit.linstor.core.CoreModule;
+import com.linbit.linstor.event.writer.EventWriter;
+import com.linbit.linstor.netcom.Peer;
+import com.linbit.linstor.testutils.EmptyErrorReporter;
+import com.linbit.linstor.timer.CoreTimer;
+import com.linbit.linstor.transaction.TransactionMgr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class EventSenderTest
+{
+    private static final String PEER_ID = "client1";
+
+    private EventWriter eventWriter;
+    private Peer peer;
+    private EventSender eventSender;
+    private EventIdentifier eventIdentifier;
+    private int watchId;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        eventWriter = mock(EventWriter.class);
+        when(eventWriter.writeEvent(any())).thenReturn(new byte[] {1});
+
+        CommonSerializer.CommonSerializerBuilder builder = mock(CommonSerializer.CommonSerializerBuilder.class);
+        when(builder.event(any(), anyLong(), any(), anyString())).thenReturn(builder);
+        when(builder.build()).thenReturn(new byte[] {0});
+        CommonSerializer commonSerializer = mock(CommonSerializer.class);
+        when(commonSerializer.builder(anyString())).thenReturn(builder);
+
+        peer = mock(Peer.class);
+        CoreModule.PeerMap peerMap = new CoreModule.PeerMapImpl();
+        peerMap.put(PEER_ID, peer);
+
+        TransactionMgr transMgr = mock(TransactionMgr.class);
+        eventSender = new EventSender(
+            new EmptyErrorReporter(),
+            new WatchStoreImpl(),
+            commonSerializer,
+            peerMap,
+            Collections.singletonMap(ApiConsts.EVENT_RESOURCE_STATE, eventWriter),
+            new LinStorScope(),
+            () -> transMgr,
+            new EventBatcher(commonSerializer, mock(CoreTimer.class), 0, false)
+        );
+
+        eventIdentifier = EventIdentifier.resource(
+            ApiConsts.EVENT_RESOURCE_STATE, new NodeName("node1"), new ResourceName("rsc1"));
+        watchId = 0;
+    }
+
+    @Test
+    public void testInitialStateFromLastValue() throws Exception
+    {
+        eventSender.createWatch(makeWatch());
+        eventSender.openEventStream(eventIdentifier);
+        eventSender.triggerEvent(eventIdentifier, ApiConsts.EVENT_STREAM_VALUE);
+        verify(eventWriter, times(2)).writeEvent(any());
+        verify(peer, times(2)).sendMessage(any(byte[].class));
+
+        // the new watch receives the last value without writing the event again
+        eventSender.createWatch(makeWatch());
+        verify(eventWriter, times(2)).writeEvent(any());
+        verify(peer, times(3)).sendMessage(any(byte[].class));
+    }
+
+    @Test
+    public void testInitialStateWithoutLastValue() throws Exception
+    {
+        // no watch, so no value is written
+        eventSender.openEventStream(eventIdentifier);
+        eventSender.triggerEvent(eventIdentifier, ApiConsts.EVENT_STREAM_VALUE);
+        verify(eventWriter, never()).writeEvent(any());
+
+        eventSender.createWatch(makeWatch());
+        verify(eventWriter, times(1)).writeEvent(any());
+        verify(peer, times(1)).sendMessage(any(byte[].class));
+    }
+
+    @Test
+    public void testClosedStreamNotSent() throws Exception
+    {
+        eventSender.createWatch(makeWatch());
+        eventSender.openEventStream(eventIdentifier);
+        eventSender.closeEventStream(eventIdentifier, ApiConsts.EVENT_STREAM_CLOSE_REMOVED, true);
+        verify(peer, times(2)).sendMessage(any(byte[].class));
+
+        eventSender.createWatch(makeWatch());
+        verify(peer, times(2)).sendMessage(any(byte[].class));
+    }
+
+    @Test
+    public void testWatchCreatedWhileValueIsWritten() throws Exception
+    {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch watchCreated = new CountDownLatch(1);
+        AtomicBoolean blockWrite = new AtomicBoolean(false);
+        when(eventWriter.writeEvent(any())).thenAnswer(
+            invocation ->
+            {
+                byte[] eventData = new byte[] {1};
+                if (blockWrite.get())
+                {
+                    writing.countDown();
+                    watchCreated.await();
+                    eventData = new byte[] {2};
+                }
+                return eventData;
+            }
+        );
+        List<byte[]> messages = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(
+            invocation ->
+            {
+                messages.add(invocation.getArgumentAt(0, byte[].class));
+                return true;
+            }
+        ).when(peer).sendMessage(any(byte[].class));
+
+        eventSender.createWatch(makeWatch());
+        eventSender.openEventStream(eventIdentifier);
+
+        blockWrite.set(true);
+        Thread triggerThread = new Thread(
+            () -> eventSender.triggerEvent(eventIdentifier, ApiConsts.EVENT_STREAM_VALUE)
+        );
+        triggerThread.start();
+        assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+        // the new watch receives the previous value as its initial state
+        eventSender.createWatch(makeWatch());
+        watchCreated.countDown();
+        triggerThread.join(TimeUnit.SECONDS.toMillis(10));
+
+        // both watches receive the new value
+        int newValueCount = 0;
+        for (byte[] message : messages)
+        {
+            if (Arrays.equals(new byte[] {0, 2}, message))
+            {
+                ++newValueCount;
+            }
+        }
+        assertEquals(2, newValueCount);
+        assertTrue(Arrays.equals(new byte[] {0, 2}, messages.get(messages.size() - 1)));
+    }
+
+    @Test
+    public void testOlderValueWrittenLaterNotCached() throws Exception
+    {
+        AtomicInteger state = new AtomicInteger(1);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch releaseWrite = new CountDownLatch(1);
+        AtomicBoolean blockWrite = new AtomicBoolean(false);
+        when(eventWriter.writeEvent(any())).thenAnswer(
+            invocation ->
+            {
+                byte[] eventData = new byte[] {(byte) state.get()};
+                if (blockWrite.compareAndSet(true, false))
+                {
+                    writing.countDown();
+                    releaseWrite.await();
+                }
+                return eventData;
+            }
+        );
+        List<byte[]> messages = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(
+            invocation ->
+            {
+                messages.add(invocation.getArgumentAt(0, byte[].class));
+                return true;
+            }
+        ).when(peer).sendMessage(any(byte[].class));
+
+        eventSender.createWatch(makeWatch());
+        eventSender.openEventStream(eventIdentifier);
+
+        // the first trigger writes state 2 and is held back until the second trigger has written state 3
+        state.set(2);
+        blockWrite.set(true);
+        Thread triggerThread = new Thread(
+            () -> eventSender.triggerEvent(eventIdentifier, ApiConsts.EVENT_STREAM_VALUE)
+        );
+        triggerThread.start();
+        assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+        state.set(3);
+        eventSender.triggerEvent(eventIdentifier, ApiConsts.EVENT_STREAM_VALUE);
+        releaseWrite.countDown();
+        triggerThread.join(TimeUnit.SECONDS.toMillis(10));
+
+        // the new watch receives the newest value from the cache
+        eventSender.createWatch(makeWatch());
+        verify(eventWriter, times(3)).writeEvent(any());
+        assertTrue(Arrays.equals(new byte[] {0, 3}, messages.get(messages.size() - 1)));
+    }
+
+    private Watch makeWatch()
+    {
+        return new Watch(
+            UUID.randomUUID(),
+            PEER_ID,
+            watchId++,
+            new EventIdentifier(null, new ObjectIdentifier(null, null, null, null))
+        );
+    }
+}
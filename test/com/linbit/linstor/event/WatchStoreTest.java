@@ -2,6 +2,7 @@ package com.linbit.linstor.event;
 
 import com.linbit.linstor.NodeName;
 import com.linbit.linstor.ResourceName;
+import com.linbit.linstor.SnapshotName;
 import com.linbit.linstor.VolumeNumber;
 import org.junit.Before;
 import org.junit.Test;
@@ -166,6 +167,82 @@ public class WatchStoreTest
             .containsExactlyInAnyOrder(globalWatch, volumeWatch);
     }
 
+    @Test
+    public void getWatchesOnlyForWatchedEventName()
+        throws Exception
+    {
+        Watch namedWatch = makeWatch(resourceEventIdentifier);
+        Watch allEventsWatch = makeWatch(EventIdentifier.resource(null, testNodeName, testResourceName));
+        watchStore.addWatch(namedWatch);
+        watchStore.addWatch(allEventsWatch);
+
+        assertThat(watchStore.getWatchesForEvent(volumeEventIdentifier))
+            .containsExactlyInAnyOrder(namedWatch, allEventsWatch);
+        assertThat(watchStore.getWatchesForEvent(
+            EventIdentifier.volume("OtherEventName", testNodeName, testResourceName, testVolumeNumber)
+        )).containsExactly(allEventsWatch);
+    }
+
+    @Test
+    public void getWatchesNodeAndSnapshotForSnapshotEvent()
+        throws Exception
+    {
+        SnapshotName testSnapshotName = new SnapshotName("TestSnapshotName");
+        Watch nodeWatch = makeWatch(EventIdentifier.node(TEST_EVENT_NAME, testNodeName));
+        Watch snapshotWatch = makeWatch(EventIdentifier.snapshot(
+            TEST_EVENT_NAME, testNodeName, testResourceName, testSnapshotName
+        ));
+        Watch snapshotDefinitionWatch = makeWatch(EventIdentifier.snapshotDefinition(
+            TEST_EVENT_NAME, testResourceName, testSnapshotName
+        ));
+        watchStore.addWatch(nodeWatch);
+        watchStore.addWatch(snapshotWatch);
+        watchStore.addWatch(snapshotDefinitionWatch);
+
+        assertThat(watchStore.getWatchesForEvent(EventIdentifier.snapshot(
+            TEST_EVENT_NAME, testNodeName, testResourceName, testSnapshotName
+        ))).containsExactlyInAnyOrder(nodeWatch, snapshotWatch, snapshotDefinitionWatch);
+        assertThat(watchStore.getWatchesForEvent(volumeEventIdentifier))
+            .containsExactly(nodeWatch);
+    }
+
+    @Test
+    public void getWatchesReflectsChanges()
+        throws Exception
+    {
+        Watch resourceWatch = makeWatch(resourceEventIdentifier);
+        watchStore.addWatch(resourceWatch);
+        Collection<Watch> watchesBefore = watchStore.getWatchesForEvent(volumeEventIdentifier);
+        assertThat(watchStore.getWatchesForEvent(volumeEventIdentifier)).isSameAs(watchesBefore);
+
+        Watch volumeWatch = makeWatch(volumeEventIdentifier);
+        watchStore.addWatch(volumeWatch);
+
+        // previously returned collections are not changed
+        assertThat(watchesBefore).containsExactly(resourceWatch);
+        assertThat(watchStore.getWatchesForEvent(volumeEventIdentifier))
+            .containsExactlyInAnyOrder(resourceWatch, volumeWatch);
+
+        watchStore.removeWatchesForObject(resourceEventIdentifier.getObjectIdentifier());
+
+        assertThat(watchStore.getWatchesForEvent(volumeEventIdentifier)).containsExactly(volumeWatch);
+        assertThat(watchStore.getWatchesForEvent(resourceEventIdentifier)).isEmpty();
+    }
+
+    @Test
+    public void eventCounterPerWatch()
+        throws Exception
+    {
+        Watch watch = new Watch(UUID.randomUUID(), "TestPeer", 1, resourceEventIdentifier);
+        Watch otherWatch = new Watch(UUID.randomUUID(), "TestPeer", 2, resourceEventIdentifier);
+        watchStore.addWatch(watch);
+        watchStore.addWatch(otherWatch);
+
+        assertThat(watchStore.getAndIncrementEventCounter(watch)).isEqualTo(1L);
+        assertThat(watchStore.getAndIncrementEventCounter(watch)).isEqualTo(2L);
+        assertThat(watchStore.getAndIncrementEventCounter(otherWatch)).isEqualTo(1L);
+    }
+
     private Watch makeWatch(EventIdentifier resourceEventIdentifier)
     {
         return new Watch(UUID.randomUUID(), null, 0, resourceEventIdentifier);
@@ -0,0 +1,70 @@
+package com.linbit.linstor.propscon;
+
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompactPropsStorageTest
+{
+    @SuppressWarnings("checkstyle:magicnumber")
+    @Test
+    public void testRoundTrip() throws Exception
+    {
+        Map<String, String> props = new HashMap<>();
+        props.put("", "empty key");
+        props.put("StorDriver/StorPoolName", "");
+        props.put("StorDriver/LvmVg", "linstor_vg");
+        props.put("StorDriver/LvmThinPool", "thin");
+        props.put("Aux/\uD83D\uDE00", "\uD83D\uDE00");
+        props.put("Aux/\uD83D\uDE01", "\u00E4\u00F6\u00FC");
+        StringBuilder longValue = new StringBuilder();
+        for (int idx = 0; idx < 1000; ++idx)
+        {
+            longValue.append(idx);
+        }
+        props.put("Long", longValue.toString());
+
+        assertEquals(props, CompactPropsStorage.decode(CompactPropsStorage.encode(props)));
+        assertTrue(CompactPropsStorage.decode(CompactPropsStorage.encode(new HashMap<>())).isEmpty());
+    }
+
+    @SuppressWarnings("checkstyle:magicnumber")
+    @Test
+    public void testSharedPrefixesAreNotRepeated()
+    {
+        Map<String, String> props = new HashMap<>();
+        for (int idx = 0; idx < 10; ++idx)
+        {
+            props.put("DrbdOptions/Resource/option" + idx, "");
+        }
+
+        int keyLength = 0;
+        for (String key : props.keySet())
+        {
+            keyLength += key.length();
+        }
+        assertTrue(CompactPropsStorage.encode(props).length < keyLength / 2);
+    }
+
+    @Test(expected = SQLException.class)
+    public void testUnknownFormatVersion() throws Exception
+    {
+        CompactPropsStorage.decode(new byte[] {(byte) (CompactPropsStorage.FORMAT_VERSION + 1), 0});
+    }
+
+    @Test(expected = SQLException.class)
+    public void testTruncatedData() throws Exception
+    {
+        Map<String, String> props = new HashMap<>();
+        props.put("key", "value");
+        byte[] data = CompactPropsStorage.encode(props);
+        byte[] truncated = new byte[data.length - 1];
+        System.arraycopy(data, 0, truncated, 0, truncated.length);
+        CompactPropsStorage.decode(truncated);
+    }
+}
@@ -38,7 +38,7 @@ public class PropsConGenericDbDriverBase extends GenericDbBase
     public void setUp() throws Exception
     {
         super.setUpAndEnterScope();
-        dbDriver = new PropsConGenericDbDriver(errorReporter, transMgrProvider);
+        dbDriver = new PropsConGenericDbDriver(errorReporter, transMgrProvider, dbConnPool);
     }
 
     protected String debugGetAllProps() throws SQLException
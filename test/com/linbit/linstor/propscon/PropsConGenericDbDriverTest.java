@@ -1,8 +1,10 @@
 package com.linbit.linstor.propscon;
 
+import com.linbit.linstor.dbcp.DbConnectionPool;
 import org.junit.Test;
 
 import java.sql.ResultSet;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -114,6 +116,111 @@ public class PropsConGenericDbDriverTest extends PropsConGenericDbDriverBase
         checkIfPresent(map2, expectedInstanceName2);
     }
 
+    @Test
+    public void testPersistOnCommit() throws Throwable
+    {
+        PropsContainer container = propsContainerFactory.getInstance(DEFAULT_INSTANCE_NAME);
+
+        container.setProp("a", "b");
+        container.setProp("a", "c");
+        container.setProp("d", "e");
+        container.removeProp("d");
+
+        // nothing is written until the transaction is committed
+        checkIfPresent(new HashMap<>(), DEFAULT_INSTANCE_NAME);
+
+        commit();
+
+        Map<String, String> map = new HashMap<>();
+        map.put("a", "c");
+        checkIfPresent(map, DEFAULT_INSTANCE_NAME);
+    }
+
+    @Test
+    public void testPersistRollback() throws Throwable
+    {
+        PropsContainer container = propsContainerFactory.getInstance(DEFAULT_INSTANCE_NAME);
+        Map<String, String> map = new HashMap<>();
+        map.put("a", "b");
+        container.setAllProps(map, null);
+        commit();
+
+        container.setProp("a", "c");
+        transMgrProvider.get().rollback();
+        commit();
+
+        assertEquals("b", container.getProp("a"));
+        checkIfPresent(map, DEFAULT_INSTANCE_NAME);
+    }
+
+    @Test
+    public void testPersistWithoutUpsert() throws Throwable
+    {
+        insert(DEFAULT_INSTANCE_NAME, "a", "b");
+        commit();
+
+        // without information about the database, the entries are deleted and inserted again
+        PropsConGenericDbDriver fallbackDriver = new PropsConGenericDbDriver(
+            errorReporter,
+            transMgrProvider,
+            new DbConnectionPool()
+        );
+        fallbackDriver.persist(DEFAULT_INSTANCE_NAME, "a", "c");
+        fallbackDriver.persist(DEFAULT_INSTANCE_NAME, "d", "e");
+        commit();
+
+        Map<String, String> map = new HashMap<>();
+        map.put("a", "c");
+        map.put("d", "e");
+        checkIfPresent(map, DEFAULT_INSTANCE_NAME);
+    }
+
+    @Test
+    public void testCompactStorage() throws Throwable
+    {
+        DbConnectionPool compactPool = new DbConnectionPool();
+        compactPool.setCompactProps(true);
+        PropsConGenericDbDriver compactDriver = new PropsConGenericDbDriver(
+            errorReporter,
+            transMgrProvider,
+            compactPool
+        );
+        compactDriver.persist(DEFAULT_INSTANCE_NAME, "a", "b");
+        compactDriver.persist(DEFAULT_INSTANCE_NAME, "a/b", "c");
+        compactDriver.persist(DEFAULT_INSTANCE_NAME, "d", "e");
+        compactDriver.remove(DEFAULT_INSTANCE_NAME, "d");
+
+        // uncommitted changes are visible in the same transaction
+        Map<String, String> expected = new HashMap<>();
+        expected.put("a", "b");
+        expected.put("a/b", "c");
+        assertEquals(expected, compactDriver.loadAll(DEFAULT_INSTANCE_NAME));
+        commit();
+
+        // no rows are written, all properties of the instance are stored in one entry
+        ResultSet resultSet = getAllProps();
+        assertFalse("Unexpected rows found in the database", resultSet.next());
+        resultSet.close();
+        assertEquals(expected, CompactPropsStorage.read(getConnection(), DEFAULT_INSTANCE_NAME));
+        assertEquals(expected, compactDriver.loadAll(DEFAULT_INSTANCE_NAME));
+
+        compactDriver.preloadAll();
+        assertEquals(expected, compactDriver.loadAll(DEFAULT_INSTANCE_NAME));
+        compactDriver.clearPreload();
+
+        compactDriver.removeAll(DEFAULT_INSTANCE_NAME);
+        compactDriver.persist(DEFAULT_INSTANCE_NAME, "f", "g");
+        commit();
+        assertEquals(
+            Collections.singletonMap("f", "g"),
+            CompactPropsStorage.read(getConnection(), DEFAULT_INSTANCE_NAME)
+        );
+
+        compactDriver.removeAll(DEFAULT_INSTANCE_NAME);
+        commit();
+        assertTrue(CompactPropsStorage.readAll(getConnection()).isEmpty());
+    }
+
     @Test
     public void testLoadSimple() throws Throwable
     {
@@ -205,4 +312,26 @@ public class PropsConGenericDbDriverTest extends PropsConGenericDbDriverBase
         checkExpectedMap(map1, props1);
         checkExpectedMap(map2, props2);
     }
+
+    @Test
+    public void testLoadPreloaded() throws Throwable
+    {
+        Map<String, String> map = new HashMap<>();
+        map.put("a", "b");
+        map.put("a/c", "d");
+        insert(DEFAULT_INSTANCE_NAME, map);
+
+        dbDriver.preloadAll();
+        // not part of the preloaded properties
+        insert(DEFAULT_INSTANCE_NAME, "e", "f");
+
+        assertEquals(map, dbDriver.loadAll(DEFAULT_INSTANCE_NAME));
+        assertTrue(dbDriver.loadAll("OTHER_INSTANCE").isEmpty());
+
+        // modifications discard the preloaded properties
+        dbDriver.persist(DEFAULT_INSTANCE_NAME, "g", "h");
+        map.put("e", "f");
+        map.put("g", "h");
+        assertEquals(map, dbDriver.loadAll(DEFAULT_INSTANCE_NAME));
+    }
 }
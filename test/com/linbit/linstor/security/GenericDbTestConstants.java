@@ -32,6 +32,7 @@ public interface GenericDbTestConstants
     String TBL_RESOURCE_CONNECTIONS  = "RESOURCE_CONNECTIONS";
     String TBL_VOLUME_CONNECTIONS    = "VOLUME_CONNECTIONS";
     String TBL_PROPS_CONTAINERS      = "PROPS_CONTAINERS";
+    String TBL_PROPS_CONTAINERS_COMPACT = "PROPS_CONTAINERS_COMPACT";
 
     // SEC_CONFIGURATION column names
     String ENTRY_KEY     = "ENTRY_KEY";
@@ -145,6 +146,7 @@ public interface GenericDbTestConstants
 
     // truncate statements
     String TRUNCATE_PROPS_CONTAINERS      = "DELETE FROM " + TBL_PROPS_CONTAINERS;
+    String TRUNCATE_PROPS_CONTAINERS_COMPACT = "DELETE FROM " + TBL_PROPS_CONTAINERS_COMPACT;
     String TRUNCATE_VOLUME_CONNECTIONS    = "DELETE FROM " + TBL_VOLUME_CONNECTIONS;
     String TRUNCATE_RESOURCE_CONNECTIONS  = "DELETE FROM " + TBL_RESOURCE_CONNECTIONS;
     String TRUNCATE_NODE_CONNECTIONS      = "DELETE FROM " + TBL_NODE_CONNECTIONS;
@@ -398,6 +400,7 @@ public interface GenericDbTestConstants
     String[] TRUNCATE_TABLES =
     {
         TRUNCATE_PROPS_CONTAINERS,
+        TRUNCATE_PROPS_CONTAINERS_COMPACT,
         TRUNCATE_VOLUME_CONNECTIONS,
         TRUNCATE_RESOURCE_CONNECTIONS,
         TRUNCATE_NODE_CONNECTIONS,
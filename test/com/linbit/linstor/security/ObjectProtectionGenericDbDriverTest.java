@@ -9,8 +9,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
+import javax.inject.Inject;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -35,6 +39,8 @@ public class ObjectProtectionGenericDbDriverTest extends GenericDbBase
     private static final String ROLES_INSERT =
         "INSERT INTO " + TBL_SEC_ROLES + " VALUES (?, ?, ?, ?, ?)";
 
+    @Inject private ObjectProtectionGenericDbDriver objProtDriver;
+
     @Before
     public void setUp() throws Exception
     {
@@ -236,4 +242,53 @@ public class ObjectProtectionGenericDbDriverTest extends GenericDbBase
 
         assertEquals(AccessType.CHANGE, objProt.getAcl().getEntry(SYS_CTX));
     }
+
+    @SuppressWarnings("checkstyle:magicnumber")
+    @Test
+    public void testLoadPreloadedObjProt() throws Exception
+    {
+        Connection con = getNewConnection();
+
+        final String objPath = "testPath";
+        final String otherObjPath = "otherTestPath";
+
+        PreparedStatement stmt = con.prepareStatement(OP_INSERT);
+        stmt.setString(1, objPath);
+        stmt.setString(2, SYS_CTX.subjectId.name.value);
+        stmt.setString(3, SYS_CTX.subjectRole.name.value);
+        stmt.setString(4, SYS_CTX.subjectDomain.name.value);
+        stmt.executeUpdate();
+        stmt.close();
+
+        stmt = con.prepareStatement(ACL_INSERT);
+        stmt.setString(1, objPath);
+        stmt.setString(2, SYS_CTX.subjectRole.name.value);
+        stmt.setShort(3, AccessType.CHANGE.getAccessMask());
+        stmt.executeUpdate();
+        stmt.close();
+
+        con.commit();
+
+        objProtDriver.preloadAll();
+
+        // not part of the preloaded rows
+        stmt = con.prepareStatement(OP_INSERT);
+        stmt.setString(1, otherObjPath);
+        stmt.setString(2, SYS_CTX.subjectId.name.value);
+        stmt.setString(3, SYS_CTX.subjectRole.name.value);
+        stmt.setString(4, SYS_CTX.subjectDomain.name.value);
+        stmt.executeUpdate();
+        stmt.close();
+
+        con.commit();
+        con.close();
+
+        ObjectProtection objProt = objProtDriver.loadObjectProtection(objPath, false);
+        assertEquals(SYS_CTX.subjectRole, objProt.getOwner());
+        assertEquals(AccessType.CHANGE, objProt.getAcl().getEntry(SYS_CTX));
+        assertNull(objProtDriver.loadObjectProtection(otherObjPath, false));
+
+        objProtDriver.clearPreload();
+        assertNotNull(objProtDriver.loadObjectProtection(otherObjPath, false));
+    }
 }
@@ -0,0 +1,64 @@
+package com.linbit.linstor.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class CapacityInfoTest
+{
+    private static final long GIB = 1024 * 1024;
+
+    @Test
+    public void testThick()
+    {
+        CapacityInfo info = CapacityInfo.thick(100 * GIB, 40 * GIB);
+
+        assertEquals(60 * GIB, info.getUsed());
+        assertEquals(60 * GIB, info.getVirtualAllocated());
+        assertEquals(40 * GIB, info.getFreeSize(CapacityInfo.OVERCOMMIT_UNLIMITED));
+        assertEquals(40 * GIB, info.getFreeSize(2.0));
+        assertEquals(0, info.getFreeSize(0.5));
+    }
+
+    @Test
+    public void testOvercommit()
+    {
+        CapacityInfo info = new CapacityInfo(100 * GIB, 10 * GIB, 180 * GIB, 0, 0);
+
+        assertEquals(90 * GIB, info.getFreeSize(CapacityInfo.OVERCOMMIT_UNLIMITED));
+        assertEquals(20 * GIB, info.getFreeSize(2.0));
+        assertEquals(0, info.getFreeSize(1.0));
+    }
+
+    @Test
+    public void testMetadataLimit()
+    {
+        // 80% of the metadata is used for 20% of the data, so only 5% of the data fits into the remaining metadata
+        CapacityInfo info = new CapacityInfo(100 * GIB, 20 * GIB, 20 * GIB, 100, 80);
+        assertEquals(5 * GIB, info.getFreeSize(CapacityInfo.OVERCOMMIT_UNLIMITED));
+
+        CapacityInfo fullMetadata = new CapacityInfo(100 * GIB, 20 * GIB, 20 * GIB, 100, 100);
+        assertEquals(0, fullMetadata.getFreeSize(CapacityInfo.OVERCOMMIT_UNLIMITED));
+    }
+
+    @Test
+    public void testParseZfsPoolCapacity()
+    {
+        CapacityInfo info = ZfsDriver.parsePoolCapacity(
+            "tank\t" + 30 * GIB * 1024 + "\t" + 70 * GIB * 1024 + "\t-\n" +
+            "tank/fs\t" + 1024 + "\t" + 70 * GIB * 1024 + "\t-\n" +
+            "tank/vol_00000\t" + 10 * GIB * 1024 + "\t" + 80 * GIB * 1024 + "\t" + 10 * GIB * 1024 + "\n" +
+            "tank/vol_00001\t" + 1024 + "\t" + 70 * GIB * 1024 + "\t" + 50 * GIB * 1024 + "\n",
+            "tank"
+        );
+
+        assertEquals(100 * GIB, info.getCapacity());
+        assertEquals(30 * GIB, info.getUsed());
+        assertEquals(60 * GIB, info.getVirtualAllocated());
+        assertEquals(70 * GIB, info.getFreeSize(CapacityInfo.OVERCOMMIT_UNLIMITED));
+        assertEquals(40 * GIB, info.getFreeSize(1.0));
+
+        assertNull(ZfsDriver.parsePoolCapacity("other\t0\t0\t-\n", "tank"));
+    }
+}
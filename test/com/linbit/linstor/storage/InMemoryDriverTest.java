@@ -0,0 +1,134 @@
+package com.linbit.linstor.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.linbit.linstor.testutils.EmptyErrorReporter;
+
+public class InMemoryDriverTest
+{
+    private static final long EXTENT_SIZE = 4096;
+    private static final long CAPACITY = 100 * EXTENT_SIZE;
+
+    private StorageDriver driver;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        driver = StorageDriverLoader.getKind("InMemoryDriver").makeStorageDriver(
+            new EmptyErrorReporter(),
+            null,
+            null,
+            null
+        );
+        Map<String, String> config = new HashMap<>();
+        config.put(StorageConstants.CONFIG_INMEM_CAPACITY_KEY, Long.toString(CAPACITY));
+        config.put(StorageConstants.CONFIG_INMEM_EXTENT_SIZE_KEY, Long.toString(EXTENT_SIZE));
+        driver.setConfiguration(config);
+    }
+
+    @Test
+    public void testCreateDelete() throws Exception
+    {
+        String path = driver.createVolume("vol_00000", 10 * EXTENT_SIZE - 1, null);
+
+        assertEquals(InMemoryDriver.DEVICE_DIR_DEFAULT + "/vol_00000", path);
+        assertTrue(driver.volumesExists("vol_00000", AbsStorageDriver.VolumeType.VOLUME));
+        assertEquals(10 * EXTENT_SIZE, driver.getSize("vol_00000"));
+        assertEquals(CAPACITY - 10 * EXTENT_SIZE, driver.getFreeSize());
+        driver.checkVolume("vol_00000", 10 * EXTENT_SIZE - 1);
+
+        driver.deleteVolume("vol_00000", false);
+
+        assertFalse(driver.volumesExists("vol_00000", AbsStorageDriver.VolumeType.VOLUME));
+        assertEquals(CAPACITY, driver.getFreeSize());
+    }
+
+    @Test(expected = StorageException.class)
+    public void testCreateExisting() throws Exception
+    {
+        driver.createVolume("vol_00000", EXTENT_SIZE, null);
+        driver.createVolume("vol_00000", EXTENT_SIZE, null);
+    }
+
+    @Test(expected = StorageException.class)
+    public void testCreateOutOfSpace() throws Exception
+    {
+        driver.createVolume("vol_00000", CAPACITY + 1, null);
+    }
+
+    @Test(expected = StorageException.class)
+    public void testStartMissing() throws Exception
+    {
+        driver.startVolume("vol_00000", null);
+    }
+
+    @Test
+    public void testSnapshots() throws Exception
+    {
+        driver.createVolume("vol_00000", 2 * EXTENT_SIZE, null);
+        driver.createSnapshot("vol_00000", "snap");
+        assertTrue(driver.volumesExists("vol_00000@snap", AbsStorageDriver.VolumeType.SNAPSHOT));
+        assertEquals(CAPACITY - 2 * EXTENT_SIZE, driver.getFreeSize());
+
+        driver.restoreSnapshot("vol_00000", "snap", "vol_00001", null);
+        assertEquals(2 * EXTENT_SIZE, driver.getSize("vol_00001"));
+        assertEquals(CAPACITY - 4 * EXTENT_SIZE, driver.getFreeSize());
+
+        driver.deleteSnapshot("vol_00000", "snap");
+        assertFalse(driver.volumesExists("vol_00000@snap", AbsStorageDriver.VolumeType.SNAPSHOT));
+    }
+
+    @Test
+    public void testFailureInjection() throws Exception
+    {
+        Map<String, String> config = new HashMap<>();
+        config.put(InMemoryDriver.Operation.CREATE.getFailRateKey(), "1.0");
+        config.put(InMemoryDriver.Operation.QUERY.getLatencyKey(), "0-1");
+        driver.setConfiguration(config);
+
+        try
+        {
+            driver.createVolume("vol_00000", EXTENT_SIZE, null);
+            fail("Injected failure expected");
+        }
+        catch (StorageException expected)
+        {
+            // expected
+        }
+        assertFalse(driver.volumesExists("vol_00000", AbsStorageDriver.VolumeType.VOLUME));
+    }
+
+    @Test
+    public void testInvalidConfig() throws Exception
+    {
+        expectInvalid(InMemoryDriver.Operation.CREATE.getFailRateKey(), "1.5");
+        expectInvalid(InMemoryDriver.Operation.CREATE.getLatencyKey(), "10-5");
+        expectInvalid(InMemoryDriver.Operation.CREATE.getLatencyKey(), "exp:abc");
+        expectInvalid(StorageConstants.CONFIG_INMEM_EXTENT_SIZE_KEY, "0");
+        expectInvalid(StorageConstants.CONFIG_INMEM_CAPACITY_KEY, "-1");
+    }
+
+    private void expectInvalid(String key, String value)
+    {
+        Map<String, String> config = new HashMap<>();
+        config.put(key, value);
+        try
+        {
+            driver.setConfiguration(config);
+            fail("Configuration " + key + "=" + value + " should have been rejected");
+        }
+        catch (StorageException expected)
+        {
+            // expected
+        }
+    }
+}
@@ -321,9 +321,35 @@ public class LvmThinDriverTest extends StorageTestUtils
     public void testFreeSize() throws StorageException
     {
         final long size = 1 * 1024 * 1024 * 1024;
-        expectVgsFreeSizeCommand(LVM_VGS_DEFAULT, LVM_VOLUME_GROUP_DEFAULT, size);
+        expectLvsThinPoolCapacityCommand(
+            LVM_LVS_DEFAULT,
+            LVM_VOLUME_GROUP_DEFAULT,
+            LVM_THIN_POOL_DEFAULT + ";;" + size + ".00;25.00;" + MB + ".00;1.00\n" +
+            "vol_00000;" + LVM_THIN_POOL_DEFAULT + ";" + size + ".00;25.00;;\n" +
+            "unrelated;;" + size + ".00;;;"
+        );
+
+        assertEquals(size - size / 4, driver.getFreeSize());
+    }
+
+    @Test
+    public void testFreeSizeOvercommit() throws StorageException
+    {
+        final HashMap<String, String> config = new HashMap<>();
+        config.put(StorageConstants.CONFIG_OVERCOMMIT_RATIO_KEY, "1.5");
+        expectCheckThinPool(LVM_VGS_DEFAULT, LVM_LVS_DEFAULT, LVM_VOLUME_GROUP_DEFAULT, LVM_THIN_POOL_DEFAULT);
+        driver.setConfiguration(config);
+
+        final long size = 1 * 1024 * 1024 * 1024;
+        expectLvsThinPoolCapacityCommand(
+            LVM_LVS_DEFAULT,
+            LVM_VOLUME_GROUP_DEFAULT,
+            LVM_THIN_POOL_DEFAULT + ";;" + size + ".00;10.00;" + MB + ".00;1.00\n" +
+            "vol_00000;" + LVM_THIN_POOL_DEFAULT + ";" + size + ".00;5.00;;\n" +
+            "vol_00001;" + LVM_THIN_POOL_DEFAULT + ";" + size / 4 + ".00;20.00;;"
+        );
 
-        assertEquals(size, driver.getFreeSize());
+        assertEquals(size / 4, driver.getFreeSize());
     }
 
     @Test(expected = StorageException.class)
@@ -393,6 +419,24 @@ public class LvmThinDriverTest extends StorageTestUtils
         ec.setExpectedBehavior(cmd, outData);
     }
 
+    private void expectLvsThinPoolCapacityCommand(
+        final String lvsCommand,
+        final String volumeGroup,
+        final String lvsOutput
+    )
+    {
+        final Command cmd = new Command(
+            lvsCommand,
+            "-o", "lv_name,pool_lv,lv_size,data_percent,lv_metadata_size,metadata_percent",
+            "--separator", ";",
+            "--noheadings",
+            "--units", "k",
+            "--nosuffix",
+            volumeGroup
+        );
+        ec.setExpectedBehavior(cmd, new TestOutputData(lvsOutput, "", 0));
+    }
+
     private void expectCheckThinPool(
         final String vgsCommand,
         final String lvsCommand,
@@ -87,9 +87,30 @@ public class StorageTestUtils
         Mockito.when(mockedStltCfgAccessor.useDmStats()).thenReturn(false);
 
 
+        FileSystemWatch mockedFileSystemWatch = Mockito.mock(FileSystemWatch.class);
+        Mockito.when(
+            mockedFileSystemWatch.waitFile(
+                Mockito.anyString(),
+                Mockito.any(Event.class),
+                Mockito.anyLong()
+            )
+        )
+            .thenAnswer(
+                invocation ->
+                {
+                    FileEntryGroupBuilder groupBuilder = new FileEntryGroupBuilder();
+                    groupBuilder.newEntry(
+                        (String) invocation.getArguments()[0],
+                        (Event) invocation.getArguments()[1]
+                    );
+                    groupBuilder.create(null).waitGroup((Long) invocation.getArguments()[2]);
+                    return 0L;
+                }
+            );
+
         driver = driverKind.makeStorageDriver(
             errRep,
-            Mockito.mock(FileSystemWatch.class),
+            mockedFileSystemWatch,
             timer,
             mockedStltCfgAccessor
         );
@@ -489,6 +489,26 @@ public class ZfsDriverTest extends StorageTestUtils
         assertEquals(size, driver.getFreeSize());
     }
 
+    @Test
+    public void testFreeSizeOvercommit() throws StorageException
+    {
+        final HashMap<String, String> config = new HashMap<>();
+        config.put(StorageConstants.CONFIG_OVERCOMMIT_RATIO_KEY, "2");
+        expectCheckPoolName(ZFS_COMMAND_DEFAULT, ZFS_POOL_DEFAULT);
+        driver.setConfiguration(config);
+
+        final long size = 1 * 1024 * 1024; // 1GB
+        expectZfsCapacityCommand(
+            ZFS_COMMAND_DEFAULT,
+            ZFS_POOL_DEFAULT,
+            ZFS_POOL_DEFAULT + "\t" + size * MB + "\t" + 3 * size * MB + "\t-\n" +
+            ZFS_POOL_DEFAULT + "/vol_00000\t" + size * MB + "\t" + 3 * size * MB + "\t" + 7 * size * MB + "\n",
+            true
+        );
+
+        assertEquals(size, driver.getFreeSize());
+    }
+
     @Test
     public void testTraits() throws StorageException
     {
@@ -516,6 +536,7 @@ public class ZfsDriverTest extends StorageTestUtils
         assertTrue(keys.remove(StorageConstants.CONFIG_ZFS_COMMAND_KEY));
         assertTrue(keys.remove(StorageConstants.CONFIG_ZFS_POOL_KEY));
         assertTrue(keys.remove(StorageConstants.CONFIG_SIZE_ALIGN_TOLERANCE_KEY));
+        assertTrue(keys.remove(StorageConstants.CONFIG_OVERCOMMIT_RATIO_KEY));
 
         assertTrue(keys.isEmpty());
     }
@@ -646,7 +667,43 @@ public class ZfsDriverTest extends StorageTestUtils
         boolean poolExists
     )
     {
-        expectZfsSizeCommand(zfsCommand, "available", pool, size, poolExists);
+        expectZfsCapacityCommand(
+            zfsCommand,
+            pool,
+            poolExists ? pool + "\t0\t" + size * MB + "\t-\n" : "",
+            poolExists
+        );
+    }
+
+    protected void expectZfsCapacityCommand(
+        final String zfsCommand,
+        final String pool,
+        final String listOutput,
+        boolean poolExists
+    )
+    {
+        Command command = new Command(
+            zfsCommand,
+            "list", "-Hp", "-r",
+            "-t", "filesystem,volume",
+            "-o", "name,used,available,volsize",
+            pool
+        );
+        OutputData outData;
+        if (poolExists)
+        {
+            outData = new TestOutputData(listOutput, "", 0);
+        }
+        else
+        {
+            outData = new TestOutputData(
+                "",
+                "cannot open '" + pool + "': dataset does not exist",
+                1
+            );
+        }
+
+        ec.setExpectedBehavior(command, outData);
     }
 
     protected void expectZfsSizeCommand(